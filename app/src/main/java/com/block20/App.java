@@ -4,10 +4,12 @@
  */
 package com.block20;
 
+import com.block20.services.ServiceContext;
 import com.block20.views.LoginGatewayView;
 import com.block20.views.MemberPortalView;
 import com.block20.views.StaffPortalView;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -19,6 +21,16 @@ public class App extends Application {
     
     private Stage primaryStage;
     private Scene scene;
+    private ServiceContext services;
+
+    /**
+     * Open local data and start background services before the first
+     * screen is shown; runs off the FX thread
+     */
+    @Override
+    public void init() {
+        services = new ServiceContext(Platform::runLater);
+    }
     
     @Override
     public void start(Stage primaryStage) {
@@ -89,7 +101,7 @@ public class App extends Application {
         String staffName = "Staff " + staffId;
         String staffRole = "STAFF";
         
-        StaffPortalView staffPortal = new StaffPortalView(staffName, staffRole);
+        StaffPortalView staffPortal = new StaffPortalView(staffName, staffRole, services);
         
         scene = new Scene(staffPortal.getView(), 1400, 900);
         
@@ -108,6 +120,13 @@ public class App extends Application {
         showLoginGateway();
     }
 
+    @Override
+    public void stop() {
+        if (services != null) {
+            services.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
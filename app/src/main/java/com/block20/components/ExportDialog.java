@@ -0,0 +1,71 @@
+/*
+ * Block20 Gym Management System
+ * Export dialog - save an export source to a file in the background
+ */
+package com.block20.components;
+
+import com.block20.services.transfer.DataExporter;
+import com.block20.services.transfer.ExportSource;
+import javafx.concurrent.Task;
+import javafx.scene.control.Alert;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Asks where to save, then streams the rows to the file off the FX thread
+ * with progress and a Cancel button
+ */
+public final class ExportDialog {
+
+    private ExportDialog() {
+    }
+
+    /**
+     * @param title report name; used for the file name and worksheet title
+     */
+    public static void export(Window owner, DataExporter exporter, ExportSource source,
+                              DataExporter.Format format, String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + title);
+        chooser.setInitialFileName(title.replace(" ", "_") + "_"
+            + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "." + format.getExtension());
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+            format.name() + " files", "*." + format.getExtension()));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) {
+            return;
+        }
+
+        Task<Long> task = new Task<Long>() {
+            @Override
+            protected Long call() throws Exception {
+                updateMessage("Preparing...");
+                long expected = source.estimateRows();
+                return exporter.export(source, format, file.toPath(), title, rows -> {
+                    updateProgress(expected > 0 ? rows : -1, expected > 0 ? expected : 1);
+                    updateMessage(String.format("%,d rows written", rows));
+                });
+            }
+        };
+        task.setOnSucceeded(e -> showResult(Alert.AlertType.INFORMATION, "Export complete",
+            String.format("%,d rows exported to %s", task.getValue(), file.getName())));
+        task.setOnFailed(e -> showResult(Alert.AlertType.ERROR, "Export failed",
+            String.valueOf(task.getException().getMessage())));
+        task.setOnCancelled(e -> showResult(Alert.AlertType.INFORMATION, "Export cancelled",
+            "No file was written."));
+
+        TaskProgressDialog.run(task, "Export " + title, "Exporting to " + file.getName(), "report-export");
+    }
+
+    private static void showResult(Alert.AlertType type, String header, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle("Export");
+        alert.setHeaderText(header);
+        alert.setContentText(message);
+        alert.show();
+    }
+}
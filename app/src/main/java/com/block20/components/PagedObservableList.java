@@ -0,0 +1,258 @@
+/*
+ * Block20 Gym Management System
+ * Lazily paged observable list
+ */
+package com.block20.components;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Observable list that only holds the pages somebody is looking at.
+ *
+ * The list reports the full row count, but rows are fetched a page at a
+ * time when a table first asks for them; until then they read as a
+ * placeholder. A page next to a loaded one is fetched by key (the rows
+ * after the previous page's last row, or before the next page's first),
+ * and reading near the edge of a page prefetches its neighbour. Only the
+ * most recently used pages are kept, so memory stays the same for 500 or
+ * 500,000 rows.
+ *
+ * Must be used from the FX thread; fetches run on the loader executor.
+ */
+public class PagedObservableList<T> extends ObservableListBase<T> {
+
+    /**
+     * Where pages come from. Each call may block.
+     */
+    public interface PageSource<T> {
+        int count() throws Exception;
+
+        List<T> after(T last, int limit) throws Exception;
+
+        List<T> before(T first, int limit) throws Exception;
+
+        List<T> at(int offset, int limit) throws Exception;
+    }
+
+    private final T placeholder;
+    private final int pageSize;
+    private final int maxPages;
+    private final Executor loader;
+    private final Executor uiExecutor;
+
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Integer> pending = new HashSet<>();
+    private PageSource<T> source;
+    private int size;
+    private int generation;
+    // A refresh is waiting for its row count; pages are not fetched meanwhile
+    private boolean counting;
+
+    /**
+     * @param placeholder row shown while its page loads
+     * @param maxPages    pages kept in memory, including prefetched ones
+     * @param uiExecutor  where results are applied, e.g. {@code Platform::runLater}
+     */
+    public PagedObservableList(PageSource<T> source, T placeholder, int pageSize, int maxPages,
+                               Executor loader, Executor uiExecutor) {
+        this.source = source;
+        this.placeholder = placeholder;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.loader = loader;
+        this.uiExecutor = uiExecutor;
+    }
+
+    public T getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Switch to another source (e.g. a new sort order) and reload
+     */
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        refresh();
+    }
+
+    /**
+     * Re-read the row count, then drop every loaded page. Loaded rows stay
+     * on screen until the count arrives and are fetched again as they are
+     * displayed.
+     */
+    public void refresh() {
+        int ticket = ++generation;
+        pending.clear();
+        counting = true;
+        PageSource<T> current = source;
+        loader.execute(() -> {
+            try {
+                int count = current.count();
+                uiExecutor.execute(() -> {
+                    if (ticket == generation) {
+                        List<T> removed = shownRows();
+                        pages.clear();
+                        counting = false;
+                        size = count;
+                        beginChange();
+                        nextReplace(0, size, removed);
+                        endChange();
+                    }
+                });
+            } catch (Exception e) {
+                System.err.println("Could not count rows: " + e.getMessage());
+                uiExecutor.execute(() -> {
+                    if (ticket == generation) {
+                        counting = false;
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int pageIndex = index / pageSize;
+        int offset = index % pageSize;
+        List<T> page = pages.get(pageIndex);
+        if (page == null) {
+            load(pageIndex);
+            return placeholder;
+        }
+        // Prefetch in the direction the reader is heading
+        if (offset >= pageSize * 3 / 4 && (pageIndex + 1) * pageSize < size) {
+            load(pageIndex + 1);
+        } else if (offset < pageSize / 4 && pageIndex > 0) {
+            load(pageIndex - 1);
+        }
+        return offset < page.size() ? page.get(offset) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of pages currently held in memory
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    private void load(int pageIndex) {
+        if (counting || pages.containsKey(pageIndex) || !pending.add(pageIndex)) {
+            return;
+        }
+        Callable<List<T>> fetch = fetchFor(pageIndex);
+        int ticket = generation;
+        loader.execute(() -> {
+            List<T> rows;
+            try {
+                rows = fetch.call();
+            } catch (Exception e) {
+                System.err.println("Could not load page " + pageIndex + ": " + e.getMessage());
+                uiExecutor.execute(() -> {
+                    if (ticket == generation) {
+                        pending.remove(pageIndex);
+                    }
+                });
+                return;
+            }
+            uiExecutor.execute(() -> install(ticket, pageIndex, rows));
+        });
+    }
+
+    /**
+     * Seek from a loaded neighbour when there is one, else fall back to an offset
+     */
+    private Callable<List<T>> fetchFor(int pageIndex) {
+        PageSource<T> current = source;
+        List<T> previous = pages.get(pageIndex - 1);
+        if (previous != null && previous.size() == pageSize) {
+            T last = previous.get(previous.size() - 1);
+            return () -> current.after(last, pageSize);
+        }
+        List<T> next = pages.get(pageIndex + 1);
+        if (next != null && !next.isEmpty()) {
+            T first = next.get(0);
+            return () -> current.before(first, pageSize);
+        }
+        return () -> current.at(pageIndex * pageSize, pageSize);
+    }
+
+    private void install(int ticket, int pageIndex, List<T> rows) {
+        if (ticket != generation) {
+            return;
+        }
+        pending.remove(pageIndex);
+        pages.put(pageIndex, rows);
+        rowsChanged(pageIndex, Collections.emptyList());
+
+        // Least recently read pages go back to placeholders
+        Iterator<Map.Entry<Integer, List<T>>> eldest = pages.entrySet().iterator();
+        while (pages.size() > maxPages) {
+            Map.Entry<Integer, List<T>> entry = eldest.next();
+            eldest.remove();
+            rowsChanged(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Every row as currently shown, loaded or placeholder. A view over a
+     * copy of the loaded pages, so it stays small for any row count.
+     */
+    private List<T> shownRows() {
+        Map<Integer, List<T>> shown = new HashMap<>(pages);
+        int shownSize = size;
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                List<T> page = shown.get(index / pageSize);
+                int offset = index % pageSize;
+                return page != null && offset < page.size() ? page.get(offset) : placeholder;
+            }
+
+            @Override
+            public int size() {
+                return shownSize;
+            }
+        };
+    }
+
+    /**
+     * Tell listeners a page's rows were swapped in place
+     *
+     * @param before rows shown until now; any past its end were placeholders
+     */
+    private void rowsChanged(int pageIndex, List<T> before) {
+        int from = pageIndex * pageSize;
+        int to = Math.min(size, from + pageSize);
+        if (from >= to) {
+            return;
+        }
+        List<T> removed = new ArrayList<>(to - from);
+        for (int i = 0; i < to - from; i++) {
+            removed.add(i < before.size() ? before.get(i) : placeholder);
+        }
+        beginChange();
+        nextReplace(from, to, removed);
+        endChange();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Block20 Gym Management System
+ * Bounded newest-first observable list
+ */
+package com.block20.components;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity observable list backed by a circular array, newest item
+ * at index 0.
+ *
+ * Inserting at the head is O(1) and, once full, silently drops the oldest
+ * item. Each insert fires a single precise change (added at the head,
+ * removed at the tail), so a bound ListView only lays out the rows that
+ * actually moved instead of rebuilding the whole list.
+ */
+public class RingBufferObservableList<E> extends ObservableListBase<E> {
+
+    private final Object[] items;
+    private int head;
+    private int size;
+
+    public RingBufferObservableList(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.items = new Object[capacity];
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return (E) items[(head + index) % items.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert one item at the head
+     */
+    public void addFirst(E item) {
+        addAllFirst(List.of(item));
+    }
+
+    /**
+     * Insert items at the head in one change. The list is given oldest
+     * first, so its last element ends up at index 0.
+     */
+    public void addAllFirst(List<? extends E> newestLast) {
+        if (newestLast.isEmpty()) {
+            return;
+        }
+        // Only the newest `capacity` items can survive
+        List<? extends E> incoming = newestLast.size() > items.length
+            ? newestLast.subList(newestLast.size() - items.length, newestLast.size())
+            : newestLast;
+        int added = incoming.size();
+        int overflow = Math.max(0, size + added - items.length);
+
+        beginChange();
+        try {
+            if (overflow > 0) {
+                List<E> removed = new ArrayList<>(overflow);
+                for (int i = size - overflow; i < size; i++) {
+                    removed.add(get(i));
+                }
+                nextRemove(size - overflow, removed);
+                size -= overflow;
+            }
+            for (E item : incoming) {
+                head = (head - 1 + items.length) % items.length;
+                items[head] = item;
+            }
+            size += added;
+            nextAdd(0, added);
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        beginChange();
+        try {
+            List<E> removed = new ArrayList<>(this);
+            for (int i = 0; i < items.length; i++) {
+                items[i] = null;
+            }
+            head = 0;
+            size = 0;
+            nextRemove(0, removed);
+        } finally {
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Block20 Gym Management System
+ * Progress dialog for background tasks
+ */
+package com.block20.components;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+
+/**
+ * Runs a {@link Task} on its own daemon thread and shows its progress and
+ * message with a Cancel button. The dialog closes itself when the task
+ * ends; callers react through the task's succeeded, failed and cancelled
+ * handlers.
+ */
+public final class TaskProgressDialog {
+
+    private TaskProgressDialog() {
+    }
+
+    public static void run(Task<?> task, String title, String header, String threadName) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(360);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label progressText = new Label();
+        progressText.textProperty().bind(task.messageProperty());
+        VBox body = new VBox(12, progressBar, progressText);
+        body.setPadding(new Insets(8, 0, 0, 0));
+        dialog.getDialogPane().setContent(body);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        dialog.setResultConverter(button -> {
+            task.cancel();
+            return button;
+        });
+
+        task.stateProperty().addListener((obs, old, state) -> {
+            if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED
+                    || state == Worker.State.CANCELLED) {
+                dialog.close();
+            }
+        });
+
+        Thread worker = new Thread(task, threadName);
+        worker.setDaemon(true);
+        worker.start();
+        dialog.show();
+    }
+}
@@ -1,5 +1,9 @@
 package com.block20.controllers;
 
+import com.block20.components.ExportDialog;
+import com.block20.services.ServiceContext;
+import com.block20.services.transfer.DataExporter;
+import com.block20.services.transfer.ExportSource;
 import javafx.geometry.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -32,9 +36,11 @@ public class FinancialReportsController extends ScrollPane {
     
     // Navigation
     private Consumer<String> navigationHandler;
+    private final ServiceContext services;
     
-    public FinancialReportsController(Consumer<String> navigationHandler) {
+    public FinancialReportsController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.services = services;
         
         initializeUI();
         generateMockData();
@@ -455,18 +461,18 @@ public class FinancialReportsController extends ScrollPane {
     }
     
     private void exportReport(String format) {
-        System.out.println("Exporting " + currentReportType + " to " + format + " format");
-        System.out.println("Report period: " + fromDate + " to " + toDate);
-        System.out.println("Group by: " + groupBy);
-        
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Export Successful");
-        alert.setHeaderText(null);
-        alert.setContentText("Report exported successfully to " + format + " format.\n" +
-                            "File: " + currentReportType.replace(" ", "_") + "_" + 
-                            LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "." + 
-                            format.toLowerCase());
-        alert.showAndWait();
+        if (format.equals("PDF")) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Export");
+            alert.setHeaderText(null);
+            alert.setContentText("PDF export is not available yet. Export to Excel or CSV instead.");
+            alert.showAndWait();
+            return;
+        }
+        // Payments are not recorded yet; members with their plan, fee and last payment are what billing has
+        ExportSource source = services.memberExportSource();
+        DataExporter.Format fileFormat = format.equals("Excel") ? DataExporter.Format.XLSX : DataExporter.Format.CSV;
+        ExportDialog.export(getScene().getWindow(), services.getDataExporter(), source, fileFormat, currentReportType);
     }
     
     private void generateMockData() {
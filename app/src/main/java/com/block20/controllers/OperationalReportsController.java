@@ -1,5 +1,10 @@
 package com.block20.controllers;
 
+import com.block20.services.ServiceContext;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.components.ExportDialog;
+import com.block20.services.transfer.DataExporter;
+import com.block20.services.transfer.ExportSource;
 import javafx.geometry.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -7,6 +12,7 @@ import javafx.collections.*;
 import javafx.beans.property.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.function.Consumer;
 
@@ -32,9 +38,13 @@ public class OperationalReportsController extends ScrollPane {
     
     // Navigation
     private Consumer<String> navigationHandler;
+    private final OccupancyHistory occupancyHistory;
+    private final ServiceContext services;
     
-    public OperationalReportsController(Consumer<String> navigationHandler) {
+    public OperationalReportsController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.services = services;
+        this.occupancyHistory = services.getOccupancyHistory();
         
         initializeUI();
         generateMockData();
@@ -266,7 +276,7 @@ public class OperationalReportsController extends ScrollPane {
         
         VBox totalVisitsCard = createMetricCard("Total Visits", "1,847", "positive-card");
         VBox avgSessionDurationCard = createMetricCard("Avg Session Duration", "67 min", "revenue-card");
-        VBox peakHourCard = createMetricCard("Peak Hour", "6-7 PM", "warning-card");
+        VBox peakHourCard = createMetricCard("Peak Hour", detectPeakHour(), "warning-card");
         VBox staffCoverageCard = createMetricCard("Staff Coverage", "94%", "positive-card");
         
         summaryCards.getChildren().addAll(totalVisitsCard, avgSessionDurationCard, peakHourCard, staffCoverageCard);
@@ -487,6 +497,29 @@ public class OperationalReportsController extends ScrollPane {
         return content;
     }
     
+    /**
+     * Busiest hour of day in the selected period, from recorded occupancy
+     */
+    private String detectPeakHour() {
+        int hour = occupancyHistory.peakHourOfDay(fromDate, toDate, ZoneId.systemDefault(),
+            System.currentTimeMillis());
+        if (hour < 0) {
+            return "No data";
+        }
+        // Same style as the table: "6-7 PM", or "11 AM-12 PM" across noon
+        int next = (hour + 1) % 24;
+        String start = (hour < 12) == (next < 12) ? String.valueOf(twelveHour(hour)) : formatHour(hour);
+        return start + "-" + formatHour(next);
+    }
+    
+    private static String formatHour(int hour) {
+        return twelveHour(hour) + (hour < 12 ? " AM" : " PM");
+    }
+    
+    private static int twelveHour(int hour) {
+        return hour % 12 == 0 ? 12 : hour % 12;
+    }
+    
     private VBox createMetricCard(String title, String value, String styleClass) {
         VBox card = new VBox(5);
         card.getStyleClass().addAll("metric-card", styleClass);
@@ -504,18 +537,18 @@ public class OperationalReportsController extends ScrollPane {
     }
     
     private void exportReport(String format) {
-        System.out.println("Exporting " + currentReportType + " to " + format + " format");
-        System.out.println("Report period: " + fromDate + " to " + toDate);
-        System.out.println("Group by: " + groupBy);
-        
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Export Successful");
-        alert.setHeaderText(null);
-        alert.setContentText("Report exported successfully to " + format + " format.\n" +
-                            "File: " + currentReportType.replace(" ", "_") + "_" + 
-                            LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "." + 
-                            format.toLowerCase());
-        alert.showAndWait();
+        if (format.equals("PDF")) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Export");
+            alert.setHeaderText(null);
+            alert.setContentText("PDF export is not available yet. Export to Excel or CSV instead.");
+            alert.showAndWait();
+            return;
+        }
+        // Door events for the selected period, streamed to the file as they are read
+        ExportSource source = services.checkInExportSource(fromDate, toDate);
+        DataExporter.Format fileFormat = format.equals("Excel") ? DataExporter.Format.XLSX : DataExporter.Format.CSV;
+        ExportDialog.export(getScene().getWindow(), services.getDataExporter(), source, fileFormat, currentReportType);
     }
     
     private void generateMockData() {
@@ -1,12 +1,19 @@
 package com.block20.controllers.enrollment;
 
+import com.block20.models.Member;
+import com.block20.models.Payment;
+import com.block20.services.ServiceContext;
+import com.block20.services.members.MembershipService;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -25,9 +32,12 @@ public class EnrollmentController extends ScrollPane {
     // Form data storage
     private EnrollmentData enrollmentData;
     private Consumer<String> navigationHandler;
+    private final MembershipService membershipService;
+    private boolean saving;
     
-    public EnrollmentController(Consumer<String> navigationHandler) {
+    public EnrollmentController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.membershipService = services.getMembershipService();
         this.enrollmentData = new EnrollmentData();
         initialize();
     }
@@ -833,10 +843,8 @@ public class EnrollmentController extends ScrollPane {
         Button doneButton = new Button("✓ Done");
         doneButton.getStyleClass().addAll("btn", "btn-success");
         doneButton.setOnAction(e -> {
-            // Save enrollment data locally
+            // Save enrollment data, then open the member registry
             saveEnrollment();
-            // Navigate to member registry
-            navigationHandler.accept("members-registry");
         });
         
         actionButtons.getChildren().addAll(printButton, emailButton, doneButton);
@@ -879,7 +887,6 @@ public class EnrollmentController extends ScrollPane {
             } else {
                 // Complete enrollment
                 saveEnrollment();
-                navigationHandler.accept("members-registry");
             }
         }
     }
@@ -949,10 +956,21 @@ public class EnrollmentController extends ScrollPane {
         
         // In real implementation, this would call payment gateway
         enrollmentData.paymentStatus = "Completed";
-        enrollmentData.transactionId = "TXN" + System.currentTimeMillis();
+        // One ID per enrollment, so going back and saving again is not a second payment
+        if (enrollmentData.transactionId == null) {
+            enrollmentData.transactionId = "TXN" + System.currentTimeMillis();
+        }
     }
 
+    /**
+     * Save the new member in the background and open the registry once it
+     * is stored. The screen stays responsive while the database is slow.
+     */
     private void saveEnrollment() {
+        if (saving) {
+            return;
+        }
+        saving = true;
         System.out.println("=== Enrollment Completed ===");
         System.out.println("Member ID: " + enrollmentData.memberId);
         System.out.println("Name: " + enrollmentData.fullName);
@@ -966,7 +984,38 @@ public class EnrollmentController extends ScrollPane {
         System.out.println("Expiry Date: " + enrollmentData.expiryDate);
         System.out.println("========================");
         
-        // TODO: Save to database/file system
+        // Publishing to the directory also updates the search index
+        String emergencyContact = enrollmentData.emergencyContactName
+            + (enrollmentData.emergencyContactPhone != null ? " - " + enrollmentData.emergencyContactPhone : "");
+        Member member = new Member(
+            enrollmentData.memberId, enrollmentData.fullName, enrollmentData.email, enrollmentData.phone,
+            enrollmentData.selectedPlan, "Active",
+            enrollmentData.startDate.toString(), enrollmentData.expiryDate.toString(), enrollmentData.startDate.toString(),
+            String.format("%.2f", enrollmentData.planPrice),
+            emergencyContact, enrollmentData.address != null ? enrollmentData.address : "");
+        Payment payment = new Payment(enrollmentData.transactionId, enrollmentData.memberId,
+            BigDecimal.valueOf(enrollmentData.totalAmount).setScale(2, RoundingMode.HALF_UP),
+            enrollmentData.paymentMethod, enrollmentData.startDate, "");
+
+        // Completes on the FX thread
+        membershipService.enroll(member, payment).whenComplete((saved, error) -> {
+            saving = false;
+            if (error != null) {
+                showSaveError(error);
+                return;
+            }
+            navigationHandler.accept("members-registry");
+        });
+    }
+
+    private void showSaveError(Throwable error) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Enrollment Not Saved");
+        alert.setHeaderText("The enrollment could not be saved");
+        alert.setContentText(error instanceof TimeoutException
+            ? "The database did not respond in time. Please try again."
+            : error.getMessage());
+        alert.showAndWait();
     }
 
     private void handleCancel() {
@@ -4,6 +4,9 @@
  */
 package com.block20.controllers.equipment;
 
+import com.block20.models.Equipment;
+import com.block20.services.ServiceContext;
+import com.block20.services.equipment.EquipmentService;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -13,6 +16,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -26,6 +30,8 @@ public class EquipmentInventoryController extends ScrollPane {
     
     private VBox contentContainer;
     private Consumer<String> navigationHandler;
+    private final EquipmentService equipmentService;
+    private HBox statsBar;
     private VBox tableRows;
     private List<EquipmentData> equipmentList;
     
@@ -35,10 +41,40 @@ public class EquipmentInventoryController extends ScrollPane {
     /**
      * Constructor
      */
-    public EquipmentInventoryController(Consumer<String> navigationHandler) {
+    public EquipmentInventoryController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
-        this.equipmentList = generateMockEquipment();
+        this.equipmentService = services.getEquipmentService();
+        this.equipmentList = new ArrayList<>();
         initializeView();
+        loadEquipment();
+    }
+    
+    /**
+     * Show the stored inventory, read through the repository cache so
+     * returning to this screen does not query the database again. The
+     * demo inventory stands in when nothing is stored.
+     */
+    private void loadEquipment() {
+        // Completes on the FX thread
+        equipmentService.loadInventory().whenComplete((stored, error) -> {
+            if (error != null) {
+                Alert failed = new Alert(Alert.AlertType.ERROR);
+                failed.setTitle("Not Loaded");
+                failed.setHeaderText("Equipment Could Not Be Loaded");
+                failed.setContentText(error instanceof TimeoutException
+                    ? "The database did not respond in time. Please try again."
+                    : error.getMessage());
+                failed.showAndWait();
+                return;
+            }
+            equipmentList = stored.map(EquipmentInventoryController::toEquipmentData)
+                .orElseGet(this::generateMockEquipment);
+            refreshStats();
+            tableRows.getChildren().clear();
+            for (EquipmentData equipment : equipmentList) {
+                tableRows.getChildren().add(createTableRow(equipment));
+            }
+        });
     }
     
     /**
@@ -129,24 +165,29 @@ public class EquipmentInventoryController extends ScrollPane {
      * Create stats bar
      */
     private HBox createStatsBar() {
-        HBox statsBar = new HBox(20);
+        statsBar = new HBox(20);
         statsBar.setAlignment(Pos.CENTER_LEFT);
         statsBar.setPadding(new Insets(15));
         statsBar.getStyleClass().add("stats-bar");
-        
+        refreshStats();
+        return statsBar;
+    }
+    
+    /**
+     * Recount the stats bar from the equipment list
+     */
+    private void refreshStats() {
         long totalCount = equipmentList.size();
         long operationalCount = equipmentList.stream().filter(e -> e.status.equals("Operational")).count();
         long maintenanceCount = equipmentList.stream().filter(e -> e.status.equals("Under Maintenance")).count();
         long outOfServiceCount = equipmentList.stream().filter(e -> e.status.equals("Out of Service")).count();
         
-        statsBar.getChildren().addAll(
+        statsBar.getChildren().setAll(
             createStatItem("Total Equipment", String.valueOf(totalCount), "#3B82F6"),
             createStatItem("Operational", String.valueOf(operationalCount), "#10B981"),
             createStatItem("Under Maintenance", String.valueOf(maintenanceCount), "#F59E0B"),
             createStatItem("Out of Service", String.valueOf(outOfServiceCount), "#EF4444")
         );
-        
-        return statsBar;
     }
     
     /**
@@ -277,7 +318,7 @@ public class EquipmentInventoryController extends ScrollPane {
         }
         
         // Purchase Date
-        Label purchaseLabel = new Label(equipment.purchaseDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
+        Label purchaseLabel = new Label(formatDate(equipment.purchaseDate));
         purchaseLabel.setPrefWidth(130);
         purchaseLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #6B7280;");
         
@@ -411,7 +452,7 @@ public class EquipmentInventoryController extends ScrollPane {
                 }
                 
                 // Generate equipment ID
-                String equipmentId = "EQ" + (1001 + equipmentList.size());
+                String equipmentId = nextEquipmentId();
                 
                 System.out.println("\n=== New Equipment Added ===");
                 System.out.println("Equipment ID: " + equipmentId);
@@ -441,17 +482,35 @@ public class EquipmentInventoryController extends ScrollPane {
                 newEquipment.status = statusBox.getValue();
                 newEquipment.notes = notesArea.getText();
                 
-                equipmentList.add(newEquipment);
-                tableRows.getChildren().add(createTableRow(newEquipment));
-                
-                // Show success
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText("Equipment Added Successfully");
-                success.setContentText("Equipment ID: " + equipmentId + "\n" +
-                                      "Name: " + nameField.getText() + "\n" +
-                                      "Category: " + categoryBox.getValue());
-                success.showAndWait();
+                Equipment equipment = new Equipment(equipmentId, newEquipment.name, newEquipment.category,
+                    newEquipment.zone, newEquipment.serialNumber, newEquipment.purchaseDate,
+                    newEquipment.warrantyExpiry, newEquipment.status, newEquipment.notes);
+                // Saved in the background; completes on the FX thread
+                equipmentService.addEquipment(equipment).whenComplete((stored, error) -> {
+                    if (error != null) {
+                        Alert failed = new Alert(Alert.AlertType.ERROR);
+                        failed.setTitle("Not Saved");
+                        failed.setHeaderText("Equipment Not Added");
+                        failed.setContentText(error instanceof TimeoutException
+                            ? "The database did not respond in time. Please try again."
+                            : error.getMessage());
+                        failed.showAndWait();
+                        return;
+                    }
+                    
+                    equipmentList.add(newEquipment);
+                    tableRows.getChildren().add(createTableRow(newEquipment));
+                    refreshStats();
+                    
+                    // Show success
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText("Equipment Added Successfully");
+                    success.setContentText("Equipment ID: " + equipmentId + "\n" +
+                                          "Name: " + newEquipment.name + "\n" +
+                                          "Category: " + newEquipment.category);
+                    success.showAndWait();
+                });
             }
         });
     }
@@ -503,8 +562,8 @@ public class EquipmentInventoryController extends ScrollPane {
         addDetailRow(techGrid, 0, "Manufacturer:", equipment.manufacturer);
         addDetailRow(techGrid, 1, "Model:", equipment.model);
         addDetailRow(techGrid, 2, "Serial Number:", equipment.serialNumber);
-        addDetailRow(techGrid, 3, "Purchase Date:", equipment.purchaseDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
-        addDetailRow(techGrid, 4, "Warranty Expiry:", equipment.warrantyExpiry.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
+        addDetailRow(techGrid, 3, "Purchase Date:", formatDate(equipment.purchaseDate));
+        addDetailRow(techGrid, 4, "Warranty Expiry:", formatDate(equipment.warrantyExpiry));
         
         techInfo.getChildren().addAll(techTitle, techGrid);
         
@@ -532,6 +591,28 @@ public class EquipmentInventoryController extends ScrollPane {
         dialog.showAndWait();
     }
     
+    /**
+     * One past the highest EQ number in the list. Saving replaces an item
+     * with the same ID, so a gap in the numbering must not be reused.
+     */
+    private String nextEquipmentId() {
+        int highest = 1000;
+        for (EquipmentData equipment : equipmentList) {
+            String digits = equipment.equipmentId.startsWith("EQ") ? equipment.equipmentId.substring(2) : "";
+            if (!digits.isEmpty() && digits.length() < 10 && digits.chars().allMatch(Character::isDigit)) {
+                highest = Math.max(highest, Integer.parseInt(digits));
+            }
+        }
+        return "EQ" + (highest + 1);
+    }
+    
+    /**
+     * Stored items may have no purchase or warranty date
+     */
+    private static String formatDate(LocalDate date) {
+        return date != null ? date.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")) : "Unknown";
+    }
+    
     /**
      * Add detail row
      */
@@ -603,6 +684,29 @@ public class EquipmentInventoryController extends ScrollPane {
         return equipment;
     }
     
+    /**
+     * Rows for stored equipment; manufacturer and model are not stored
+     */
+    private static List<EquipmentData> toEquipmentData(List<Equipment> stored) {
+        List<EquipmentData> equipment = new ArrayList<>();
+        for (Equipment item : stored) {
+            EquipmentData eq = new EquipmentData();
+            eq.equipmentId = item.getEquipmentId();
+            eq.name = item.getName();
+            eq.category = item.getCategory();
+            eq.zone = item.getZone();
+            eq.manufacturer = "";
+            eq.model = "";
+            eq.serialNumber = item.getSerialNumber();
+            eq.purchaseDate = item.getPurchaseDate();
+            eq.warrantyExpiry = item.getWarrantyExpiry();
+            eq.status = item.getStatus();
+            eq.notes = item.getNotes();
+            equipment.add(eq);
+        }
+        return equipment;
+    }
+    
     /**
      * Create equipment data object
      */
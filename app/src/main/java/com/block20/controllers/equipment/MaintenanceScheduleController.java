@@ -4,6 +4,8 @@
  */
 package com.block20.controllers.equipment;
 
+import com.block20.services.ServiceContext;
+import com.block20.services.equipment.EquipmentService;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -13,6 +15,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -28,6 +31,7 @@ public class MaintenanceScheduleController extends ScrollPane {
     private Consumer<String> navigationHandler;
     private VBox tableRows;
     private List<MaintenanceData> maintenanceList;
+    private final EquipmentService equipmentService;
     
     // Filter state
     private String currentFilter = "Upcoming";
@@ -35,8 +39,9 @@ public class MaintenanceScheduleController extends ScrollPane {
     /**
      * Constructor
      */
-    public MaintenanceScheduleController(Consumer<String> navigationHandler) {
+    public MaintenanceScheduleController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.equipmentService = services.getEquipmentService();
         this.maintenanceList = generateMockMaintenance();
         initializeView();
     }
@@ -498,6 +503,7 @@ public class MaintenanceScheduleController extends ScrollPane {
                 // Add to list and refresh table
                 MaintenanceData newMaintenance = new MaintenanceData();
                 newMaintenance.taskId = taskId;
+                newMaintenance.equipmentId = equipmentBox.getValue().split(" - ")[0];
                 newMaintenance.equipmentName = equipmentBox.getValue().split(" - ")[1];
                 newMaintenance.maintenanceType = typeBox.getValue();
                 newMaintenance.priority = priorityBox.getValue();
@@ -589,19 +595,55 @@ public class MaintenanceScheduleController extends ScrollPane {
                 System.out.println("Parts Used: " + partsArea.getText());
                 System.out.println("==================================\n");
                 
-                // Update status
-                maintenance.status = "Completed";
-                maintenance.completionDate = completionDatePicker.getValue();
-                maintenance.actualCost = actualCostField.getText();
-                maintenance.workPerformed = workArea.getText();
-                maintenance.partsUsed = partsArea.getText();
+                LocalDate completionDate = completionDatePicker.getValue();
+                String actualCost = actualCostField.getText();
+                String workPerformed = workArea.getText();
+                String partsUsed = partsArea.getText();
                 
-                // Refresh table (in real implementation)
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText("Maintenance Task Completed");
-                success.setContentText("Task ID: " + maintenance.taskId + " has been marked as completed.");
-                success.showAndWait();
+                // Put the equipment back in service; completes on the FX thread
+                equipmentService.completeMaintenance(maintenance.equipmentId).whenComplete((stored, error) -> {
+                    if (error != null) {
+                        Alert failed = new Alert(Alert.AlertType.ERROR);
+                        failed.setTitle("Not Saved");
+                        failed.setHeaderText("Maintenance Task Not Completed");
+                        failed.setContentText(error instanceof TimeoutException
+                            ? "The database did not respond in time. Please try again."
+                            : error.getMessage());
+                        failed.showAndWait();
+                        return;
+                    }
+                    
+                    // Update status
+                    maintenance.status = "Completed";
+                    maintenance.completionDate = completionDate;
+                    maintenance.actualCost = actualCost;
+                    maintenance.workPerformed = workPerformed;
+                    maintenance.partsUsed = partsUsed;
+                    
+                    // Redraw the row so it offers View instead of Complete
+                    int index = maintenanceList.indexOf(maintenance);
+                    if (index >= 0 && index < tableRows.getChildren().size()) {
+                        tableRows.getChildren().set(index, createTableRow(maintenance));
+                    }
+                    
+                    if (!stored) {
+                        // The task is done, but there was no stored equipment to put back in service
+                        Alert warning = new Alert(Alert.AlertType.WARNING);
+                        warning.setTitle("Equipment Not Updated");
+                        warning.setHeaderText("Maintenance Task Completed");
+                        warning.setContentText("Task ID: " + maintenance.taskId + " has been marked as completed, but "
+                            + maintenance.equipmentName + " (" + maintenance.equipmentId + ") is not in the "
+                            + "equipment records, so its status was not changed.");
+                        warning.showAndWait();
+                        return;
+                    }
+                    
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText("Maintenance Task Completed");
+                    success.setContentText("Task ID: " + maintenance.taskId + " has been marked as completed.");
+                    success.showAndWait();
+                });
             }
         });
     }
@@ -723,37 +765,37 @@ public class MaintenanceScheduleController extends ScrollPane {
         Random random = new Random();
         
         // Today's tasks
-        maintenance.add(createMaintenance("MT1001", "Treadmill Pro 3000", "Routine Inspection", "Normal",
+        maintenance.add(createMaintenance("MT1001", "EQ1001", "Treadmill Pro 3000", "Routine Inspection", "Normal",
             LocalDate.now(), "Mike Technician", "150.00", "Monthly safety inspection and belt tension check", "Scheduled"));
         
-        maintenance.add(createMaintenance("MT1002", "Rowing Machine", "Repair", "Urgent",
+        maintenance.add(createMaintenance("MT1002", "EQ1003", "Rowing Machine", "Repair", "Urgent",
             LocalDate.now(), "Sarah Service", "200.00", "Chain lubrication and pulley alignment", "Scheduled"));
         
         // Upcoming this week
-        maintenance.add(createMaintenance("MT1003", "Smith Machine", "Warranty Service", "Normal",
+        maintenance.add(createMaintenance("MT1003", "EQ1006", "Smith Machine", "Warranty Service", "Normal",
             LocalDate.now().plusDays(2), "John Maintenance", "0.00", "Rails service under warranty", "Scheduled"));
         
-        maintenance.add(createMaintenance("MT1004", "Cable Crossover", "Deep Clean", "Routine",
+        maintenance.add(createMaintenance("MT1004", "EQ1005", "Cable Crossover", "Deep Clean", "Routine",
             LocalDate.now().plusDays(3), "Mike Technician", "100.00", "Deep cleaning of cables and pulleys", "Scheduled"));
         
-        maintenance.add(createMaintenance("MT1005", "Elliptical Trainer", "Calibration", "Normal",
+        maintenance.add(createMaintenance("MT1005", "EQ1002", "Elliptical Trainer", "Calibration", "Normal",
             LocalDate.now().plusDays(5), "Sarah Service", "125.00", "Resistance calibration and console update", "Scheduled"));
         
         // Overdue
-        maintenance.add(createMaintenance("MT1006", "Leg Press Machine", "Parts Replacement", "Urgent",
+        maintenance.add(createMaintenance("MT1006", "EQ1004", "Leg Press Machine", "Parts Replacement", "Urgent",
             LocalDate.now().minusDays(2), "John Maintenance", "300.00", "Replace worn seat padding", "Overdue"));
         
-        maintenance.add(createMaintenance("MT1007", "Kettlebell Set", "Repair", "Urgent",
+        maintenance.add(createMaintenance("MT1007", "EQ1010", "Kettlebell Set", "Repair", "Urgent",
             LocalDate.now().minusDays(5), "Mike Technician", "80.00", "Replace damaged handle on 24kg kettlebell", "Overdue"));
         
         // Completed
-        maintenance.add(createMaintenance("MT1008", "Olympic Barbell", "Routine Inspection", "Routine",
+        maintenance.add(createMaintenance("MT1008", "EQ1008", "Olympic Barbell", "Routine Inspection", "Routine",
             LocalDate.now().minusDays(7), "Sarah Service", "50.00", "Inspect knurling and spin", "Completed"));
         
-        maintenance.add(createMaintenance("MT1009", "TRX Suspension System", "Deep Clean", "Routine",
+        maintenance.add(createMaintenance("MT1009", "EQ1009", "TRX Suspension System", "Deep Clean", "Routine",
             LocalDate.now().minusDays(10), "John Maintenance", "75.00", "Clean straps and check anchor points", "Completed"));
         
-        maintenance.add(createMaintenance("MT1010", "Dumbbell Set", "Routine Inspection", "Routine",
+        maintenance.add(createMaintenance("MT1010", "EQ1007", "Dumbbell Set", "Routine Inspection", "Routine",
             LocalDate.now().minusDays(14), "Mike Technician", "100.00", "Inspect all dumbbells for damage", "Completed"));
         
         return maintenance;
@@ -762,11 +804,12 @@ public class MaintenanceScheduleController extends ScrollPane {
     /**
      * Create maintenance data object
      */
-    private MaintenanceData createMaintenance(String taskId, String equipmentName, String type, String priority,
-                                             LocalDate scheduledDate, String technician, String estimatedCost,
-                                             String description, String status) {
+    private MaintenanceData createMaintenance(String taskId, String equipmentId, String equipmentName, String type,
+                                             String priority, LocalDate scheduledDate, String technician,
+                                             String estimatedCost, String description, String status) {
         MaintenanceData mt = new MaintenanceData();
         mt.taskId = taskId;
+        mt.equipmentId = equipmentId;
         mt.equipmentName = equipmentName;
         mt.maintenanceType = type;
         mt.priority = priority;
@@ -793,6 +836,7 @@ public class MaintenanceScheduleController extends ScrollPane {
      */
     private static class MaintenanceData {
         String taskId;
+        String equipmentId;
         String equipmentName;
         String maintenanceType;
         String priority;
@@ -1,32 +1,93 @@
 package com.block20.controllers.members;
 
+import com.block20.components.RingBufferObservableList;
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.models.Member;
+import com.block20.services.ServiceContext;
+import com.block20.services.checkin.CheckInOutcome;
+import com.block20.services.checkin.CheckInService;
+import com.block20.services.checkin.EligibilityCache;
+import com.block20.services.checkin.MemberEligibility;
+import com.block20.services.checkin.ScanBatchListener;
+import com.block20.services.checkin.ScanPipeline;
+import com.block20.services.checkin.ScanResult;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.occupancy.OccupancyService;
+import com.block20.services.occupancy.OccupancySnapshot;
+import com.block20.services.search.FuzzyNameIndex;
+import com.block20.services.search.MemberSearchIndex;
+import com.block20.services.search.SearchSession;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.Text;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.animation.PauseTransition;
-import javafx.util.Duration;
-import java.time.LocalDateTime;
+import javafx.application.Platform;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CheckInController extends ScrollPane {
+    private static final int MAX_SEARCH_RESULTS = 20;
+    // Several hours of desk traffic; the ListView only builds nodes for visible rows
+    private static final int ACTIVITY_FEED_SIZE = 2000;
+    private static final double ACTIVITY_ROW_HEIGHT = 72;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+        DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm").withZone(ZoneId.systemDefault());
+
     private VBox contentContainer;
     private TextField searchField;
     private VBox searchResultsBox;
-    private VBox recentActivityBox;
-    private ObservableList<CheckInRecord> recentActivity;
-    private Label occupancyLabel;
+    private final RingBufferObservableList<CheckInEvent> activityFeed;
+    private long lastActivitySequence;
+    private Text currentCount;
+    private Text maxCount;
+    private Text percentageText;
+    private Text zoneBreakdown;
     private ProgressBar occupancyBar;
-    private int currentOccupancy = 47;
-    private int maxCapacity = 150;
-
-    public CheckInController() {
-        this.recentActivity = FXCollections.observableArrayList();
-        loadMockRecentActivity();
+    private ComboBox<String> entranceSelector;
+    private final MemberDirectory memberDirectory;
+    private final MemberSearchIndex searchIndex;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final OccupancyService occupancyService;
+    private final CheckInService checkInService;
+    private final EligibilityCache eligibilityCache;
+    private final ScanPipeline scanPipeline;
+    private final SearchSession searchSession;
+    private final ScanBatchListener scanListener = this::onScansProcessed;
+    private final ConcurrentLinkedQueue<ScanResult> processedScans = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    public CheckInController(ServiceContext services) {
+        this.memberDirectory = services.getMemberDirectory();
+        this.searchIndex = services.getMemberSearchIndex();
+        this.fuzzyIndex = services.getFuzzyNameIndex();
+        this.occupancyService = services.getOccupancyService();
+        this.checkInService = services.getCheckInService();
+        this.eligibilityCache = services.getEligibilityCache();
+        this.scanPipeline = services.getScanPipeline();
+        this.searchSession = services.getSearchExecutor().openSession(Platform::runLater);
+        this.activityFeed = new RingBufferObservableList<>(ACTIVITY_FEED_SIZE);
+        List<CheckInEvent> history = new ArrayList<>();
+        this.lastActivitySequence = checkInService.collectActivitySince(0, history);
+        activityFeed.addAllFirst(history);
         initialize();
+
+        // Follow scans from every desk and turnstile while this screen is shown
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                scanPipeline.removeListener(scanListener);
+                searchSession.cancel();
+            } else {
+                scanPipeline.addListener(scanListener);
+            }
+        });
     }
 
     private void initialize() {
@@ -79,13 +140,13 @@ public class CheckInController extends ScrollPane {
         HBox occupancyNumbers = new HBox(8);
         occupancyNumbers.setAlignment(Pos.BASELINE_LEFT);
 
-        Text currentCount = new Text(String.valueOf(currentOccupancy));
+        currentCount = new Text();
         currentCount.setStyle("-fx-font-size: 48px; -fx-font-weight: 700; -fx-fill: #2563EB;");
 
         Text separator = new Text("/");
         separator.setStyle("-fx-font-size: 32px; -fx-fill: #94A3B8;");
 
-        Text maxCount = new Text(String.valueOf(maxCapacity));
+        maxCount = new Text();
         maxCount.setStyle("-fx-font-size: 32px; -fx-font-weight: 600; -fx-fill: #64748B;");
 
         occupancyNumbers.getChildren().addAll(currentCount, separator, maxCount);
@@ -101,14 +162,18 @@ public class CheckInController extends ScrollPane {
         occupancyBar = new ProgressBar();
         occupancyBar.setPrefWidth(400);
         occupancyBar.setPrefHeight(12);
-        occupancyBar.setProgress((double) currentOccupancy / maxCapacity);
         occupancyBar.getStyleClass().add("occupancy-progress");
 
-        Text percentageText = new Text(String.format("%.0f%% Capacity", (double) currentOccupancy / maxCapacity * 100));
+        percentageText = new Text();
         percentageText.getStyleClass().add("text-caption");
         percentageText.setStyle("-fx-fill: #64748B;");
 
-        progressBox.getChildren().addAll(occupancyBar, percentageText);
+        zoneBreakdown = new Text();
+        zoneBreakdown.getStyleClass().add("text-caption");
+        zoneBreakdown.setStyle("-fx-fill: #64748B;");
+
+        progressBox.getChildren().addAll(occupancyBar, percentageText, zoneBreakdown);
+        refreshOccupancy();
 
         occupancyInfo.getChildren().addAll(occupancyNumbers, occupancyLabel, progressBox);
 
@@ -135,6 +200,26 @@ public class CheckInController extends ScrollPane {
         return card;
     }
 
+    /**
+     * Redraw the occupancy card from the shared occupancy count
+     */
+    private void refreshOccupancy() {
+        OccupancySnapshot snapshot = occupancyService.snapshot();
+        currentCount.setText(String.valueOf(snapshot.getCurrent()));
+        maxCount.setText(String.valueOf(snapshot.getCapacity()));
+        occupancyBar.setProgress(snapshot.getUtilization());
+        percentageText.setText(String.format("%.0f%% Capacity", snapshot.getUtilization() * 100));
+
+        StringBuilder zones = new StringBuilder();
+        snapshot.getByZone().forEach((zone, count) -> {
+            if (zones.length() > 0) {
+                zones.append("  •  ");
+            }
+            zones.append(zone).append(": ").append(count);
+        });
+        zoneBreakdown.setText(zones.toString());
+    }
+
     private VBox createSearchSection() {
         VBox section = new VBox(16);
         section.getStyleClass().add("card");
@@ -159,22 +244,24 @@ public class CheckInController extends ScrollPane {
         searchField.setStyle("-fx-font-size: 18px;");
         HBox.setHgrow(searchField, Priority.ALWAYS);
 
-        // Auto-search with debounce
-        PauseTransition pause = new PauseTransition(Duration.millis(500));
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
-            pause.setOnFinished(e -> searchMembers(newVal));
-            pause.playFromStart();
-        });
+        // Auto-search; the session debounces and drops superseded queries
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchMembers(newVal, false));
 
         Button clearButton = new Button("Clear");
         clearButton.getStyleClass().addAll("btn", "btn-ghost");
         clearButton.setPrefHeight(60);
         clearButton.setOnAction(e -> {
             searchField.clear();
+            searchSession.cancel();
             searchResultsBox.getChildren().clear();
         });
 
-        searchInputBox.getChildren().addAll(searchIcon, searchField, clearButton);
+        entranceSelector = new ComboBox<>();
+        entranceSelector.getItems().addAll(OccupancyService.ZONES);
+        entranceSelector.setValue(OccupancyService.DEFAULT_ZONE);
+        entranceSelector.setPrefHeight(60);
+
+        searchInputBox.getChildren().addAll(searchIcon, searchField, entranceSelector, clearButton);
 
         Text searchHint = new Text("💡 Tip: Start typing to search. Results appear instantly.");
         searchHint.getStyleClass().add("text-caption");
@@ -190,33 +277,49 @@ public class CheckInController extends ScrollPane {
         return section;
     }
 
-    private void searchMembers(String query) {
-        searchResultsBox.getChildren().clear();
-
+    /**
+     * Look members up on a background thread and show the results when
+     * they arrive, unless a newer query has been typed by then
+     */
+    private void searchMembers(String query, boolean immediate) {
         if (query == null || query.trim().isEmpty()) {
+            searchSession.cancel();
+            searchResultsBox.getChildren().clear();
             return;
         }
 
-        query = query.toLowerCase().trim();
-
-        // Mock search results
-        ObservableList<MemberSearchResult> results = FXCollections.observableArrayList();
-        
-        if (query.contains("john") || query.contains("m001")) {
-            results.add(new MemberSearchResult("M001", "John Smith", "Premium", "Active", true));
-        }
-        if (query.contains("sarah") || query.contains("m002")) {
-            results.add(new MemberSearchResult("M002", "Sarah Johnson", "Basic", "Active", false));
-        }
-        if (query.contains("emily") || query.contains("m004")) {
-            results.add(new MemberSearchResult("M004", "Emily Davis", "Student", "Expired", false));
+        String trimmed = query.trim();
+        if (immediate) {
+            searchSession.submitNow(() -> findMembers(trimmed), results -> showSearchResults(trimmed, results));
+        } else {
+            searchSession.submit(() -> findMembers(trimmed), results -> showSearchResults(trimmed, results));
         }
-        if (query.contains("david") || query.contains("m005")) {
-            results.add(new MemberSearchResult("M005", "David Wilson", "Premium", "Active", true));
+    }
+
+    /**
+     * Ranked lookup against the shared member index, falling back to close
+     * spellings of the name when nothing matches. Runs off the FX thread.
+     */
+    private List<MemberSearchResult> findMembers(String query) {
+        List<String> memberIds = searchIndex.search(query, MAX_SEARCH_RESULTS);
+        if (memberIds.isEmpty()) {
+            memberIds = fuzzyIndex.search(query, MAX_SEARCH_RESULTS);
         }
-        if (query.contains("robert") || query.contains("m007")) {
-            results.add(new MemberSearchResult("M007", "Robert Taylor", "Premium", "Suspended", false));
+        List<MemberSearchResult> results = new ArrayList<>();
+        for (String memberId : memberIds) {
+            Optional<Member> member = memberDirectory.findById(memberId);
+            // Same answer the door will give, straight from the eligibility cache
+            boolean eligible = eligibilityCache.lookup(memberId)
+                .map(MemberEligibility::isEligible).orElse(false);
+            member.ifPresent(m -> results.add(new MemberSearchResult(
+                m.getMemberId(), m.getName(), m.getPlanType(), m.getStatus(), eligible,
+                occupancyService.isPresent(m.getMemberId()))));
         }
+        return results;
+    }
+
+    private void showSearchResults(String query, List<MemberSearchResult> results) {
+        searchResultsBox.getChildren().clear();
 
         if (results.isEmpty()) {
             Text noResults = new Text("No members found matching \"" + query + "\"");
@@ -283,7 +386,7 @@ public class CheckInController extends ScrollPane {
         HBox actionBox = new HBox(8);
         actionBox.setAlignment(Pos.CENTER_RIGHT);
 
-        if (member.getStatus().equals("Active")) {
+        if (member.isEligible()) {
             if (member.isCheckedIn()) {
                 Button checkOutBtn = new Button("Check Out");
                 checkOutBtn.getStyleClass().addAll("btn", "btn-warning");
@@ -309,55 +412,63 @@ public class CheckInController extends ScrollPane {
     }
 
     private void handleCheckIn(MemberSearchResult member) {
-        currentOccupancy++;
-        occupancyBar.setProgress((double) currentOccupancy / maxCapacity);
-
-        // Add to recent activity
-        CheckInRecord record = new CheckInRecord(
-            member.getMemberId(),
-            member.getName(),
-            "Check In",
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"))
-        );
-        recentActivity.add(0, record);
-        if (recentActivity.size() > 10) {
-            recentActivity.remove(10);
-        }
-
-        member.setCheckedIn(true);
-        refreshRecentActivity();
+        publishScan(member, CheckInAction.CHECK_IN);
+    }
 
-        // Show success notification
-        showNotification("✓ " + member.getName() + " checked in successfully", "success");
+    private void handleCheckOut(MemberSearchResult member) {
+        publishScan(member, CheckInAction.CHECK_OUT);
+    }
 
-        // Re-search to update UI
-        searchMembers(searchField.getText());
+    /**
+     * Queue the scan without waiting; during a burst the ring can be full,
+     * and the FX thread must not block until it drains
+     */
+    private void publishScan(MemberSearchResult member, CheckInAction action) {
+        if (!scanPipeline.tryPublish(member.getMemberId(), action, entranceSelector.getValue())) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Scanner Busy");
+            alert.setHeaderText(member.getName() + " was not " + (action == CheckInAction.CHECK_IN
+                ? "checked in" : "checked out"));
+            alert.setContentText("The scanner is busy. Please try again in a moment.");
+            alert.show();
+        }
     }
 
-    private void handleCheckOut(MemberSearchResult member) {
-        currentOccupancy--;
-        occupancyBar.setProgress((double) currentOccupancy / maxCapacity);
-
-        // Add to recent activity
-        CheckInRecord record = new CheckInRecord(
-            member.getMemberId(),
-            member.getName(),
-            "Check Out",
-            LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"))
-        );
-        recentActivity.add(0, record);
-        if (recentActivity.size() > 10) {
-            recentActivity.remove(10);
+    /**
+     * Called on the pipeline thread after each batch. Results are queued and
+     * at most one screen refresh is pending on the FX thread at a time, so a
+     * burst of scans costs one redraw.
+     */
+    private void onScansProcessed(List<ScanResult> results) {
+        processedScans.addAll(results);
+        if (refreshScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::applyProcessedScans);
         }
+    }
 
-        member.setCheckedIn(false);
-        refreshRecentActivity();
+    private void applyProcessedScans() {
+        refreshScheduled.set(false);
 
-        // Show success notification
-        showNotification("✓ " + member.getName() + " checked out successfully", "success");
+        ScanResult result;
+        while ((result = processedScans.poll()) != null) {
+            String name = memberDirectory.findById(result.getMemberId())
+                .map(Member::getName).orElse(result.getMemberId());
+            if (result.getOutcome() == CheckInOutcome.ACCEPTED) {
+                String verb = result.getAction() == CheckInAction.CHECK_IN ? "checked in" : "checked out";
+                showNotification("✓ " + name + " " + verb + " successfully", "success");
+            } else {
+                showNotification(name + ": " + result.getOutcome().getMessage(), "warning");
+            }
+        }
+
+        // Only events newer than the last refresh are inserted at the head
+        List<CheckInEvent> fresh = new ArrayList<>();
+        lastActivitySequence = checkInService.collectActivitySince(lastActivitySequence, fresh);
+        activityFeed.addAllFirst(fresh);
+        refreshOccupancy();
 
         // Re-search to update UI
-        searchMembers(searchField.getText());
+        searchMembers(searchField.getText(), true);
     }
 
     private void showNotification(String message, String type) {
@@ -386,65 +497,72 @@ public class CheckInController extends ScrollPane {
 
         header.getChildren().addAll(title, spacer, liveIndicator);
 
-        // Activity list
-        recentActivityBox = new VBox(8);
-        ScrollPane scrollPane = new ScrollPane(recentActivityBox);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setPrefHeight(300);
-        scrollPane.setStyle("-fx-background-color: transparent;");
+        // Activity list - only the visible rows have nodes, however long the history
+        ListView<CheckInEvent> activityList = new ListView<>(activityFeed);
+        activityList.setCellFactory(list -> new ActivityFeedCell());
+        activityList.setFixedCellSize(ACTIVITY_ROW_HEIGHT);
+        activityList.setPrefHeight(300);
+        activityList.setFocusTraversable(false);
+        activityList.setStyle("-fx-background-color: transparent;");
 
-        refreshRecentActivity();
+        Text emptyText = new Text("No recent activity");
+        emptyText.getStyleClass().add("text-muted");
+        activityList.setPlaceholder(emptyText);
 
-        section.getChildren().addAll(header, new Separator(), scrollPane);
+        section.getChildren().addAll(header, new Separator(), activityList);
         return section;
     }
 
-    private void refreshRecentActivity() {
-        recentActivityBox.getChildren().clear();
-
-        if (recentActivity.isEmpty()) {
-            Text emptyText = new Text("No recent activity");
-            emptyText.getStyleClass().add("text-muted");
-            recentActivityBox.getChildren().add(emptyText);
-            return;
-        }
-
-        for (CheckInRecord record : recentActivity) {
-            recentActivityBox.getChildren().add(createActivityItem(record));
+    /**
+     * Row for the activity feed. The nodes are built once per cell and
+     * refilled as the ListView recycles it.
+     */
+    private class ActivityFeedCell extends ListCell<CheckInEvent> {
+        private final HBox item = new HBox(16);
+        private final Label icon = new Label();
+        private final Text memberName = new Text();
+        private final Text details = new Text();
+        private final Text timestamp = new Text();
+
+        ActivityFeedCell() {
+            item.setPadding(new Insets(12));
+            item.setAlignment(Pos.CENTER_LEFT);
+            item.setStyle("-fx-background-color: #F8FAFC; -fx-background-radius: 6px;");
+
+            // Member info
+            VBox infoBox = new VBox(4);
+            HBox.setHgrow(infoBox, Priority.ALWAYS);
+            memberName.getStyleClass().add("text-body");
+            memberName.setStyle("-fx-font-weight: 600;");
+            details.getStyleClass().add("text-caption");
+            infoBox.getChildren().addAll(memberName, details);
+
+            timestamp.getStyleClass().add("text-caption");
+            timestamp.setStyle("-fx-fill: #64748B;");
+
+            item.getChildren().addAll(icon, infoBox, timestamp);
+            setStyle("-fx-background-color: transparent; -fx-padding: 0 0 8 0;");
         }
-    }
 
-    private HBox createActivityItem(CheckInRecord record) {
-        HBox item = new HBox(16);
-        item.setPadding(new Insets(12));
-        item.setAlignment(Pos.CENTER_LEFT);
-        item.setStyle("-fx-background-color: #F8FAFC; -fx-background-radius: 6px;");
-
-        // Action icon
-        Label icon = new Label(record.getAction().equals("Check In") ? "→" : "←");
-        icon.setStyle("-fx-font-size: 20px; -fx-text-fill: " + 
-            (record.getAction().equals("Check In") ? "#10B981" : "#F59E0B") + ";");
-
-        // Member info
-        VBox infoBox = new VBox(4);
-        HBox.setHgrow(infoBox, Priority.ALWAYS);
-
-        Text memberName = new Text(record.getMemberName());
-        memberName.getStyleClass().add("text-body");
-        memberName.setStyle("-fx-font-weight: 600;");
-
-        Text details = new Text(record.getMemberId() + " • " + record.getAction());
-        details.getStyleClass().add("text-caption");
-
-        infoBox.getChildren().addAll(memberName, details);
+        @Override
+        protected void updateItem(CheckInEvent event, boolean empty) {
+            super.updateItem(event, empty);
+            if (empty || event == null) {
+                setGraphic(null);
+                return;
+            }
 
-        // Timestamp
-        Text timestamp = new Text(record.getTimestamp());
-        timestamp.getStyleClass().add("text-caption");
-        timestamp.setStyle("-fx-fill: #64748B;");
+            boolean isCheckIn = event.getAction() == CheckInAction.CHECK_IN;
+            icon.setText(isCheckIn ? "→" : "←");
+            icon.setStyle("-fx-font-size: 20px; -fx-text-fill: " +
+                (isCheckIn ? "#10B981" : "#F59E0B") + ";");
 
-        item.getChildren().addAll(icon, infoBox, timestamp);
-        return item;
+            memberName.setText(memberDirectory.findById(event.getMemberId())
+                .map(Member::getName).orElse(event.getMemberId()));
+            details.setText(event.getMemberId() + " • " + event.getAction().getLabel() + " • " + event.getEntrance());
+            timestamp.setText(TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(event.getTimestampMillis())));
+            setGraphic(item);
+        }
     }
 
     private String getInitials(String name) {
@@ -455,30 +573,22 @@ public class CheckInController extends ScrollPane {
         return name.substring(0, Math.min(2, name.length()));
     }
 
-    private void loadMockRecentActivity() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        recentActivity.addAll(
-            new CheckInRecord("M005", "David Wilson", "Check In", LocalDateTime.now().minusMinutes(5).format(formatter)),
-            new CheckInRecord("M003", "Michael Brown", "Check Out", LocalDateTime.now().minusMinutes(12).format(formatter)),
-            new CheckInRecord("M008", "Amanda Anderson", "Check In", LocalDateTime.now().minusMinutes(23).format(formatter)),
-            new CheckInRecord("M002", "Sarah Johnson", "Check In", LocalDateTime.now().minusMinutes(35).format(formatter)),
-            new CheckInRecord("M010", "Jennifer White", "Check Out", LocalDateTime.now().minusMinutes(47).format(formatter))
-        );
-    }
-
     // Member search result class
     public static class MemberSearchResult {
         private final String memberId;
         private final String name;
         private final String planType;
         private final String status;
+        private final boolean eligible;
         private boolean checkedIn;
 
-        public MemberSearchResult(String memberId, String name, String planType, String status, boolean checkedIn) {
+        public MemberSearchResult(String memberId, String name, String planType, String status,
+                                  boolean eligible, boolean checkedIn) {
             this.memberId = memberId;
             this.name = name;
             this.planType = planType;
             this.status = status;
+            this.eligible = eligible;
             this.checkedIn = checkedIn;
         }
 
@@ -486,27 +596,8 @@ public class CheckInController extends ScrollPane {
         public String getName() { return name; }
         public String getPlanType() { return planType; }
         public String getStatus() { return status; }
+        public boolean isEligible() { return eligible; }
         public boolean isCheckedIn() { return checkedIn; }
         public void setCheckedIn(boolean checkedIn) { this.checkedIn = checkedIn; }
     }
-
-    // Check-in record class
-    public static class CheckInRecord {
-        private final String memberId;
-        private final String memberName;
-        private final String action;
-        private final String timestamp;
-
-        public CheckInRecord(String memberId, String memberName, String action, String timestamp) {
-            this.memberId = memberId;
-            this.memberName = memberName;
-            this.action = action;
-            this.timestamp = timestamp;
-        }
-
-        public String getMemberId() { return memberId; }
-        public String getMemberName() { return memberName; }
-        public String getAction() { return action; }
-        public String getTimestamp() { return timestamp; }
-    }
 }
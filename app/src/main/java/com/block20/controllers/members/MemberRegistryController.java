@@ -1,5 +1,28 @@
 package com.block20.controllers.members;
 
+import com.block20.components.PagedObservableList;
+import com.block20.components.TaskProgressDialog;
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+import com.block20.repositories.MemberRepository;
+import com.block20.repositories.MemberSortField;
+import com.block20.services.ServiceContext;
+import com.block20.services.members.MemberProfileService;
+import com.block20.services.members.MemberStatistics;
+import com.block20.services.members.MembershipService;
+import com.block20.services.search.FuzzyNameIndex;
+import com.block20.services.search.MemberFilterIndex;
+import com.block20.services.search.MemberSearchIndex;
+import com.block20.services.search.MemberSortIndex;
+import com.block20.services.search.SearchSession;
+import com.block20.services.search.SortColumn;
+import com.block20.services.transfer.ImportProgress;
+import com.block20.services.transfer.MemberImporter;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableStringValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -7,23 +30,78 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Text;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 public class MemberRegistryController extends ScrollPane {
+    // Rows shown while their page loads
+    private static final Member LOADING_ROW = new Member("", "Loading...", "", "", "", "", "", "", "",
+        "", "", "");
+    private static final String PROFILE_LOADING = "Loading...";
+    private static final String PROFILE_UNAVAILABLE = "Unavailable";
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 6;
+    private static final int RENEWAL_WINDOW_DAYS = 30;
+    private static final int UNDO_BANNER_SECONDS = 15;
+
     private VBox contentContainer;
     private TableView<Member> membersTable;
-    private ObservableList<Member> allMembers;
+    private PagedObservableList<Member> pagedMembers;
+    private MemberSortField pageSort = MemberSortField.MEMBER_ID;
+    private boolean pageAscending = true;
     private ObservableList<Member> filteredMembers;
     private TextField searchField;
     private ComboBox<String> statusFilter;
     private ComboBox<String> planFilter;
+    private ComboBox<String> expiryFilter;
     private Consumer<String> navigationHandler;
-
-    public MemberRegistryController(Consumer<String> navigationHandler) {
+    private final MemberRepository memberRepository;
+    private final MemberStatistics memberStatistics;
+    private final SimpleStringProperty activeCount = new SimpleStringProperty();
+    private final SimpleStringProperty expiredCount = new SimpleStringProperty();
+    private final SimpleStringProperty renewalCount = new SimpleStringProperty();
+    private final SimpleStringProperty suspendedCount = new SimpleStringProperty();
+    private final MemberSearchIndex searchIndex;
+    private final MemberFilterIndex filterIndex;
+    private final MemberImporter memberImporter;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final SearchSession searchSession;
+    private final MemberSortIndex sortIndex;
+    // Order the filtered results were fetched in
+    private List<SortColumn> filteredOrder = Collections.emptyList();
+    private final MemberProfileService profileService;
+    private final MembershipService membershipService;
+    private final long undoMinutes;
+    private HBox undoBanner;
+
+    public MemberRegistryController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
-        this.allMembers = FXCollections.observableArrayList();
+        this.memberRepository = services.getMemberRepository();
+        this.memberStatistics = services.getMemberStatistics();
+        this.searchIndex = services.getMemberSearchIndex();
+        this.filterIndex = services.getMemberFilterIndex();
+        this.fuzzyIndex = services.getFuzzyNameIndex();
+        this.sortIndex = services.getMemberSortIndex();
+        this.memberImporter = services.getMemberImporter();
+        this.profileService = services.getMemberProfileService();
+        this.membershipService = services.getMembershipService();
+        this.undoMinutes = services.getMemberCompactor().getUndoWindow().toMinutes();
+        this.searchSession = services.getSearchExecutor().openSession(Platform::runLater);
+        this.pagedMembers = new PagedObservableList<>(memberPages(pageSort, pageAscending), LOADING_ROW,
+            PAGE_SIZE, MAX_PAGES, services.getSearchExecutor().getWorkers(), Platform::runLater);
         this.filteredMembers = FXCollections.observableArrayList();
-        loadMockData();
+        pagedMembers.refresh();
         initialize();
     }
 
@@ -68,7 +146,11 @@ public class MemberRegistryController extends ScrollPane {
         enrollButton.getStyleClass().addAll("btn", "btn-primary");
         enrollButton.setOnAction(e -> navigationHandler.accept("enrollment-new"));
 
-        header.getChildren().addAll(titleBox, spacer, enrollButton);
+        Button importButton = new Button("Import CSV");
+        importButton.getStyleClass().addAll("btn", "btn-secondary");
+        importButton.setOnAction(e -> importMembers());
+
+        header.getChildren().addAll(titleBox, spacer, importButton, enrollButton);
         return header;
     }
 
@@ -88,12 +170,12 @@ public class MemberRegistryController extends ScrollPane {
         searchField.setPromptText("Search by name, email, phone, or membership ID...");
         searchField.getStyleClass().add("search-input");
         searchField.setPrefWidth(500);
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> filterMembers());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> filterMembers(false));
         HBox.setHgrow(searchField, Priority.ALWAYS);
 
         Button searchButton = new Button("Search");
         searchButton.getStyleClass().addAll("btn", "btn-primary");
-        searchButton.setOnAction(e -> filterMembers());
+        searchButton.setOnAction(e -> filterMembers(true));
 
         searchBox.getChildren().addAll(searchLabel, searchField, searchButton);
 
@@ -111,7 +193,7 @@ public class MemberRegistryController extends ScrollPane {
         statusFilter = new ComboBox<>();
         statusFilter.getItems().addAll("All Statuses", "Active", "Expired", "Pending", "Suspended");
         statusFilter.setValue("All Statuses");
-        statusFilter.setOnAction(e -> filterMembers());
+        statusFilter.setOnAction(e -> filterMembers(true));
         statusBox.getChildren().addAll(statusLabel, statusFilter);
 
         // Plan filter
@@ -121,14 +203,24 @@ public class MemberRegistryController extends ScrollPane {
         planFilter = new ComboBox<>();
         planFilter.getItems().addAll("All Plans", "Basic", "Premium", "Elite", "Student");
         planFilter.setValue("All Plans");
-        planFilter.setOnAction(e -> filterMembers());
+        planFilter.setOnAction(e -> filterMembers(true));
         planBox.getChildren().addAll(planLabel, planFilter);
 
+        // Expiry filter
+        VBox expiryBox = new VBox(4);
+        Label expiryLabel = new Label("Expiry");
+        expiryLabel.getStyleClass().add("text-caption");
+        expiryFilter = new ComboBox<>();
+        expiryFilter.getItems().addAll("Any Time", "This Month", "Next 3 Months", "Before This Month");
+        expiryFilter.setValue("Any Time");
+        expiryFilter.setOnAction(e -> filterMembers(true));
+        expiryBox.getChildren().addAll(expiryLabel, expiryFilter);
+
         Button clearButton = new Button("Clear Filters");
         clearButton.getStyleClass().addAll("btn", "btn-ghost");
         clearButton.setOnAction(e -> clearFilters());
 
-        filtersBox.getChildren().addAll(filtersLabel, statusBox, planBox, clearButton);
+        filtersBox.getChildren().addAll(filtersLabel, statusBox, planBox, expiryBox, clearButton);
 
         container.getChildren().addAll(searchBox, new Separator(), filtersBox);
         return container;
@@ -140,22 +232,35 @@ public class MemberRegistryController extends ScrollPane {
         statsBar.setPadding(new Insets(16, 20, 16, 20));
         statsBar.setAlignment(Pos.CENTER_LEFT);
 
+        refreshStats();
         statsBar.getChildren().addAll(
-            createStatItem("Total Members", String.valueOf(allMembers.size()), "#2563EB"),
-            createStatItem("Active", "1,089", "#10B981"),
-            createStatItem("Expired", "47", "#F59E0B"),
-            createStatItem("Pending Renewal", "35", "#F59E0B"),
-            createStatItem("Suspended", "3", "#EF4444")
+            createStatItem("Total Members", Bindings.size(pagedMembers).asString("%,d"), "#2563EB"),
+            createStatItem("Active", activeCount, "#10B981"),
+            createStatItem("Expired", expiredCount, "#F59E0B"),
+            createStatItem("Pending Renewal", renewalCount, "#F59E0B"),
+            createStatItem("Suspended", suspendedCount, "#EF4444")
         );
 
         return statsBar;
     }
 
-    private VBox createStatItem(String label, String value, String color) {
+    /**
+     * Read the live counters; cheap enough to call after every change
+     */
+    private void refreshStats() {
+        activeCount.set(String.format("%,d", memberStatistics.getStatusCount("Active")));
+        expiredCount.set(String.format("%,d", memberStatistics.getStatusCount("Expired")));
+        renewalCount.set(String.format("%,d",
+            memberStatistics.getExpiringCount(LocalDate.now(), RENEWAL_WINDOW_DAYS)));
+        suspendedCount.set(String.format("%,d", memberStatistics.getStatusCount("Suspended")));
+    }
+
+    private VBox createStatItem(String label, ObservableStringValue value, String color) {
         VBox item = new VBox(4);
         item.setAlignment(Pos.CENTER_LEFT);
 
-        Text valueText = new Text(value);
+        Text valueText = new Text();
+        valueText.textProperty().bind(value);
         valueText.setStyle("-fx-font-size: 20px; -fx-font-weight: 700; -fx-fill: " + color + ";");
 
         Text labelText = new Text(label);
@@ -180,14 +285,18 @@ public class MemberRegistryController extends ScrollPane {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        Text resultsCount = new Text(filteredMembers.size() + " results");
+        // Create table
+        membersTable = new TableView<>();
+        membersTable.setItems(pagedMembers);
+
+        // Counts whichever list the table shows: every member, or the search results
+        Text resultsCount = new Text();
+        resultsCount.textProperty().bind(Bindings.createStringBinding(
+            () -> String.format("%,d results", membersTable.getItems().size()),
+            membersTable.itemsProperty(), pagedMembers, filteredMembers));
         resultsCount.getStyleClass().add("text-muted");
 
         tableHeader.getChildren().addAll(tableTitle, spacer, resultsCount);
-
-        // Create table
-        membersTable = new TableView<>();
-        membersTable.setItems(filteredMembers);
         membersTable.getStyleClass().add("data-table");
         membersTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
@@ -195,26 +304,31 @@ public class MemberRegistryController extends ScrollPane {
         TableColumn<Member, String> idCol = new TableColumn<>("Member ID");
         idCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getMemberId()));
         idCol.setPrefWidth(100);
+        idCol.setUserData(MemberSortField.MEMBER_ID);
 
         // Name column
         TableColumn<Member, String> nameCol = new TableColumn<>("Name");
         nameCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getName()));
         nameCol.setPrefWidth(180);
+        nameCol.setUserData(MemberSortField.NAME);
 
         // Email column
         TableColumn<Member, String> emailCol = new TableColumn<>("Email");
         emailCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getEmail()));
         emailCol.setPrefWidth(200);
+        emailCol.setUserData(MemberSortField.EMAIL);
 
         // Phone column
         TableColumn<Member, String> phoneCol = new TableColumn<>("Phone");
         phoneCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPhone()));
         phoneCol.setPrefWidth(120);
+        phoneCol.setUserData(MemberSortField.PHONE);
 
         // Plan column
         TableColumn<Member, String> planCol = new TableColumn<>("Plan");
         planCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPlanType()));
         planCol.setPrefWidth(100);
+        planCol.setUserData(MemberSortField.PLAN);
 
         // Status column with colored badges
         TableColumn<Member, String> statusCol = new TableColumn<>("Status");
@@ -223,7 +337,7 @@ public class MemberRegistryController extends ScrollPane {
             @Override
             protected void updateItem(String status, boolean empty) {
                 super.updateItem(status, empty);
-                if (empty || status == null) {
+                if (empty || status == null || status.isEmpty()) {
                     setGraphic(null);
                 } else {
                     Label badge = new Label(status);
@@ -234,6 +348,13 @@ public class MemberRegistryController extends ScrollPane {
             }
         });
         statusCol.setPrefWidth(100);
+        statusCol.setUserData(MemberSortField.STATUS);
+
+        // Expiry column, sorted by date
+        TableColumn<Member, String> expiryCol = new TableColumn<>("Expires");
+        expiryCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getExpiryDate()));
+        expiryCol.setPrefWidth(110);
+        expiryCol.setUserData(MemberSortField.EXPIRY_DATE);
 
         // Actions column
         TableColumn<Member, Void> actionsCol = new TableColumn<>("Actions");
@@ -244,7 +365,9 @@ public class MemberRegistryController extends ScrollPane {
                 viewButton.getStyleClass().addAll("btn", "btn-sm", "btn-primary");
                 viewButton.setOnAction(e -> {
                     Member member = getTableView().getItems().get(getIndex());
-                    showMemberProfile(member);
+                    if (member != LOADING_ROW) {
+                        showMemberProfile(member);
+                    }
                 });
             }
 
@@ -259,8 +382,10 @@ public class MemberRegistryController extends ScrollPane {
             }
         });
         actionsCol.setPrefWidth(100);
+        actionsCol.setSortable(false);
 
-        membersTable.getColumns().addAll(idCol, nameCol, emailCol, phoneCol, planCol, statusCol, actionsCol);
+        membersTable.getColumns().addAll(idCol, nameCol, emailCol, phoneCol, planCol, statusCol, expiryCol, actionsCol);
+        membersTable.setSortPolicy(this::sortMembers);
         membersTable.setPlaceholder(new Label("No members found. Try adjusting your search or filters."));
 
         container.getChildren().addAll(tableHeader, membersTable);
@@ -330,22 +455,17 @@ public class MemberRegistryController extends ScrollPane {
             {"Address", member.getAddress()}
         });
 
-        // Membership Details
-        VBox membershipSection = createProfileSection("Membership Details", new String[][]{
-            {"Plan Type", member.getPlanType()},
-            {"Start Date", member.getStartDate()},
-            {"Expiry Date", member.getExpiryDate()},
-            {"Monthly Fee", "$" + member.getMonthlyFee()},
-            {"Last Payment", member.getLastPayment()}
-        });
-
-        // Activity Summary
-        VBox activitySection = createProfileSection("Activity Summary", new String[][]{
-            {"Total Check-Ins", String.valueOf(member.getTotalCheckIns())},
-            {"Check-Ins This Month", String.valueOf(member.getCheckInsThisMonth())},
-            {"Last Check-In", member.getLastCheckIn()},
-            {"Average Weekly Visits", String.valueOf(member.getAvgWeeklyVisits())}
-        });
+        // Payment and attendance details load in the background unless already cached
+        VBox scrollContent = new VBox(24);
+        scrollContent.getChildren().addAll(contactSection, createMembershipSection(member, PROFILE_LOADING),
+            createActivitySection(null, PROFILE_LOADING));
+        CompletableFuture<MemberProfile> details = profileService.load(member.getMemberId());
+        if (details.isDone() && !details.isCompletedExceptionally()) {
+            showProfileDetails(scrollContent, contactSection, member, details.join(), null);
+        } else {
+            details.whenComplete((profile, error) -> Platform.runLater(
+                () -> showProfileDetails(scrollContent, contactSection, member, profile, error)));
+        }
 
         // Action buttons
         HBox actionButtons = new HBox(12);
@@ -370,8 +490,6 @@ public class MemberRegistryController extends ScrollPane {
         actionButtons.getChildren().addAll(editButton, renewButton, suspendButton, deleteButton);
 
         ScrollPane scrollPane = new ScrollPane();
-        VBox scrollContent = new VBox(24);
-        scrollContent.getChildren().addAll(contactSection, membershipSection, activitySection);
         scrollPane.setContent(scrollContent);
         scrollPane.setFitToWidth(true);
         scrollPane.setStyle("-fx-background-color: transparent;");
@@ -381,6 +499,40 @@ public class MemberRegistryController extends ScrollPane {
         return container;
     }
 
+    private void showProfileDetails(VBox scrollContent, VBox contactSection, Member member,
+                                    MemberProfile profile, Throwable error) {
+        if (error != null) {
+            System.err.println("Could not load profile for " + member.getMemberId() + ": " + error.getMessage());
+            scrollContent.getChildren().setAll(contactSection, createMembershipSection(member, PROFILE_UNAVAILABLE),
+                createActivitySection(null, PROFILE_UNAVAILABLE));
+            return;
+        }
+        scrollContent.getChildren().setAll(contactSection, createMembershipSection(member, profile.getLastPayment()),
+            createActivitySection(profile, null));
+    }
+
+    private VBox createMembershipSection(Member member, String lastPayment) {
+        return createProfileSection("Membership Details", new String[][]{
+            {"Plan Type", member.getPlanType()},
+            {"Start Date", member.getStartDate()},
+            {"Expiry Date", member.getExpiryDate()},
+            {"Monthly Fee", "$" + member.getMonthlyFee()},
+            {"Last Payment", lastPayment}
+        });
+    }
+
+    /**
+     * Attendance figures, or the placeholder on every line while there are none
+     */
+    private VBox createActivitySection(MemberProfile profile, String placeholder) {
+        return createProfileSection("Activity Summary", new String[][]{
+            {"Total Check-Ins", profile != null ? String.valueOf(profile.getTotalCheckIns()) : placeholder},
+            {"Check-Ins This Month", profile != null ? String.valueOf(profile.getCheckInsThisMonth()) : placeholder},
+            {"Last Check-In", profile != null ? profile.getLastCheckIn() : placeholder},
+            {"Average Weekly Visits", profile != null ? String.valueOf(profile.getAvgWeeklyVisits()) : placeholder}
+        });
+    }
+
     private VBox createProfileSection(String title, String[][] data) {
         VBox section = new VBox(12);
         section.getStyleClass().add("profile-section");
@@ -425,148 +577,308 @@ public class MemberRegistryController extends ScrollPane {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Member");
         alert.setHeaderText("Delete " + member.getName() + "?");
-        alert.setContentText("This action cannot be undone. All member data will be permanently deleted.");
+        alert.setContentText("The member can be restored for " + undoMinutes
+            + " minutes. After that, all member data will be permanently deleted.");
 
         alert.showAndWait().ifPresent(response -> {
-            if (response == ButtonType.OK) {
-                allMembers.remove(member);
-                filteredMembers.remove(member);
-                System.out.println("Deleted member: " + member.getName());
+            if (response != ButtonType.OK) {
+                return;
             }
+            membershipService.delete(member.getMemberId()).whenComplete((deleted, error) -> {
+                if (error != null) {
+                    showDeleteError("Member Not Deleted", member.getName() + " could not be deleted", error);
+                    return;
+                }
+                if (deleted) {
+                    membersChanged();
+                    showUndoBanner(member);
+                    System.out.println("Deleted member: " + member.getName());
+                }
+            });
         });
     }
 
-    private void filterMembers() {
-        filteredMembers.clear();
-        
-        String searchText = searchField.getText().toLowerCase().trim();
+    private void showDeleteError(String title, String header, Throwable error) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(header);
+        alert.setContentText(error instanceof TimeoutException
+            ? "The database did not respond in time. Please try again."
+            : error.getMessage());
+        alert.show();
+    }
+
+    /**
+     * Reload whichever list the table shows; the indexes have already
+     * caught up, so filtered results are simply fetched again
+     */
+    private void membersChanged() {
+        pagedMembers.refresh();
+        if (membersTable.getItems() == filteredMembers) {
+            filterMembers(true);
+        }
+        refreshStats();
+    }
+
+    private void showUndoBanner(Member member) {
+        hideUndoBanner();
+        Text message = new Text("Deleted " + member.getName() + ".");
+        message.getStyleClass().add("text-body");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        Button undoButton = new Button("Undo");
+        undoButton.getStyleClass().addAll("btn", "btn-sm", "btn-primary");
+
+        HBox banner = new HBox(12, message, spacer, undoButton);
+        banner.getStyleClass().addAll("alert-box", "alert-info");
+        undoButton.setOnAction(e -> {
+            hideUndoBanner();
+            membershipService.restore(member.getMemberId()).whenComplete((restored, error) -> {
+                if (error != null) {
+                    showDeleteError("Undo Delete", member.getName() + " could not be restored", error);
+                } else if (restored) {
+                    membersChanged();
+                } else {
+                    Alert failed = new Alert(Alert.AlertType.WARNING);
+                    failed.setTitle("Undo Delete");
+                    failed.setHeaderText(member.getName() + " can no longer be restored");
+                    failed.setContentText("The deletion has already been made permanent, or the member ID is in use.");
+                    failed.show();
+                }
+            });
+        });
+
+        undoBanner = banner;
+        contentContainer.getChildren().add(1, banner);
+        PauseTransition timeout = new PauseTransition(Duration.seconds(UNDO_BANNER_SECONDS));
+        timeout.setOnFinished(e -> {
+            if (undoBanner == banner) {
+                hideUndoBanner();
+            }
+        });
+        timeout.play();
+    }
+
+    private void hideUndoBanner() {
+        if (undoBanner != null) {
+            contentContainer.getChildren().remove(undoBanner);
+            undoBanner = null;
+        }
+    }
+
+    /**
+     * Bulk-load members from a CSV file in the background. A cancelled or
+     * failed import continues where it stopped when the same file is
+     * imported again; bad rows go to a reject file next to it.
+     */
+    private void importMembers() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Members");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Path csv = file.toPath();
+
+        Task<ImportProgress> task = new Task<ImportProgress>() {
+            @Override
+            protected ImportProgress call() throws Exception {
+                return memberImporter.importFile(csv, progress -> {
+                    updateProgress(progress.getBytesRead(), progress.getTotalBytes());
+                    updateMessage(String.format("%,d imported, %,d rejected",
+                        progress.getImported(), progress.getRejected()));
+                });
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            ImportProgress result = task.getValue();
+            String summary = String.format("%,d members imported, %,d rejected.", result.getImported(),
+                result.getRejected());
+            if (result.getSkipped() > 0) {
+                summary += String.format("\n%,d rows were already imported and were skipped.", result.getSkipped());
+            }
+            if (result.getRejected() > 0) {
+                summary += "\nRejected rows were saved to " + MemberImporter.rejectFileFor(csv).getFileName();
+            }
+            showImportResult(Alert.AlertType.INFORMATION, "Import complete", summary);
+        });
+        task.setOnFailed(e -> showImportResult(Alert.AlertType.ERROR, "Import stopped",
+            task.getException().getMessage() + "\nImport the same file again to continue from here."));
+        task.setOnCancelled(e -> showImportResult(Alert.AlertType.WARNING, "Import cancelled",
+            "Import the same file again to continue from here."));
+
+        TaskProgressDialog.run(task, "Import Members", "Importing " + file.getName(), "member-import");
+    }
+
+    private void showImportResult(Alert.AlertType type, String header, String message) {
+        pagedMembers.refresh();
+        refreshStats();
+        Alert alert = new Alert(type);
+        alert.setTitle("Import Members");
+        alert.setHeaderText(header);
+        alert.setContentText(message);
+        alert.show();
+    }
+
+    /**
+     * Re-run the search and filters in the background. Typing is debounced;
+     * button and filter changes run straight away. Results replace the
+     * table contents in a single change.
+     */
+    private void filterMembers(boolean immediate) {
+        String searchText = searchField.getText().trim();
         String statusValue = statusFilter.getValue();
         String planValue = planFilter.getValue();
+        String expiryValue = expiryFilter.getValue();
+
+        // Unfiltered, the table pages straight from the repository
+        if (searchText.isEmpty() && statusValue.equals("All Statuses") && planValue.equals("All Plans")
+                && expiryValue.equals("Any Time")) {
+            searchSession.cancel();
+            membersTable.setItems(pagedMembers);
+            return;
+        }
+
+        List<SortColumn> order = sortOrder(membersTable);
+        if (immediate) {
+            searchSession.submitNow(() -> findMembers(searchText, statusValue, planValue, expiryValue, order),
+                members -> showFilteredMembers(members, order));
+        } else {
+            searchSession.submit(() -> findMembers(searchText, statusValue, planValue, expiryValue, order),
+                members -> showFilteredMembers(members, order));
+        }
+    }
+
+    private void showFilteredMembers(List<Member> members, List<SortColumn> order) {
+        filteredOrder = order;
+        filteredMembers.setAll(members);
+        membersTable.setItems(filteredMembers);
+    }
 
-        for (Member member : allMembers) {
-            boolean matchesSearch = searchText.isEmpty() ||
-                member.getName().toLowerCase().contains(searchText) ||
-                member.getEmail().toLowerCase().contains(searchText) ||
-                member.getPhone().contains(searchText) ||
-                member.getMemberId().toLowerCase().contains(searchText);
+    /**
+     * Runs off the FX thread. Matches keep their search rank unless the
+     * table has a sort order; sorting a new filter's matches by an order
+     * already used picks them out of the cached full order.
+     */
+    private List<Member> findMembers(String searchText, String statusValue, String planValue, String expiryValue,
+                                     List<SortColumn> order) {
+        List<Member> matches = findMembers(searchText, statusValue, planValue, expiryValue);
+        return order.isEmpty() ? matches : sortIndex.sort(order, matches);
+    }
 
-            boolean matchesStatus = statusValue.equals("All Statuses") ||
-                member.getStatus().equals(statusValue);
+    /**
+     * Runs off the FX thread. The filters are resolved as one bitmap
+     * selection; search text, if any, is then matched against it.
+     */
+    private List<Member> findMembers(String searchText, String statusValue, String planValue, String expiryValue) {
+        YearMonth thisMonth = YearMonth.now();
+        YearMonth expiresFrom = null;
+        YearMonth expiresTo = null;
+        switch (expiryValue) {
+            case "This Month":
+                expiresFrom = thisMonth;
+                expiresTo = thisMonth;
+                break;
+            case "Next 3 Months":
+                expiresFrom = thisMonth;
+                expiresTo = thisMonth.plusMonths(2);
+                break;
+            case "Before This Month":
+                expiresTo = thisMonth.minusMonths(1);
+                break;
+            default:
+                break;
+        }
 
-            boolean matchesPlan = planValue.equals("All Plans") ||
-                member.getPlanType().equals(planValue);
+        List<String> statuses = statusValue.equals("All Statuses")
+            ? Collections.emptyList() : Collections.singletonList(statusValue);
+        List<String> plans = planValue.equals("All Plans")
+            ? Collections.emptyList() : Collections.singletonList(planValue);
 
-            if (matchesSearch && matchesStatus && matchesPlan) {
-                filteredMembers.add(member);
-            }
+        if (searchText.isEmpty()) {
+            return filterIndex.members(statuses, plans, expiresFrom, expiresTo);
+        }
+        // Text matching goes through the shared index; results keep their rank
+        List<Member> matches = filterIndex.retain(searchIndex.search(searchText, 0),
+            statuses, plans, expiresFrom, expiresTo);
+        if (matches.isEmpty()) {
+            // Nothing spelled that way; try names within a couple of typos
+            matches = filterIndex.retain(fuzzyIndex.search(searchText, 0), statuses, plans, expiresFrom, expiresTo);
         }
+        return matches;
     }
 
     private void clearFilters() {
         searchField.clear();
         statusFilter.setValue("All Statuses");
         planFilter.setValue("All Plans");
-        filterMembers();
+        expiryFilter.setValue("Any Time");
+        filterMembers(true);
     }
 
-    private void loadMockData() {
-        // Mock data for demonstration
-        allMembers.addAll(
-            new Member("M001", "John Smith", "john.smith@email.com", "555-0101", "Premium", "Active", 
-                "2024-01-15", "2025-01-15", "2024-11-05", "85.00", "2024-11-01", 
-                "Jane Smith - 555-0102", "123 Main St, City", 156, 18, "2024-11-10", 4.2),
-            new Member("M002", "Sarah Johnson", "sarah.j@email.com", "555-0102", "Basic", "Active",
-                "2024-03-20", "2025-03-20", "2024-10-20", "50.00", "2024-10-20",
-                "Mike Johnson - 555-0103", "456 Oak Ave, City", 89, 12, "2024-11-11", 3.1),
-            new Member("M003", "Michael Brown", "m.brown@email.com", "555-0103", "Elite", "Active",
-                "2023-06-10", "2025-06-10", "2024-06-10", "120.00", "2024-11-01",
-                "Lisa Brown - 555-0104", "789 Pine Rd, City", 342, 22, "2024-11-09", 5.5),
-            new Member("M004", "Emily Davis", "emily.d@email.com", "555-0104", "Student", "Expired",
-                "2024-01-05", "2024-11-05", "2024-08-15", "35.00", "2024-08-15",
-                "Robert Davis - 555-0105", "321 Elm St, City", 67, 8, "2024-10-28", 2.3),
-            new Member("M005", "David Wilson", "d.wilson@email.com", "555-0105", "Premium", "Active",
-                "2024-02-14", "2025-02-14", "2024-11-01", "85.00", "2024-11-01",
-                "Anna Wilson - 555-0106", "654 Maple Dr, City", 123, 16, "2024-11-12", 3.8),
-            new Member("M006", "Jessica Martinez", "jess.m@email.com", "555-0106", "Basic", "Pending",
-                "2024-10-01", "2024-11-20", "2024-11-10", "50.00", "2024-10-01",
-                "Carlos Martinez - 555-0107", "987 Birch Ln, City", 12, 4, "2024-11-08", 1.2),
-            new Member("M007", "Robert Taylor", "r.taylor@email.com", "555-0107", "Premium", "Suspended",
-                "2023-12-01", "2024-12-01", "2024-11-01", "85.00", "2024-09-01",
-                "Emma Taylor - 555-0108", "147 Cedar Ct, City", 234, 0, "2024-09-15", 0.0),
-            new Member("M008", "Amanda Anderson", "amanda.a@email.com", "555-0108", "Elite", "Active",
-                "2023-08-22", "2025-08-22", "2024-08-22", "120.00", "2024-11-01",
-                "Tom Anderson - 555-0109", "258 Spruce Way, City", 298, 20, "2024-11-11", 4.8),
-            new Member("M009", "Christopher Lee", "chris.lee@email.com", "555-0109", "Basic", "Expired",
-                "2024-04-10", "2024-10-10", "2024-09-01", "50.00", "2024-09-01",
-                "Nancy Lee - 555-0110", "369 Ash Blvd, City", 45, 2, "2024-09-30", 1.5),
-            new Member("M010", "Jennifer White", "jen.white@email.com", "555-0110", "Premium", "Active",
-                "2024-05-18", "2025-05-18", "2024-11-05", "85.00", "2024-11-05",
-                "Kevin White - 555-0111", "741 Walnut Ave, City", 102, 14, "2024-11-12", 3.5)
-        );
-
-        filteredMembers.addAll(allMembers);
+    /**
+     * Sorting the full list is pushed down to the repository by its first
+     * column; filtered results are fetched again in the full sort order
+     */
+    private Boolean sortMembers(TableView<Member> table) {
+        if (table.getItems() != pagedMembers) {
+            if (!sortOrder(table).equals(filteredOrder)) {
+                filterMembers(true);
+            }
+            return true;
+        }
+        MemberSortField field = MemberSortField.MEMBER_ID;
+        boolean ascending = true;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<Member, ?> column = table.getSortOrder().get(0);
+            field = (MemberSortField) column.getUserData();
+            ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        if (field != pageSort || ascending != pageAscending) {
+            pageSort = field;
+            pageAscending = ascending;
+            pagedMembers.setSource(memberPages(field, ascending));
+        }
+        return true;
     }
 
-    // Member data class
-    public static class Member {
-        private final String memberId;
-        private final String name;
-        private final String email;
-        private final String phone;
-        private final String planType;
-        private final String status;
-        private final String joinDate;
-        private final String expiryDate;
-        private final String startDate;
-        private final String monthlyFee;
-        private final String lastPayment;
-        private final String emergencyContact;
-        private final String address;
-        private final int totalCheckIns;
-        private final int checkInsThisMonth;
-        private final String lastCheckIn;
-        private final double avgWeeklyVisits;
-
-        public Member(String memberId, String name, String email, String phone, String planType, 
-                     String status, String joinDate, String expiryDate, String startDate,
-                     String monthlyFee, String lastPayment, String emergencyContact, String address,
-                     int totalCheckIns, int checkInsThisMonth, String lastCheckIn, double avgWeeklyVisits) {
-            this.memberId = memberId;
-            this.name = name;
-            this.email = email;
-            this.phone = phone;
-            this.planType = planType;
-            this.status = status;
-            this.joinDate = joinDate;
-            this.expiryDate = expiryDate;
-            this.startDate = startDate;
-            this.monthlyFee = monthlyFee;
-            this.lastPayment = lastPayment;
-            this.emergencyContact = emergencyContact;
-            this.address = address;
-            this.totalCheckIns = totalCheckIns;
-            this.checkInsThisMonth = checkInsThisMonth;
-            this.lastCheckIn = lastCheckIn;
-            this.avgWeeklyVisits = avgWeeklyVisits;
+    /**
+     * The table's sort columns, most significant first
+     */
+    private static List<SortColumn> sortOrder(TableView<Member> table) {
+        List<SortColumn> order = new ArrayList<>();
+        for (TableColumn<Member, ?> column : table.getSortOrder()) {
+            if (column.getUserData() instanceof MemberSortField) {
+                order.add(new SortColumn((MemberSortField) column.getUserData(),
+                    column.getSortType() == TableColumn.SortType.ASCENDING));
+            }
         }
+        return order;
+    }
+
+    private PagedObservableList.PageSource<Member> memberPages(MemberSortField sort, boolean ascending) {
+        return new PagedObservableList.PageSource<>() {
+            @Override
+            public int count() throws Exception {
+                return memberRepository.countMembers();
+            }
+
+            @Override
+            public List<Member> after(Member last, int limit) throws Exception {
+                return memberRepository.findPageAfter(sort, ascending, last, limit);
+            }
+
+            @Override
+            public List<Member> before(Member first, int limit) throws Exception {
+                return memberRepository.findPageBefore(sort, ascending, first, limit);
+            }
 
-        // Getters
-        public String getMemberId() { return memberId; }
-        public String getName() { return name; }
-        public String getEmail() { return email; }
-        public String getPhone() { return phone; }
-        public String getPlanType() { return planType; }
-        public String getStatus() { return status; }
-        public String getJoinDate() { return joinDate; }
-        public String getExpiryDate() { return expiryDate; }
-        public String getStartDate() { return startDate; }
-        public String getMonthlyFee() { return monthlyFee; }
-        public String getLastPayment() { return lastPayment; }
-        public String getEmergencyContact() { return emergencyContact; }
-        public String getAddress() { return address; }
-        public int getTotalCheckIns() { return totalCheckIns; }
-        public int getCheckInsThisMonth() { return checkInsThisMonth; }
-        public String getLastCheckIn() { return lastCheckIn; }
-        public double getAvgWeeklyVisits() { return avgWeeklyVisits; }
+            @Override
+            public List<Member> at(int offset, int limit) throws Exception {
+                return memberRepository.findPageAt(sort, ascending, offset, limit);
+            }
+        };
     }
 }
@@ -4,18 +4,24 @@
  */
 package com.block20.controllers.renewals;
 
+import com.block20.models.Payment;
+import com.block20.services.ServiceContext;
+import com.block20.services.members.MembershipService;
 import javafx.animation.PauseTransition;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.util.Duration;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -30,9 +36,11 @@ public class RenewalsController {
     private VBox pendingRenewalsView;
     private StackPane renewalProcessView;
     private Consumer<String> navigationHandler;
+    private final MembershipService membershipService;
     
     // Current renewal in process
     private RenewalData currentRenewal;
+    private boolean saving;
     
     // Filter state
     private String currentFilter = "All"; // All, Expiring Soon, Overdue
@@ -40,8 +48,9 @@ public class RenewalsController {
     /**
      * Constructor
      */
-    public RenewalsController(Consumer<String> navigationHandler) {
+    public RenewalsController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.membershipService = services.getMembershipService();
         initializeView();
     }
     
@@ -1020,24 +1029,60 @@ public class RenewalsController {
     }
     
     /**
-     * Process renewal payment
+     * Process renewal payment; the renewal is saved in the background and
+     * the confirmation shown once it is stored
      */
     private void processRenewalPayment() {
+        if (saving) {
+            return;
+        }
         System.out.println("\n=== Processing Renewal Payment ===");
         System.out.println("Member: " + currentRenewal.memberName);
         System.out.println("Amount: $" + String.format("%.2f", currentRenewal.totalAmount));
         
         // Simulate payment processing
         currentRenewal.paymentMethod = "Card";
-        currentRenewal.transactionId = "TXN" + System.currentTimeMillis();
-        
-        // Log complete renewal
-        logRenewalCompletion();
+        // One ID per renewal, so a retry after a failed save is not a second payment
+        if (currentRenewal.transactionId == null) {
+            currentRenewal.transactionId = "TXN" + System.currentTimeMillis();
+        }
         
-        // Show confirmation
-        VBox step3 = createStep3_Confirmation();
-        renewalProcessView.getChildren().clear();
-        renewalProcessView.getChildren().add(step3);
+        RenewalData renewal = currentRenewal;
+        Payment payment = new Payment(renewal.transactionId, renewal.memberId,
+            BigDecimal.valueOf(renewal.totalAmount).setScale(2, RoundingMode.HALF_UP),
+            renewal.paymentMethod, LocalDate.now(), "");
+        saving = true;
+        // Completes on the FX thread
+        membershipService.renew(renewal.memberId, renewal.selectedPlan, renewal.newExpiry, payment)
+            .whenComplete((renewed, error) -> {
+                saving = false;
+                if (error != null) {
+                    showSaveError(error);
+                    return;
+                }
+                if (renewal != currentRenewal) {
+                    // Staff moved on while it was saving
+                    return;
+                }
+                
+                // Log complete renewal
+                logRenewalCompletion();
+                
+                // Show confirmation
+                VBox step3 = createStep3_Confirmation();
+                renewalProcessView.getChildren().clear();
+                renewalProcessView.getChildren().add(step3);
+            });
+    }
+    
+    private void showSaveError(Throwable error) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Renewal Not Saved");
+        alert.setHeaderText("The renewal could not be saved");
+        alert.setContentText(error instanceof TimeoutException
+            ? "The database did not respond in time. Please try again."
+            : error.getMessage());
+        alert.showAndWait();
     }
     
     /**
@@ -4,14 +4,26 @@
  */
 package com.block20.controllers.staff;
 
+import com.block20.services.ServiceContext;
+import com.block20.services.cache.CacheStats;
+import com.block20.services.members.MemberStatistics;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+import com.block20.services.occupancy.OccupancySnapshot;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.*;
+import javafx.scene.shape.Polyline;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Controller for the Staff Dashboard view
@@ -19,11 +31,34 @@ import java.time.format.DateTimeFormatter;
  */
 public class StaffDashboardController extends ScrollPane {
     
+    private static final int SPARKLINE_MINUTES = 180;
+    private static final double SPARKLINE_HEIGHT = 48;
+    private static final int RENEWAL_WINDOW_DAYS = 7;
+    
     private VBox contentContainer;
     private final String staffName;
+    private final OccupancyService occupancyService;
+    private final OccupancyHistory occupancyHistory;
+    private final MemberStatistics memberStatistics;
+    private final ServiceContext services;
+    private Label activeMembersValue;
+    private Label activeMembersFooter;
+    private Label pendingRenewalsValue;
+    private Label occupancyInfoLabel;
+    private Label occupancyZonesLabel;
+    private Label occupancyTrendLabel;
+    private ProgressBar occupancyBar;
+    private Pane sparklinePane;
+    private Polyline sparkline;
+    private Timeline occupancyRefresh;
+    private VBox cacheLines;
     
-    public StaffDashboardController(String staffName) {
+    public StaffDashboardController(String staffName, ServiceContext services) {
         this.staffName = staffName;
+        this.occupancyService = services.getOccupancyService();
+        this.occupancyHistory = services.getOccupancyHistory();
+        this.memberStatistics = services.getMemberStatistics();
+        this.services = services;
         initializeView();
     }
     
@@ -49,6 +84,10 @@ public class StaffDashboardController extends ScrollPane {
             createAlertsSection(),
             createOccupancySection()
         );
+        // Only desks with storage have repository caches
+        if (!services.getCacheStats().isEmpty()) {
+            contentContainer.getChildren().add(createCacheSection());
+        }
         
         // Set content
         setContent(contentContainer);
@@ -98,9 +137,14 @@ public class StaffDashboardController extends ScrollPane {
         }
         
         // Add stat cards
-        grid.add(createStatCard("Active Members", "1,245", "↑ 23 this month", "success"), 0, 0);
+        activeMembersValue = new Label();
+        activeMembersFooter = new Label();
+        pendingRenewalsValue = new Label();
+        refreshMemberStats();
+        grid.add(createStatCard("Active Members", activeMembersValue, activeMembersFooter, "success"), 0, 0);
         grid.add(createStatCard("Collections This Month", "$18,500", "↑ $2,300 vs last month", "success"), 1, 0);
-        grid.add(createStatCard("Pending Renewals", "47", "⚠ Expiring in 7 days", "warning"), 2, 0);
+        grid.add(createStatCard("Pending Renewals", pendingRenewalsValue,
+            new Label("⚠ Expiring in " + RENEWAL_WINDOW_DAYS + " days"), "warning"), 2, 0);
         
         section.getChildren().add(grid);
         return section;
@@ -110,6 +154,13 @@ public class StaffDashboardController extends ScrollPane {
      * Create a single statistics card
      */
     private VBox createStatCard(String label, String value, String footer, String type) {
+        return createStatCard(label, new Label(value), new Label(footer), type);
+    }
+    
+    /**
+     * Create a statistics card around labels that are updated later
+     */
+    private VBox createStatCard(String label, Label cardValue, Label footerLabel, String type) {
         VBox card = new VBox();
         card.getStyleClass().addAll("stat-card");
         card.setAlignment(Pos.TOP_LEFT);
@@ -119,7 +170,6 @@ public class StaffDashboardController extends ScrollPane {
         cardLabel.getStyleClass().add("card-label");
         
         // Card value
-        Label cardValue = new Label(value);
         cardValue.getStyleClass().add("card-value");
         
         // Spacer
@@ -131,7 +181,6 @@ public class StaffDashboardController extends ScrollPane {
         footerBox.setAlignment(Pos.CENTER_LEFT);
         footerBox.getStyleClass().add("card-footer");
         
-        Label footerLabel = new Label(footer);
         footerBox.getChildren().add(footerLabel);
         
         card.getChildren().addAll(cardLabel, cardValue, spacer, footerBox);
@@ -246,17 +295,152 @@ public class StaffDashboardController extends ScrollPane {
         card.getStyleClass().add("card");
         
         // Occupancy info
-        Label infoLabel = new Label("Current: 87 members | Capacity: 200 (43%)");
-        infoLabel.getStyleClass().add("text-body");
+        occupancyInfoLabel = new Label();
+        occupancyInfoLabel.getStyleClass().add("text-body");
         
         // Progress bar
-        ProgressBar progressBar = createProgressBar(0.43);
+        occupancyBar = createProgressBar(0);
         
-        card.getChildren().addAll(infoLabel, progressBar);
+        occupancyZonesLabel = new Label();
+        occupancyZonesLabel.getStyleClass().add("text-caption");
+        
+        // Sparkline of the last few hours, one point per minute
+        sparkline = new Polyline();
+        sparkline.setStyle("-fx-stroke: #3B82F6; -fx-stroke-width: 2;");
+        sparklinePane = new Pane(sparkline);
+        sparklinePane.setPrefHeight(SPARKLINE_HEIGHT);
+        sparklinePane.setMinHeight(SPARKLINE_HEIGHT);
+        sparklinePane.widthProperty().addListener((obs, oldWidth, newWidth) -> refreshOccupancy());
+        
+        occupancyTrendLabel = new Label();
+        occupancyTrendLabel.getStyleClass().add("text-caption");
+        
+        card.getChildren().addAll(occupancyInfoLabel, occupancyBar, occupancyZonesLabel,
+            sparklinePane, occupancyTrendLabel);
         section.getChildren().addAll(sectionLabel, card);
+        
+        // Poll the shared counts while the dashboard is on screen
+        refreshOccupancy();
+        occupancyRefresh = new Timeline(new KeyFrame(Duration.seconds(2), e -> {
+            refreshOccupancy();
+            refreshMemberStats();
+            refreshCacheStats();
+        }));
+        occupancyRefresh.setCycleCount(Timeline.INDEFINITE);
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                occupancyRefresh.stop();
+            } else {
+                occupancyRefresh.play();
+            }
+        });
         return section;
     }
     
+    /**
+     * Create the section showing how many storage reads the caches answer
+     */
+    private VBox createCacheSection() {
+        VBox section = new VBox(16);
+        
+        Label sectionLabel = new Label("💾 STORAGE CACHE");
+        sectionLabel.getStyleClass().add("text-h4");
+        
+        cacheLines = new VBox(8);
+        cacheLines.getStyleClass().add("card");
+        refreshCacheStats();
+        
+        section.getChildren().addAll(sectionLabel, cacheLines);
+        return section;
+    }
+    
+    /**
+     * One line per cache: reads, share answered from memory, load time and fill
+     */
+    private void refreshCacheStats() {
+        if (cacheLines == null) {
+            return;
+        }
+        List<CacheStats> stats = services.getCacheStats();
+        Label[] lines = new Label[stats.size()];
+        for (int i = 0; i < lines.length; i++) {
+            CacheStats cache = stats.get(i);
+            lines[i] = createAlertItem(String.format(
+                "• %s: %,d reads, %.0f%% from memory, avg load %.1f ms, %,d/%,d entries",
+                cache.getName(), cache.getRequests(), cache.getHitRatio() * 100, cache.getAverageLoadMillis(),
+                cache.getSize(), cache.getMaximumSize()));
+        }
+        cacheLines.getChildren().setAll(lines);
+    }
+    
+    /**
+     * Update the member cards from the live counters; nothing is scanned
+     */
+    private void refreshMemberStats() {
+        activeMembersValue.setText(String.format("%,d", memberStatistics.getStatusCount("Active")));
+        activeMembersFooter.setText(String.format("↑ %,d this month", memberStatistics.getJoinedCount(YearMonth.now())));
+        pendingRenewalsValue.setText(String.format("%,d",
+            memberStatistics.getExpiringCount(LocalDate.now(), RENEWAL_WINDOW_DAYS)));
+    }
+    
+    /**
+     * Update the occupancy card from a lock-free snapshot and the history
+     */
+    private void refreshOccupancy() {
+        OccupancySnapshot snapshot = occupancyService.snapshot();
+        occupancyInfoLabel.setText(String.format("Current: %d members | Capacity: %d (%.0f%%)",
+            snapshot.getCurrent(), snapshot.getCapacity(), snapshot.getUtilization() * 100));
+        occupancyBar.setProgress(snapshot.getUtilization());
+        
+        StringBuilder zones = new StringBuilder();
+        snapshot.getByZone().forEach((zone, count) -> {
+            if (zones.length() > 0) {
+                zones.append("  •  ");
+            }
+            zones.append(zone).append(": ").append(count);
+        });
+        occupancyZonesLabel.setText(zones.toString());
+        
+        long now = snapshot.getTakenAtMillis();
+        drawSparkline(occupancyHistory.lastMinutes(now, SPARKLINE_MINUTES), snapshot.getCapacity());
+        
+        // How busy is it compared with this hour on recent days
+        double recent = occupancyHistory.averageOccupancy(now, 15);
+        double typical = occupancyHistory.typicalOccupancy(now, 28);
+        String trend;
+        if (typical <= 0) {
+            trend = "Not enough history yet to compare with a usual day";
+        } else if (recent > typical * 1.2) {
+            trend = String.format("Busier than usual for this hour (typically %.0f)", typical);
+        } else if (recent < typical * 0.8) {
+            trend = String.format("Quieter than usual for this hour (typically %.0f)", typical);
+        } else {
+            trend = String.format("About as busy as usual for this hour (typically %.0f)", typical);
+        }
+        occupancyTrendLabel.setText("Last " + (SPARKLINE_MINUTES / 60) + " hours  •  " + trend);
+    }
+    
+    /**
+     * Scale the per-minute series to the pane, with capacity at the top
+     */
+    private void drawSparkline(int[] series, int capacity) {
+        double width = sparklinePane.getWidth();
+        if (width <= 0 || series.length < 2) {
+            return;
+        }
+        int max = capacity;
+        for (int value : series) {
+            max = Math.max(max, value);
+        }
+        double step = width / (series.length - 1);
+        Double[] points = new Double[series.length * 2];
+        for (int i = 0; i < series.length; i++) {
+            points[2 * i] = i * step;
+            points[2 * i + 1] = SPARKLINE_HEIGHT - (double) series[i] / Math.max(1, max) * SPARKLINE_HEIGHT;
+        }
+        sparkline.getPoints().setAll(points);
+    }
+    
     /**
      * Create a custom progress bar
      */
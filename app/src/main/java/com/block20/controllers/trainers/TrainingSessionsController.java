@@ -4,16 +4,26 @@
  */
 package com.block20.controllers.trainers;
 
+import com.block20.models.Member;
+import com.block20.models.TrainingSession;
+import com.block20.services.ServiceContext;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.training.TrainingSessionService;
+import com.block20.services.writebehind.SessionStatusUpdates;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
@@ -25,8 +35,16 @@ import java.util.function.Consumer;
  */
 public class TrainingSessionsController extends ScrollPane {
     
+    // How far back and ahead the schedule is read
+    private static final int SCHEDULE_DAYS = 30;
+    
     private VBox contentContainer;
     private Consumer<String> navigationHandler;
+    private final Optional<SessionStatusUpdates> statusUpdates;
+    private final TrainingSessionService sessionService;
+    private final MemberDirectory memberDirectory;
+    private VBox tableRows;
+    private List<SessionData> sessionsList = new ArrayList<>();
     
     // Current filter state
     private String currentFilter = "Upcoming"; // Upcoming, Completed, Cancelled, All
@@ -34,9 +52,55 @@ public class TrainingSessionsController extends ScrollPane {
     /**
      * Constructor
      */
-    public TrainingSessionsController(Consumer<String> navigationHandler) {
+    public TrainingSessionsController(Consumer<String> navigationHandler, ServiceContext services) {
         this.navigationHandler = navigationHandler;
+        this.statusUpdates = services.getSessionStatusUpdates();
+        this.sessionService = services.getTrainingSessionService();
+        this.memberDirectory = services.getMemberDirectory();
         initializeView();
+        loadSessions();
+    }
+    
+    /**
+     * Show the stored schedule, read through the repository cache so
+     * returning to this screen does not query the database again. Demo
+     * sessions stand in when nothing is stored.
+     */
+    private void loadSessions() {
+        LocalDate today = LocalDate.now();
+        // Whole days, so every visit today asks the cache for the same range
+        LocalDateTime from = today.minusDays(SCHEDULE_DAYS).atStartOfDay();
+        LocalDateTime to = today.plusDays(SCHEDULE_DAYS + 1).atStartOfDay();
+        // Completes on the FX thread
+        sessionService.loadSchedule(from, to).whenComplete((stored, error) -> {
+            if (error != null) {
+                Alert failed = new Alert(Alert.AlertType.ERROR);
+                failed.setTitle("Not Loaded");
+                failed.setHeaderText("Sessions Could Not Be Loaded");
+                failed.setContentText(error instanceof TimeoutException
+                    ? "The database did not respond in time. Please try again."
+                    : error.getMessage());
+                failed.showAndWait();
+                return;
+            }
+            sessionsList = stored.map(this::toSessionData).orElseGet(this::generateMockSessions);
+            showSessions();
+        });
+    }
+    
+    /**
+     * Redraw the table in date and time order
+     */
+    private void showSessions() {
+        sessionsList.sort((s1, s2) -> {
+            int dateCompare = s1.date.compareTo(s2.date);
+            if (dateCompare != 0) return dateCompare;
+            return s1.time.compareTo(s2.time);
+        });
+        tableRows.getChildren().clear();
+        for (SessionData session : sessionsList) {
+            tableRows.getChildren().add(createTableRow(session));
+        }
     }
     
     /**
@@ -248,16 +312,9 @@ public class TrainingSessionsController extends ScrollPane {
         scrollPane.setFitToWidth(true);
         scrollPane.getStyleClass().add("table-scroll");
         
-        VBox tableRows = new VBox(5);
+        tableRows = new VBox(5);
         tableRows.setPadding(new Insets(10));
         
-        // Generate mock data
-        List<SessionData> sessionsList = generateMockSessions();
-        
-        for (SessionData session : sessionsList) {
-            tableRows.getChildren().add(createTableRow(session));
-        }
-        
         scrollPane.setContent(tableRows);
         
         tableContainer.getChildren().addAll(tableHeader, scrollPane);
@@ -483,14 +540,43 @@ public class TrainingSessionsController extends ScrollPane {
                 System.out.println("Notes: " + notesArea.getText());
                 System.out.println("=================================\n");
                 
-                // Show success
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText("Session Scheduled Successfully");
-                success.setContentText("Session ID: " + sessionId + "\n" +
-                                      "Date: " + datePicker.getValue() + " at " + timeBox.getValue() + "\n" +
-                                      "Confirmation emails sent to member and trainer.");
-                success.showAndWait();
+                SessionData newSession = new SessionData();
+                newSession.sessionId = sessionId;
+                newSession.date = datePicker.getValue();
+                newSession.time = LocalTime.parse(timeBox.getValue());
+                newSession.memberName = memberBox.getValue().split(" - ")[1];
+                newSession.trainerName = trainerBox.getValue().split(" - ")[0];
+                newSession.sessionType = sessionTypeBox.getValue();
+                newSession.duration = Integer.parseInt(durationBox.getValue().split(" ")[0]);
+                newSession.status = "Scheduled";
+                TrainingSession booking = new TrainingSession(sessionId, memberBox.getValue().split(" - ")[0],
+                    newSession.trainerName, newSession.sessionType, newSession.date.atTime(newSession.time),
+                    newSession.duration, newSession.status);
+                
+                // Saved in the background; completes on the FX thread
+                sessionService.schedule(booking).whenComplete((stored, error) -> {
+                    if (error != null) {
+                        Alert failed = new Alert(Alert.AlertType.ERROR);
+                        failed.setTitle("Not Saved");
+                        failed.setHeaderText("Session Not Scheduled");
+                        failed.setContentText(error instanceof TimeoutException
+                            ? "The database did not respond in time. Please try again."
+                            : error.getMessage());
+                        failed.showAndWait();
+                        return;
+                    }
+                    sessionsList.add(newSession);
+                    showSessions();
+                    
+                    // Show success
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText("Session Scheduled Successfully");
+                    success.setContentText("Session ID: " + sessionId + "\n" +
+                                          "Date: " + newSession.date + " at " + timeBox.getValue() + "\n" +
+                                          "Confirmation emails sent to member and trainer.");
+                    success.showAndWait();
+                });
             }
         });
     }
@@ -579,13 +665,29 @@ public class TrainingSessionsController extends ScrollPane {
                 System.out.println("Trainer: " + session.trainerName);
                 System.out.println("========================\n");
                 
-                Alert success = new Alert(Alert.AlertType.INFORMATION);
-                success.setTitle("Success");
-                success.setHeaderText("Session Cancelled");
-                success.setContentText("The session has been cancelled.\nNotifications sent to member and trainer.");
-                success.showAndWait();
-                
-                // Refresh list (in real implementation)
+                // Journaled locally and written to the database with the next batch
+                CompletableFuture<Void> saved = statusUpdates
+                    .map(updates -> updates.change(session.sessionId, "Cancelled"))
+                    .orElseGet(() -> CompletableFuture.completedFuture(null));
+                saved.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        Alert failed = new Alert(Alert.AlertType.ERROR);
+                        failed.setTitle("Not Saved");
+                        failed.setHeaderText("Session Not Cancelled");
+                        failed.setContentText(error.getMessage());
+                        failed.showAndWait();
+                        return;
+                    }
+                    session.status = "Cancelled";
+                    // Redraw so the row drops its Cancel button
+                    showSessions();
+                    
+                    Alert success = new Alert(Alert.AlertType.INFORMATION);
+                    success.setTitle("Success");
+                    success.setHeaderText("Session Cancelled");
+                    success.setContentText("The session has been cancelled.\nNotifications sent to member and trainer.");
+                    success.showAndWait();
+                });
             }
         });
     }
@@ -645,13 +747,28 @@ public class TrainingSessionsController extends ScrollPane {
             sessions.add(session);
         }
         
-        // Sort by date and time
-        sessions.sort((s1, s2) -> {
-            int dateCompare = s1.date.compareTo(s2.date);
-            if (dateCompare != 0) return dateCompare;
-            return s1.time.compareTo(s2.time);
-        });
-        
+        return sessions;
+    }
+    
+    /**
+     * Rows for stored sessions, with member names from the directory
+     */
+    private List<SessionData> toSessionData(List<TrainingSession> stored) {
+        List<SessionData> sessions = new ArrayList<>();
+        for (TrainingSession booking : stored) {
+            SessionData session = new SessionData();
+            session.sessionId = booking.getSessionId();
+            session.date = booking.getStartsAt().toLocalDate();
+            session.time = booking.getStartsAt().toLocalTime();
+            session.memberName = memberDirectory.findById(booking.getMemberId())
+                .map(Member::getName)
+                .orElse(booking.getMemberId());
+            session.trainerName = booking.getTrainerName();
+            session.sessionType = booking.getSessionType();
+            session.duration = booking.getDurationMinutes();
+            session.status = booking.getStatus();
+            sessions.add(session);
+        }
         return sessions;
     }
     
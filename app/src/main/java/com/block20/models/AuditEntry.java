@@ -0,0 +1,41 @@
+/*
+ * Block20 Gym Management System
+ * Audit Entry Model
+ */
+package com.block20.models;
+
+/**
+ * One action taken at a desk, kept for later review
+ */
+public class AuditEntry {
+    private final String entryId;
+    private final long occurredAtMillis;
+    private final String actor;
+    private final String action;
+    private final String target;
+    private final String details;
+
+    public AuditEntry(String entryId, long occurredAtMillis, String actor, String action, String target,
+                      String details) {
+        this.entryId = entryId;
+        this.occurredAtMillis = occurredAtMillis;
+        this.actor = actor;
+        this.action = action;
+        this.target = target;
+        this.details = details;
+    }
+
+    /** Unique per entry, so storing an entry twice keeps one copy */
+    public String getEntryId() { return entryId; }
+    public long getOccurredAtMillis() { return occurredAtMillis; }
+
+    /** Desk or staff member that took the action */
+    public String getActor() { return actor; }
+
+    /** Short name such as member.enroll */
+    public String getAction() { return action; }
+
+    /** ID of the member, session or item acted on */
+    public String getTarget() { return target; }
+    public String getDetails() { return details; }
+}
@@ -0,0 +1,35 @@
+/*
+ * Block20 Gym Management System
+ * Check-in action
+ */
+package com.block20.models;
+
+/**
+ * Direction of a door event
+ */
+public enum CheckInAction {
+    CHECK_IN("Check In", (byte) 1),
+    CHECK_OUT("Check Out", (byte) 2);
+
+    private final String label;
+    private final byte code;
+
+    CheckInAction(String label, byte code) {
+        this.label = label;
+        this.code = code;
+    }
+
+    public String getLabel() { return label; }
+
+    /** Stable one-byte code used in the binary journal */
+    public byte getCode() { return code; }
+
+    public static CheckInAction fromCode(byte code) {
+        for (CheckInAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown check-in action code: " + code);
+    }
+}
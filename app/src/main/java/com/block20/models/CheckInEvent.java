@@ -0,0 +1,27 @@
+/*
+ * Block20 Gym Management System
+ * Check-in event model
+ */
+package com.block20.models;
+
+/**
+ * A member entering or leaving the facility
+ */
+public class CheckInEvent {
+    private final String memberId;
+    private final CheckInAction action;
+    private final long timestampMillis;
+    private final String entrance;
+
+    public CheckInEvent(String memberId, CheckInAction action, long timestampMillis, String entrance) {
+        this.memberId = memberId;
+        this.action = action;
+        this.timestampMillis = timestampMillis;
+        this.entrance = entrance;
+    }
+
+    public String getMemberId() { return memberId; }
+    public CheckInAction getAction() { return action; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getEntrance() { return entrance; }
+}
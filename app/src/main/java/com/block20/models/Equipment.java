@@ -0,0 +1,51 @@
+/*
+ * Block20 Gym Management System
+ * Equipment Model
+ */
+package com.block20.models;
+
+import java.time.LocalDate;
+
+/**
+ * A machine or other asset on the gym floor
+ */
+public class Equipment {
+    private final String equipmentId;
+    private final String name;
+    private final String category;
+    private final String zone;
+    private final String serialNumber;
+    private final LocalDate purchaseDate;
+    private final LocalDate warrantyExpiry;
+    private final String status;
+    private final String notes;
+
+    public Equipment(String equipmentId, String name, String category, String zone, String serialNumber,
+                     LocalDate purchaseDate, LocalDate warrantyExpiry, String status, String notes) {
+        this.equipmentId = equipmentId;
+        this.name = name;
+        this.category = category;
+        this.zone = zone;
+        this.serialNumber = serialNumber;
+        this.purchaseDate = purchaseDate;
+        this.warrantyExpiry = warrantyExpiry;
+        this.status = status;
+        this.notes = notes;
+    }
+
+    public String getEquipmentId() { return equipmentId; }
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    public String getZone() { return zone; }
+    public String getSerialNumber() { return serialNumber; }
+
+    /** Null if unknown */
+    public LocalDate getPurchaseDate() { return purchaseDate; }
+
+    /** Null if there is no warranty */
+    public LocalDate getWarrantyExpiry() { return warrantyExpiry; }
+
+    /** Operational, Maintenance or Out of Service */
+    public String getStatus() { return status; }
+    public String getNotes() { return notes; }
+}
@@ -0,0 +1,64 @@
+/*
+ * Block20 Gym Management System
+ * Member Model
+ */
+package com.block20.models;
+
+/**
+ * A registered gym member as shown in the registry and check-in screens.
+ * Only the summary a list row needs; attendance and payment history is
+ * loaded separately as a {@link MemberProfile} when a profile is opened.
+ */
+public class Member {
+    private final String memberId;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private final String planType;
+    private final String status;
+    private final String joinDate;
+    private final String expiryDate;
+    private final String startDate;
+    private final String monthlyFee;
+    private final String emergencyContact;
+    private final String address;
+
+    public Member(String memberId, String name, String email, String phone, String planType,
+                 String status, String joinDate, String expiryDate, String startDate,
+                 String monthlyFee, String emergencyContact, String address) {
+        this.memberId = memberId;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.planType = planType;
+        this.status = status;
+        this.joinDate = joinDate;
+        this.expiryDate = expiryDate;
+        this.startDate = startDate;
+        this.monthlyFee = monthlyFee;
+        this.emergencyContact = emergencyContact;
+        this.address = address;
+    }
+
+    /**
+     * For views that read their values from elsewhere and override every
+     * getter, such as the rows of the member store
+     */
+    protected Member() {
+        this(null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    // Getters
+    public String getMemberId() { return memberId; }
+    public String getName() { return name; }
+    public String getEmail() { return email; }
+    public String getPhone() { return phone; }
+    public String getPlanType() { return planType; }
+    public String getStatus() { return status; }
+    public String getJoinDate() { return joinDate; }
+    public String getExpiryDate() { return expiryDate; }
+    public String getStartDate() { return startDate; }
+    public String getMonthlyFee() { return monthlyFee; }
+    public String getEmergencyContact() { return emergencyContact; }
+    public String getAddress() { return address; }
+}
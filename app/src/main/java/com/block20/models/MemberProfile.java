@@ -0,0 +1,44 @@
+/*
+ * Block20 Gym Management System
+ * Member Profile Model
+ */
+package com.block20.models;
+
+/**
+ * Attendance and payment details shown on a member's profile.
+ * Kept off the {@link Member} row, which only carries what the registry
+ * list needs, and loaded when a profile is opened.
+ */
+public class MemberProfile {
+    private final String memberId;
+    private final String lastPayment;
+    private final int totalCheckIns;
+    private final int checkInsThisMonth;
+    private final String lastCheckIn;
+    private final double avgWeeklyVisits;
+
+    public MemberProfile(String memberId, String lastPayment, int totalCheckIns, int checkInsThisMonth,
+                         String lastCheckIn, double avgWeeklyVisits) {
+        this.memberId = memberId;
+        this.lastPayment = lastPayment;
+        this.totalCheckIns = totalCheckIns;
+        this.checkInsThisMonth = checkInsThisMonth;
+        this.lastCheckIn = lastCheckIn;
+        this.avgWeeklyVisits = avgWeeklyVisits;
+    }
+
+    /**
+     * A member with no payments or visits on record
+     */
+    public static MemberProfile empty(String memberId) {
+        return new MemberProfile(memberId, "", 0, 0, "Never", 0);
+    }
+
+    // Getters
+    public String getMemberId() { return memberId; }
+    public String getLastPayment() { return lastPayment; }
+    public int getTotalCheckIns() { return totalCheckIns; }
+    public int getCheckInsThisMonth() { return checkInsThisMonth; }
+    public String getLastCheckIn() { return lastCheckIn; }
+    public double getAvgWeeklyVisits() { return avgWeeklyVisits; }
+}
@@ -0,0 +1,39 @@
+/*
+ * Block20 Gym Management System
+ * Payment Model
+ */
+package com.block20.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Money received from a member: an enrollment, a renewal or a one-off fee
+ */
+public class Payment {
+    private final String paymentId;
+    private final String memberId;
+    private final BigDecimal amount;
+    private final String method;
+    private final LocalDate paidOn;
+    private final String reference;
+
+    public Payment(String paymentId, String memberId, BigDecimal amount, String method, LocalDate paidOn,
+                   String reference) {
+        this.paymentId = paymentId;
+        this.memberId = memberId;
+        this.amount = amount;
+        this.method = method;
+        this.paidOn = paidOn;
+        this.reference = reference;
+    }
+
+    public String getPaymentId() { return paymentId; }
+    public String getMemberId() { return memberId; }
+    public BigDecimal getAmount() { return amount; }
+    public String getMethod() { return method; }
+    public LocalDate getPaidOn() { return paidOn; }
+
+    /** Card transaction ID, receipt number or similar; may be empty */
+    public String getReference() { return reference; }
+}
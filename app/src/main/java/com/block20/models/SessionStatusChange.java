@@ -0,0 +1,24 @@
+/*
+ * Block20 Gym Management System
+ * Session Status Change Model
+ */
+package com.block20.models;
+
+/**
+ * A training session moving to a new status, e.g. Cancelled
+ */
+public class SessionStatusChange {
+    private final String sessionId;
+    private final String status;
+    private final long changedAtMillis;
+
+    public SessionStatusChange(String sessionId, String status, long changedAtMillis) {
+        this.sessionId = sessionId;
+        this.status = status;
+        this.changedAtMillis = changedAtMillis;
+    }
+
+    public String getSessionId() { return sessionId; }
+    public String getStatus() { return status; }
+    public long getChangedAtMillis() { return changedAtMillis; }
+}
@@ -0,0 +1,41 @@
+/*
+ * Block20 Gym Management System
+ * Training Session Model
+ */
+package com.block20.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booked session between a member and a trainer
+ */
+public class TrainingSession {
+    private final String sessionId;
+    private final String memberId;
+    private final String trainerName;
+    private final String sessionType;
+    private final LocalDateTime startsAt;
+    private final int durationMinutes;
+    private final String status;
+
+    public TrainingSession(String sessionId, String memberId, String trainerName, String sessionType,
+                           LocalDateTime startsAt, int durationMinutes, String status) {
+        this.sessionId = sessionId;
+        this.memberId = memberId;
+        this.trainerName = trainerName;
+        this.sessionType = sessionType;
+        this.startsAt = startsAt;
+        this.durationMinutes = durationMinutes;
+        this.status = status;
+    }
+
+    public String getSessionId() { return sessionId; }
+    public String getMemberId() { return memberId; }
+    public String getTrainerName() { return trainerName; }
+    public String getSessionType() { return sessionType; }
+    public LocalDateTime getStartsAt() { return startsAt; }
+    public int getDurationMinutes() { return durationMinutes; }
+
+    /** Scheduled, Completed or Cancelled */
+    public String getStatus() { return status; }
+}
@@ -0,0 +1,29 @@
+/*
+ * Block20 Gym Management System
+ * Audit Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.AuditEntry;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Central audit trail of actions taken at every desk
+ */
+public interface AuditRepository {
+
+    /**
+     * Create the audit table if it is missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Store entries in as few statements as possible. Entries already
+     * stored are skipped.
+     *
+     * @return number of entries newly stored
+     */
+    int insertAll(List<AuditEntry> entries) throws SQLException;
+}
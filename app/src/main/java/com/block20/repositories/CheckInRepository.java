@@ -0,0 +1,32 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.CheckInEvent;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Central store for door events from every desk
+ */
+public interface CheckInRepository {
+
+    /**
+     * Create the check-in tables if they are missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Store a run of journal events from one desk in a single transaction.
+     * Event IDs are derived from the desk and journal sequence, so sending
+     * the same events again changes nothing.
+     *
+     * @param deviceId      desk the events were recorded at
+     * @param firstSequence journal sequence number (1-based) of the first event
+     * @return number of double check-ins detected in this batch
+     */
+    int saveEvents(String deviceId, long firstSequence, List<CheckInEvent> events) throws SQLException;
+}
@@ -0,0 +1,624 @@
+/*
+ * Block20 Gym Management System
+ * Connection Pool - bounded JDBC pool with statement caching
+ */
+package com.block20.repositories;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps up to a fixed number of connections open and lends them out.
+ *
+ * Repositories keep their open-use-close style: closing a borrowed
+ * connection hands it back, rolled back and in auto-commit mode, for the
+ * next caller. When every connection is out, callers queue in arrival
+ * order and give up with {@link SQLTransientConnectionException} after
+ * the borrow timeout.
+ *
+ * Each connection keeps its most recently used prepared statements by
+ * SQL text, so a repository that prepares the same query on every call
+ * gets back the statement the server already parsed. With MySQL this
+ * pairs with {@code useServerPrepStmts}, which {@link DatabaseConnection}
+ * turns on.
+ *
+ * A connection that sat idle is checked with {@link Connection#isValid}
+ * before it is lent again. A background thread reports connections held
+ * longer than the leak threshold, with the stack that borrowed them, and
+ * closes connections nobody has needed for a while.
+ */
+public final class ConnectionPool implements ConnectionProvider, AutoCloseable {
+
+    private static final Duration DEFAULT_BORROW_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_LEAK_THRESHOLD = Duration.ofSeconds(30);
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // A connection handed back this recently is trusted without a round trip
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long HOUSEKEEPING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ConnectionProvider connector;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long leakThresholdNanos;
+    private final int statementCacheSize;
+
+    // Fair, so waiting callers are served in the order they arrived
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+    // Most recently returned first, so a quiet period lets the tail go idle and be closed
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private int total;
+    private int waiting;
+    private boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    private final Thread housekeeper;
+
+    public ConnectionPool(ConnectionProvider connector, int maxSize) {
+        this(connector, maxSize, DEFAULT_BORROW_TIMEOUT, DEFAULT_LEAK_THRESHOLD, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param connector          opens new physical connections
+     * @param maxSize            most connections open at once
+     * @param borrowTimeout      how long a caller waits for a free connection
+     * @param leakThreshold      how long a connection can be held before it is reported;
+     *                           zero turns leak detection off
+     * @param statementCacheSize prepared statements kept per connection; zero turns caching off
+     */
+    public ConnectionPool(ConnectionProvider connector, int maxSize, Duration borrowTimeout,
+                          Duration leakThreshold, int statementCacheSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.connector = connector;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = borrowTimeout.toNanos();
+        this.leakThresholdNanos = leakThreshold.toNanos();
+        this.statementCacheSize = statementCacheSize;
+
+        this.housekeeper = new Thread(this::runHousekeeper, "connection-pool-housekeeper");
+        this.housekeeper.setDaemon(true);
+        this.housekeeper.start();
+    }
+
+    /**
+     * Borrow a connection; close it to give it back
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + borrowTimeoutNanos;
+        while (true) {
+            PooledConnection pooled;
+            lock.lock();
+            try {
+                pooled = takeIdle(deadline);
+            } finally {
+                lock.unlock();
+            }
+
+            if (pooled == null) {
+                // takeIdle reserved a slot for a new connection
+                try {
+                    pooled = new PooledConnection(connector.getConnection());
+                } catch (SQLException | RuntimeException e) {
+                    discarded();
+                    throw e;
+                }
+            } else if (!validate(pooled)) {
+                validationFailures.increment();
+                destroy(pooled);
+                continue;
+            }
+
+            long waited = System.nanoTime() - start;
+            borrows.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            Lease lease = new Lease(pooled);
+            leases.add(lease);
+            return lease.proxy;
+        }
+    }
+
+    /**
+     * An idle connection, or null once a slot for a new one is reserved.
+     * Called with the lock held.
+     */
+    private PooledConnection takeIdle(long deadline) throws SQLException {
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool is closed");
+            }
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled != null) {
+                return pooled;
+            }
+            if (total < maxSize) {
+                total++;
+                return null;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(String.format(
+                    "No database connection free after %d ms (%d in use, %d waiting)",
+                    TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos), total, waiting));
+            }
+            waiting++;
+            try {
+                available.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                waiting--;
+            }
+        }
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        if (System.nanoTime() - pooled.lastReturnedNanos < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Take a connection back from a lease that was closed
+     */
+    private void release(Lease lease) {
+        leases.remove(lease);
+        PooledConnection pooled = lease.pooled;
+        boolean reusable = lease.closeOpenStatements() && reset(pooled.physical);
+        if (reusable) {
+            pooled.lastReturnedNanos = System.nanoTime();
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.addFirst(pooled);
+                    available.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        destroy(pooled);
+    }
+
+    /**
+     * Undo whatever the borrower left behind. A connection that cannot be
+     * reset is closed rather than lent out in an unknown state.
+     */
+    private static boolean reset(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            conn.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.closeQuietly();
+        discarded();
+    }
+
+    private void discarded() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConnectionPoolStats getStats() {
+        int open;
+        int idleCount;
+        int waitingCount;
+        lock.lock();
+        try {
+            open = total;
+            idleCount = idle.size();
+            waitingCount = waiting;
+        } finally {
+            lock.unlock();
+        }
+        return new ConnectionPoolStats(open, leases.size(), idleCount, waitingCount, borrows.sum(),
+            timeouts.sum(), totalWaitNanos.sum(), maxWaitNanos.get(), validationFailures.sum(), leaks.sum(),
+            statementHits.sum(), statementMisses.sum());
+    }
+
+    /**
+     * Report connections held past the leak threshold. Each one is
+     * reported once; it stays borrowed, since its holder may still be
+     * using it.
+     *
+     * @return number of newly reported connections
+     */
+    int detectLeaks() {
+        if (leakThresholdNanos <= 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        int found = 0;
+        for (Lease lease : leases) {
+            if (!lease.reported && now - lease.borrowedNanos > leakThresholdNanos) {
+                lease.reported = true;
+                found++;
+                leaks.increment();
+                System.err.println("Database connection held for "
+                    + TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedNanos) + " ms, possible leak");
+                lease.borrowedAt.printStackTrace();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Close connections that have been idle past the idle timeout
+     */
+    private void closeIdle() {
+        long now = System.nanoTime();
+        List<PooledConnection> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedNanos < IDLE_TIMEOUT_NANOS) {
+                    break;
+                }
+                it.remove();
+                expired.add(pooled);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : expired) {
+            destroy(pooled);
+        }
+    }
+
+    private void runHousekeeper() {
+        while (true) {
+            LockSupport.parkNanos(HOUSEKEEPING_INTERVAL_NANOS);
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                detectLeaks();
+                closeIdle();
+            } catch (RuntimeException e) {
+                System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Close idle connections and stop lending. Connections still borrowed
+     * are closed as they are handed back.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> drained;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            drained = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pooled : drained) {
+            destroy(pooled);
+        }
+        LockSupport.unpark(housekeeper);
+        try {
+            housekeeper.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A physical connection and its statement cache. Only the current
+     * borrower touches the cache, so it needs no locking.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final LinkedHashMap<String, CachedStatement> statements;
+        volatile long lastReturnedNanos;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastReturnedNanos = System.nanoTime();
+            this.statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    eldest.getValue().evict();
+                    return true;
+                }
+            };
+        }
+
+        void closeQuietly() {
+            for (CachedStatement cached : statements.values()) {
+                cached.evict();
+            }
+            statements.clear();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Already broken; nothing more to release
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open between borrows
+     */
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        // Handle of the current user, null while the statement sits in the cache
+        StatementHandle owner;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /** Close now, or when the current user hands it back */
+        void evict() {
+            evicted = true;
+            if (owner == null) {
+                closeQuietly(statement);
+            }
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // The connection is going away or already gone
+        }
+    }
+
+    /**
+     * One borrow of a pooled connection. The caller sees {@link #proxy},
+     * which hands the connection back on close and refuses further use.
+     */
+    private final class Lease implements InvocationHandler {
+        final PooledConnection pooled;
+        final Connection proxy;
+        final long borrowedNanos = System.nanoTime();
+        final Throwable borrowedAt;
+        // Statements the caller opened outside the cache, closed on return if the caller forgot
+        final List<Statement> opened = new ArrayList<>();
+        volatile boolean reported;
+        private boolean released;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.borrowedAt = leakThresholdNanos > 0 ? new Exception("Connection borrowed here") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return "Pooled " + pooled.physical;
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1 && statementCacheSize > 0) {
+                return prepareCached((String) args[0]);
+            }
+            Object result = ConnectionPool.invoke(pooled.physical, method, args);
+            if (result instanceof Statement) {
+                opened.add((Statement) result);
+            }
+            return result;
+        }
+
+        private PreparedStatement prepareCached(String sql) throws SQLException {
+            CachedStatement cached = pooled.statements.get(sql);
+            if (cached != null && cached.owner == null) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                PreparedStatement statement = pooled.physical.prepareStatement(sql);
+                if (cached != null) {
+                    // Same SQL already open on this connection; this copy is not kept
+                    opened.add(statement);
+                    return statement;
+                }
+                cached = new CachedStatement(statement);
+                pooled.statements.put(sql, cached);
+            }
+            StatementHandle handle = new StatementHandle(cached, this);
+            cached.owner = handle;
+            return handle.proxy;
+        }
+
+        /**
+         * @return false if the connection failed while tidying up
+         */
+        boolean closeOpenStatements() {
+            boolean healthy = true;
+            for (Statement statement : opened) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    healthy = false;
+                }
+            }
+            opened.clear();
+            for (CachedStatement cached : pooled.statements.values()) {
+                if (cached.owner != null) {
+                    healthy &= StatementHandle.recycle(cached);
+                }
+            }
+            return healthy;
+        }
+    }
+
+    /**
+     * The caller's view of a cached statement: close puts it back in the
+     * cache instead of closing it on the server
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        final CachedStatement cached;
+        final Lease lease;
+        final PreparedStatement proxy;
+        private boolean closed;
+
+        StatementHandle(CachedStatement cached, Lease lease) {
+            this.cached = cached;
+            this.lease = lease;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        // A handle kept past its connection's return no longer owns the statement
+                        if (cached.owner == this && !recycle(cached)) {
+                            throw new SQLException("Could not reset cached statement");
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.owner != this || cached.statement.isClosed();
+                case "getConnection":
+                    return lease.proxy;
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return "Cached " + cached.statement;
+                default:
+                    break;
+            }
+            if (closed || cached.owner != this) {
+                throw new SQLException("Statement is closed");
+            }
+            return ConnectionPool.invoke(cached.statement, method, args);
+        }
+
+        /**
+         * Clear what the last user left on the statement so the next one
+         * starts clean, or close it if it was evicted meanwhile
+         */
+        static boolean recycle(CachedStatement cached) {
+            cached.owner = null;
+            if (cached.evicted) {
+                closeQuietly(cached.statement);
+                return true;
+            }
+            try {
+                ResultSet open = cached.statement.getResultSet();
+                if (open != null) {
+                    open.close();
+                }
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+                return true;
+            } catch (SQLException e) {
+                cached.evicted = true;
+                closeQuietly(cached.statement);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Block20 Gym Management System
+ * Connection pool statistics
+ */
+package com.block20.repositories;
+
+/**
+ * Point-in-time gauges and counters for the connection pool
+ */
+public class ConnectionPoolStats {
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long borrows;
+    private final long timeouts;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long validationFailures;
+    private final long leaks;
+    private final long statementHits;
+    private final long statementMisses;
+
+    public ConnectionPoolStats(int total, int active, int idle, int waiting, long borrows, long timeouts,
+                               long totalWaitNanos, long maxWaitNanos, long validationFailures, long leaks,
+                               long statementHits, long statementMisses) {
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.borrows = borrows;
+        this.timeouts = timeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.validationFailures = validationFailures;
+        this.leaks = leaks;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+    }
+
+    /** Open physical connections, borrowed or not */
+    public int getTotal() { return total; }
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+
+    /** Threads currently blocked waiting for a connection */
+    public int getWaiting() { return waiting; }
+    public long getBorrows() { return borrows; }
+
+    /** Borrows that gave up after the borrow timeout */
+    public long getTimeouts() { return timeouts; }
+
+    /** Idle connections found dead when borrowed and replaced */
+    public long getValidationFailures() { return validationFailures; }
+
+    /** Connections held past the leak threshold */
+    public long getLeaks() { return leaks; }
+    public long getStatementHits() { return statementHits; }
+    public long getStatementMisses() { return statementMisses; }
+
+    public double getAverageWaitMillis() {
+        if (borrows == 0) {
+            return 0;
+        }
+        return totalWaitNanos / 1_000_000.0 / borrows;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    /**
+     * Share of prepareStatement calls served from the statement cache
+     */
+    public double getStatementHitRatio() {
+        long lookups = statementHits + statementMisses;
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double) statementHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d active, %d idle, %d waiting; %,d borrows, avg wait %.2f ms, max %.2f ms, "
+                + "%,d timeouts, %,d invalid, %,d leaks; statements %.1f%% hit ratio",
+            active, total, idle, waiting, borrows, getAverageWaitMillis(), getMaxWaitMillis(), timeouts,
+            validationFailures, leaks, getStatementHitRatio() * 100);
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Block20 Gym Management System
+ * Connection Provider
+ */
+package com.block20.repositories;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out database connections to repositories. Callers close the
+ * connection when they are done with it.
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+    Connection getConnection() throws SQLException;
+}
@@ -0,0 +1,55 @@
+/*
+ * Block20 Gym Management System
+ * Database Connection
+ */
+package com.block20.repositories;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * MySQL connection settings, read from system properties:
+ * {@code block20.db.url}, {@code block20.db.user} and {@code block20.db.password}.
+ * Without a URL the application runs desk-only on local files.
+ *
+ * MySQL connections ask for server-side prepared statements, so the
+ * statements {@link ConnectionPool} caches are parsed once per connection.
+ */
+public class DatabaseConnection implements ConnectionProvider {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    public DatabaseConnection(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public static boolean isConfigured() {
+        String url = System.getProperty("block20.db.url");
+        return url != null && !url.isEmpty();
+    }
+
+    public static DatabaseConnection fromSystemProperties() {
+        return new DatabaseConnection(System.getProperty("block20.db.url"),
+            System.getProperty("block20.db.user", "root"),
+            System.getProperty("block20.db.password", ""));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", user);
+        info.setProperty("password", password);
+        if (url.startsWith("jdbc:mysql:")) {
+            info.setProperty("useServerPrepStmts", "true");
+            // The pool caches the statement handles; the driver keeps its own parse cache too
+            info.setProperty("cachePrepStmts", "true");
+        }
+        return DriverManager.getConnection(url, info);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Block20 Gym Management System
+ * Equipment Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.Equipment;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Equipment inventory shared by every desk
+ */
+public interface EquipmentRepository {
+
+    /**
+     * Create the equipment table if it is missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Insert an item, or replace the stored one with the same ID
+     */
+    void save(Equipment equipment) throws SQLException;
+
+    Optional<Equipment> findById(String equipmentId) throws SQLException;
+
+    /**
+     * Every item, by equipment ID
+     */
+    List<Equipment> findAll() throws SQLException;
+
+    /**
+     * Items in one status, such as everything out of service, by equipment ID
+     */
+    List<Equipment> findByStatus(String status) throws SQLException;
+
+    /**
+     * @return false if there is no such item
+     */
+    boolean updateStatus(String equipmentId, String status) throws SQLException;
+}
@@ -0,0 +1,76 @@
+/*
+ * Block20 Gym Management System
+ * Member Record Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.Member;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where enrollments, renewals and imports store member rows.
+ *
+ * A deleted member keeps its row, marked deleted, until it is purged, so
+ * the deletion can be undone after a restart. Its ID stays taken until
+ * then and the find methods still return it.
+ */
+public interface MemberRecordRepository {
+
+    /**
+     * Create the members and deleted-member tables if they are missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Insert many new members at once, as one transaction. A member whose
+     * ID is already stored keeps its stored row, so sending the same
+     * batch twice is harmless.
+     */
+    void insertMembers(List<Member> members) throws SQLException;
+
+    /**
+     * Insert a member, or replace the stored row with the same ID. A
+     * replaced row is no longer marked deleted.
+     */
+    void save(Member member) throws SQLException;
+
+    Optional<Member> findById(String memberId) throws SQLException;
+
+    /**
+     * The stored members among the given IDs, in no particular order
+     */
+    List<Member> findByIds(Collection<String> memberIds) throws SQLException;
+
+    /**
+     * Every stored member, by member ID
+     */
+    List<Member> findAll() throws SQLException;
+
+    /**
+     * Mark a stored member deleted, at the given epoch millis
+     */
+    void markDeleted(String memberId, long deletedAtMillis) throws SQLException;
+
+    /**
+     * Undo {@link #markDeleted}
+     */
+    void unmarkDeleted(String memberId) throws SQLException;
+
+    /**
+     * Remove a deleted member's row for good. A member that is no longer
+     * marked deleted, because it was restored or saved again, keeps its row.
+     *
+     * @return whether a row was removed
+     */
+    boolean purge(String memberId) throws SQLException;
+
+    /**
+     * When each member still marked deleted was deleted, in epoch millis
+     */
+    Map<String, Long> findDeleted() throws SQLException;
+}
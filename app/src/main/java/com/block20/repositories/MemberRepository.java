@@ -0,0 +1,41 @@
+/*
+ * Block20 Gym Management System
+ * Member Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.Member;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Paged read access to members.
+ *
+ * Pages are normally fetched by key: "the next {@code limit} rows after
+ * this member" in the requested order, which costs the same on page 1
+ * and page 10,000. Offsets are only for jumping straight into the middle
+ * of the list.
+ */
+public interface MemberRepository {
+
+    int countMembers() throws SQLException;
+
+    /**
+     * Rows following {@code after} in sort order, or the first rows if it is null
+     */
+    List<Member> findPageAfter(MemberSortField sort, boolean ascending, Member after, int limit)
+        throws SQLException;
+
+    /**
+     * Rows preceding {@code before} in sort order, returned in sort order
+     */
+    List<Member> findPageBefore(MemberSortField sort, boolean ascending, Member before, int limit)
+        throws SQLException;
+
+    /**
+     * Rows starting at a position, for jumps where no neighbouring row is known
+     */
+    List<Member> findPageAt(MemberSortField sort, boolean ascending, int offset, int limit)
+        throws SQLException;
+}
@@ -0,0 +1,57 @@
+/*
+ * Block20 Gym Management System
+ * Member Sort Field
+ */
+package com.block20.repositories;
+
+import com.block20.models.Member;
+
+import java.util.function.Function;
+
+/**
+ * Columns the member list can be ordered by. Every order is made unique
+ * by the member ID, which is what lets pages continue from a row key
+ * instead of an offset.
+ */
+public enum MemberSortField {
+    MEMBER_ID("member_id", Member::getMemberId),
+    NAME("name", Member::getName),
+    EMAIL("email", Member::getEmail),
+    PHONE("phone", Member::getPhone),
+    PLAN("plan_type", Member::getPlanType),
+    STATUS("status", Member::getStatus),
+    EXPIRY_DATE("expiry_date", Member::getExpiryDate, true);
+
+    private final String column;
+    private final Function<Member, String> getter;
+    private final boolean date;
+
+    MemberSortField(String column, Function<Member, String> getter) {
+        this(column, getter, false);
+    }
+
+    MemberSortField(String column, Function<Member, String> getter, boolean date) {
+        this.column = column;
+        this.getter = getter;
+        this.date = date;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Whether values are ISO dates, which sort by date rather than as text
+     */
+    public boolean isDate() {
+        return date;
+    }
+
+    /**
+     * The member's value for this field; missing values sort as ""
+     */
+    public String keyOf(Member member) {
+        String value = getter.apply(member);
+        return value == null ? "" : value;
+    }
+}
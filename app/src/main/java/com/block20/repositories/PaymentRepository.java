@@ -0,0 +1,52 @@
+/*
+ * Block20 Gym Management System
+ * Payment Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.Payment;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Central ledger of member payments
+ */
+public interface PaymentRepository {
+
+    /**
+     * Create the payments table if it is missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Record a payment. Payments are never edited, so saving one that is
+     * already stored changes nothing.
+     *
+     * @return false if the payment was already stored
+     */
+    boolean save(Payment payment) throws SQLException;
+
+    /**
+     * A member's payments, newest first
+     */
+    List<Payment> findByMember(String memberId) throws SQLException;
+
+    /**
+     * Date of every member's most recent payment, by member ID
+     */
+    Map<String, LocalDate> findLatestPaymentDates() throws SQLException;
+
+    /**
+     * Payments made between two dates, both included, oldest first
+     */
+    List<Payment> findBetween(LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Sum of payments made between two dates, both included
+     */
+    BigDecimal totalBetween(LocalDate from, LocalDate to) throws SQLException;
+}
@@ -0,0 +1,54 @@
+/*
+ * Block20 Gym Management System
+ * Training Session Repository
+ */
+package com.block20.repositories;
+
+import com.block20.models.TrainingSession;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Booked personal training and class sessions
+ */
+public interface TrainingSessionRepository {
+
+    /**
+     * Create the sessions table if it is missing
+     */
+    void createTables() throws SQLException;
+
+    /**
+     * Insert a session, or replace the stored one with the same ID
+     */
+    void save(TrainingSession session) throws SQLException;
+
+    Optional<TrainingSession> findById(String sessionId) throws SQLException;
+
+    /**
+     * Sessions starting at or after {@code from} and before {@code to}, in start order
+     */
+    List<TrainingSession> findBetween(LocalDateTime from, LocalDateTime to) throws SQLException;
+
+    /**
+     * A member's sessions, latest first
+     */
+    List<TrainingSession> findByMember(String memberId) throws SQLException;
+
+    /**
+     * @return false if there is no such session
+     */
+    boolean updateStatus(String sessionId, String status) throws SQLException;
+
+    /**
+     * Apply many status changes in one statement
+     *
+     * @param statusById new status by session ID
+     * @return number of sessions found and updated
+     */
+    int updateStatuses(Map<String, String> statusById) throws SQLException;
+}
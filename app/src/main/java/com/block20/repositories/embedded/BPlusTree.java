@@ -0,0 +1,329 @@
+/*
+ * Block20 Gym Management System
+ * B+ Tree - ordered key/value index over pages
+ */
+package com.block20.repositories.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A B+ tree of byte-string keys, ordered unsigned byte by byte, to byte
+ * values. Leaves hold the entries and link to their right neighbour for
+ * range scans; inner pages hold separator keys and child page IDs.
+ *
+ * Page layout: {@code [byte type][short count][int next]} then, in a
+ * leaf, {@code ([short keyLength][short valueLength][key][value])*}, or
+ * in an inner page {@code [int child0]([short keyLength][key][int child])*}.
+ *
+ * An entry may use at most a quarter of a page, so splitting a full page
+ * in two by bytes always leaves both halves fitting. Deletes just remove
+ * the entry; pages are not merged, since a gym's tables grow far more
+ * than they shrink.
+ */
+final class BPlusTree {
+
+    private static final int HEADER = 7;
+
+    static final int MAX_KEY_BYTES = 256;
+    static final int MAX_ENTRY_BYTES = (PageFile.PAGE_SIZE - HEADER) / 4;
+
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int NO_PAGE = 0;
+
+    /**
+     * Receives entries in key order; return false to stop
+     */
+    interface Visitor {
+        boolean visit(byte[] key, byte[] value) throws IOException;
+    }
+
+    private static final class Node {
+        final boolean leaf;
+        int next = NO_PAGE;
+        final List<byte[]> keys = new ArrayList<>();
+        final List<byte[]> values = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        int entryBytes(int i) {
+            return leaf ? 4 + keys.get(i).length + values.get(i).length : 6 + keys.get(i).length;
+        }
+
+        int bytes() {
+            int total = HEADER + (leaf ? 0 : 4);
+            for (int i = 0; i < keys.size(); i++) {
+                total += entryBytes(i);
+            }
+            return total;
+        }
+    }
+
+    private static final class Split {
+        final byte[] separator;
+        final int right;
+
+        Split(byte[] separator, int right) {
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    private final Transaction tx;
+    private int root;
+
+    BPlusTree(Transaction tx, int root) {
+        this.tx = tx;
+        this.root = root;
+    }
+
+    /**
+     * Write an empty tree into a freshly allocated page
+     */
+    static void create(Transaction tx, int page) {
+        tx.write(page, encode(new Node(true)));
+    }
+
+    /**
+     * Root page, which changes when the root splits
+     */
+    int root() {
+        return root;
+    }
+
+    byte[] get(byte[] key) throws IOException {
+        Node node = load(root);
+        while (!node.leaf) {
+            node = load(node.children.get(childIndex(node, key)));
+        }
+        int i = search(node.keys, key);
+        return i >= 0 ? node.values.get(i) : null;
+    }
+
+    /**
+     * Whether an entry is small enough for a page to hold several
+     */
+    static boolean fits(byte[] key, byte[] value) {
+        return key.length <= MAX_KEY_BYTES && 4 + key.length + value.length <= MAX_ENTRY_BYTES;
+    }
+
+    void put(byte[] key, byte[] value) throws IOException {
+        if (!fits(key, value)) {
+            throw new IllegalArgumentException("Record too large for the embedded store: "
+                + (key.length + value.length) + " bytes");
+        }
+        Split split = insert(root, key, value);
+        if (split != null) {
+            Node newRoot = new Node(false);
+            newRoot.children.add(root);
+            newRoot.keys.add(split.separator);
+            newRoot.children.add(split.right);
+            root = tx.allocate();
+            tx.write(root, encode(newRoot));
+        }
+    }
+
+    /**
+     * @return false if the key was not there
+     */
+    boolean delete(byte[] key) throws IOException {
+        int page = root;
+        Node node = load(page);
+        while (!node.leaf) {
+            page = node.children.get(childIndex(node, key));
+            node = load(page);
+        }
+        int i = search(node.keys, key);
+        if (i < 0) {
+            return false;
+        }
+        node.keys.remove(i);
+        node.values.remove(i);
+        tx.write(page, encode(node));
+        return true;
+    }
+
+    /**
+     * Visit entries with keys from {@code from} (inclusive, or the first
+     * key if null) in order
+     */
+    void scan(byte[] from, Visitor visitor) throws IOException {
+        Node node = load(root);
+        while (!node.leaf) {
+            node = load(node.children.get(from == null ? 0 : childIndex(node, from)));
+        }
+        int i = from == null ? 0 : insertionPoint(node.keys, from);
+        while (true) {
+            for (; i < node.keys.size(); i++) {
+                if (!visitor.visit(node.keys.get(i), node.values.get(i))) {
+                    return;
+                }
+            }
+            if (node.next == NO_PAGE) {
+                return;
+            }
+            node = load(node.next);
+            i = 0;
+        }
+    }
+
+    static int compare(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    private Split insert(int page, byte[] key, byte[] value) throws IOException {
+        Node node = load(page);
+        if (node.leaf) {
+            int i = search(node.keys, key);
+            if (i >= 0) {
+                node.values.set(i, value);
+            } else {
+                node.keys.add(-i - 1, key);
+                node.values.add(-i - 1, value);
+            }
+        } else {
+            int i = childIndex(node, key);
+            Split split = insert(node.children.get(i), key, value);
+            if (split == null) {
+                return null;
+            }
+            node.keys.add(i, split.separator);
+            node.children.add(i + 1, split.right);
+        }
+        if (node.bytes() <= PageFile.PAGE_SIZE) {
+            tx.write(page, encode(node));
+            return null;
+        }
+        return split(page, node);
+    }
+
+    /**
+     * Move the upper half of an overflowing page, by bytes, to a new right sibling
+     */
+    private Split split(int page, Node node) {
+        int half = node.bytes() / 2;
+        int mid = 0;
+        int used = HEADER;
+        while (mid < node.keys.size() - 1 && used + node.entryBytes(mid) <= half) {
+            used += node.entryBytes(mid);
+            mid++;
+        }
+        // Both halves keep at least one key; an inner page also gives one up
+        mid = Math.max(1, node.leaf ? mid : Math.min(mid, node.keys.size() - 2));
+
+        Node right = new Node(node.leaf);
+        byte[] separator;
+        if (node.leaf) {
+            separator = node.keys.get(mid);
+            move(node.keys, mid, right.keys);
+            move(node.values, mid, right.values);
+            right.next = node.next;
+        } else {
+            // The middle key moves up; its right child starts the new page
+            separator = node.keys.get(mid);
+            move(node.keys, mid + 1, right.keys);
+            move(node.children, mid + 1, right.children);
+            node.keys.remove(mid);
+        }
+        int rightPage = tx.allocate();
+        if (node.leaf) {
+            node.next = rightPage;
+        }
+        tx.write(rightPage, encode(right));
+        tx.write(page, encode(node));
+        return new Split(separator, rightPage);
+    }
+
+    private static <T> void move(List<T> from, int start, List<T> to) {
+        List<T> tail = from.subList(start, from.size());
+        to.addAll(tail);
+        tail.clear();
+    }
+
+    /**
+     * Child to descend into: keys equal to a separator live to its right
+     */
+    private static int childIndex(Node node, byte[] key) {
+        int i = search(node.keys, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static int insertionPoint(List<byte[]> keys, byte[] key) {
+        int i = search(keys, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Binary search; a miss returns {@code -(insertion point) - 1}
+     */
+    private static int search(List<byte[]> keys, byte[] key) {
+        int low = 0;
+        int high = keys.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(keys.get(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private Node load(int page) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(tx.page(page));
+        byte type = buf.get();
+        if (type != LEAF && type != INNER) {
+            throw new IOException("Corrupt index page " + page);
+        }
+        Node node = new Node(type == LEAF);
+        int count = buf.getShort() & 0xFFFF;
+        node.next = buf.getInt();
+        if (!node.leaf) {
+            node.children.add(buf.getInt());
+        }
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[buf.getShort() & 0xFFFF];
+            if (node.leaf) {
+                byte[] value = new byte[buf.getShort() & 0xFFFF];
+                buf.get(key).get(value);
+                node.keys.add(key);
+                node.values.add(value);
+            } else {
+                buf.get(key);
+                node.keys.add(key);
+                node.children.add(buf.getInt());
+            }
+        }
+        return node;
+    }
+
+    private static byte[] encode(Node node) {
+        byte[] page = new byte[PageFile.PAGE_SIZE];
+        ByteBuffer buf = ByteBuffer.wrap(page);
+        buf.put(node.leaf ? LEAF : INNER).putShort((short) node.keys.size()).putInt(node.next);
+        if (!node.leaf) {
+            buf.putInt(node.children.get(0));
+        }
+        for (int i = 0; i < node.keys.size(); i++) {
+            byte[] key = node.keys.get(i);
+            if (node.leaf) {
+                byte[] value = node.values.get(i);
+                buf.putShort((short) key.length).putShort((short) value.length).put(key).put(value);
+            } else {
+                buf.putShort((short) key.length).put(key).putInt(node.children.get(i + 1));
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Block20 Gym Management System
+ * Equipment Repository - embedded store implementation
+ */
+package com.block20.repositories.embedded;
+
+import com.block20.models.Equipment;
+import com.block20.repositories.EquipmentRepository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Equipment in the local data file, keyed by equipment ID. A gym has a
+ * few hundred items at most, so status lookups scan them all rather than
+ * keep an index.
+ */
+public class EmbeddedEquipmentRepository implements EquipmentRepository {
+
+    private static final String EQUIPMENT = "equipment";
+
+    private final EmbeddedStore store;
+
+    public EmbeddedEquipmentRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Tables are created on first write
+     */
+    @Override
+    public void createTables() {
+    }
+
+    @Override
+    public void save(Equipment equipment) throws SQLException {
+        store.write(tx -> {
+            tx.put(EQUIPMENT, equipment.getEquipmentId(), encode(equipment));
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Equipment> findById(String equipmentId) throws SQLException {
+        return store.read(tx -> {
+            Optional<byte[]> record = tx.get(EQUIPMENT, equipmentId);
+            return record.isPresent() ? Optional.of(decode(record.get())) : Optional.empty();
+        });
+    }
+
+    @Override
+    public List<Equipment> findAll() throws SQLException {
+        return findWhere(null);
+    }
+
+    @Override
+    public List<Equipment> findByStatus(String status) throws SQLException {
+        return findWhere(status);
+    }
+
+    @Override
+    public boolean updateStatus(String equipmentId, String status) throws SQLException {
+        return store.write(tx -> {
+            Optional<byte[]> record = tx.get(EQUIPMENT, equipmentId);
+            if (record.isEmpty()) {
+                return false;
+            }
+            Equipment current = decode(record.get());
+            tx.put(EQUIPMENT, equipmentId, encode(new Equipment(current.getEquipmentId(), current.getName(),
+                current.getCategory(), current.getZone(), current.getSerialNumber(), current.getPurchaseDate(),
+                current.getWarrantyExpiry(), status, current.getNotes())));
+            return true;
+        });
+    }
+
+    private List<Equipment> findWhere(String status) throws SQLException {
+        return store.read(tx -> {
+            List<Equipment> found = new ArrayList<>();
+            for (byte[] record : tx.scan(EQUIPMENT, null, null).values()) {
+                Equipment equipment = decode(record);
+                if (status == null || status.equals(equipment.getStatus())) {
+                    found.add(equipment);
+                }
+            }
+            return found;
+        });
+    }
+
+    private static byte[] encode(Equipment equipment) throws IOException {
+        return Records.pack(equipment.getEquipmentId(), equipment.getName(), equipment.getCategory(),
+            equipment.getZone(), equipment.getSerialNumber(), dateOrEmpty(equipment.getPurchaseDate()),
+            dateOrEmpty(equipment.getWarrantyExpiry()), equipment.getStatus(), equipment.getNotes());
+    }
+
+    private static Equipment decode(byte[] record) throws IOException {
+        String[] f = Records.unpack(record);
+        return new Equipment(f[0], f[1], f[2], f[3], f[4], dateOrNull(f[5]), dateOrNull(f[6]), f[7], f[8]);
+    }
+
+    private static String dateOrEmpty(LocalDate date) {
+        return date == null ? "" : date.toString();
+    }
+
+    private static LocalDate dateOrNull(String value) {
+        return value.isEmpty() ? null : LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Block20 Gym Management System
+ * Member Repository - embedded store implementation
+ */
+package com.block20.repositories.embedded;
+
+import com.block20.models.Member;
+import com.block20.repositories.MemberRecordRepository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Member rows in the local data file, keyed by member ID. Deleted members
+ * are marked in a table of their own, keyed the same way.
+ */
+public class EmbeddedMemberRepository implements MemberRecordRepository {
+
+    private static final String MEMBERS = "members";
+    private static final String TOMBSTONES = "member_tombstones";
+
+    private final EmbeddedStore store;
+
+    public EmbeddedMemberRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Tables are created on first write
+     */
+    @Override
+    public void createTables() {
+    }
+
+    @Override
+    public void insertMembers(List<Member> members) throws SQLException {
+        if (members.isEmpty()) {
+            return;
+        }
+        store.write(tx -> {
+            for (Member member : members) {
+                // A stored ID keeps its row, as with the database
+                if (!tx.get(MEMBERS, member.getMemberId()).isPresent()) {
+                    tx.put(MEMBERS, member.getMemberId(), encode(member));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void save(Member member) throws SQLException {
+        store.write(tx -> {
+            tx.put(MEMBERS, member.getMemberId(), encode(member));
+            tx.delete(TOMBSTONES, member.getMemberId());
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Member> findById(String memberId) throws SQLException {
+        return store.read(tx -> {
+            Optional<byte[]> record = tx.get(MEMBERS, memberId);
+            return record.isPresent() ? Optional.of(decode(record.get())) : Optional.empty();
+        });
+    }
+
+    @Override
+    public List<Member> findByIds(Collection<String> memberIds) throws SQLException {
+        return store.read(tx -> {
+            List<Member> members = new ArrayList<>();
+            for (String memberId : memberIds) {
+                Optional<byte[]> record = tx.get(MEMBERS, memberId);
+                if (record.isPresent()) {
+                    members.add(decode(record.get()));
+                }
+            }
+            return members;
+        });
+    }
+
+    @Override
+    public List<Member> findAll() throws SQLException {
+        return store.read(tx -> {
+            List<Member> members = new ArrayList<>();
+            for (byte[] record : tx.scan(MEMBERS, null, null).values()) {
+                members.add(decode(record));
+            }
+            return members;
+        });
+    }
+
+    @Override
+    public void markDeleted(String memberId, long deletedAtMillis) throws SQLException {
+        store.write(tx -> {
+            tx.put(TOMBSTONES, memberId, Records.pack(Long.toString(deletedAtMillis)));
+            return null;
+        });
+    }
+
+    @Override
+    public void unmarkDeleted(String memberId) throws SQLException {
+        store.write(tx -> tx.delete(TOMBSTONES, memberId));
+    }
+
+    @Override
+    public boolean purge(String memberId) throws SQLException {
+        return store.write(tx -> tx.delete(TOMBSTONES, memberId) && tx.delete(MEMBERS, memberId));
+    }
+
+    @Override
+    public Map<String, Long> findDeleted() throws SQLException {
+        return store.read(tx -> {
+            Map<String, Long> deleted = new LinkedHashMap<>();
+            for (Map.Entry<String, byte[]> entry : tx.scan(TOMBSTONES, null, null).entrySet()) {
+                deleted.put(entry.getKey(), Long.parseLong(Records.unpack(entry.getValue())[0]));
+            }
+            return deleted;
+        });
+    }
+
+    private static byte[] encode(Member member) throws IOException {
+        return Records.pack(member.getMemberId(), member.getName(), member.getEmail(), member.getPhone(),
+            member.getPlanType(), member.getStatus(), member.getJoinDate(), member.getExpiryDate(),
+            member.getStartDate(), member.getMonthlyFee(), member.getEmergencyContact(), member.getAddress());
+    }
+
+    private static Member decode(byte[] record) throws IOException {
+        String[] f = Records.unpack(record);
+        return new Member(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8], f[9], f[10], f[11]);
+    }
+}
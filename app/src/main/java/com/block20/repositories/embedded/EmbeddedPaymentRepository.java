@@ -0,0 +1,112 @@
+/*
+ * Block20 Gym Management System
+ * Payment Repository - embedded store implementation
+ */
+package com.block20.repositories.embedded;
+
+import com.block20.models.Payment;
+import com.block20.repositories.PaymentRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payments in the local data file.
+ *
+ * Besides the rows keyed by payment ID there are two index tables,
+ * (member, date, payment) and (date, payment). Payments never change,
+ * so the index entries carry the whole row and a lookup is one range
+ * scan.
+ */
+public class EmbeddedPaymentRepository implements PaymentRepository {
+
+    private static final String PAYMENTS = "payments";
+    private static final String BY_MEMBER = "payments_by_member";
+    private static final String BY_DATE = "payments_by_date";
+
+    private final EmbeddedStore store;
+
+    public EmbeddedPaymentRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Tables are created on first write
+     */
+    @Override
+    public void createTables() {
+    }
+
+    @Override
+    public boolean save(Payment payment) throws SQLException {
+        return store.write(tx -> {
+            if (tx.get(PAYMENTS, payment.getPaymentId()).isPresent()) {
+                return false;
+            }
+            byte[] record = encode(payment);
+            String paidOn = payment.getPaidOn().toString();
+            tx.put(PAYMENTS, payment.getPaymentId(), record);
+            tx.put(BY_MEMBER, Records.key(payment.getMemberId(), paidOn, payment.getPaymentId()), record);
+            tx.put(BY_DATE, Records.key(paidOn, payment.getPaymentId()), record);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Payment> findByMember(String memberId) throws SQLException {
+        List<Payment> payments = store.read(tx ->
+            decodeAll(tx.scanPrefix(BY_MEMBER, memberId + Records.SEPARATOR).values()));
+        Collections.reverse(payments);
+        return payments;
+    }
+
+    /**
+     * One scan of the member index; each member's payments come oldest first
+     */
+    @Override
+    public Map<String, LocalDate> findLatestPaymentDates() throws SQLException {
+        return store.read(tx -> {
+            Map<String, LocalDate> latest = new HashMap<>();
+            for (Payment payment : decodeAll(tx.scan(BY_MEMBER, null, null).values())) {
+                latest.put(payment.getMemberId(), payment.getPaidOn());
+            }
+            return latest;
+        });
+    }
+
+    @Override
+    public List<Payment> findBetween(LocalDate from, LocalDate to) throws SQLException {
+        return store.read(tx ->
+            decodeAll(tx.scan(BY_DATE, from.toString(), to.plusDays(1).toString()).values()));
+    }
+
+    @Override
+    public BigDecimal totalBetween(LocalDate from, LocalDate to) throws SQLException {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Payment payment : findBetween(from, to)) {
+            total = total.add(payment.getAmount());
+        }
+        return total;
+    }
+
+    private static List<Payment> decodeAll(Iterable<byte[]> records) throws IOException {
+        List<Payment> payments = new ArrayList<>();
+        for (byte[] record : records) {
+            String[] f = Records.unpack(record);
+            payments.add(new Payment(f[0], f[1], new BigDecimal(f[2]), f[3], LocalDate.parse(f[4]), f[5]));
+        }
+        return payments;
+    }
+
+    private static byte[] encode(Payment payment) throws IOException {
+        return Records.pack(payment.getPaymentId(), payment.getMemberId(), payment.getAmount().toPlainString(),
+            payment.getMethod(), payment.getPaidOn().toString(), payment.getReference());
+    }
+}
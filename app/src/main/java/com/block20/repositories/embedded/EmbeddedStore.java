@@ -0,0 +1,214 @@
+/*
+ * Block20 Gym Management System
+ * Embedded Store - single-file local database
+ */
+package com.block20.repositories.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Durable local storage for a desk with no database server: one data
+ * file of memory-mapped pages holding a B+ tree per table, plus a
+ * write-ahead log next to it.
+ *
+ * Committing a transaction forces its page images to the log, then
+ * copies them into the mapped data file. Once the log passes
+ * {@value #CHECKPOINT_BYTES} bytes the data file is forced and the log
+ * emptied. Opening the store replays whatever the log still holds, so a
+ * crash or power cut loses nothing that was committed.
+ *
+ * One writer at a time; reads run alongside it and see only committed
+ * transactions.
+ */
+public class EmbeddedStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x42323044;
+    private static final int VERSION = 1;
+    private static final int HEADER_PAGE = 0;
+    private static final long CHECKPOINT_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Work done inside a transaction
+     */
+    interface Work<T> {
+        T run(Transaction tx) throws IOException, SQLException;
+    }
+
+    private final Path file;
+    private final PageFile pages;
+    private final WriteAheadLog log;
+    private final ReentrantLock writer = new ReentrantLock();
+    // Write-locked only while a commit is copied into the data file
+    private final ReentrantReadWriteLock committed = new ReentrantReadWriteLock();
+
+    // Guarded by committed
+    private int pageCount;
+    private Map<String, Integer> roots;
+    private long lastTxId;
+    private boolean closed;
+
+    /**
+     * Open the store, creating it if the file does not exist
+     *
+     * @param file data file; the log is {@code <file>.wal}
+     */
+    public EmbeddedStore(Path file) throws IOException {
+        this.file = file;
+        this.pages = new PageFile(file);
+        this.log = new WriteAheadLog(file.resolveSibling(file.getFileName() + ".wal"));
+        this.lastTxId = log.replay(pages::write);
+
+        byte[] header = new byte[PageFile.PAGE_SIZE];
+        pages.read(HEADER_PAGE, header);
+        ByteBuffer buf = ByteBuffer.wrap(header);
+        int magic = buf.getInt();
+        if (magic == 0) {
+            pageCount = HEADER_PAGE + 1;
+            roots = new HashMap<>();
+            pages.write(HEADER_PAGE, encodeHeader(pageCount, roots));
+        } else if (magic != MAGIC || buf.getInt() != VERSION) {
+            log.close();
+            pages.close();
+            throw new IOException(file + " is not a Block20 data file");
+        } else {
+            pageCount = buf.getInt();
+            roots = new HashMap<>();
+            int tables = buf.getShort();
+            for (int i = 0; i < tables; i++) {
+                byte[] name = new byte[buf.getShort()];
+                buf.get(name);
+                roots.put(new String(name, StandardCharsets.UTF_8), buf.getInt());
+            }
+        }
+        // Everything replayed is in the data file now
+        checkpoint();
+    }
+
+    /**
+     * Run read-only work against the latest committed state
+     */
+    <T> T read(Work<T> work) throws SQLException {
+        committed.readLock().lock();
+        try {
+            ensureOpen();
+            return work.run(new Transaction(this, false, pageCount, roots));
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + file + ": " + e.getMessage(), e);
+        } finally {
+            committed.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run work as one transaction and commit it durably. If the work
+     * throws, nothing it wrote is kept.
+     */
+    <T> T write(Work<T> work) throws SQLException {
+        writer.lock();
+        try {
+            Transaction tx;
+            committed.readLock().lock();
+            try {
+                ensureOpen();
+                tx = new Transaction(this, true, pageCount, new HashMap<>(roots));
+            } finally {
+                committed.readLock().unlock();
+            }
+            // Only this thread changes the data file, so the work needs no other lock
+            T result = work.run(tx);
+            commit(tx);
+            return result;
+        } catch (IOException e) {
+            throw new SQLException("Could not write " + file + ": " + e.getMessage(), e);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    void readPage(int pageId, byte[] page) {
+        pages.read(pageId, page);
+    }
+
+    /**
+     * Size of the write-ahead log, mainly for tests
+     */
+    long logSize() {
+        return log.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.lock();
+        committed.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                checkpoint();
+            } finally {
+                log.close();
+                pages.close();
+            }
+        } finally {
+            committed.writeLock().unlock();
+            writer.unlock();
+        }
+    }
+
+    private void commit(Transaction tx) throws IOException {
+        if (tx.headerChanged) {
+            tx.dirty.put(HEADER_PAGE, encodeHeader(tx.pageCount, tx.roots));
+        }
+        if (tx.dirty.isEmpty()) {
+            return;
+        }
+        long txId = lastTxId + 1;
+        log.append(txId, tx.dirty);
+        committed.writeLock().lock();
+        try {
+            for (Map.Entry<Integer, byte[]> page : tx.dirty.entrySet()) {
+                pages.write(page.getKey(), page.getValue());
+            }
+            pageCount = tx.pageCount;
+            roots = tx.roots;
+            lastTxId = txId;
+        } finally {
+            committed.writeLock().unlock();
+        }
+        if (log.size() > CHECKPOINT_BYTES) {
+            checkpoint();
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        pages.force();
+        log.reset();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException(file + " is closed");
+        }
+    }
+
+    private static byte[] encodeHeader(int pageCount, Map<String, Integer> roots) {
+        byte[] header = new byte[PageFile.PAGE_SIZE];
+        ByteBuffer buf = ByteBuffer.wrap(header);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(pageCount).putShort((short) roots.size());
+        for (Map.Entry<String, Integer> root : roots.entrySet()) {
+            byte[] name = root.getKey().getBytes(StandardCharsets.UTF_8);
+            buf.putShort((short) name.length).put(name).putInt(root.getValue());
+        }
+        return header;
+    }
+}
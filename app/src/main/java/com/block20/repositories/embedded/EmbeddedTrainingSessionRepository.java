@@ -0,0 +1,154 @@
+/*
+ * Block20 Gym Management System
+ * Training Session Repository - embedded store implementation
+ */
+package com.block20.repositories.embedded;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.TrainingSessionRepository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Training sessions in the local data file.
+ *
+ * Rows are keyed by session ID, with index tables on (start, session)
+ * and (member, start, session) for schedules and member histories.
+ * Start times are stored at a fixed width so they sort by time.
+ */
+public class EmbeddedTrainingSessionRepository implements TrainingSessionRepository {
+
+    private static final String SESSIONS = "sessions";
+    private static final String BY_START = "sessions_by_start";
+    private static final String BY_MEMBER = "sessions_by_member";
+    private static final DateTimeFormatter START_KEY = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+
+    private final EmbeddedStore store;
+
+    public EmbeddedTrainingSessionRepository(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Tables are created on first write
+     */
+    @Override
+    public void createTables() {
+    }
+
+    @Override
+    public void save(TrainingSession session) throws SQLException {
+        store.write(tx -> {
+            Optional<byte[]> previous = tx.get(SESSIONS, session.getSessionId());
+            if (previous.isPresent()) {
+                TrainingSession old = decode(previous.get());
+                tx.delete(BY_START, startKey(old));
+                tx.delete(BY_MEMBER, memberKey(old));
+            }
+            tx.put(SESSIONS, session.getSessionId(), encode(session));
+            tx.put(BY_START, startKey(session), new byte[0]);
+            tx.put(BY_MEMBER, memberKey(session), new byte[0]);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<TrainingSession> findById(String sessionId) throws SQLException {
+        return store.read(tx -> {
+            Optional<byte[]> record = tx.get(SESSIONS, sessionId);
+            return record.isPresent() ? Optional.of(decode(record.get())) : Optional.empty();
+        });
+    }
+
+    @Override
+    public List<TrainingSession> findBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return store.read(tx -> load(tx, tx.scan(BY_START, START_KEY.format(from), START_KEY.format(to)).keySet()));
+    }
+
+    @Override
+    public List<TrainingSession> findByMember(String memberId) throws SQLException {
+        List<TrainingSession> sessions = store.read(tx ->
+            load(tx, tx.scanPrefix(BY_MEMBER, memberId + Records.SEPARATOR).keySet()));
+        Collections.reverse(sessions);
+        return sessions;
+    }
+
+    @Override
+    public boolean updateStatus(String sessionId, String status) throws SQLException {
+        return store.write(tx -> setStatus(tx, sessionId, status));
+    }
+
+    @Override
+    public int updateStatuses(Map<String, String> statusById) throws SQLException {
+        if (statusById.isEmpty()) {
+            return 0;
+        }
+        return store.write(tx -> {
+            int updated = 0;
+            for (Map.Entry<String, String> change : statusById.entrySet()) {
+                if (setStatus(tx, change.getKey(), change.getValue())) {
+                    updated++;
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Status is not part of any index key, so only the row changes
+     */
+    private static boolean setStatus(Transaction tx, String sessionId, String status)
+            throws IOException, SQLException {
+        Optional<byte[]> record = tx.get(SESSIONS, sessionId);
+        if (record.isEmpty()) {
+            return false;
+        }
+        TrainingSession current = decode(record.get());
+        tx.put(SESSIONS, sessionId, encode(new TrainingSession(current.getSessionId(), current.getMemberId(),
+            current.getTrainerName(), current.getSessionType(), current.getStartsAt(),
+            current.getDurationMinutes(), status)));
+        return true;
+    }
+
+    /**
+     * Rows for index keys, whose last part is the session ID
+     */
+    private static List<TrainingSession> load(Transaction tx, Iterable<String> indexKeys) throws IOException {
+        List<TrainingSession> sessions = new ArrayList<>();
+        for (String key : indexKeys) {
+            String sessionId = key.substring(key.lastIndexOf(Records.SEPARATOR) + 1);
+            Optional<byte[]> record = tx.get(SESSIONS, sessionId);
+            if (record.isPresent()) {
+                sessions.add(decode(record.get()));
+            }
+        }
+        return sessions;
+    }
+
+    private static String startKey(TrainingSession session) {
+        return Records.key(START_KEY.format(session.getStartsAt()), session.getSessionId());
+    }
+
+    private static String memberKey(TrainingSession session) {
+        return Records.key(session.getMemberId(), START_KEY.format(session.getStartsAt()), session.getSessionId());
+    }
+
+    private static byte[] encode(TrainingSession session) throws IOException {
+        return Records.pack(session.getSessionId(), session.getMemberId(), session.getTrainerName(),
+            session.getSessionType(), session.getStartsAt().toString(),
+            Integer.toString(session.getDurationMinutes()), session.getStatus());
+    }
+
+    private static TrainingSession decode(byte[] record) throws IOException {
+        String[] f = Records.unpack(record);
+        return new TrainingSession(f[0], f[1], f[2], f[3], LocalDateTime.parse(f[4]), Integer.parseInt(f[5]), f[6]);
+    }
+}
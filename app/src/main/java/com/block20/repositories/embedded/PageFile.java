@@ -0,0 +1,81 @@
+/*
+ * Block20 Gym Management System
+ * Page File - memory-mapped fixed-size pages
+ */
+package com.block20.repositories.embedded;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A data file of {@value #PAGE_SIZE}-byte pages, mapped into memory a
+ * megabyte at a time and grown by mapping past the end.
+ *
+ * Writes land in the OS page cache and reach disk whenever the OS
+ * chooses, or at {@link #force()}; the write-ahead log is what makes
+ * them durable in between. Callers serialise writes; reads may run
+ * alongside each other.
+ */
+final class PageFile implements AutoCloseable {
+
+    static final int PAGE_SIZE = 8192;
+    private static final int PAGES_PER_SEGMENT = 128;
+    private static final long SEGMENT_BYTES = (long) PAGE_SIZE * PAGES_PER_SEGMENT;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    PageFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        long size = channel.size();
+        int count = (int) Math.max(1, (size + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        for (int i = 0; i < count; i++) {
+            mapSegment();
+        }
+    }
+
+    void read(int pageId, byte[] page) {
+        segment(pageId).get(offset(pageId), page, 0, PAGE_SIZE);
+    }
+
+    void write(int pageId, byte[] page) throws IOException {
+        while (pageId >= segments.size() * PAGES_PER_SEGMENT) {
+            mapSegment();
+        }
+        segment(pageId).put(offset(pageId), page, 0, PAGE_SIZE);
+    }
+
+    /**
+     * Flush every written page to disk
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(int pageId) {
+        return segments.get(pageId / PAGES_PER_SEGMENT);
+    }
+
+    private static int offset(int pageId) {
+        return (pageId % PAGES_PER_SEGMENT) * PAGE_SIZE;
+    }
+
+    private void mapSegment() throws IOException {
+        // Mapping read-write past the end of the file extends it
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * SEGMENT_BYTES, SEGMENT_BYTES));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Block20 Gym Management System
+ * Records - row encoding for the embedded store
+ */
+package com.block20.repositories.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Rows as a field count followed by each field as modified UTF-8. Fields
+ * are strings, like the VARCHAR columns of the MySQL tables, and null
+ * is stored as an empty string.
+ */
+final class Records {
+
+    /**
+     * Separates the parts of a composite index key; sorts before any
+     * character an ID or date can contain
+     */
+    static final String SEPARATOR = "\u0000";
+
+    private Records() {
+    }
+
+    static byte[] pack(String... fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(fields.length);
+            for (String field : fields) {
+                out.writeUTF(field == null ? "" : field);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static String[] unpack(byte[] record) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String[] fields = new String[in.readUnsignedByte()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = in.readUTF();
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * Composite index key, e.g. member ID then date then payment ID
+     */
+    static String key(String... parts) {
+        return String.join(SEPARATOR, parts);
+    }
+}
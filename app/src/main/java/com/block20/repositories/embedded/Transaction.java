@@ -0,0 +1,149 @@
+/*
+ * Block20 Gym Management System
+ * Transaction - one unit of work against the embedded store
+ */
+package com.block20.repositories.embedded;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Reads and writes against named tables (one B+ tree each). Changed
+ * pages are kept here until commit, so a transaction that throws leaves
+ * no trace, and readers never see half of one.
+ */
+final class Transaction {
+
+    private final EmbeddedStore store;
+    private final boolean writable;
+    // Page ID order keeps the log record and the data file writes sequential
+    final Map<Integer, byte[]> dirty = new TreeMap<>();
+    final Map<String, Integer> roots;
+    int pageCount;
+    boolean headerChanged;
+
+    Transaction(EmbeddedStore store, boolean writable, int pageCount, Map<String, Integer> roots) {
+        this.store = store;
+        this.writable = writable;
+        this.pageCount = pageCount;
+        this.roots = roots;
+    }
+
+    Optional<byte[]> get(String table, String key) throws IOException {
+        Integer root = roots.get(table);
+        if (root == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(new BPlusTree(this, root).get(bytes(key)));
+    }
+
+    /**
+     * Insert or replace; the table is created on first use. A record too
+     * large for a page is refused with SQLState 22001, as MySQL refuses
+     * data too long for its column.
+     */
+    void put(String table, String key, byte[] value) throws IOException, SQLException {
+        byte[] keyBytes = bytes(key);
+        if (!BPlusTree.fits(keyBytes, value)) {
+            throw new SQLException("Record too large for the embedded store: " + table + " " + key + ", "
+                + (keyBytes.length + value.length) + " bytes", "22001");
+        }
+        Integer root = roots.get(table);
+        if (root == null) {
+            root = allocate();
+            BPlusTree.create(this, root);
+            roots.put(table, root);
+        }
+        BPlusTree tree = new BPlusTree(this, root);
+        tree.put(keyBytes, value);
+        if (tree.root() != root) {
+            roots.put(table, tree.root());
+            headerChanged = true;
+        }
+    }
+
+    /**
+     * @return false if there was no such key
+     */
+    boolean delete(String table, String key) throws IOException {
+        Integer root = roots.get(table);
+        return root != null && new BPlusTree(this, root).delete(bytes(key));
+    }
+
+    /**
+     * Entries from {@code from} (inclusive) to {@code to} (exclusive), in
+     * key order; a null bound is open
+     */
+    LinkedHashMap<String, byte[]> scan(String table, String from, String to) throws IOException {
+        LinkedHashMap<String, byte[]> found = new LinkedHashMap<>();
+        Integer root = roots.get(table);
+        if (root == null) {
+            return found;
+        }
+        byte[] end = to == null ? null : bytes(to);
+        new BPlusTree(this, root).scan(from == null ? null : bytes(from), (key, value) -> {
+            if (end != null && BPlusTree.compare(key, end) >= 0) {
+                return false;
+            }
+            found.put(new String(key, StandardCharsets.UTF_8), value);
+            return true;
+        });
+        return found;
+    }
+
+    /**
+     * Entries whose key starts with the prefix, in key order
+     */
+    LinkedHashMap<String, byte[]> scanPrefix(String table, String prefix) throws IOException {
+        LinkedHashMap<String, byte[]> found = new LinkedHashMap<>();
+        Integer root = roots.get(table);
+        if (root == null) {
+            return found;
+        }
+        byte[] start = bytes(prefix);
+        new BPlusTree(this, root).scan(start, (key, value) -> {
+            if (key.length < start.length
+                    || !Arrays.equals(key, 0, start.length, start, 0, start.length)) {
+                return false;
+            }
+            found.put(new String(key, StandardCharsets.UTF_8), value);
+            return true;
+        });
+        return found;
+    }
+
+    byte[] page(int pageId) {
+        byte[] page = dirty.get(pageId);
+        if (page != null) {
+            return page;
+        }
+        page = new byte[PageFile.PAGE_SIZE];
+        store.readPage(pageId, page);
+        return page;
+    }
+
+    void write(int pageId, byte[] page) {
+        if (!writable) {
+            throw new IllegalStateException("Read-only transaction");
+        }
+        dirty.put(pageId, page);
+    }
+
+    int allocate() {
+        if (!writable) {
+            throw new IllegalStateException("Read-only transaction");
+        }
+        headerChanged = true;
+        return pageCount++;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Block20 Gym Management System
+ * Write-Ahead Log - redo log of committed page images
+ */
+package com.block20.repositories.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Every committed transaction as one record holding the full new image
+ * of each page it changed: {@code [int length][int crc32][long txId]
+ * [int pages]([int pageId][page])*}.
+ *
+ * A record is forced to disk before any of its pages are written to the
+ * data file, so after a crash replaying the log restores every committed
+ * page, including ones the OS had only half written. A record that did
+ * not make it to disk in full fails its checksum and is dropped with
+ * everything after it: that transaction never committed.
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    private static final int RECORD_HEADER = 8;
+
+    /**
+     * Receives each page image during replay, oldest first
+     */
+    interface PageSink {
+        void page(int pageId, byte[] image) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private long size;
+
+    WriteAheadLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.size = channel.size();
+    }
+
+    /**
+     * Make a transaction durable
+     */
+    void append(long txId, Map<Integer, byte[]> pages) throws IOException {
+        int payloadLength = Long.BYTES + Integer.BYTES + pages.size() * (Integer.BYTES + PageFile.PAGE_SIZE);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payloadLength);
+        record.position(RECORD_HEADER);
+        record.putLong(txId).putInt(pages.size());
+        for (Map.Entry<Integer, byte[]> page : pages.entrySet()) {
+            record.putInt(page.getKey()).put(page.getValue(), 0, PageFile.PAGE_SIZE);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER, payloadLength);
+        record.putInt(0, payloadLength).putInt(4, (int) crc.getValue());
+        record.flip();
+
+        long position = size;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(false);
+        size = position;
+    }
+
+    /**
+     * Hand every committed page image to the sink, and cut off a torn tail
+     *
+     * @return id of the last transaction replayed, or 0 if the log was empty
+     */
+    long replay(PageSink sink) throws IOException {
+        long position = 0;
+        long lastTxId = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        while (position + RECORD_HEADER <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            int expectedCrc = header.getInt(4);
+            if (length < Long.BYTES + Integer.BYTES || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + RECORD_HEADER);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array(), 0, length);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            payload.flip();
+            long txId = payload.getLong();
+            int pages = payload.getInt();
+            for (int i = 0; i < pages; i++) {
+                int pageId = payload.getInt();
+                byte[] image = new byte[PageFile.PAGE_SIZE];
+                payload.get(image);
+                sink.page(pageId, image);
+            }
+            lastTxId = txId;
+            position += RECORD_HEADER + length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+            channel.force(false);
+            size = position;
+        }
+        return lastTxId;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Empty the log once the data file holds everything in it
+     */
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.force(false);
+        size = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of write-ahead log");
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Block20 Gym Management System
+ * Audit Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.AuditEntry;
+import com.block20.repositories.AuditRepository;
+import com.block20.repositories.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Audit entries in one append-only table. Entries arrive in batches from
+ * each desk's write-behind buffer and are inserted
+ * {@value #ROWS_PER_INSERT} rows to a statement.
+ */
+public class AuditRepositoryImpl implements AuditRepository {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS audit_log ("
+        + "entry_id VARCHAR(40) PRIMARY KEY, "
+        + "occurred_at BIGINT NOT NULL, "
+        + "actor VARCHAR(64) NOT NULL DEFAULT '', "
+        + "action VARCHAR(40) NOT NULL, "
+        + "target VARCHAR(40) NOT NULL DEFAULT '', "
+        + "details VARCHAR(500) NOT NULL DEFAULT '', "
+        + "INDEX idx_audit_log_time (occurred_at), "
+        + "INDEX idx_audit_log_target (target, occurred_at))";
+
+    // 6 parameters a row
+    private static final int ROWS_PER_INSERT = 200;
+
+    private final ConnectionProvider connections;
+
+    public AuditRepositoryImpl(ConnectionProvider connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+        }
+    }
+
+    @Override
+    public int insertAll(List<AuditEntry> entries) throws SQLException {
+        int inserted = 0;
+        try (Connection conn = connections.getConnection()) {
+            for (int from = 0; from < entries.size(); from += ROWS_PER_INSERT) {
+                List<AuditEntry> rows = entries.subList(from, Math.min(entries.size(), from + ROWS_PER_INSERT));
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql(rows.size()))) {
+                    int p = 1;
+                    for (AuditEntry entry : rows) {
+                        stmt.setString(p++, entry.getEntryId());
+                        stmt.setLong(p++, entry.getOccurredAtMillis());
+                        stmt.setString(p++, orEmpty(entry.getActor()));
+                        stmt.setString(p++, entry.getAction());
+                        stmt.setString(p++, orEmpty(entry.getTarget()));
+                        stmt.setString(p++, orEmpty(entry.getDetails()));
+                    }
+                    inserted += stmt.executeUpdate();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(
+            "INSERT IGNORE INTO audit_log (entry_id, occurred_at, actor, action, target, details) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
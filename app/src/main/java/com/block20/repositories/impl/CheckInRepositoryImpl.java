@@ -0,0 +1,339 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.repositories.CheckInRepository;
+import com.block20.repositories.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores synced door events and keeps a table of who is currently inside.
+ *
+ * Each batch costs a handful of round trips regardless of its size: one
+ * query for events already stored, one multi-row insert for the new ones,
+ * one locking read of the affected members' presence, and the presence
+ * and conflict changes worked out in memory and written back in bulk.
+ *
+ * A check-in for a member who is already inside (say, scanned at two desks
+ * while one was offline) keeps the original check-in and is recorded in
+ * check_in_conflicts for staff to review. Presence only lasts for the local
+ * day it started, like the desk's own replay: a member who left yesterday
+ * without scanning out is simply checked in again today.
+ */
+public class CheckInRepositoryImpl implements CheckInRepository {
+
+    private static final String[] CREATE_TABLES = {
+        "CREATE TABLE IF NOT EXISTS check_in_events ("
+            + "event_id VARCHAR(64) PRIMARY KEY, "
+            + "device_id VARCHAR(40) NOT NULL, "
+            + "sequence_no BIGINT NOT NULL, "
+            + "member_id VARCHAR(24) NOT NULL, "
+            + "action TINYINT NOT NULL, "
+            + "occurred_at BIGINT NOT NULL, "
+            + "entrance VARCHAR(24) NOT NULL, "
+            + "INDEX idx_check_in_events_time (occurred_at))",
+        "CREATE TABLE IF NOT EXISTS member_presence ("
+            + "member_id VARCHAR(24) PRIMARY KEY, "
+            + "event_id VARCHAR(64) NOT NULL, "
+            + "checked_in_at BIGINT NOT NULL, "
+            + "entrance VARCHAR(24) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS check_in_conflicts ("
+            + "event_id VARCHAR(64) PRIMARY KEY, "
+            + "member_id VARCHAR(24) NOT NULL, "
+            + "existing_event_id VARCHAR(64) NOT NULL, "
+            + "occurred_at BIGINT NOT NULL)"
+    };
+
+    private final ConnectionProvider connections;
+    private final ZoneId zone;
+
+    public CheckInRepositoryImpl(ConnectionProvider connections) {
+        this(connections, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param zone time zone whose midnight ends a day's presence
+     */
+    public CheckInRepositoryImpl(ConnectionProvider connections, ZoneId zone) {
+        this.connections = connections;
+        this.zone = zone;
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : CREATE_TABLES) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    @Override
+    public int saveEvents(String deviceId, long firstSequence, List<CheckInEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<String> eventIds = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            eventIds.add(deviceId + ":" + (firstSequence + i));
+        }
+
+        try (Connection conn = connections.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int conflicts = save(conn, deviceId, firstSequence, eventIds, events);
+                conn.commit();
+                return conflicts;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private int save(Connection conn, String deviceId, long firstSequence,
+                     List<String> eventIds, List<CheckInEvent> events) throws SQLException {
+        // Events stored by an earlier, interrupted sync are skipped entirely
+        Set<String> stored = selectStrings(conn, "SELECT event_id FROM check_in_events WHERE event_id IN ", eventIds);
+        List<Integer> fresh = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            if (!stored.contains(eventIds.get(i))) {
+                fresh.add(i);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        insertEvents(conn, deviceId, firstSequence, eventIds, events, fresh);
+
+        Set<String> memberIds = new LinkedHashSet<>();
+        for (int i : fresh) {
+            memberIds.add(events.get(i).getMemberId());
+        }
+        Map<String, Presence> before = selectPresence(conn, memberIds);
+        Map<String, Presence> present = new HashMap<>(before);
+        List<Conflict> conflicts = new ArrayList<>();
+
+        for (int i : fresh) {
+            CheckInEvent event = events.get(i);
+            Presence current = present.get(event.getMemberId());
+            if (event.getAction() == CheckInAction.CHECK_IN) {
+                if (current != null && !dayOf(current.checkedInAt).equals(dayOf(event.getTimestampMillis()))) {
+                    if (current.checkedInAt > event.getTimestampMillis()) {
+                        // A check-in from a day that is already over, sent late by an offline desk
+                        continue;
+                    }
+                    // Never scanned out on an earlier day; that visit is over
+                    current = null;
+                }
+                if (current != null) {
+                    conflicts.add(new Conflict(eventIds.get(i), event.getMemberId(), current.eventId,
+                        event.getTimestampMillis()));
+                } else {
+                    present.put(event.getMemberId(), new Presence(eventIds.get(i),
+                        event.getTimestampMillis(), event.getEntrance()));
+                }
+            } else if (current != null && current.checkedInAt <= event.getTimestampMillis()) {
+                // A check-out older than the check-in it would cancel is stale; ignore it
+                present.remove(event.getMemberId());
+            }
+        }
+
+        writePresence(conn, memberIds, before, present);
+        insertConflicts(conn, conflicts);
+        return conflicts.size();
+    }
+
+    private LocalDate dayOf(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+    }
+
+    private void insertEvents(Connection conn, String deviceId, long firstSequence, List<String> eventIds,
+                              List<CheckInEvent> events, List<Integer> rows) throws SQLException {
+        String sql = "INSERT IGNORE INTO check_in_events "
+            + "(event_id, device_id, sequence_no, member_id, action, occurred_at, entrance) VALUES "
+            + placeholders(rows.size(), 7);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int p = 1;
+            for (int i : rows) {
+                CheckInEvent event = events.get(i);
+                stmt.setString(p++, eventIds.get(i));
+                stmt.setString(p++, deviceId);
+                stmt.setLong(p++, firstSequence + i);
+                stmt.setString(p++, event.getMemberId());
+                stmt.setByte(p++, event.getAction().getCode());
+                stmt.setLong(p++, event.getTimestampMillis());
+                stmt.setString(p++, event.getEntrance());
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Current presence rows for the members, locked until commit so two
+     * desks syncing the same member take turns
+     */
+    private Map<String, Presence> selectPresence(Connection conn, Collection<String> memberIds) throws SQLException {
+        String sql = "SELECT member_id, event_id, checked_in_at, entrance FROM member_presence WHERE member_id IN "
+            + placeholders(1, memberIds.size()) + " FOR UPDATE";
+        Map<String, Presence> result = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindAll(stmt, memberIds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getString(1), new Presence(rs.getString(2), rs.getLong(3), rs.getString(4)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rewrite only the presence rows this batch actually changed
+     */
+    private void writePresence(Connection conn, Set<String> memberIds, Map<String, Presence> before,
+                               Map<String, Presence> after) throws SQLException {
+        List<String> removed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        for (String memberId : memberIds) {
+            Presence old = before.get(memberId);
+            Presence now = after.get(memberId);
+            if (old == now) {
+                continue;
+            }
+            if (old != null) {
+                removed.add(memberId);
+            }
+            if (now != null) {
+                added.add(memberId);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM member_presence WHERE member_id IN " + placeholders(1, removed.size()))) {
+                bindAll(stmt, removed);
+                stmt.executeUpdate();
+            }
+        }
+        if (!added.isEmpty()) {
+            String sql = "INSERT INTO member_presence (member_id, event_id, checked_in_at, entrance) VALUES "
+                + placeholders(added.size(), 4);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int p = 1;
+                for (String memberId : added) {
+                    Presence presence = after.get(memberId);
+                    stmt.setString(p++, memberId);
+                    stmt.setString(p++, presence.eventId);
+                    stmt.setLong(p++, presence.checkedInAt);
+                    stmt.setString(p++, presence.entrance);
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private void insertConflicts(Connection conn, List<Conflict> conflicts) throws SQLException {
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT IGNORE INTO check_in_conflicts (event_id, member_id, existing_event_id, occurred_at) VALUES "
+            + placeholders(conflicts.size(), 4);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int p = 1;
+            for (Conflict conflict : conflicts) {
+                stmt.setString(p++, conflict.eventId);
+                stmt.setString(p++, conflict.memberId);
+                stmt.setString(p++, conflict.existingEventId);
+                stmt.setLong(p++, conflict.occurredAt);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Set<String> selectStrings(Connection conn, String sqlPrefix, List<String> values) throws SQLException {
+        Set<String> result = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sqlPrefix + placeholders(1, values.size()))) {
+            bindAll(stmt, values);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(rs.getString(1));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void bindAll(PreparedStatement stmt, Collection<String> values) throws SQLException {
+        int p = 1;
+        for (String value : values) {
+            stmt.setString(p++, value);
+        }
+    }
+
+    /**
+     * "(?, ?), (?, ?)" for rows x columns
+     */
+    private static String placeholders(int rows, int columns) {
+        StringBuilder row = new StringBuilder("(");
+        for (int c = 0; c < columns; c++) {
+            row.append(c == 0 ? "?" : ", ?");
+        }
+        row.append(")");
+        StringBuilder sql = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    private static final class Presence {
+        final String eventId;
+        final long checkedInAt;
+        final String entrance;
+
+        Presence(String eventId, long checkedInAt, String entrance) {
+            this.eventId = eventId;
+            this.checkedInAt = checkedInAt;
+            this.entrance = entrance;
+        }
+    }
+
+    private static final class Conflict {
+        final String eventId;
+        final String memberId;
+        final String existingEventId;
+        final long occurredAt;
+
+        Conflict(String eventId, String memberId, String existingEventId, long occurredAt) {
+            this.eventId = eventId;
+            this.memberId = memberId;
+            this.existingEventId = existingEventId;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Block20 Gym Management System
+ * Equipment Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.Equipment;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.repositories.EquipmentRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Equipment in one table, indexed by status for the maintenance screens
+ */
+public class EquipmentRepositoryImpl implements EquipmentRepository {
+
+    private static final String COLUMNS = "equipment_id, name, category, zone, serial_number, purchase_date, "
+        + "warranty_expiry, status, notes";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS equipment ("
+        + "equipment_id VARCHAR(24) PRIMARY KEY, "
+        + "name VARCHAR(120) NOT NULL DEFAULT '', "
+        + "category VARCHAR(40) NOT NULL DEFAULT '', "
+        + "zone VARCHAR(40) NOT NULL DEFAULT '', "
+        + "serial_number VARCHAR(64) NOT NULL DEFAULT '', "
+        + "purchase_date DATE NULL, "
+        + "warranty_expiry DATE NULL, "
+        + "status VARCHAR(24) NOT NULL DEFAULT '', "
+        + "notes VARCHAR(500) NOT NULL DEFAULT '', "
+        + "INDEX idx_equipment_status (status, equipment_id))";
+
+    private static final String UPSERT = "INSERT INTO equipment (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE name = VALUES(name), category = VALUES(category), zone = VALUES(zone), "
+        + "serial_number = VALUES(serial_number), purchase_date = VALUES(purchase_date), "
+        + "warranty_expiry = VALUES(warranty_expiry), status = VALUES(status), notes = VALUES(notes)";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM equipment WHERE equipment_id = ?";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM equipment ORDER BY equipment_id";
+    private static final String SELECT_BY_STATUS = "SELECT " + COLUMNS
+        + " FROM equipment WHERE status = ? ORDER BY equipment_id";
+    private static final String UPDATE_STATUS = "UPDATE equipment SET status = ? WHERE equipment_id = ?";
+
+    private final ConnectionProvider connections;
+
+    public EquipmentRepositoryImpl(ConnectionProvider connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+        }
+    }
+
+    @Override
+    public void save(Equipment equipment) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+            stmt.setString(1, equipment.getEquipmentId());
+            stmt.setString(2, orEmpty(equipment.getName()));
+            stmt.setString(3, orEmpty(equipment.getCategory()));
+            stmt.setString(4, orEmpty(equipment.getZone()));
+            stmt.setString(5, orEmpty(equipment.getSerialNumber()));
+            stmt.setObject(6, equipment.getPurchaseDate());
+            stmt.setObject(7, equipment.getWarrantyExpiry());
+            stmt.setString(8, orEmpty(equipment.getStatus()));
+            stmt.setString(9, orEmpty(equipment.getNotes()));
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public Optional<Equipment> findById(String equipmentId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
+            stmt.setString(1, equipmentId);
+            List<Equipment> found = readEquipment(stmt);
+            return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+        }
+    }
+
+    @Override
+    public List<Equipment> findAll() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL)) {
+            return readEquipment(stmt);
+        }
+    }
+
+    @Override
+    public List<Equipment> findByStatus(String status) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_STATUS)) {
+            stmt.setString(1, status);
+            return readEquipment(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateStatus(String equipmentId, String status) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
+            stmt.setString(1, status);
+            stmt.setString(2, equipmentId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private static List<Equipment> readEquipment(PreparedStatement stmt) throws SQLException {
+        List<Equipment> result = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(new Equipment(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getObject(6, LocalDate.class), rs.getObject(7, LocalDate.class),
+                    rs.getString(8), rs.getString(9)));
+            }
+        }
+        return result;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Block20 Gym Management System
+ * Member Repository - in-memory implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.Member;
+import com.block20.repositories.MemberRepository;
+import com.block20.repositories.MemberSortField;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.search.MemberSortIndex;
+import com.block20.services.search.SortColumn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Serves member pages from the local member directory, for desks running
+ * without a database.
+ *
+ * Orders come from the shared sort index, which keeps each one until a
+ * member changes; a page is then a binary search for the key plus a copy.
+ */
+public class InMemoryMemberRepository implements MemberRepository {
+
+    private final MemberDirectory directory;
+    private final MemberSortIndex sortIndex;
+
+    public InMemoryMemberRepository(MemberDirectory directory, MemberSortIndex sortIndex) {
+        this.directory = directory;
+        this.sortIndex = sortIndex;
+    }
+
+    @Override
+    public int countMembers() {
+        return directory.size();
+    }
+
+    @Override
+    public List<Member> findPageAfter(MemberSortField sort, boolean ascending, Member after, int limit) {
+        MemberSortIndex.SortedMembers rows = sorted(sort, ascending);
+        return page(rows, after == null ? 0 : rows.upperBound(after), limit);
+    }
+
+    @Override
+    public List<Member> findPageBefore(MemberSortField sort, boolean ascending, Member before, int limit) {
+        MemberSortIndex.SortedMembers rows = sorted(sort, ascending);
+        int end = rows.lowerBound(before);
+        int start = Math.max(0, end - limit);
+        return page(rows, start, end - start);
+    }
+
+    @Override
+    public List<Member> findPageAt(MemberSortField sort, boolean ascending, int offset, int limit) {
+        return page(sorted(sort, ascending), offset, limit);
+    }
+
+    private MemberSortIndex.SortedMembers sorted(MemberSortField sort, boolean ascending) {
+        return sortIndex.sort(Collections.singletonList(new SortColumn(sort, ascending)));
+    }
+
+    private static List<Member> page(List<Member> rows, int start, int limit) {
+        int from = Math.min(Math.max(0, start), rows.size());
+        int to = Math.min(rows.size(), from + Math.max(0, limit));
+        return new ArrayList<>(rows.subList(from, to));
+    }
+}
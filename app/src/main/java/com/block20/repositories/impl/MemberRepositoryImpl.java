@@ -0,0 +1,383 @@
+/*
+ * Block20 Gym Management System
+ * Member Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.Member;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.repositories.MemberRecordRepository;
+import com.block20.repositories.MemberRepository;
+import com.block20.repositories.MemberSortField;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads member pages with keyset queries.
+ *
+ * "After row X" becomes {@code col > ? OR (col = ? AND member_id > ?)}
+ * ordered by the same two columns, so with an index on (col, member_id)
+ * the database seeks straight to the page instead of counting past every
+ * earlier row the way a large OFFSET does. Members marked deleted are
+ * left out of the pages and the count.
+ */
+public class MemberRepositoryImpl implements MemberRepository, MemberRecordRepository {
+
+    private static final String COLUMNS = "member_id, name, email, phone, plan_type, status, join_date, "
+        + "expiry_date, start_date, monthly_fee, emergency_contact, address";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS members ("
+        + "member_id VARCHAR(24) PRIMARY KEY, "
+        + "name VARCHAR(120) NOT NULL DEFAULT '', "
+        + "email VARCHAR(160) NOT NULL DEFAULT '', "
+        + "phone VARCHAR(40) NOT NULL DEFAULT '', "
+        + "plan_type VARCHAR(24) NOT NULL DEFAULT '', "
+        + "status VARCHAR(24) NOT NULL DEFAULT '', "
+        + "join_date VARCHAR(10) NOT NULL DEFAULT '', "
+        + "expiry_date VARCHAR(10) NOT NULL DEFAULT '', "
+        + "start_date VARCHAR(10) NOT NULL DEFAULT '', "
+        + "monthly_fee VARCHAR(16) NOT NULL DEFAULT '', "
+        + "emergency_contact VARCHAR(160) NOT NULL DEFAULT '', "
+        + "address VARCHAR(255) NOT NULL DEFAULT '', "
+        + "INDEX idx_members_name (name, member_id), "
+        + "INDEX idx_members_email (email, member_id), "
+        + "INDEX idx_members_phone (phone, member_id), "
+        + "INDEX idx_members_plan (plan_type, member_id), "
+        + "INDEX idx_members_status (status, member_id), "
+        + "INDEX idx_members_expiry (expiry_date, member_id))";
+    private static final String CREATE_TOMBSTONES = "CREATE TABLE IF NOT EXISTS member_tombstones ("
+        + "member_id VARCHAR(24) PRIMARY KEY, "
+        + "deleted_at BIGINT NOT NULL)";
+
+    private static final String UPSERT = "INSERT INTO members (" + COLUMNS + ") "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name), "
+        + "email = VALUES(email), phone = VALUES(phone), plan_type = VALUES(plan_type), status = VALUES(status), "
+        + "join_date = VALUES(join_date), expiry_date = VALUES(expiry_date), start_date = VALUES(start_date), "
+        + "monthly_fee = VALUES(monthly_fee), emergency_contact = VALUES(emergency_contact), "
+        + "address = VALUES(address)";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM members WHERE member_id = ?";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM members ORDER BY member_id";
+    private static final String NOT_DELETED =
+        "NOT EXISTS (SELECT 1 FROM member_tombstones t WHERE t.member_id = members.member_id)";
+    private static final String MARK_DELETED = "INSERT INTO member_tombstones (member_id, deleted_at) VALUES (?, ?) "
+        + "ON DUPLICATE KEY UPDATE deleted_at = VALUES(deleted_at)";
+    private static final String UNMARK_DELETED = "DELETE FROM member_tombstones WHERE member_id = ?";
+    private static final String PURGE = "DELETE FROM members WHERE member_id = ? "
+        + "AND EXISTS (SELECT 1 FROM member_tombstones t WHERE t.member_id = members.member_id)";
+    private static final String SELECT_DELETED = "SELECT member_id, deleted_at FROM member_tombstones "
+        + "ORDER BY member_id";
+
+    // 12 parameters a row; 100 rows stays well under driver parameter limits
+    private static final int ROWS_PER_INSERT = 100;
+
+    private final ConnectionProvider connections;
+
+    public MemberRepositoryImpl(ConnectionProvider connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * Create the members table, its sort indexes and the deleted-member
+     * table if they are missing
+     */
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+            stmt.execute(CREATE_TOMBSTONES);
+        }
+    }
+
+    /**
+     * Insert members in one transaction. Rows are sent
+     * {@value #ROWS_PER_INSERT} to a statement ({@code VALUES (...), (...)})
+     * and the statements are batched, so a large import costs a few round
+     * trips instead of one per member. A row whose ID is already stored is
+     * left alone rather than failing the batch.
+     */
+    @Override
+    public void insertMembers(List<Member> members) throws SQLException {
+        if (members.isEmpty()) {
+            return;
+        }
+        try (Connection conn = connections.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int full = members.size() / ROWS_PER_INSERT;
+                if (full > 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(insertSql(ROWS_PER_INSERT))) {
+                        for (int i = 0; i < full; i++) {
+                            bindRows(stmt, members.subList(i * ROWS_PER_INSERT, (i + 1) * ROWS_PER_INSERT));
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                List<Member> rest = members.subList(full * ROWS_PER_INSERT, members.size());
+                if (!rest.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(insertSql(rest.size()))) {
+                        bindRows(stmt, rest);
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public void save(Member member) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+                    bindRows(stmt, Collections.singletonList(member));
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(UNMARK_DELETED)) {
+                    stmt.setString(1, member.getMemberId());
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Member> findById(String memberId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
+            stmt.setString(1, memberId);
+            List<Member> found = readMembers(stmt);
+            return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+        }
+    }
+
+    @Override
+    public List<Member> findByIds(Collection<String> memberIds) throws SQLException {
+        List<Member> found = new ArrayList<>();
+        if (memberIds.isEmpty()) {
+            return found;
+        }
+        List<String> ids = new ArrayList<>(memberIds);
+        try (Connection conn = connections.getConnection()) {
+            for (int from = 0; from < ids.size(); from += ROWS_PER_INSERT) {
+                List<String> group = ids.subList(from, Math.min(ids.size(), from + ROWS_PER_INSERT));
+                StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                    .append(" FROM members WHERE member_id IN (");
+                for (int i = 0; i < group.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(sql.append(')').toString())) {
+                    for (int i = 0; i < group.size(); i++) {
+                        stmt.setString(i + 1, group.get(i));
+                    }
+                    found.addAll(readMembers(stmt));
+                }
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Member> findAll() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL)) {
+            return readMembers(stmt);
+        }
+    }
+
+    @Override
+    public void markDeleted(String memberId, long deletedAtMillis) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(MARK_DELETED)) {
+            stmt.setString(1, memberId);
+            stmt.setLong(2, deletedAtMillis);
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void unmarkDeleted(String memberId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UNMARK_DELETED)) {
+            stmt.setString(1, memberId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove the row, then its mark, in one transaction
+     */
+    @Override
+    public boolean purge(String memberId) throws SQLException {
+        try (Connection conn = connections.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                boolean purged;
+                try (PreparedStatement stmt = conn.prepareStatement(PURGE)) {
+                    stmt.setString(1, memberId);
+                    purged = stmt.executeUpdate() > 0;
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(UNMARK_DELETED)) {
+                    stmt.setString(1, memberId);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                return purged;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> findDeleted() throws SQLException {
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_DELETED);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                deleted.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return deleted;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO members (").append(COLUMNS).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        // A no-op update, so a stored ID keeps its row instead of failing the statement
+        return sql.append(" ON DUPLICATE KEY UPDATE member_id = member_id").toString();
+    }
+
+    private static void bindRows(PreparedStatement stmt, List<Member> members) throws SQLException {
+        int p = 1;
+        for (Member member : members) {
+            stmt.setString(p++, member.getMemberId());
+            stmt.setString(p++, orEmpty(member.getName()));
+            stmt.setString(p++, orEmpty(member.getEmail()));
+            stmt.setString(p++, orEmpty(member.getPhone()));
+            stmt.setString(p++, orEmpty(member.getPlanType()));
+            stmt.setString(p++, orEmpty(member.getStatus()));
+            stmt.setString(p++, orEmpty(member.getJoinDate()));
+            stmt.setString(p++, orEmpty(member.getExpiryDate()));
+            stmt.setString(p++, orEmpty(member.getStartDate()));
+            stmt.setString(p++, orEmpty(member.getMonthlyFee()));
+            stmt.setString(p++, orEmpty(member.getEmergencyContact()));
+            stmt.setString(p++, orEmpty(member.getAddress()));
+        }
+    }
+
+    @Override
+    public int countMembers() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM members WHERE " + NOT_DELETED)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Override
+    public List<Member> findPageAfter(MemberSortField sort, boolean ascending, Member after, int limit)
+            throws SQLException {
+        if (after == null) {
+            return findPageAt(sort, ascending, 0, limit);
+        }
+        return seek(sort, ascending, after, limit);
+    }
+
+    @Override
+    public List<Member> findPageBefore(MemberSortField sort, boolean ascending, Member before, int limit)
+            throws SQLException {
+        // Walk backwards in the reverse order, then flip the page around
+        List<Member> page = seek(sort, !ascending, before, limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    @Override
+    public List<Member> findPageAt(MemberSortField sort, boolean ascending, int offset, int limit)
+            throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM members WHERE " + NOT_DELETED + " ORDER BY "
+            + orderBy(sort, ascending) + " LIMIT ? OFFSET ?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            return readMembers(stmt);
+        }
+    }
+
+    private List<Member> seek(MemberSortField sort, boolean ascending, Member from, int limit) throws SQLException {
+        String column = sort.getColumn();
+        String op = ascending ? ">" : "<";
+        String sql = "SELECT " + COLUMNS + " FROM members WHERE " + NOT_DELETED + " AND (" + column + " " + op
+            + " ? OR (" + column + " = ? AND member_id " + op + " ?)) ORDER BY " + orderBy(sort, ascending)
+            + " LIMIT ?";
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            String key = sort.keyOf(from);
+            stmt.setString(1, key);
+            stmt.setString(2, key);
+            stmt.setString(3, from.getMemberId());
+            stmt.setInt(4, limit);
+            return readMembers(stmt);
+        }
+    }
+
+    private static String orderBy(MemberSortField sort, boolean ascending) {
+        String direction = ascending ? " ASC" : " DESC";
+        if (sort == MemberSortField.MEMBER_ID) {
+            return "member_id" + direction;
+        }
+        return sort.getColumn() + direction + ", member_id" + direction;
+    }
+
+    private static List<Member> readMembers(PreparedStatement stmt) throws SQLException {
+        List<Member> result = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(new Member(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8), rs.getString(9),
+                    rs.getString(10), rs.getString(11), rs.getString(12)));
+            }
+        }
+        return result;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Block20 Gym Management System
+ * Payment Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.Payment;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.repositories.PaymentRepository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payments in one table, indexed by member and by date.
+ *
+ * Every query is fixed SQL text, so with a {@link com.block20.repositories.ConnectionPool}
+ * each one is prepared once per connection and reused after that.
+ */
+public class PaymentRepositoryImpl implements PaymentRepository {
+
+    private static final String COLUMNS = "payment_id, member_id, amount, method, paid_on, reference";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS payments ("
+        + "payment_id VARCHAR(40) PRIMARY KEY, "
+        + "member_id VARCHAR(24) NOT NULL, "
+        + "amount DECIMAL(10, 2) NOT NULL, "
+        + "method VARCHAR(24) NOT NULL DEFAULT '', "
+        + "paid_on DATE NOT NULL, "
+        + "reference VARCHAR(64) NOT NULL DEFAULT '', "
+        + "INDEX idx_payments_member (member_id, paid_on), "
+        + "INDEX idx_payments_date (paid_on))";
+
+    private static final String INSERT = "INSERT IGNORE INTO payments (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_MEMBER = "SELECT " + COLUMNS
+        + " FROM payments WHERE member_id = ? ORDER BY paid_on DESC, payment_id DESC";
+    private static final String SELECT_BETWEEN = "SELECT " + COLUMNS
+        + " FROM payments WHERE paid_on BETWEEN ? AND ? ORDER BY paid_on, payment_id";
+    private static final String SELECT_LATEST = "SELECT member_id, MAX(paid_on) FROM payments GROUP BY member_id";
+    private static final String SUM_BETWEEN = "SELECT COALESCE(SUM(amount), 0) FROM payments WHERE paid_on BETWEEN ? AND ?";
+
+    private final ConnectionProvider connections;
+
+    public PaymentRepositoryImpl(ConnectionProvider connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+        }
+    }
+
+    @Override
+    public boolean save(Payment payment) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+            stmt.setString(1, payment.getPaymentId());
+            stmt.setString(2, payment.getMemberId());
+            stmt.setBigDecimal(3, payment.getAmount());
+            stmt.setString(4, orEmpty(payment.getMethod()));
+            stmt.setObject(5, payment.getPaidOn());
+            stmt.setString(6, orEmpty(payment.getReference()));
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public List<Payment> findByMember(String memberId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_MEMBER)) {
+            stmt.setString(1, memberId);
+            return readPayments(stmt);
+        }
+    }
+
+    @Override
+    public Map<String, LocalDate> findLatestPaymentDates() throws SQLException {
+        Map<String, LocalDate> latest = new HashMap<>();
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LATEST);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                latest.put(rs.getString(1), rs.getObject(2, LocalDate.class));
+            }
+        }
+        return latest;
+    }
+
+    @Override
+    public List<Payment> findBetween(LocalDate from, LocalDate to) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BETWEEN)) {
+            stmt.setObject(1, from);
+            stmt.setObject(2, to);
+            return readPayments(stmt);
+        }
+    }
+
+    @Override
+    public BigDecimal totalBetween(LocalDate from, LocalDate to) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SUM_BETWEEN)) {
+            stmt.setObject(1, from);
+            stmt.setObject(2, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+
+    private static List<Payment> readPayments(PreparedStatement stmt) throws SQLException {
+        List<Payment> result = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(new Payment(rs.getString(1), rs.getString(2), rs.getBigDecimal(3), rs.getString(4),
+                    rs.getObject(5, LocalDate.class), rs.getString(6)));
+            }
+        }
+        return result;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Block20 Gym Management System
+ * Training Session Repository - MySQL implementation
+ */
+package com.block20.repositories.impl;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.repositories.TrainingSessionRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sessions in one table, indexed by start time and by member
+ */
+public class TrainingSessionRepositoryImpl implements TrainingSessionRepository {
+
+    private static final String COLUMNS = "session_id, member_id, trainer_name, session_type, starts_at, "
+        + "duration_minutes, status";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS training_sessions ("
+        + "session_id VARCHAR(24) PRIMARY KEY, "
+        + "member_id VARCHAR(24) NOT NULL, "
+        + "trainer_name VARCHAR(120) NOT NULL DEFAULT '', "
+        + "session_type VARCHAR(40) NOT NULL DEFAULT '', "
+        + "starts_at DATETIME NOT NULL, "
+        + "duration_minutes INT NOT NULL, "
+        + "status VARCHAR(24) NOT NULL DEFAULT '', "
+        + "INDEX idx_training_sessions_start (starts_at), "
+        + "INDEX idx_training_sessions_member (member_id, starts_at))";
+
+    private static final String UPSERT = "INSERT INTO training_sessions (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE member_id = VALUES(member_id), trainer_name = VALUES(trainer_name), "
+        + "session_type = VALUES(session_type), starts_at = VALUES(starts_at), "
+        + "duration_minutes = VALUES(duration_minutes), status = VALUES(status)";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM training_sessions WHERE session_id = ?";
+    private static final String SELECT_BETWEEN = "SELECT " + COLUMNS
+        + " FROM training_sessions WHERE starts_at >= ? AND starts_at < ? ORDER BY starts_at, session_id";
+    private static final String SELECT_BY_MEMBER = "SELECT " + COLUMNS
+        + " FROM training_sessions WHERE member_id = ? ORDER BY starts_at DESC, session_id DESC";
+    private static final String UPDATE_STATUS = "UPDATE training_sessions SET status = ? WHERE session_id = ?";
+
+    private final ConnectionProvider connections;
+
+    public TrainingSessionRepositoryImpl(ConnectionProvider connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        try (Connection conn = connections.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE);
+        }
+    }
+
+    @Override
+    public void save(TrainingSession session) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+            stmt.setString(1, session.getSessionId());
+            stmt.setString(2, session.getMemberId());
+            stmt.setString(3, orEmpty(session.getTrainerName()));
+            stmt.setString(4, orEmpty(session.getSessionType()));
+            stmt.setObject(5, session.getStartsAt());
+            stmt.setInt(6, session.getDurationMinutes());
+            stmt.setString(7, orEmpty(session.getStatus()));
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public Optional<TrainingSession> findById(String sessionId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
+            stmt.setString(1, sessionId);
+            List<TrainingSession> found = readSessions(stmt);
+            return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+        }
+    }
+
+    @Override
+    public List<TrainingSession> findBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BETWEEN)) {
+            stmt.setObject(1, from);
+            stmt.setObject(2, to);
+            return readSessions(stmt);
+        }
+    }
+
+    @Override
+    public List<TrainingSession> findByMember(String memberId) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_MEMBER)) {
+            stmt.setString(1, memberId);
+            return readSessions(stmt);
+        }
+    }
+
+    @Override
+    public boolean updateStatus(String sessionId, String status) throws SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
+            stmt.setString(1, status);
+            stmt.setString(2, sessionId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * {@code UPDATE ... SET status = CASE session_id WHEN ? THEN ? ... END
+     * WHERE session_id IN (...)}, so a burst of changes costs one round trip
+     */
+    @Override
+    public int updateStatuses(Map<String, String> statusById) throws SQLException {
+        if (statusById.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE training_sessions SET status = CASE session_id");
+        for (int i = 0; i < statusById.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE session_id IN (");
+        for (int i = 0; i < statusById.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Map.Entry<String, String> change : statusById.entrySet()) {
+                stmt.setString(p++, change.getKey());
+                stmt.setString(p++, orEmpty(change.getValue()));
+            }
+            for (String sessionId : statusById.keySet()) {
+                stmt.setString(p++, sessionId);
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static List<TrainingSession> readSessions(PreparedStatement stmt) throws SQLException {
+        List<TrainingSession> result = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(new TrainingSession(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getObject(5, LocalDateTime.class), rs.getInt(6), rs.getString(7)));
+            }
+        }
+        return result;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
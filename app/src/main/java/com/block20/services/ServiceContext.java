@@ -0,0 +1,640 @@
+/*
+ * Block20 Gym Management System
+ * Shared service container
+ */
+package com.block20.services;
+
+import com.block20.services.checkin.CheckInJournal;
+import com.block20.repositories.ConnectionPool;
+import com.block20.repositories.DatabaseConnection;
+import com.block20.repositories.EquipmentRepository;
+import com.block20.repositories.MemberRecordRepository;
+import com.block20.repositories.MemberRepository;
+import com.block20.repositories.PaymentRepository;
+import com.block20.repositories.TrainingSessionRepository;
+import com.block20.repositories.embedded.EmbeddedEquipmentRepository;
+import com.block20.repositories.embedded.EmbeddedMemberRepository;
+import com.block20.repositories.embedded.EmbeddedPaymentRepository;
+import com.block20.repositories.embedded.EmbeddedStore;
+import com.block20.repositories.embedded.EmbeddedTrainingSessionRepository;
+import com.block20.repositories.impl.AuditRepositoryImpl;
+import com.block20.repositories.impl.CheckInRepositoryImpl;
+import com.block20.repositories.impl.EquipmentRepositoryImpl;
+import com.block20.repositories.impl.InMemoryMemberRepository;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import com.block20.repositories.impl.PaymentRepositoryImpl;
+import com.block20.repositories.impl.TrainingSessionRepositoryImpl;
+import com.block20.models.CheckInAction;
+import com.block20.models.Member;
+import com.block20.services.async.AsyncExecutor;
+import com.block20.services.cache.CacheStats;
+import com.block20.services.cache.CachedEquipmentRepository;
+import com.block20.services.cache.CachedTrainingSessionRepository;
+import com.block20.services.checkin.AttendanceProfileLoader;
+import com.block20.services.checkin.CheckInService;
+import com.block20.services.checkin.CheckInSyncService;
+import com.block20.services.checkin.EligibilityCache;
+import com.block20.services.checkin.ScanPipeline;
+import com.block20.services.equipment.EquipmentService;
+import com.block20.services.members.MemberCompactor;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+import com.block20.services.members.MemberHistory;
+import com.block20.services.members.MemberProfileService;
+import com.block20.services.members.MemberStatistics;
+import com.block20.services.members.MembershipService;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+import com.block20.services.search.FuzzyNameIndex;
+import com.block20.services.search.MemberFilterIndex;
+import com.block20.services.search.MemberSearchIndex;
+import com.block20.services.search.MemberSortIndex;
+import com.block20.services.search.SearchExecutor;
+import com.block20.services.transfer.CheckInExportSource;
+import com.block20.services.transfer.DataExporter;
+import com.block20.services.transfer.ExportSource;
+import com.block20.services.transfer.MemberExportSource;
+import com.block20.services.transfer.MemberImporter;
+import com.block20.services.training.TrainingSessionService;
+import com.block20.services.writebehind.AuditLog;
+import com.block20.services.writebehind.SessionStatusUpdates;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the services shared by every staff screen.
+ * Controllers are rebuilt on each navigation, so anything that has to
+ * outlive a single screen is created once here and passed in.
+ */
+public class ServiceContext implements AutoCloseable {
+
+    private static final int FACILITY_CAPACITY = 150;
+    private static final long JOURNAL_COMMIT_INTERVAL_MILLIS = 5;
+    private static final int SCAN_RING_SIZE = 4096;
+    private static final int SYNC_BATCH_SIZE = 500;
+    private static final Duration DELETE_UNDO_WINDOW = Duration.ofMinutes(10);
+    private static final Duration COMPACTION_INTERVAL = Duration.ofSeconds(30);
+    private static final int DEFAULT_POOL_SIZE = 8;
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(10);
+    private static final int EQUIPMENT_CACHE_SIZE = 2_000;
+    private static final Duration EQUIPMENT_CACHE_TTL = Duration.ofMinutes(10);
+    private static final int SESSION_CACHE_SIZE = 5_000;
+    private static final Duration SESSION_CACHE_TTL = Duration.ofMinutes(5);
+    private static final Duration LIST_CACHE_TTL = Duration.ofMinutes(1);
+    private static final int WRITE_BATCH_SIZE = 200;
+    private static final Duration WRITE_FLUSH_DELAY = Duration.ofMillis(250);
+    private static final int WRITE_BUFFER_CAPACITY = 10_000;
+
+    private final Path dataDirectory;
+    private final ConnectionPool database;
+    private final EmbeddedStore embeddedStore;
+    private final PaymentRepository paymentRepository;
+    private final CachedTrainingSessionRepository trainingSessionRepository;
+    private final CachedEquipmentRepository equipmentRepository;
+    private final AsyncExecutor asyncExecutor;
+    private final MembershipService membershipService;
+    private final EquipmentService equipmentService;
+    private final TrainingSessionService trainingSessionService;
+    private final AuditLog auditLog;
+    private final SessionStatusUpdates sessionStatusUpdates;
+    private final MemberDirectory memberDirectory;
+    private final MemberHistory memberHistory;
+    private final MemberRepository memberRepository;
+    private final MemberStatistics memberStatistics;
+    private final MemberSearchIndex memberSearchIndex;
+    private final MemberFilterIndex memberFilterIndex;
+    private final MemberSortIndex memberSortIndex;
+    private final FuzzyNameIndex fuzzyNameIndex;
+    private final MemberCompactor memberCompactor;
+    private final MemberImporter memberImporter;
+    private final DataExporter dataExporter;
+    private final SearchExecutor searchExecutor;
+    private final EligibilityCache eligibilityCache;
+    private final OccupancyService occupancyService;
+    private final OccupancyHistory occupancyHistory;
+    private final CheckInJournal checkInJournal;
+    private final CheckInService checkInService;
+    private final MemberProfileService memberProfileService;
+    private final ScanPipeline scanPipeline;
+    private final CheckInSyncService checkInSync;
+
+    /**
+     * @param uiExecutor where background calls complete, e.g. {@code Platform::runLater}
+     */
+    public ServiceContext(Executor uiExecutor) {
+        this(defaultDataDirectory(), uiExecutor);
+    }
+
+    public ServiceContext(Path dataDirectory, Executor uiExecutor) {
+        this.dataDirectory = dataDirectory;
+        // One pool shared by every repository; -Dblock20.db.pool.size caps the connections
+        this.database = DatabaseConnection.isConfigured()
+            ? new ConnectionPool(DatabaseConnection.fromSystemProperties(),
+                Integer.getInteger("block20.db.pool.size", DEFAULT_POOL_SIZE))
+            : null;
+        // Without a database server the desk keeps its data in one local file instead;
+        // -Dblock20.storage=memory keeps everything in memory only
+        this.embeddedStore = database == null && !"memory".equals(System.getProperty("block20.storage"))
+            ? openEmbeddedStore(dataDirectory)
+            : null;
+        MemberRepositoryImpl sqlMembers = null;
+        MemberRecordRepository memberRecords = null;
+        TrainingSessionRepository sessions = null;
+        EquipmentRepository equipment = null;
+        if (database != null) {
+            sqlMembers = new MemberRepositoryImpl(database);
+            memberRecords = sqlMembers;
+            this.paymentRepository = new PaymentRepositoryImpl(database);
+            sessions = new TrainingSessionRepositoryImpl(database);
+            equipment = new EquipmentRepositoryImpl(database);
+        } else if (embeddedStore != null) {
+            memberRecords = new EmbeddedMemberRepository(embeddedStore);
+            this.paymentRepository = new EmbeddedPaymentRepository(embeddedStore);
+            sessions = new EmbeddedTrainingSessionRepository(embeddedStore);
+            equipment = new EmbeddedEquipmentRepository(embeddedStore);
+        } else {
+            this.paymentRepository = null;
+        }
+        // Screens are rebuilt on every navigation; these keep their reads in memory.
+        // Writes made through them drop the entries they change.
+        this.trainingSessionRepository = sessions != null
+            ? new CachedTrainingSessionRepository(sessions, SESSION_CACHE_SIZE, SESSION_CACHE_TTL, LIST_CACHE_TTL)
+            : null;
+        this.equipmentRepository = equipment != null
+            ? new CachedEquipmentRepository(equipment, EQUIPMENT_CACHE_SIZE, EQUIPMENT_CACHE_TTL, LIST_CACHE_TTL)
+            : null;
+
+        this.memberDirectory = new MemberDirectory();
+        this.memberHistory = new MemberHistory();
+        this.memberHistory.attach(memberDirectory);
+        // Demonstration members only stand in when nothing is stored anywhere
+        boolean sampleMembers = memberRecords == null;
+        if (sampleMembers) {
+            this.memberDirectory.loadSampleMembers(memberHistory);
+        } else {
+            restoreStoredMembers(memberRecords);
+        }
+        this.memberSortIndex = new MemberSortIndex();
+        this.memberSortIndex.attach(memberDirectory);
+        // The registry pages straight from MySQL when there is one, sorted by the database
+        this.memberRepository = sqlMembers != null
+            ? sqlMembers
+            : new InMemoryMemberRepository(memberDirectory, memberSortIndex);
+        this.memberStatistics = new MemberStatistics();
+        this.memberStatistics.attach(memberDirectory);
+
+        this.memberSearchIndex = new MemberSearchIndex();
+        this.memberSearchIndex.attach(memberDirectory);
+        this.memberFilterIndex = new MemberFilterIndex();
+        this.memberFilterIndex.attach(memberDirectory);
+        this.fuzzyNameIndex = new FuzzyNameIndex();
+        this.fuzzyNameIndex.attach(memberDirectory);
+        // Deleted members can be restored for a while; purging and index rebuilds happen in the background
+        this.memberCompactor = new MemberCompactor(memberDirectory, DELETE_UNDO_WINDOW, COMPACTION_INTERVAL);
+        this.memberCompactor.addIndex(memberSearchIndex);
+        this.memberCompactor.addIndex(fuzzyNameIndex);
+        this.memberCompactor.addIndex(memberSortIndex);
+        this.memberCompactor.addIndex(memberFilterIndex);
+        this.memberCompactor.start();
+        // Imports write through to MySQL or the local data file
+        this.memberImporter = new MemberImporter(memberDirectory, memberSearchIndex, memberRecords);
+        // Saves from the screens run on virtual threads and report back on the UI thread
+        this.asyncExecutor = new AsyncExecutor(uiExecutor, CALL_TIMEOUT);
+        this.searchExecutor = new SearchExecutor();
+        this.dataExporter = new DataExporter();
+
+        this.eligibilityCache = new EligibilityCache();
+        this.eligibilityCache.attach(memberDirectory);
+
+        this.occupancyService = new OccupancyService(FACILITY_CAPACITY);
+        this.occupancyHistory = new OccupancyHistory();
+
+        try {
+            Files.createDirectories(dataDirectory);
+            this.checkInJournal = new CheckInJournal(dataDirectory.resolve("checkins.journal"),
+                JOURNAL_COMMIT_INTERVAL_MILLIS);
+            this.checkInService = new CheckInService(eligibilityCache, occupancyService,
+                occupancyHistory, checkInJournal, Clock.systemDefaultZone());
+
+            // Profile details are built from the journal, so a new check-in makes a cached one stale
+            this.memberProfileService = new MemberProfileService(new AttendanceProfileLoader(memberDirectory,
+                memberHistory, checkInJournal, Clock.systemDefaultZone()));
+            this.memberProfileService.attach(memberDirectory, memberHistory);
+            this.checkInService.addListener(event -> {
+                if (event.getAction() == CheckInAction.CHECK_IN) {
+                    memberProfileService.invalidate(event.getMemberId());
+                }
+            });
+
+            // Rebuild today's occupancy. A fresh install running on the sample members shows
+            // two of them inside; they are counted in memory only and never journaled or synced.
+            checkInService.replayJournal();
+            if (sampleMembers && checkInJournal.size() == 0) {
+                occupancyService.checkIn("M001", OccupancyService.DEFAULT_ZONE);
+                occupancyService.checkIn("M005", OccupancyService.DEFAULT_ZONE);
+            }
+
+            // With a database configured, the journal is also shipped to MySQL in the background
+            if (database != null) {
+                this.checkInSync = new CheckInSyncService(checkInJournal,
+                    new CheckInRepositoryImpl(database),
+                    dataDirectory.resolve("checkins.sync"), deskId(dataDirectory), SYNC_BATCH_SIZE);
+                this.checkInSync.start();
+                // Don't leave a full batch waiting for the next sync interval
+                this.checkInService.addListener(event -> {
+                    if (checkInSync.getPendingCount() >= SYNC_BATCH_SIZE) {
+                        checkInSync.wake();
+                    }
+                });
+
+                // Audit entries and session status changes are journaled here and written in batches
+                this.auditLog = new AuditLog(dataDirectory.resolve("audit.journal"),
+                    new AuditRepositoryImpl(database), deskId(dataDirectory), Clock.systemUTC(),
+                    WRITE_BATCH_SIZE, WRITE_FLUSH_DELAY, WRITE_BUFFER_CAPACITY);
+                this.auditLog.start();
+                this.sessionStatusUpdates = new SessionStatusUpdates(dataDirectory.resolve("session-status.journal"),
+                    trainingSessionRepository, asyncExecutor, Clock.systemUTC(),
+                    WRITE_BATCH_SIZE, WRITE_FLUSH_DELAY, WRITE_BUFFER_CAPACITY);
+                this.sessionStatusUpdates.start();
+            } else {
+                this.checkInSync = null;
+                this.auditLog = null;
+                this.sessionStatusUpdates = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open data directory " + dataDirectory, e);
+        }
+
+        this.scanPipeline = new ScanPipeline(checkInService, SCAN_RING_SIZE);
+        this.scanPipeline.start();
+
+        this.membershipService = new MembershipService(memberDirectory, memberHistory, memberRecords,
+            paymentRepository, asyncExecutor, auditLog);
+        // Purged members leave storage too. A row left behind by a failed purge is still marked
+        // deleted, so the next start deletes it again and the compactor retries the purge.
+        this.memberDirectory.addListener(event -> {
+            if (event.getType() == MemberEvent.Type.PURGED) {
+                String memberId = event.getMemberId();
+                membershipService.purge(memberId).whenComplete((purged, error) -> {
+                    if (error != null) {
+                        System.err.println("Could not remove purged member " + memberId + " from storage: "
+                            + error.getMessage());
+                    }
+                });
+            }
+        });
+        this.equipmentService = new EquipmentService(equipmentRepository, asyncExecutor, auditLog);
+        this.trainingSessionService = new TrainingSessionService(trainingSessionRepository, asyncExecutor, auditLog);
+    }
+
+    private static EmbeddedStore openEmbeddedStore(Path dataDirectory) {
+        try {
+            Files.createDirectories(dataDirectory);
+            return new EmbeddedStore(dataDirectory.resolve("block20.db"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open local data file in " + dataDirectory, e);
+        }
+    }
+
+    /**
+     * Load every stored member, from MySQL or the local data file, with
+     * the date of their latest payment. Members stored as deleted are
+     * deleted again, at the time they were deleted.
+     */
+    private void restoreStoredMembers(MemberRecordRepository memberRecords) {
+        try {
+            memberRecords.createTables();
+            paymentRepository.createTables();
+            Map<String, LocalDate> lastPaid = paymentRepository.findLatestPaymentDates();
+            for (Member member : memberRecords.findAll()) {
+                memberDirectory.enroll(member);
+                LocalDate paidOn = lastPaid.get(member.getMemberId());
+                if (paidOn != null) {
+                    memberHistory.recordPayment(member.getMemberId(), paidOn.toString());
+                }
+            }
+            // Members deleted before the restart can still be restored until their undo window ends
+            for (Map.Entry<String, Long> deleted : memberRecords.findDeleted().entrySet()) {
+                memberDirectory.delete(deleted.getKey(), deleted.getValue());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(database != null
+                ? "Could not load members from the database"
+                : "Could not load members from the local data file", e);
+        }
+    }
+
+    /**
+     * Local data lives under ~/.block20 unless -Dblock20.data.dir is set
+     */
+    private static Path defaultDataDirectory() {
+        String configured = System.getProperty("block20.data.dir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".block20");
+    }
+
+    /**
+     * Stable ID for this desk: -Dblock20.desk.id, or one generated on first run.
+     * A configured ID is checked up front; one the central tables can't hold
+     * would otherwise stall the sync for good.
+     */
+    private static String deskId(Path dataDirectory) throws IOException {
+        String configured = System.getProperty("block20.desk.id");
+        if (configured != null) {
+            if (!CheckInSyncService.isValidDeviceId(configured.trim())) {
+                throw new IllegalArgumentException("-Dblock20.desk.id must be 1-"
+                    + CheckInSyncService.MAX_DEVICE_ID_LENGTH + " printable characters without ':', got: " + configured);
+            }
+            return configured.trim();
+        }
+        Path file = dataDirectory.resolve("desk.id");
+        if (Files.exists(file)) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        }
+        String generated = UUID.randomUUID().toString();
+        Files.write(file, generated.getBytes(StandardCharsets.UTF_8));
+        return generated;
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public MemberDirectory getMemberDirectory() {
+        return memberDirectory;
+    }
+
+    /**
+     * Payments and carried-over attendance, kept apart from the member rows
+     */
+    public MemberHistory getMemberHistory() {
+        return memberHistory;
+    }
+
+    /**
+     * Attendance and payment details for member profiles, loaded on demand and cached
+     */
+    public MemberProfileService getMemberProfileService() {
+        return memberProfileService;
+    }
+
+    /**
+     * Paged, sorted member reads for large lists
+     */
+    public MemberRepository getMemberRepository() {
+        return memberRepository;
+    }
+
+    /**
+     * Live counts by status, plan, join month and expiry for the stats cards
+     */
+    public MemberStatistics getMemberStatistics() {
+        return memberStatistics;
+    }
+
+    public MemberSearchIndex getMemberSearchIndex() {
+        return memberSearchIndex;
+    }
+
+    /**
+     * Status, plan and expiry-month bitmaps behind the registry filters
+     */
+    public MemberFilterIndex getMemberFilterIndex() {
+        return memberFilterIndex;
+    }
+
+    /**
+     * Collation and date keys for sorting members by one or more columns
+     */
+    public MemberSortIndex getMemberSortIndex() {
+        return memberSortIndex;
+    }
+
+    /**
+     * Misspelling-tolerant name lookup, used when exact search finds nothing
+     */
+    public FuzzyNameIndex getFuzzyNameIndex() {
+        return fuzzyNameIndex;
+    }
+
+    /**
+     * Purges deleted members once they can no longer be restored
+     */
+    public MemberCompactor getMemberCompactor() {
+        return memberCompactor;
+    }
+
+    /**
+     * Bulk CSV import for migrating members from another system
+     */
+    public MemberImporter getMemberImporter() {
+        return memberImporter;
+    }
+
+    /**
+     * Streams report rows to CSV or Excel files
+     */
+    public DataExporter getDataExporter() {
+        return dataExporter;
+    }
+
+    /**
+     * Door events between two dates: every desk's from MySQL when it is
+     * configured, otherwise this desk's journal
+     */
+    public ExportSource checkInExportSource(LocalDate from, LocalDate to) {
+        ZoneId zone = ZoneId.systemDefault();
+        return database != null
+            ? CheckInExportSource.fromDatabase(database, from, to, zone)
+            : new CheckInExportSource(checkInJournal, from, to, zone);
+    }
+
+    /**
+     * Every member with plan and billing details
+     */
+    public ExportSource memberExportSource() {
+        return new MemberExportSource(memberDirectory, memberHistory);
+    }
+
+    /**
+     * Background threads for search boxes; each screen opens its own session
+     */
+    public SearchExecutor getSearchExecutor() {
+        return searchExecutor;
+    }
+
+    /**
+     * Door-side member status; also exposes hit ratio and lookup latency
+     */
+    public EligibilityCache getEligibilityCache() {
+        return eligibilityCache;
+    }
+
+    public OccupancyService getOccupancyService() {
+        return occupancyService;
+    }
+
+    /**
+     * Occupancy per minute for the last day and per hour for the last 90 days
+     */
+    public OccupancyHistory getOccupancyHistory() {
+        return occupancyHistory;
+    }
+
+    public CheckInService getCheckInService() {
+        return checkInService;
+    }
+
+    /**
+     * Entry point for scans from desks, kiosks and turnstile readers
+     */
+    public ScanPipeline getScanPipeline() {
+        return scanPipeline;
+    }
+
+    /**
+     * Background sync to MySQL, if a database is configured
+     */
+    public Optional<CheckInSyncService> getCheckInSync() {
+        return Optional.ofNullable(checkInSync);
+    }
+
+    /**
+     * Payments in MySQL, or in the local data file when no database server
+     * is configured. Call createTables once before first use.
+     */
+    public Optional<PaymentRepository> getPaymentRepository() {
+        return Optional.ofNullable(paymentRepository);
+    }
+
+    /**
+     * Training sessions in MySQL or the local data file. Reads are
+     * cached; write through this repository so the cache stays current.
+     */
+    public Optional<TrainingSessionRepository> getTrainingSessionRepository() {
+        return Optional.ofNullable(trainingSessionRepository);
+    }
+
+    /**
+     * Equipment inventory in MySQL or the local data file. Reads are
+     * cached like training sessions.
+     */
+    public Optional<EquipmentRepository> getEquipmentRepository() {
+        return Optional.ofNullable(equipmentRepository);
+    }
+
+    /**
+     * Hit ratios and sizes of the repository caches; empty without storage
+     */
+    public List<CacheStats> getCacheStats() {
+        List<CacheStats> stats = new ArrayList<>();
+        if (equipmentRepository != null) {
+            stats.addAll(equipmentRepository.getStats());
+        }
+        if (trainingSessionRepository != null) {
+            stats.addAll(trainingSessionRepository.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Enrollments and renewals, saved in the background
+     */
+    public MembershipService getMembershipService() {
+        return membershipService;
+    }
+
+    public EquipmentService getEquipmentService() {
+        return equipmentService;
+    }
+
+    public TrainingSessionService getTrainingSessionService() {
+        return trainingSessionService;
+    }
+
+    /**
+     * Who did what at this desk, if a database is configured
+     */
+    public Optional<AuditLog> getAuditLog() {
+        return Optional.ofNullable(auditLog);
+    }
+
+    /**
+     * Buffered session status changes, if a database is configured
+     */
+    public Optional<SessionStatusUpdates> getSessionStatusUpdates() {
+        return Optional.ofNullable(sessionStatusUpdates);
+    }
+
+    /**
+     * Background calls that complete on the UI thread, for screens with
+     * their own queries
+     */
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Shared database connections, if a database is configured; its stats
+     * show how busy the pool is
+     */
+    public Optional<ConnectionPool> getConnectionPool() {
+        return Optional.ofNullable(database);
+    }
+
+    /**
+     * Flush and release local files
+     */
+    @Override
+    public void close() {
+        searchExecutor.close();
+        asyncExecutor.close();
+        memberCompactor.close();
+        memberProfileService.close();
+        scanPipeline.close();
+        if (checkInSync != null) {
+            checkInSync.close();
+        }
+        // Last flush before the pool goes; anything left stays journaled for next start
+        closeQuietly(sessionStatusUpdates, "session status updates");
+        closeQuietly(auditLog, "audit log");
+        try {
+            checkInJournal.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close check-in journal: " + e.getMessage());
+        }
+        if (database != null) {
+            database.close();
+        }
+        closeQuietly(embeddedStore, "local data file");
+    }
+
+    private static void closeQuietly(AutoCloseable resource, String name) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("Failed to close " + name + ": " + e.getMessage());
+        }
+    }
+}
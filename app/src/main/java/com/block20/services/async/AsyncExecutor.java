@@ -0,0 +1,101 @@
+/*
+ * Block20 Gym Management System
+ * Async Executor - runs blocking calls off the UI thread
+ */
+package com.block20.services.async;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs database and file calls for the screens.
+ *
+ * Each call gets its own virtual thread, so a slow query ties up no
+ * platform thread and many can wait on the database at once. A call that
+ * runs past its timeout is interrupted and its future fails with a
+ * {@link java.util.concurrent.TimeoutException}. Results and failures are
+ * delivered through the result executor, normally
+ * {@code Platform::runLater}, so callbacks attached to the returned future
+ * can touch the screen directly.
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    private final ExecutorService workers;
+    private final Executor resultExecutor;
+    private final Duration defaultTimeout;
+
+    /**
+     * @param resultExecutor where futures complete, e.g. {@code Platform::runLater}
+     * @param defaultTimeout how long a call may run when no timeout is given
+     */
+    public AsyncExecutor(Executor resultExecutor, Duration defaultTimeout) {
+        this.workers = Executors.newVirtualThreadPerTaskExecutor();
+        this.resultExecutor = resultExecutor;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public <T> CompletableFuture<T> submit(BlockingCall<T> call) {
+        return submit(call, defaultTimeout);
+    }
+
+    /**
+     * Run a call in the background. Cancelling the returned future
+     * interrupts the call.
+     */
+    public <T> CompletableFuture<T> submit(BlockingCall<T> call, Duration timeout) {
+        CompletableFuture<T> work = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = workers.submit(() -> {
+                try {
+                    work.complete(call.call());
+                } catch (Throwable e) {
+                    work.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        work.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        work.whenComplete((value, error) -> {
+            if (error != null) {
+                // Stop a call that ran out of time; a no-op if it failed by itself
+                task.cancel(true);
+            }
+            resultExecutor.execute(() -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            });
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Interrupt calls still running
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * Block20 Gym Management System
+ * Blocking Call
+ */
+package com.block20.services.async;
+
+/**
+ * Work that may block on the database or the disk, run by {@link AsyncExecutor}
+ */
+@FunctionalInterface
+public interface BlockingCall<T> {
+    T call() throws Exception;
+}
@@ -0,0 +1,19 @@
+/*
+ * Block20 Gym Management System
+ * Cache Loader
+ */
+package com.block20.services.cache;
+
+import java.sql.SQLException;
+
+/**
+ * Fetches a value the cache does not hold
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+
+    /**
+     * @return the value, or null if there is none; nothing is cached then
+     */
+    V load(K key) throws SQLException;
+}
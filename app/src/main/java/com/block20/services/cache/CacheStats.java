@@ -0,0 +1,82 @@
+/*
+ * Block20 Gym Management System
+ * Cache statistics
+ */
+package com.block20.services.cache;
+
+/**
+ * Point-in-time counters for one read-through cache
+ */
+public class CacheStats {
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long loadFailures;
+    private final long totalLoadNanos;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+    private final int maximumSize;
+
+    public CacheStats(String name, long hits, long misses, long loads, long loadFailures, long totalLoadNanos,
+                      long evictions, long expirations, long invalidations, int size, int maximumSize) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.totalLoadNanos = totalLoadNanos;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.maximumSize = maximumSize;
+    }
+
+    public String getName() { return name; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getLoads() { return loads; }
+    public long getLoadFailures() { return loadFailures; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+    public long getInvalidations() { return invalidations; }
+    public int getSize() { return size; }
+    public int getMaximumSize() { return maximumSize; }
+
+    public long getRequests() {
+        return hits + misses;
+    }
+
+    /**
+     * Share of reads answered from memory
+     */
+    public double getHitRatio() {
+        long requests = getRequests();
+        if (requests == 0) {
+            return 0;
+        }
+        return (double) hits / requests;
+    }
+
+    /**
+     * Average time spent in the loader. Concurrent misses for one key
+     * share a load, so there can be fewer loads than misses.
+     */
+    public double getAverageLoadMillis() {
+        if (loads == 0) {
+            return 0;
+        }
+        return totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %,d reads, %.1f%% hit ratio (%,d hits, %,d misses, %,d loads, %,d failed), avg load %.2f ms, "
+                + "%,d/%,d entries, %,d evicted, %,d expired, %,d invalidated",
+            name, getRequests(), getHitRatio() * 100, hits, misses, loads, loadFailures, getAverageLoadMillis(),
+            size, maximumSize, evictions, expirations, invalidations);
+    }
+}
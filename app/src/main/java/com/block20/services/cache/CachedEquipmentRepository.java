@@ -0,0 +1,96 @@
+/*
+ * Block20 Gym Management System
+ * Cached Equipment Repository
+ */
+package com.block20.services.cache;
+
+import com.block20.models.Equipment;
+import com.block20.repositories.EquipmentRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Equipment reads answered from memory, in front of the database.
+ *
+ * Writes go straight to the database and then drop what they made
+ * stale: the item itself, and every cached list since any of them may
+ * include it. Changes made at other desks show up once entries outlive
+ * their time to live.
+ */
+public class CachedEquipmentRepository implements EquipmentRepository {
+
+    private static final String ALL = "";
+
+    private final EquipmentRepository delegate;
+    private final TinyLfuCache<String, Equipment> byId;
+    // Keyed by status, or ALL for findAll
+    private final TinyLfuCache<String, List<Equipment>> lists;
+
+    /**
+     * @param timeToLive     how long a cached item is trusted
+     * @param listTimeToLive how long a cached list is trusted
+     */
+    public CachedEquipmentRepository(EquipmentRepository delegate, int maximumSize, Duration timeToLive,
+                                     Duration listTimeToLive) {
+        this.delegate = delegate;
+        this.byId = new TinyLfuCache<>("equipment", maximumSize, timeToLive);
+        this.lists = new TinyLfuCache<>("equipment lists", 16, listTimeToLive);
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        delegate.createTables();
+    }
+
+    @Override
+    public void save(Equipment equipment) throws SQLException {
+        try {
+            delegate.save(equipment);
+        } finally {
+            written(equipment.getEquipmentId());
+        }
+    }
+
+    @Override
+    public Optional<Equipment> findById(String equipmentId) throws SQLException {
+        return byId.get(equipmentId, id -> delegate.findById(id).orElse(null));
+    }
+
+    @Override
+    public List<Equipment> findAll() throws SQLException {
+        return lists.get(ALL, key -> Collections.unmodifiableList(delegate.findAll()))
+            .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public List<Equipment> findByStatus(String status) throws SQLException {
+        return lists.get(status, key -> Collections.unmodifiableList(delegate.findByStatus(key)))
+            .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public boolean updateStatus(String equipmentId, String status) throws SQLException {
+        try {
+            return delegate.updateStatus(equipmentId, status);
+        } finally {
+            written(equipmentId);
+        }
+    }
+
+    /**
+     * Hit ratios and sizes, one per cache
+     */
+    public List<CacheStats> getStats() {
+        return Arrays.asList(byId.getStats(), lists.getStats());
+    }
+
+    private void written(String equipmentId) {
+        byId.invalidate(equipmentId);
+        lists.invalidateAll();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Block20 Gym Management System
+ * Cached Training Session Repository
+ */
+package com.block20.services.cache;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.TrainingSessionRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Training session reads answered from memory, in front of the database.
+ *
+ * Writes, including batched status changes, drop the sessions they
+ * touched and every cached schedule and member history. Status updates
+ * don't say whose session changed, and lists reload cheaply, so the
+ * lists are simply rebuilt on the next read.
+ */
+public class CachedTrainingSessionRepository implements TrainingSessionRepository {
+
+    private final TrainingSessionRepository delegate;
+    private final TinyLfuCache<String, TrainingSession> byId;
+    private final TinyLfuCache<String, List<TrainingSession>> byMember;
+    // Keyed by "from/to"
+    private final TinyLfuCache<String, List<TrainingSession>> schedules;
+
+    /**
+     * @param timeToLive     how long a cached session is trusted
+     * @param listTimeToLive how long a cached schedule or history is trusted
+     */
+    public CachedTrainingSessionRepository(TrainingSessionRepository delegate, int maximumSize,
+                                           Duration timeToLive, Duration listTimeToLive) {
+        this.delegate = delegate;
+        this.byId = new TinyLfuCache<>("sessions", maximumSize, timeToLive);
+        this.byMember = new TinyLfuCache<>("sessions by member", Math.max(16, maximumSize / 8), listTimeToLive);
+        this.schedules = new TinyLfuCache<>("session schedules", 64, listTimeToLive);
+    }
+
+    @Override
+    public void createTables() throws SQLException {
+        delegate.createTables();
+    }
+
+    @Override
+    public void save(TrainingSession session) throws SQLException {
+        try {
+            delegate.save(session);
+        } finally {
+            byId.invalidate(session.getSessionId());
+            listsChanged();
+        }
+    }
+
+    @Override
+    public Optional<TrainingSession> findById(String sessionId) throws SQLException {
+        return byId.get(sessionId, id -> delegate.findById(id).orElse(null));
+    }
+
+    @Override
+    public List<TrainingSession> findBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+        return schedules.get(from + "/" + to, key -> Collections.unmodifiableList(delegate.findBetween(from, to)))
+            .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public List<TrainingSession> findByMember(String memberId) throws SQLException {
+        return byMember.get(memberId, id -> Collections.unmodifiableList(delegate.findByMember(id)))
+            .orElse(Collections.emptyList());
+    }
+
+    @Override
+    public boolean updateStatus(String sessionId, String status) throws SQLException {
+        try {
+            return delegate.updateStatus(sessionId, status);
+        } finally {
+            byId.invalidate(sessionId);
+            listsChanged();
+        }
+    }
+
+    @Override
+    public int updateStatuses(Map<String, String> statusById) throws SQLException {
+        try {
+            return delegate.updateStatuses(statusById);
+        } finally {
+            for (String sessionId : statusById.keySet()) {
+                byId.invalidate(sessionId);
+            }
+            listsChanged();
+        }
+    }
+
+    /**
+     * Hit ratios and sizes, one per cache
+     */
+    public List<CacheStats> getStats() {
+        return Arrays.asList(byId.getStats(), byMember.getStats(), schedules.getStats());
+    }
+
+    private void listsChanged() {
+        byMember.invalidateAll();
+        schedules.invalidateAll();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Block20 Gym Management System
+ * Frequency Sketch - approximate access counts for cache admission
+ */
+package com.block20.services.cache;
+
+/**
+ * Count-min sketch of recent access frequency, with four-bit counters.
+ *
+ * Each key bumps one counter in each of four rows and its estimate is
+ * the smallest of them, so collisions can only overestimate. Once the
+ * sketch has seen ten times as many accesses as it has counters, every
+ * counter is halved: keys that were popular an hour ago fade out and new
+ * favourites can take their place.
+ *
+ * Not thread safe; the cache calls it under its own lock.
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedKeys roughly how many keys the cache holds
+     */
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Estimated accesses to the key since counters were last halved, at most 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int i = index(hash, row);
+            if (counters[row][i] < MAX_COUNT) {
+                counters[row][i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions >>>= 1;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Mix the bits so keys with similar hash codes (sequential IDs) spread out
+     */
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5eb4b5;
+        h ^= h >>> 11;
+        h *= 0xac4c1b51;
+        h ^= h >>> 15;
+        return h;
+    }
+}
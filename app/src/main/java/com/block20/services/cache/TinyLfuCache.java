@@ -0,0 +1,286 @@
+/*
+ * Block20 Gym Management System
+ * TinyLFU Cache - bounded read-through cache
+ */
+package com.block20.services.cache;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Read-through cache with a size limit, a time to live and W-TinyLFU
+ * admission.
+ *
+ * New entries go into a small LRU window (1% of the cache). An entry
+ * pushed out of the window only gets into the main area if it has been
+ * asked for more often than the entry it would displace, judged by a
+ * frequency sketch that remembers keys the cache no longer holds. So a
+ * screen that pages through every item once cannot flush out the items
+ * every screen reads. The main area is a segmented LRU: entries read
+ * again move from probation to a protected segment (80%), and are
+ * demoted back when it overflows.
+ *
+ * Concurrent misses for one key share a single load. Invalidating a key
+ * while it is loading lets that load finish for its callers but keeps
+ * the result out of the cache, so a write is never hidden by an older
+ * read.
+ */
+public class TinyLfuCache<K, V> {
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Entry<V> {
+        V value;
+        long expiresAt;
+        Segment segment;
+    }
+
+    private final String name;
+    private final int maximumSize;
+    private final int windowSize;
+    private final int mainSize;
+    private final int protectedSize;
+    private final long timeToLiveMillis;
+    private final Clock clock;
+
+    // Guarded by this; each map is in access order, eldest first
+    private final FrequencySketch sketch;
+    private final Map<K, Entry<V>> entries = new HashMap<>();
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long loads;
+    private long loadFailures;
+    private long totalLoadNanos;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public TinyLfuCache(String name, int maximumSize, Duration timeToLive) {
+        this(name, maximumSize, timeToLive, Clock.systemUTC());
+    }
+
+    /**
+     * @param name        shown in the statistics
+     * @param timeToLive  how long an entry is trusted after it was loaded
+     */
+    public TinyLfuCache(String name, int maximumSize, Duration timeToLive, Clock clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.windowSize = Math.max(1, maximumSize / 100);
+        this.mainSize = maximumSize - windowSize;
+        this.protectedSize = mainSize * 8 / 10;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * The cached value, or the loader's answer if there is none
+     *
+     * @return empty if the loader found nothing
+     * @throws SQLException from the loader, for every caller sharing the load
+     */
+    public Optional<V> get(K key, CacheLoader<K, V> loader) throws SQLException {
+        CompletableFuture<V> future;
+        boolean owner = false;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits++;
+                return Optional.of(cached);
+            }
+            misses++;
+            future = loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+                owner = true;
+            }
+        }
+        if (owner) {
+            load(key, loader, future);
+        }
+        try {
+            return Optional.ofNullable(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drop a key after it was written; a load in progress for it is not cached
+     */
+    public synchronized void invalidate(K key) {
+        loading.remove(key);
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+            invalidations++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        loading.clear();
+        invalidations += entries.size();
+        entries.clear();
+        window.clear();
+        probation.clear();
+        protectedEntries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(name, hits, misses, loads, loadFailures, totalLoadNanos, evictions, expirations,
+            invalidations, entries.size(), maximumSize);
+    }
+
+    private void load(K key, CacheLoader<K, V> loader, CompletableFuture<V> future) {
+        long started = System.nanoTime();
+        V value;
+        try {
+            value = loader.load(key);
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                loading.remove(key, future);
+                loads++;
+                loadFailures++;
+                totalLoadNanos += System.nanoTime() - started;
+            }
+            future.completeExceptionally(e);
+            return;
+        }
+        synchronized (this) {
+            loads++;
+            totalLoadNanos += System.nanoTime() - started;
+            // Only a load that was not invalidated meanwhile may be cached
+            if (loading.remove(key, future) && value != null) {
+                insert(key, value);
+            }
+        }
+        future.complete(value);
+    }
+
+    /**
+     * Count the access and return the live value, promoting it on a hit
+     */
+    private V lookup(K key) {
+        sketch.increment(key);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.millis() >= entry.expiresAt) {
+            remove(key, entry);
+            expirations++;
+            return null;
+        }
+        switch (entry.segment) {
+            case WINDOW:
+                window.get(key);
+                break;
+            case PROBATION:
+                probation.remove(key);
+                entry.segment = Segment.PROTECTED;
+                protectedEntries.put(key, entry);
+                demoteProtected();
+                break;
+            case PROTECTED:
+                protectedEntries.get(key);
+                break;
+        }
+        return entry.value;
+    }
+
+    private void insert(K key, V value) {
+        Entry<V> existing = entries.get(key);
+        if (existing != null) {
+            remove(key, existing);
+        }
+        Entry<V> entry = new Entry<>();
+        entry.value = value;
+        entry.expiresAt = clock.millis() + timeToLiveMillis;
+        entry.segment = Segment.WINDOW;
+        entries.put(key, entry);
+        window.put(key, entry);
+        evict();
+    }
+
+    /**
+     * Move whatever overflows the window into probation, if it is wanted
+     * more than probation's least recently used entry
+     */
+    private void evict() {
+        while (window.size() > windowSize) {
+            K candidate = eldest(window);
+            Entry<V> candidateEntry = window.remove(candidate);
+            if (probation.size() + protectedEntries.size() < mainSize) {
+                admit(candidate, candidateEntry);
+                continue;
+            }
+            K victim = !probation.isEmpty() ? eldest(probation)
+                : !protectedEntries.isEmpty() ? eldest(protectedEntries) : null;
+            evictions++;
+            if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+                remove(victim, entries.get(victim));
+                admit(candidate, candidateEntry);
+            } else {
+                entries.remove(candidate);
+            }
+        }
+    }
+
+    private void admit(K key, Entry<V> entry) {
+        entry.segment = Segment.PROBATION;
+        probation.put(key, entry);
+    }
+
+    private void demoteProtected() {
+        while (protectedEntries.size() > protectedSize) {
+            K eldest = eldest(protectedEntries);
+            admit(eldest, protectedEntries.remove(eldest));
+        }
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        switch (entry.segment) {
+            case WINDOW:
+                window.remove(key);
+                break;
+            case PROBATION:
+                probation.remove(key);
+                break;
+            case PROTECTED:
+                protectedEntries.remove(key);
+                break;
+        }
+    }
+
+    private static <K> K eldest(LinkedHashMap<K, ?> map) {
+        return map.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Block20 Gym Management System
+ * Attendance Profile Loader - profile details from history and the journal
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberHistory;
+import com.block20.services.members.MemberProfileLoader;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Works out a member's profile details: the recorded payment and
+ * carried-over attendance from {@link MemberHistory}, plus every check-in
+ * since from the journal. Scanning the journal is the slow part, which is
+ * why profiles are loaded in the background and cached.
+ */
+public class AttendanceProfileLoader implements MemberProfileLoader {
+
+    private final MemberDirectory directory;
+    private final MemberHistory history;
+    private final CheckInJournal journal;
+    private final Clock clock;
+
+    public AttendanceProfileLoader(MemberDirectory directory, MemberHistory history, CheckInJournal journal,
+                                   Clock clock) {
+        this.directory = directory;
+        this.history = history;
+        this.journal = journal;
+        this.clock = clock;
+    }
+
+    @Override
+    public MemberProfile load(String memberId) throws IOException {
+        MemberProfile recorded = history.find(memberId).orElse(MemberProfile.empty(memberId));
+        LocalDate today = LocalDate.now(clock);
+        long monthStart = today.withDayOfMonth(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+
+        // total, this month, latest
+        long[] visits = new long[3];
+        journal.checkInTimes(memberId, timestamp -> {
+            visits[0]++;
+            if (timestamp >= monthStart) {
+                visits[1]++;
+            }
+            visits[2] = Math.max(visits[2], timestamp);
+        });
+
+        int total = recorded.getTotalCheckIns() + (int) visits[0];
+        Optional<LocalDate> recordedLast = parseDay(recorded.getLastCheckIn());
+        boolean recordedThisMonth = recordedLast.isPresent()
+            && YearMonth.from(recordedLast.get()).equals(YearMonth.from(today));
+        int thisMonth = (recordedThisMonth ? recorded.getCheckInsThisMonth() : 0) + (int) visits[1];
+        String lastCheckIn = visits[0] > 0
+            ? Instant.ofEpochMilli(visits[2]).atZone(clock.getZone()).toLocalDate().toString()
+            : recorded.getLastCheckIn();
+
+        return new MemberProfile(memberId, recorded.getLastPayment(), total, thisMonth, lastCheckIn,
+            weeklyAverage(memberId, total, today).orElse(recorded.getAvgWeeklyVisits()));
+    }
+
+    /**
+     * Visits a week since joining, to one decimal place
+     */
+    private Optional<Double> weeklyAverage(String memberId, int total, LocalDate today) {
+        Optional<LocalDate> joined = directory.findById(memberId).map(Member::getJoinDate).flatMap(
+            AttendanceProfileLoader::parseDay);
+        if (!joined.isPresent()) {
+            return Optional.empty();
+        }
+        double weeks = Math.max(1, ChronoUnit.DAYS.between(joined.get(), today) / 7.0);
+        return Optional.of(Math.round(total / weeks * 10) / 10.0);
+    }
+
+    private static Optional<LocalDate> parseDay(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LocalDate.parse(value));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
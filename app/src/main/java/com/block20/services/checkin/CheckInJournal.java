@@ -0,0 +1,408 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Journal - durable record of every door event
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of check-ins and check-outs.
+ *
+ * Records are fixed-width (64 bytes) so the n-th record is at a known
+ * offset and appending is a single copy into mapped memory. A background
+ * committer forces dirty pages to disk every few milliseconds, so a burst
+ * of scans shares one fsync instead of paying for one each. Callers that
+ * need to know an event is on disk can wait with {@link #awaitDurable}.
+ *
+ * Record layout:
+ * <pre>
+ *  0  long   epoch millis
+ *  8  byte   action code
+ *  9  byte   member ID length
+ * 10  byte   entrance length
+ * 12  int    CRC32 of the rest of the record
+ * 16  24 B   member ID (UTF-8)
+ * 40  24 B   entrance (UTF-8)
+ * </pre>
+ */
+public class CheckInJournal implements Closeable {
+
+    public static final int RECORD_SIZE = 64;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x42324A4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_RECORDS = 65536;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_SIZE;
+
+    private static final int OFF_ACTION = 8;
+    private static final int OFF_ID_LEN = 9;
+    private static final int OFF_ENTRANCE_LEN = 10;
+    private static final int OFF_CRC = 12;
+    private static final int OFF_ID = 16;
+    private static final int OFF_ENTRANCE = 40;
+    private static final int FIELD_BYTES = 24;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final long commitIntervalNanos;
+    private final Thread committer;
+    private final Object durableLock = new Object();
+    // Held for every commit, so close() never releases the file under an fsync
+    private final Object commitLock = new Object();
+
+    // Guarded by this
+    private long recordCount;
+    private volatile long durableCount;
+    private volatile boolean closed;
+
+    /**
+     * Open (or create) a journal file and find the end of the committed records.
+     *
+     * @param commitIntervalMillis how long appends may wait to be grouped into one fsync
+     */
+    public CheckInJournal(Path file, long commitIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.commitIntervalNanos = commitIntervalMillis * 1_000_000L;
+
+        if (channel.size() == 0) {
+            writeHeader();
+        } else {
+            verifyHeader(file);
+        }
+        this.recordCount = findEnd();
+        this.durableCount = recordCount;
+
+        this.committer = new Thread(this::runCommitter, "checkin-journal-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Append one event. Returns the event's sequence number (1-based),
+     * which can be passed to {@link #awaitDurable}.
+     */
+    public synchronized long append(CheckInEvent event) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        byte[] id = event.getMemberId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > FIELD_BYTES) {
+            throw new IllegalArgumentException("Member ID too long for journal: " + event.getMemberId());
+        }
+        byte[] entrance = truncate(event.getEntrance().getBytes(StandardCharsets.UTF_8));
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(0, event.getTimestampMillis());
+        record.put(OFF_ACTION, event.getAction().getCode());
+        record.put(OFF_ID_LEN, (byte) id.length);
+        record.put(OFF_ENTRANCE_LEN, (byte) entrance.length);
+        record.put(OFF_ID, id);
+        record.put(OFF_ENTRANCE, entrance);
+        record.putInt(OFF_CRC, checksum(record.array()));
+
+        long index = recordCount;
+        segmentFor(index).put(offsetOf(index), record.array());
+        recordCount = index + 1;
+        return recordCount;
+    }
+
+    /**
+     * Block until every event up to the given sequence number is on disk
+     */
+    public void awaitDurable(long sequence) throws InterruptedException {
+        synchronized (durableLock) {
+            while (durableCount < sequence && !closed) {
+                durableLock.wait();
+            }
+        }
+    }
+
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Feed every committed record, oldest first, to the consumer
+     */
+    public void replay(Consumer<CheckInEvent> consumer) throws IOException {
+        replay(0, consumer);
+    }
+
+    /**
+     * Feed the committed records from a 0-based index on, oldest first
+     */
+    public void replay(long from, Consumer<CheckInEvent> consumer) throws IOException {
+        long count = size();
+        byte[] record = new byte[RECORD_SIZE];
+        for (long i = Math.max(0, from); i < count; i++) {
+            consumer.accept(readRecord(i, record));
+        }
+    }
+
+    /**
+     * Index of the first record at or after the given time, or {@link #size}
+     * if there is none. Records are appended in time order, so this is a
+     * binary search over their timestamps; only a clock set back can make
+     * it land a few records off.
+     */
+    public long indexOf(long epochMillis) throws IOException {
+        long low = 0;
+        long high = size();
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            MappedByteBuffer segment;
+            synchronized (this) {
+                segment = segmentFor(mid);
+            }
+            if (segment.getLong(offsetOf(mid)) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Feed the time of every check-in by one member, oldest first. IDs are
+     * compared as raw bytes in the mapped records, so other members'
+     * events are skipped without being decoded.
+     */
+    public void checkInTimes(String memberId, LongConsumer consumer) throws IOException {
+        byte[] id = memberId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > FIELD_BYTES) {
+            return;
+        }
+        byte checkIn = CheckInAction.CHECK_IN.getCode();
+        long count = size();
+        for (long first = 0; first < count; first += SEGMENT_RECORDS) {
+            MappedByteBuffer segment;
+            synchronized (this) {
+                segment = segmentFor(first);
+            }
+            int records = (int) Math.min(SEGMENT_RECORDS, count - first);
+            for (int i = 0, base = 0; i < records; i++, base += RECORD_SIZE) {
+                if (segment.get(base + OFF_ACTION) == checkIn && segment.get(base + OFF_ID_LEN) == id.length
+                        && idMatches(segment, base, id)) {
+                    consumer.accept(segment.getLong(base));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read up to max records starting at a 0-based index, oldest first
+     */
+    public List<CheckInEvent> read(long from, int max) throws IOException {
+        long end = Math.min(size(), from + max);
+        List<CheckInEvent> events = new ArrayList<>((int) Math.max(0, end - from));
+        byte[] record = new byte[RECORD_SIZE];
+        for (long i = from; i < end; i++) {
+            events.add(readRecord(i, record));
+        }
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Taking the append lock means no append is half way through its copy
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        LockSupport.unpark(committer);
+        try {
+            committer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A committer still stuck in a slow fsync finishes before the file is released
+        synchronized (commitLock) {
+            try {
+                commitPending();
+            } finally {
+                channel.close();
+            }
+        }
+        synchronized (durableLock) {
+            durableLock.notifyAll();
+        }
+    }
+
+    private void runCommitter() {
+        while (!closed) {
+            LockSupport.parkNanos(commitIntervalNanos);
+            try {
+                commitPending();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Check-in journal commit failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Force every segment touched since the last commit. Appends keep
+     * running while the fsync is in progress.
+     */
+    private void commitPending() throws IOException {
+        synchronized (commitLock) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            long target;
+            List<MappedByteBuffer> dirty = new ArrayList<>();
+            synchronized (this) {
+                target = recordCount;
+                if (target == durableCount) {
+                    return;
+                }
+                int first = (int) (durableCount / SEGMENT_RECORDS);
+                int last = (int) ((target - 1) / SEGMENT_RECORDS);
+                for (int i = first; i <= last; i++) {
+                    dirty.add(segments.get(i));
+                }
+            }
+            for (MappedByteBuffer segment : dirty) {
+                segment.force();
+            }
+            durableCount = target;
+        }
+        synchronized (durableLock) {
+            durableLock.notifyAll();
+        }
+    }
+
+    private CheckInEvent readRecord(long index, byte[] record) throws IOException {
+        MappedByteBuffer segment;
+        synchronized (this) {
+            segment = segmentFor(index);
+        }
+        segment.get(offsetOf(index), record);
+        return decode(record);
+    }
+
+    private static boolean idMatches(MappedByteBuffer segment, int base, byte[] id) {
+        for (int k = 0; k < id.length; k++) {
+            if (segment.get(base + OFF_ID + k) != id[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MappedByteBuffer segmentFor(long index) throws IOException {
+        int segment = (int) (index / SEGMENT_RECORDS);
+        while (segments.size() <= segment) {
+            long position = HEADER_SIZE + segments.size() * SEGMENT_BYTES;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, SEGMENT_BYTES));
+        }
+        return segments.get(segment);
+    }
+
+    private static int offsetOf(long index) {
+        return (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+
+    /**
+     * Records are written into zero-filled space, so the first empty or
+     * damaged slot marks the end of the journal. Anything after a damaged
+     * slot is cleared, so records beyond a torn one can't reappear once
+     * new appends fill the gap.
+     */
+    private long findEnd() throws IOException {
+        long fileRecords = Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        byte[] record = new byte[RECORD_SIZE];
+        long index = 0;
+        while (index < fileRecords) {
+            segmentFor(index).get(offsetOf(index), record);
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            if (buffer.getLong(0) == 0 || buffer.getInt(OFF_CRC) != checksum(record)) {
+                break;
+            }
+            index++;
+        }
+        clearFrom(index, fileRecords, record);
+        return index;
+    }
+
+    private void clearFrom(long end, long fileRecords, byte[] record) throws IOException {
+        byte[] empty = new byte[RECORD_SIZE];
+        MappedByteBuffer touched = null;
+        for (long i = end; i < fileRecords; i++) {
+            MappedByteBuffer segment = segmentFor(i);
+            segment.get(offsetOf(i), record);
+            if (!Arrays.equals(record, empty)) {
+                segment.put(offsetOf(i), empty);
+                if (touched != null && touched != segment) {
+                    touched.force();
+                }
+                touched = segment;
+            }
+        }
+        if (touched != null) {
+            touched.force();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_SIZE);
+        channel.write(header, 0);
+        channel.force(true);
+    }
+
+    private void verifyHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not a check-in journal: " + file);
+        }
+    }
+
+    private static CheckInEvent decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        String memberId = new String(record, OFF_ID, record[OFF_ID_LEN], StandardCharsets.UTF_8);
+        String entrance = new String(record, OFF_ENTRANCE, record[OFF_ENTRANCE_LEN], StandardCharsets.UTF_8);
+        return new CheckInEvent(memberId, CheckInAction.fromCode(record[OFF_ACTION]), buffer.getLong(0), entrance);
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, OFF_CRC);
+        crc.update(record, OFF_ID, RECORD_SIZE - OFF_ID);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] truncate(byte[] bytes) {
+        if (bytes.length <= FIELD_BYTES) {
+            return bytes;
+        }
+        byte[] result = new byte[FIELD_BYTES];
+        System.arraycopy(bytes, 0, result, 0, FIELD_BYTES);
+        return result;
+    }
+}
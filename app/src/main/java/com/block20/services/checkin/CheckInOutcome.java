@@ -0,0 +1,27 @@
+/*
+ * Block20 Gym Management System
+ * Check-in outcome
+ */
+package com.block20.services.checkin;
+
+/**
+ * Result of asking the check-in service to admit or release a member
+ */
+public enum CheckInOutcome {
+    ACCEPTED("Accepted"),
+    UNKNOWN_MEMBER("Member not found"),
+    NOT_ELIGIBLE("Membership is not active"),
+    ALREADY_CHECKED_IN("Already checked in"),
+    NOT_CHECKED_IN("Not checked in"),
+    FAILED("Could not record event");
+
+    private final String message;
+
+    CheckInOutcome(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() { return message; }
+
+    public boolean isAccepted() { return this == ACCEPTED; }
+}
@@ -0,0 +1,201 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Service - admits and releases members
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Business logic behind the check-in desk.
+ * Checks eligibility against the in-memory cache, updates the shared
+ * occupancy count and writes every accepted event to the journal so the
+ * day can be rebuilt after a restart.
+ */
+public class CheckInService {
+
+    // Roughly a full day of desk traffic
+    public static final int ACTIVITY_CAPACITY = 10_000;
+
+    private final EligibilityCache eligibilityCache;
+    private final OccupancyService occupancyService;
+    private final OccupancyHistory occupancyHistory;
+    private final CheckInJournal journal;
+    private final Clock clock;
+    // Ring of recent events; activitySequence counts every event ever remembered
+    private final CheckInEvent[] activity = new CheckInEvent[ACTIVITY_CAPACITY];
+    private long activitySequence;
+    private final List<Consumer<CheckInEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public CheckInService(EligibilityCache eligibilityCache, OccupancyService occupancyService,
+                          OccupancyHistory occupancyHistory, CheckInJournal journal, Clock clock) {
+        this.eligibilityCache = eligibilityCache;
+        this.occupancyService = occupancyService;
+        this.occupancyHistory = occupancyHistory;
+        this.journal = journal;
+        this.clock = clock;
+    }
+
+    /**
+     * Be told of every accepted event once it is in the journal
+     */
+    public void addListener(Consumer<CheckInEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<CheckInEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public CheckInOutcome checkIn(String memberId, String entrance) {
+        Optional<MemberEligibility> eligibility = eligibilityCache.lookup(memberId);
+        if (!eligibility.isPresent()) {
+            return CheckInOutcome.UNKNOWN_MEMBER;
+        }
+        if (!eligibility.get().isEligible()) {
+            return CheckInOutcome.NOT_ELIGIBLE;
+        }
+        if (!occupancyService.checkIn(memberId, entrance)) {
+            return CheckInOutcome.ALREADY_CHECKED_IN;
+        }
+        try {
+            record(new CheckInEvent(memberId, CheckInAction.CHECK_IN, clock.millis(), entrance));
+        } catch (RuntimeException e) {
+            // Not journaled, so the member was never let in
+            occupancyService.checkOut(memberId);
+            throw e;
+        }
+        return CheckInOutcome.ACCEPTED;
+    }
+
+    public CheckInOutcome checkOut(String memberId, String entrance) {
+        if (!occupancyService.checkOut(memberId)) {
+            return CheckInOutcome.NOT_CHECKED_IN;
+        }
+        try {
+            record(new CheckInEvent(memberId, CheckInAction.CHECK_OUT, clock.millis(), entrance));
+        } catch (RuntimeException e) {
+            occupancyService.checkIn(memberId, entrance);
+            throw e;
+        }
+        return CheckInOutcome.ACCEPTED;
+    }
+
+    /**
+     * Most recent events, newest first
+     */
+    public synchronized List<CheckInEvent> getRecentActivity(int max) {
+        int count = (int) Math.min(max, Math.min(activitySequence, ACTIVITY_CAPACITY));
+        List<CheckInEvent> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(activity[(int) ((activitySequence - 1 - i) % ACTIVITY_CAPACITY)]);
+        }
+        return result;
+    }
+
+    /**
+     * Append events remembered after the given sequence to the target list,
+     * oldest first, and return the sequence to pass next time. Events that
+     * already fell out of the ring are skipped.
+     */
+    public synchronized long collectActivitySince(long sequence, List<CheckInEvent> target) {
+        long from = Math.max(sequence, activitySequence - ACTIVITY_CAPACITY);
+        for (long i = from; i < activitySequence; i++) {
+            target.add(activity[(int) (i % ACTIVITY_CAPACITY)]);
+        }
+        return activitySequence;
+    }
+
+    /**
+     * Rebuild today's occupancy, the occupancy history and the recent
+     * activity list from the journal. Earlier days only feed the history
+     * and activity list, since everyone has left by closing time. Events
+     * older than the history keeps are skipped without being read, so
+     * startup does not grow with the age of the journal.
+     *
+     * @return number of events replayed
+     */
+    public long replayJournal() throws IOException {
+        LocalDate today = LocalDate.now(clock);
+        long startOfDay = today.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        long historyStart = today.minusDays(OccupancyHistory.HOURS / 24)
+            .atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        long[] count = {0};
+        // Head count for earlier days, reset at each midnight
+        Set<String> inside = new HashSet<>();
+        LocalDate[] day = {null};
+        journal.replay(journal.indexOf(historyStart), event -> {
+            long timestamp = event.getTimestampMillis();
+            if (timestamp >= startOfDay) {
+                if (event.getAction() == CheckInAction.CHECK_IN) {
+                    occupancyService.checkIn(event.getMemberId(), event.getEntrance());
+                } else {
+                    occupancyService.checkOut(event.getMemberId());
+                }
+                occupancyHistory.record(timestamp, (int) occupancyService.getCurrent());
+            } else {
+                LocalDate eventDay = Instant.ofEpochMilli(timestamp).atZone(clock.getZone()).toLocalDate();
+                if (!eventDay.equals(day[0])) {
+                    day[0] = eventDay;
+                    inside.clear();
+                }
+                if (event.getAction() == CheckInAction.CHECK_IN) {
+                    inside.add(event.getMemberId());
+                } else {
+                    inside.remove(event.getMemberId());
+                }
+                occupancyHistory.record(timestamp, inside.size());
+            }
+            remember(event);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Journal the event, then tell everyone else. Only a journal failure
+     * reaches the caller; once the event is on record, a failing listener
+     * must not make it look as if the door event never happened.
+     */
+    private void record(CheckInEvent event) {
+        try {
+            journal.append(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write check-in journal", e);
+        }
+        remember(event);
+        try {
+            occupancyHistory.record(event.getTimestampMillis(), (int) occupancyService.getCurrent());
+        } catch (RuntimeException e) {
+            System.err.println("Occupancy history not updated: " + e.getMessage());
+        }
+        for (Consumer<CheckInEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Check-in listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void remember(CheckInEvent event) {
+        activity[(int) (activitySequence % ACTIVITY_CAPACITY)] = event;
+        activitySequence++;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Sync Service - ships the local journal to the central database
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInEvent;
+import com.block20.repositories.CheckInRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the check-in journal to MySQL in the background.
+ *
+ * The desk never waits for the database: check-ins are accepted as soon as
+ * they are in the local journal, which doubles as the outbound queue. This
+ * service keeps a cursor (the number of journal records already stored
+ * centrally) in a small file next to the journal, sends whatever lies
+ * past it in batches, and only moves the cursor once a batch has
+ * committed. While the database is unreachable it backs off and retries;
+ * a crash between commit and cursor update just resends a batch, which
+ * the repository ignores.
+ */
+public class CheckInSyncService implements AutoCloseable {
+
+    /** Longest desk ID the central tables can hold */
+    public static final int MAX_DEVICE_ID_LENGTH = 40;
+
+    private static final long IDLE_POLL_MILLIS = 500;
+    private static final long MIN_RETRY_MILLIS = 1000;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    private final CheckInJournal journal;
+    private final CheckInRepository repository;
+    private final Path cursorFile;
+    private final String deviceId;
+    private final int batchSize;
+
+    private volatile long cursor;
+    private volatile boolean connected;
+    private volatile String lastError;
+    private volatile long conflictCount;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    /**
+     * @param cursorFile where the sync position survives restarts
+     * @param deviceId   stable identifier of this desk, part of every event ID
+     * @throws IllegalArgumentException if the desk ID is empty or too long to store
+     */
+    public CheckInSyncService(CheckInJournal journal, CheckInRepository repository, Path cursorFile,
+                              String deviceId, int batchSize) throws IOException {
+        if (!isValidDeviceId(deviceId)) {
+            throw new IllegalArgumentException("Desk ID must be 1-" + MAX_DEVICE_ID_LENGTH
+                + " printable ASCII characters without ':': " + deviceId);
+        }
+        this.journal = journal;
+        this.repository = repository;
+        this.cursorFile = cursorFile;
+        this.deviceId = deviceId;
+        this.batchSize = batchSize;
+        this.cursor = readCursor();
+    }
+
+    /**
+     * Whether every event ID built from this desk ID fits the central tables.
+     * The ':' is reserved as the separator before the journal sequence.
+     */
+    public static boolean isValidDeviceId(String deviceId) {
+        if (deviceId == null || deviceId.isEmpty() || deviceId.length() > MAX_DEVICE_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < deviceId.length(); i++) {
+            char c = deviceId.charAt(i);
+            if (c <= ' ' || c > '~' || c == ':') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runWorker, "checkin-sync");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Send everything currently in the journal, one batch at a time.
+     *
+     * @return number of events stored by this call
+     * @throws SQLException if the database is unreachable; nothing is lost
+     */
+    public synchronized long syncPending() throws SQLException, IOException {
+        long synced = 0;
+        while (true) {
+            List<CheckInEvent> batch = journal.read(cursor, batchSize);
+            if (batch.isEmpty()) {
+                return synced;
+            }
+            try {
+                conflictCount += repository.saveEvents(deviceId, cursor + 1, batch);
+                connected = true;
+                lastError = null;
+            } catch (SQLException e) {
+                connected = false;
+                lastError = e.getMessage();
+                throw e;
+            }
+            writeCursor(cursor + batch.size());
+            cursor += batch.size();
+            synced += batch.size();
+        }
+    }
+
+    /**
+     * Sync now instead of at the next poll, e.g. once a full batch is
+     * waiting. Ignored while offline so retries keep backing off.
+     */
+    public void wake() {
+        Thread thread = worker;
+        if (thread != null && connected) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Events accepted at the desk but not yet stored centrally
+     */
+    public long getPendingCount() {
+        return Math.max(0, journal.size() - cursor);
+    }
+
+    public long getSyncedCount() {
+        return cursor;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Double check-ins found while syncing since start
+     */
+    public long getConflictCount() {
+        return conflictCount;
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = worker;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        long retryMillis = MIN_RETRY_MILLIS;
+        boolean tablesReady = false;
+        while (running) {
+            long waitMillis = IDLE_POLL_MILLIS;
+            try {
+                if (!tablesReady) {
+                    repository.createTables();
+                    tablesReady = true;
+                }
+                syncPending();
+                retryMillis = MIN_RETRY_MILLIS;
+            } catch (SQLException e) {
+                // Offline: keep accepting locally and try again later
+                connected = false;
+                lastError = e.getMessage();
+                waitMillis = retryMillis;
+                retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Check-in sync failed: " + e.getMessage());
+                waitMillis = MAX_RETRY_MILLIS;
+            }
+            LockSupport.parkNanos(waitMillis * 1_000_000L);
+        }
+    }
+
+    private long readCursor() throws IOException {
+        if (!Files.exists(cursorFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(cursorFile);
+        if (bytes.length != Long.BYTES) {
+            throw new IOException("Corrupt sync cursor: " + cursorFile);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    /**
+     * Write-then-rename so a crash leaves either the old or the new cursor
+     */
+    private void writeCursor(long value) throws IOException {
+        Path temp = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+        Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+        Files.move(temp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Block20 Gym Management System
+ * Eligibility Cache - answers "may this member enter?" without storage
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.Member;
+import com.block20.services.members.MemberChangeListener;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Status, plan and expiry for every member, kept in memory for the door.
+ *
+ * The member directory holds every member this desk knows about, so the
+ * cache holds all of them too and is never filled lazily. A Bloom filter
+ * over the known IDs sits in front of it, so an unknown or mistyped ID is
+ * turned away without touching the map. An ID that passes the filter but
+ * has no entry (a filter false positive, or a member deleted since) is a
+ * miss and is turned away too. Member change events keep both up to date.
+ */
+public class EligibilityCache implements MemberChangeListener {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_EXPECTED_IDS = 1024;
+
+    private final ConcurrentHashMap<String, MemberEligibility> entries = new ConcurrentHashMap<>();
+    private final Object filterLock = new Object();
+
+    // Replaced wholesale when it fills up; reads need no lock
+    private volatile BloomFilter<CharSequence> knownIds;
+    // Guarded by filterLock
+    private int expectedIds;
+    private int idsAdded;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+
+    public EligibilityCache() {
+        this.expectedIds = MIN_EXPECTED_IDS;
+        this.knownIds = newFilter(expectedIds);
+    }
+
+    /**
+     * Load every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+        for (Member member : directory.getAll()) {
+            put(MemberEligibility.of(member));
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        switch (event.getType()) {
+            case ENROLLED:
+            case RESTORED:
+            case UPDATED:
+                put(MemberEligibility.of(event.getCurrent()));
+                break;
+            case DELETED:
+                // The ID stays in the filter until the next rebuild; lookups
+                // for it just fall through to a miss
+                entries.remove(event.getMemberId());
+                break;
+        }
+    }
+
+    /**
+     * Eligibility for the member, or empty if no such member exists
+     */
+    public Optional<MemberEligibility> lookup(String memberId) {
+        long started = System.nanoTime();
+        try {
+            lookups.increment();
+            if (!knownIds.mightContain(memberId)) {
+                filterRejects.increment();
+                return Optional.empty();
+            }
+            MemberEligibility cached = entries.get(memberId);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            misses.increment();
+            return Optional.empty();
+        } finally {
+            lookupNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    public EligibilityCacheStats getStats() {
+        return new EligibilityCacheStats(hits.sum(), misses.sum(), filterRejects.sum(),
+            lookups.sum(), lookupNanos.sum(), entries.size());
+    }
+
+    private void put(MemberEligibility eligibility) {
+        synchronized (filterLock) {
+            // Register the ID before the entry so a concurrent lookup never
+            // filters out a member that is already cached
+            boolean newId = !knownIds.mightContain(eligibility.getMemberId());
+            if (newId) {
+                knownIds.put(eligibility.getMemberId());
+            }
+            entries.put(eligibility.getMemberId(), eligibility);
+            if (newId && ++idsAdded > expectedIds) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    /**
+     * Size a new filter for twice the current members so the false
+     * positive rate stays near its target as the gym grows. Also drops
+     * deleted IDs.
+     */
+    private void rebuildFilter() {
+        int expected = Math.max(MIN_EXPECTED_IDS, (entries.size() + 1) * 2);
+        BloomFilter<CharSequence> rebuilt = newFilter(expected);
+        int added = 0;
+        for (String memberId : entries.keySet()) {
+            rebuilt.put(memberId);
+            added++;
+        }
+        expectedIds = expected;
+        idsAdded = added;
+        knownIds = rebuilt;
+    }
+
+    private static BloomFilter<CharSequence> newFilter(int expected) {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expected, FALSE_POSITIVE_RATE);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Block20 Gym Management System
+ * Eligibility cache statistics
+ */
+package com.block20.services.checkin;
+
+/**
+ * Point-in-time counters for the eligibility cache
+ */
+public class EligibilityCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long filterRejects;
+    private final long lookups;
+    private final long totalLookupNanos;
+    private final int size;
+
+    public EligibilityCacheStats(long hits, long misses, long filterRejects, long lookups,
+                                 long totalLookupNanos, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.filterRejects = filterRejects;
+        this.lookups = lookups;
+        this.totalLookupNanos = totalLookupNanos;
+        this.size = size;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getFilterRejects() { return filterRejects; }
+    public long getLookups() { return lookups; }
+    public int getSize() { return size; }
+
+    /**
+     * Share of lookups answered by the filter or a cached entry. Misses
+     * are IDs that got past the filter with no member behind them.
+     */
+    public double getHitRatio() {
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double) (hits + filterRejects) / lookups;
+    }
+
+    public double getAverageLookupMicros() {
+        if (lookups == 0) {
+            return 0;
+        }
+        return totalLookupNanos / 1000.0 / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d lookups, %.1f%% hit ratio (%,d hits, %,d misses, %,d filtered), avg %.2f us, %,d entries",
+            lookups, getHitRatio() * 100, hits, misses, filterRejects, getAverageLookupMicros(), size);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Block20 Gym Management System
+ * Member eligibility entry
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.Member;
+
+/**
+ * The few member fields the door needs to admit someone
+ */
+public class MemberEligibility {
+    private final String memberId;
+    private final String status;
+    private final String planType;
+    private final String expiryDate;
+
+    public MemberEligibility(String memberId, String status, String planType, String expiryDate) {
+        this.memberId = memberId;
+        this.status = status;
+        this.planType = planType;
+        this.expiryDate = expiryDate;
+    }
+
+    public static MemberEligibility of(Member member) {
+        return new MemberEligibility(member.getMemberId(), member.getStatus(),
+            member.getPlanType(), member.getExpiryDate());
+    }
+
+    public String getMemberId() { return memberId; }
+    public String getStatus() { return status; }
+    public String getPlanType() { return planType; }
+    public String getExpiryDate() { return expiryDate; }
+
+    /**
+     * Only active memberships may enter
+     */
+    public boolean isEligible() {
+        return "Active".equals(status);
+    }
+}
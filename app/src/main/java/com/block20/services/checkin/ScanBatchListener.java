@@ -0,0 +1,17 @@
+/*
+ * Block20 Gym Management System
+ * Scan batch listener
+ */
+package com.block20.services.checkin;
+
+import java.util.List;
+
+/**
+ * Notified on the pipeline thread once per processed batch of scans.
+ * Implementations must return quickly; screens should hand off to the
+ * UI thread and coalesce refreshes.
+ */
+@FunctionalInterface
+public interface ScanBatchListener {
+    void onBatchProcessed(List<ScanResult> results);
+}
@@ -0,0 +1,259 @@
+/*
+ * Block20 Gym Management System
+ * Scan Pipeline - ring-buffer ingestion in front of check-in processing
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pre-allocated ring buffer that takes scans from any number of producers
+ * (barcode/RFID readers, kiosks, the check-in screen) and feeds them to a
+ * single consumer thread.
+ *
+ * Producers claim a sequence with one CAS, fill a reused slot and mark
+ * it published, so publishing allocates nothing. The consumer drains every
+ * contiguous published slot as one batch, runs eligibility, occupancy and
+ * journaling for it off the UI thread, then notifies listeners once per
+ * batch. Because only the consumer ever calls the check-in service, door
+ * logic runs single-writer.
+ */
+public class ScanPipeline implements AutoCloseable {
+
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = 100_000;
+
+    private final CheckInService checkInService;
+    private final Slot[] slots;
+    private final int mask;
+    private final int indexShift;
+    // Round number each slot was last published for, -1 if never
+    private final AtomicIntegerArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+    private final AtomicLong processedCount = new AtomicLong();
+    private final List<ScanBatchListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile boolean consumerIdle;
+    private Thread consumer;
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public ScanPipeline(CheckInService checkInService, int capacity) {
+        this.checkInService = checkInService;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::runConsumer, "scan-pipeline");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public void addListener(ScanBatchListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ScanBatchListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queue a scan, waiting for space if the ring is full. For scanner and
+     * kiosk threads only; the FX thread uses {@link #tryPublish} so a burst
+     * never freezes the screen.
+     */
+    public void publish(String memberId, CheckInAction action, String entrance) {
+        int attempts = 0;
+        while (!tryPublish(memberId, action, entrance)) {
+            if (!running) {
+                throw new IllegalStateException("Scan pipeline is not running");
+            }
+            backOff(attempts++);
+        }
+    }
+
+    /**
+     * Queue a scan if there is room.
+     *
+     * @return false when the ring is full; the caller decides whether to retry
+     */
+    public boolean tryPublish(String memberId, CheckInAction action, String entrance) {
+        if (!running) {
+            return false;
+        }
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - slots.length > consumed.get()) {
+                return false;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                sequence = next;
+                break;
+            }
+        }
+
+        int index = (int) (sequence & mask);
+        Slot slot = slots[index];
+        slot.memberId = memberId;
+        slot.action = action;
+        slot.entrance = entrance;
+        published.lazySet(index, (int) (sequence >>> indexShift));
+
+        if (consumerIdle) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Total scans processed since start
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * Scans published but not yet processed
+     */
+    public long getBacklog() {
+        return claimed.get() - consumed.get();
+    }
+
+    /**
+     * Stop accepting work once everything already queued has been processed
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = consumer;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runConsumer() {
+        long next = consumed.get() + 1;
+        int idleTries = 0;
+
+        while (running || next <= claimed.get()) {
+            long available = highestPublished(next, claimed.get());
+            if (available < next) {
+                if (idleTries++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    consumerIdle = true;
+                    if (highestPublished(next, claimed.get()) < next && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    consumerIdle = false;
+                }
+                continue;
+            }
+            idleTries = 0;
+
+            List<ScanResult> batch = new ArrayList<>((int) (available - next + 1));
+            for (long sequence = next; sequence <= available; sequence++) {
+                Slot slot = slots[(int) (sequence & mask)];
+                batch.add(new ScanResult(slot.memberId, slot.action, slot.entrance, process(slot)));
+                slot.clear();
+            }
+            // Hand the slots back to producers before telling listeners
+            consumed.lazySet(available);
+            processedCount.addAndGet(available - next + 1);
+            next = available + 1;
+
+            for (ScanBatchListener listener : listeners) {
+                try {
+                    listener.onBatchProcessed(batch);
+                } catch (RuntimeException e) {
+                    System.err.println("Scan listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private CheckInOutcome process(Slot slot) {
+        try {
+            return slot.action == CheckInAction.CHECK_IN
+                ? checkInService.checkIn(slot.memberId, slot.entrance)
+                : checkInService.checkOut(slot.memberId, slot.entrance);
+        } catch (RuntimeException e) {
+            // Anything escaping here would kill the only consumer and leave producers waiting forever
+            System.err.println("Scan for " + slot.memberId + " not recorded: " + e);
+            return CheckInOutcome.FAILED;
+        }
+    }
+
+    /**
+     * Last sequence in [from, upTo] such that every slot up to it is published
+     */
+    private long highestPublished(long from, long upTo) {
+        for (long sequence = from; sequence <= upTo; sequence++) {
+            int index = (int) (sequence & mask);
+            if (published.get(index) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return upTo;
+    }
+
+    private static void backOff(int attempts) {
+        if (attempts < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempts < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Reused holder for one scan
+     */
+    private static final class Slot {
+        String memberId;
+        CheckInAction action;
+        String entrance;
+
+        void clear() {
+            memberId = null;
+            action = null;
+            entrance = null;
+        }
+    }
+}
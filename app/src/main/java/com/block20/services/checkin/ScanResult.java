@@ -0,0 +1,29 @@
+/*
+ * Block20 Gym Management System
+ * Scan result
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+
+/**
+ * Outcome of one scan after it went through the ingestion pipeline
+ */
+public class ScanResult {
+    private final String memberId;
+    private final CheckInAction action;
+    private final String entrance;
+    private final CheckInOutcome outcome;
+
+    public ScanResult(String memberId, CheckInAction action, String entrance, CheckInOutcome outcome) {
+        this.memberId = memberId;
+        this.action = action;
+        this.entrance = entrance;
+        this.outcome = outcome;
+    }
+
+    public String getMemberId() { return memberId; }
+    public CheckInAction getAction() { return action; }
+    public String getEntrance() { return entrance; }
+    public CheckInOutcome getOutcome() { return outcome; }
+}
@@ -0,0 +1,104 @@
+/*
+ * Block20 Gym Management System
+ * Equipment Service - inventory and maintenance updates
+ */
+package com.block20.services.equipment;
+
+import com.block20.models.Equipment;
+import com.block20.repositories.EquipmentRepository;
+import com.block20.services.async.AsyncExecutor;
+import com.block20.services.writebehind.AuditLog;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The equipment inventory as the screens see it. Reads go through the
+ * repository's cache and changes are saved in the background.
+ */
+public class EquipmentService {
+
+    public static final String OPERATIONAL = "Operational";
+
+    private final EquipmentRepository equipment;
+    private final AsyncExecutor executor;
+    private final AuditLog audit;
+    private volatile boolean tablesReady;
+
+    /**
+     * @param equipment null without storage
+     * @param audit     null without a database
+     */
+    public EquipmentService(EquipmentRepository equipment, AsyncExecutor executor, AuditLog audit) {
+        this.equipment = equipment;
+        this.executor = executor;
+        this.audit = audit;
+    }
+
+    /**
+     * The stored inventory, by equipment ID
+     *
+     * @return empty without storage
+     */
+    public CompletableFuture<Optional<List<Equipment>>> loadInventory() {
+        if (equipment == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return executor.submit(() -> {
+            createTables();
+            return Optional.of(equipment.findAll());
+        });
+    }
+
+    /**
+     * Register a new item
+     *
+     * @return false without storage
+     */
+    public CompletableFuture<Boolean> addEquipment(Equipment item) {
+        return executor.submit(() -> {
+            if (equipment == null) {
+                return false;
+            }
+            createTables();
+            equipment.save(item);
+            if (audit != null) {
+                audit.record("equipment.add", item.getEquipmentId(), item.getName() + ", " + item.getStatus());
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Put an item back in service once its maintenance is done
+     *
+     * @return false if the item is not stored in the database
+     */
+    public CompletableFuture<Boolean> completeMaintenance(String equipmentId) {
+        return executor.submit(() -> {
+            if (equipment == null) {
+                return false;
+            }
+            createTables();
+            boolean updated = equipment.updateStatus(equipmentId, OPERATIONAL);
+            if (updated && audit != null) {
+                audit.record("equipment.maintained", equipmentId, "Back in service");
+            }
+            return updated;
+        });
+    }
+
+    private void createTables() throws SQLException {
+        if (tablesReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!tablesReady) {
+                equipment.createTables();
+                tablesReady = true;
+            }
+        }
+    }
+}
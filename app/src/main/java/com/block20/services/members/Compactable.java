@@ -0,0 +1,21 @@
+/*
+ * Block20 Gym Management System
+ * Compactable - derived member data that can be tidied in the background
+ */
+package com.block20.services.members;
+
+/**
+ * Data kept alongside the directory (indexes, mostly) that leaves gaps
+ * behind removed members instead of closing them on every removal.
+ */
+@FunctionalInterface
+public interface Compactable {
+
+    /**
+     * Close the gaps if enough have piled up. Readers are not blocked
+     * while the replacement is built; it is swapped in under a short lock.
+     *
+     * @return whether anything was rebuilt
+     */
+    boolean compact();
+}
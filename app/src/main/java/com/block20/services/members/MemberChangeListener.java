@@ -0,0 +1,13 @@
+/*
+ * Block20 Gym Management System
+ * Member change listener
+ */
+package com.block20.services.members;
+
+/**
+ * Receives enrollments, edits and deletions from the member directory
+ */
+@FunctionalInterface
+public interface MemberChangeListener {
+    void onMemberChanged(MemberEvent event);
+}
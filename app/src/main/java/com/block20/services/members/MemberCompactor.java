@@ -0,0 +1,129 @@
+/*
+ * Block20 Gym Management System
+ * Member Compactor - background purge of deleted members
+ */
+package com.block20.services.members;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Periodically purges members whose deletion can no longer be undone,
+ * then lets the directory and each index close the gaps removed and
+ * edited members left behind.
+ *
+ * Deletes and edits only leave tombstones, superseded rows and unused
+ * ordinals, so they stay cheap; this is where the tidying up happens, on
+ * its own thread. Indexes are rebuilt without holding up screens that
+ * are reading; the directory copies its rows under its own lock.
+ */
+public class MemberCompactor implements AutoCloseable {
+
+    private final MemberDirectory directory;
+    private final Duration undoWindow;
+    private final long intervalNanos;
+    private final List<Compactable> indexes = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile long purgedCount;
+    private volatile long compactionCount;
+    private Thread worker;
+
+    /**
+     * @param undoWindow how long a deleted member can still be restored
+     * @param interval   time between passes
+     */
+    public MemberCompactor(MemberDirectory directory, Duration undoWindow, Duration interval) {
+        this.directory = directory;
+        this.undoWindow = undoWindow;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void addIndex(Compactable index) {
+        indexes.add(index);
+    }
+
+    public Duration getUndoWindow() {
+        return undoWindow;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runWorker, "member-compaction");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * One pass: purge expired tombstones, drop the directory's unused
+     * rows, then compact every index
+     *
+     * @return number of members purged
+     */
+    public int runOnce() {
+        int purged = directory.purgeDeleted(undoWindow);
+        purgedCount += purged;
+        if (directory.compact()) {
+            compactionCount++;
+        }
+        for (Compactable index : indexes) {
+            if (index.compact()) {
+                compactionCount++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Members purged since start
+     */
+    public long getPurgedCount() {
+        return purgedCount;
+    }
+
+    /**
+     * Directory and index rebuilds since start
+     */
+    public long getCompactionCount() {
+        return compactionCount;
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = worker;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            if (!running) {
+                break;
+            }
+            try {
+                runOnce();
+            } catch (RuntimeException e) {
+                // Keep going; the next pass retries whatever was left
+                System.err.println("Member compaction failed: " + e.getMessage());
+            }
+        }
+    }
+}
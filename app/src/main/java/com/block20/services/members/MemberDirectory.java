@@ -0,0 +1,209 @@
+/*
+ * Block20 Gym Management System
+ * Member Directory - shared in-memory member data
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single source of member data for every staff screen.
+ * Enrollments, edits and deletions go through here and are broadcast to
+ * listeners such as the search index. Members are kept in a compact
+ * {@link MemberStore}; callers get lightweight views of its rows.
+ * Deletions leave a tombstone and can be undone until it is purged.
+ */
+public class MemberDirectory {
+
+    private final MemberStore store = new MemberStore();
+    private final List<MemberChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Clock clock;
+
+    public MemberDirectory() {
+        this(Clock.systemUTC());
+    }
+
+    public MemberDirectory(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * The clock deletions are timed by
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void addListener(MemberChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(MemberChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * All members in enrollment order
+     */
+    public synchronized List<Member> getAll() {
+        return store.views();
+    }
+
+    public synchronized Optional<Member> findById(String memberId) {
+        int row = store.find(memberId);
+        return row >= 0 ? Optional.of(store.view(row)) : Optional.empty();
+    }
+
+    public synchronized int size() {
+        return store.size();
+    }
+
+    /**
+     * Approximate heap used by member data
+     */
+    public synchronized long estimatedBytes() {
+        return store.estimatedBytes();
+    }
+
+    /**
+     * Add a newly enrolled member
+     */
+    public synchronized void enroll(Member member) {
+        if (store.find(member.getMemberId()) >= 0) {
+            throw new IllegalArgumentException("Member ID already exists: " + member.getMemberId());
+        }
+        // A deleted member whose ID is reused can no longer be restored
+        Member discarded = store.discardTombstone(member.getMemberId());
+        if (discarded != null) {
+            fire(new MemberEvent(MemberEvent.Type.PURGED, discarded, null));
+        }
+        int row = store.insert(member);
+        fire(new MemberEvent(MemberEvent.Type.ENROLLED, null, store.view(row)));
+    }
+
+    /**
+     * Replace an existing member's details
+     */
+    public synchronized void update(Member member) {
+        int previous = store.find(member.getMemberId());
+        if (previous < 0) {
+            throw new IllegalArgumentException("Unknown member: " + member.getMemberId());
+        }
+        int row = store.replace(previous, member);
+        fire(new MemberEvent(MemberEvent.Type.UPDATED, store.view(previous), store.view(row)));
+    }
+
+    /**
+     * Remove a member; returns false if the ID is unknown
+     */
+    public boolean delete(String memberId) {
+        return delete(memberId, clock.millis());
+    }
+
+    /**
+     * Remove a member deleted at the given epoch millis, e.g. one stored as
+     * deleted before a restart; the undo window runs from then
+     */
+    public synchronized boolean delete(String memberId, long deletedAtMillis) {
+        int previous = store.find(memberId);
+        if (previous < 0) {
+            return false;
+        }
+        store.delete(previous, deletedAtMillis);
+        fire(new MemberEvent(MemberEvent.Type.DELETED, store.view(previous), null));
+        return true;
+    }
+
+    /**
+     * Undo a deletion; returns false if the member was not deleted, its
+     * tombstone has been purged, or its ID has been enrolled again
+     */
+    public synchronized boolean restore(String memberId) {
+        int row = store.restore(memberId);
+        if (row < 0) {
+            return false;
+        }
+        fire(new MemberEvent(MemberEvent.Type.RESTORED, null, store.view(row)));
+        return true;
+    }
+
+    /**
+     * Permanently remove members deleted longer ago than the given age
+     *
+     * @return number of members purged
+     */
+    public synchronized int purgeDeleted(Duration olderThan) {
+        List<Member> purged = store.purge(clock.millis() - olderThan.toMillis());
+        for (Member member : purged) {
+            fire(new MemberEvent(MemberEvent.Type.PURGED, member, null));
+        }
+        return purged.size();
+    }
+
+    /**
+     * Copy the members still in use into fresh storage once enough
+     * edited and purged rows have piled up
+     *
+     * @return whether the storage was rebuilt
+     */
+    public synchronized boolean compact() {
+        return store.compact();
+    }
+
+    /**
+     * Deleted members that can still be restored
+     */
+    public synchronized int deletedCount() {
+        return store.tombstoneCount();
+    }
+
+    private void fire(MemberEvent event) {
+        for (MemberChangeListener listener : listeners) {
+            listener.onMemberChanged(event);
+        }
+    }
+
+    /**
+     * Load demonstration members until the database layer is in place,
+     * with their payment and attendance history
+     */
+    public void loadSampleMembers(MemberHistory history) {
+        enroll(new Member("M001", "John Smith", "john.smith@email.com", "555-0101", "Premium", "Active",
+            "2024-01-15", "2025-01-15", "2024-11-05", "85.00", "Jane Smith - 555-0102", "123 Main St, City"));
+        history.record(new MemberProfile("M001", "2024-11-01", 156, 18, "2024-11-10", 4.2));
+        enroll(new Member("M002", "Sarah Johnson", "sarah.j@email.com", "555-0102", "Basic", "Active",
+            "2024-03-20", "2025-03-20", "2024-10-20", "50.00", "Mike Johnson - 555-0103", "456 Oak Ave, City"));
+        history.record(new MemberProfile("M002", "2024-10-20", 89, 12, "2024-11-11", 3.1));
+        enroll(new Member("M003", "Michael Brown", "m.brown@email.com", "555-0103", "Elite", "Active",
+            "2023-06-10", "2025-06-10", "2024-06-10", "120.00", "Lisa Brown - 555-0104", "789 Pine Rd, City"));
+        history.record(new MemberProfile("M003", "2024-11-01", 342, 22, "2024-11-09", 5.5));
+        enroll(new Member("M004", "Emily Davis", "emily.d@email.com", "555-0104", "Student", "Expired",
+            "2024-01-05", "2024-11-05", "2024-08-15", "35.00", "Robert Davis - 555-0105", "321 Elm St, City"));
+        history.record(new MemberProfile("M004", "2024-08-15", 67, 8, "2024-10-28", 2.3));
+        enroll(new Member("M005", "David Wilson", "d.wilson@email.com", "555-0105", "Premium", "Active",
+            "2024-02-14", "2025-02-14", "2024-11-01", "85.00", "Anna Wilson - 555-0106", "654 Maple Dr, City"));
+        history.record(new MemberProfile("M005", "2024-11-01", 123, 16, "2024-11-12", 3.8));
+        enroll(new Member("M006", "Jessica Martinez", "jess.m@email.com", "555-0106", "Basic", "Pending",
+            "2024-10-01", "2024-11-20", "2024-11-10", "50.00", "Carlos Martinez - 555-0107", "987 Birch Ln, City"));
+        history.record(new MemberProfile("M006", "2024-10-01", 12, 4, "2024-11-08", 1.2));
+        enroll(new Member("M007", "Robert Taylor", "r.taylor@email.com", "555-0107", "Premium", "Suspended",
+            "2023-12-01", "2024-12-01", "2024-11-01", "85.00", "Emma Taylor - 555-0108", "147 Cedar Ct, City"));
+        history.record(new MemberProfile("M007", "2024-09-01", 234, 0, "2024-09-15", 0.0));
+        enroll(new Member("M008", "Amanda Anderson", "amanda.a@email.com", "555-0108", "Elite", "Active",
+            "2023-08-22", "2025-08-22", "2024-08-22", "120.00", "Tom Anderson - 555-0109", "258 Spruce Way, City"));
+        history.record(new MemberProfile("M008", "2024-11-01", 298, 20, "2024-11-11", 4.8));
+        enroll(new Member("M009", "Christopher Lee", "chris.lee@email.com", "555-0109", "Basic", "Expired",
+            "2024-04-10", "2024-10-10", "2024-09-01", "50.00", "Nancy Lee - 555-0110", "369 Ash Blvd, City"));
+        history.record(new MemberProfile("M009", "2024-09-01", 45, 2, "2024-09-30", 1.5));
+        enroll(new Member("M010", "Jennifer White", "jen.white@email.com", "555-0110", "Premium", "Active",
+            "2024-05-18", "2025-05-18", "2024-11-05", "85.00", "Kevin White - 555-0111", "741 Walnut Ave, City"));
+        history.record(new MemberProfile("M010", "2024-11-05", 102, 14, "2024-11-12", 3.5));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Block20 Gym Management System
+ * Member change event
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+
+/**
+ * Describes a single change to the member directory.
+ * Carries both the previous and the current state so listeners can
+ * update derived data (indexes, counters) without rescanning.
+ */
+public class MemberEvent {
+
+    /**
+     * A deleted member can be restored until its tombstone is purged.
+     * RESTORED looks like an enrollment (no previous state); PURGED only
+     * carries the deleted state, for listeners that kept data around for
+     * an undo.
+     */
+    public enum Type { ENROLLED, UPDATED, DELETED, RESTORED, PURGED }
+
+    private final Type type;
+    private final Member previous;
+    private final Member current;
+
+    public MemberEvent(Type type, Member previous, Member current) {
+        this.type = type;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Type getType() { return type; }
+
+    /** State before the change, or null for an enrollment or restore */
+    public Member getPrevious() { return previous; }
+
+    /** State after the change, or null for a deletion or purge */
+    public Member getCurrent() { return current; }
+
+    public String getMemberId() {
+        return current != null ? current.getMemberId() : previous.getMemberId();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Block20 Gym Management System
+ * Member History - payment and attendance records kept off the registry row
+ */
+package com.block20.services.members;
+
+import com.block20.models.MemberProfile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Recorded profile figures for each member: the last payment, and
+ * attendance carried over from before this desk's check-in journal
+ * (sample data, history migrated from another system). Visits made since
+ * come from the journal and are added on top when a profile is loaded.
+ *
+ * Listeners are told the ID of every member whose record changes.
+ */
+public class MemberHistory implements MemberChangeListener {
+
+    private final Map<String, MemberProfile> records = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Drop a member's records once their deletion can no longer be undone
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+    }
+
+    public Optional<MemberProfile> find(String memberId) {
+        return Optional.ofNullable(records.get(memberId));
+    }
+
+    public void record(MemberProfile profile) {
+        records.put(profile.getMemberId(), profile);
+        fire(profile.getMemberId());
+    }
+
+    /**
+     * Note a payment, keeping the member's carried-over attendance
+     */
+    public void recordPayment(String memberId, String date) {
+        records.compute(memberId, (id, previous) -> previous == null
+            ? new MemberProfile(id, date, 0, 0, "Never", 0)
+            : new MemberProfile(id, date, previous.getTotalCheckIns(), previous.getCheckInsThisMonth(),
+                previous.getLastCheckIn(), previous.getAvgWeeklyVisits()));
+        fire(memberId);
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        if (event.getType() == MemberEvent.Type.PURGED && records.remove(event.getMemberId()) != null) {
+            fire(event.getMemberId());
+        }
+    }
+
+    private void fire(String memberId) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(memberId);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Block20 Gym Management System
+ * Member Profile Loader
+ */
+package com.block20.services.members;
+
+import com.block20.models.MemberProfile;
+
+import java.io.IOException;
+
+/**
+ * Builds the profile details for one member; may be slow
+ */
+@FunctionalInterface
+public interface MemberProfileLoader {
+    MemberProfile load(String memberId) throws IOException;
+}
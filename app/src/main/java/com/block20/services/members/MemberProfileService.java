@@ -0,0 +1,129 @@
+/*
+ * Block20 Gym Management System
+ * Member Profile Service - loads and caches profile details
+ */
+package com.block20.services.members;
+
+import com.block20.models.MemberProfile;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Profile details for members whose profile is being opened.
+ *
+ * Details are loaded in the background the first time a profile is
+ * opened and kept in a least-recently-used cache of a fixed number of
+ * members, so reopening a profile is immediate and browsing the registry
+ * never pays for them. An entry is dropped as soon as something it was
+ * built from changes: the member's row, their payment history, or a new
+ * check-in. A load that is overtaken by such a change still completes
+ * for its caller but is not cached.
+ */
+public class MemberProfileService implements MemberChangeListener, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final MemberProfileLoader loader;
+    private final ExecutorService workers;
+
+    // Guarded by this
+    private final LinkedHashMap<String, MemberProfile> cache;
+    private final Map<String, CompletableFuture<MemberProfile>> loading = new HashMap<>();
+
+    public MemberProfileService(MemberProfileLoader loader) {
+        this(loader, DEFAULT_CAPACITY);
+    }
+
+    public MemberProfileService(MemberProfileLoader loader, int capacity) {
+        this.loader = loader;
+        this.workers = Executors.newVirtualThreadPerTaskExecutor();
+        this.cache = new LinkedHashMap<String, MemberProfile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemberProfile> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Drop cached profiles when members are edited or deleted, or their
+     * payment history changes
+     */
+    public void attach(MemberDirectory directory, MemberHistory history) {
+        directory.addListener(this);
+        history.addListener(this::invalidate);
+    }
+
+    /**
+     * Profile details for a member: already complete if cached, otherwise
+     * completed on a background thread. Concurrent requests for the same
+     * member share one load.
+     */
+    public synchronized CompletableFuture<MemberProfile> load(String memberId) {
+        MemberProfile cached = cache.get(memberId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<MemberProfile> pending = loading.get(memberId);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<MemberProfile> future = new CompletableFuture<>();
+        loading.put(memberId, future);
+        workers.execute(() -> complete(memberId, future));
+        return future;
+    }
+
+    /**
+     * Cached details, without loading them
+     */
+    public synchronized Optional<MemberProfile> getCached(String memberId) {
+        return Optional.ofNullable(cache.get(memberId));
+    }
+
+    public synchronized void invalidate(String memberId) {
+        cache.remove(memberId);
+        loading.remove(memberId);
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        invalidate(event.getMemberId());
+    }
+
+    private void complete(String memberId, CompletableFuture<MemberProfile> future) {
+        MemberProfile profile;
+        try {
+            profile = loader.load(memberId);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                loading.remove(memberId, future);
+            }
+            future.completeExceptionally(e);
+            return;
+        }
+        synchronized (this) {
+            // Only the latest load since the last invalidation may be cached
+            if (loading.remove(memberId, future)) {
+                cache.put(memberId, profile);
+            }
+        }
+        future.complete(profile);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
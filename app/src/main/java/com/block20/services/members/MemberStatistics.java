@@ -0,0 +1,125 @@
+/*
+ * Block20 Gym Management System
+ * Member Statistics - live membership counts
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Membership counts for the stats cards, kept up to date from directory
+ * events instead of counting members on every screen.
+ *
+ * Every enrollment, edit (renewal, suspension, plan change) and deletion
+ * moves a member between a fixed number of counters: total, status,
+ * plan, join month and expiry day. Reads never scan members; a renewal
+ * window ("expiring in the next 7 days") sums one counter per day.
+ */
+public class MemberStatistics implements MemberChangeListener {
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> byPlan = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<YearMonth, LongAdder> joinedByMonth = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> expiringByDay = new ConcurrentHashMap<>();
+
+    /**
+     * Count every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        // Counting is not idempotent, so no change may slip in between the two steps
+        synchronized (directory) {
+            directory.addListener(this);
+            for (Member member : directory.getAll()) {
+                count(member, 1);
+            }
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        if (event.getType() == MemberEvent.Type.PURGED) {
+            // Already uncounted when it was deleted
+            return;
+        }
+        if (event.getPrevious() != null) {
+            count(event.getPrevious(), -1);
+        }
+        if (event.getCurrent() != null) {
+            count(event.getCurrent(), 1);
+        }
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getStatusCount(String status) {
+        return sum(byStatus.get(status));
+    }
+
+    public long getPlanCount(String plan) {
+        return sum(byPlan.get(plan));
+    }
+
+    /**
+     * Members who joined in the given month
+     */
+    public long getJoinedCount(YearMonth month) {
+        return sum(joinedByMonth.get(month));
+    }
+
+    /**
+     * Members whose membership expires within {@code days} days starting
+     * at {@code from} (inclusive)
+     */
+    public long getExpiringCount(LocalDate from, int days) {
+        long first = from.toEpochDay();
+        long count = 0;
+        for (long day = first; day < first + days; day++) {
+            count += sum(expiringByDay.get(day));
+        }
+        return count;
+    }
+
+    private void count(Member member, int delta) {
+        total.add(delta);
+        add(byStatus, member.getStatus(), delta);
+        add(byPlan, member.getPlanType(), delta);
+        LocalDate joined = parseDate(member.getJoinDate());
+        if (joined != null) {
+            add(joinedByMonth, YearMonth.from(joined), delta);
+        }
+        LocalDate expires = parseDate(member.getExpiryDate());
+        if (expires != null) {
+            add(expiringByDay, expires.toEpochDay(), delta);
+        }
+    }
+
+    private static <K> void add(ConcurrentHashMap<K, LongAdder> counters, K key, int delta) {
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static long sum(LongAdder counter) {
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
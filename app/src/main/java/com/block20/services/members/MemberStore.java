@@ -0,0 +1,644 @@
+/*
+ * Block20 Gym Management System
+ * Member Store - compact columnar member storage
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Members stored column by column in primitive arrays.
+ *
+ * Plan and status are one-byte dictionary codes, dates are epoch days,
+ * the monthly fee is a count of cents, and free text lives in a shared
+ * {@link StringArena}. A member costs around a hundred bytes instead of
+ * the best part of a kilobyte as a {@link Member} with its Strings.
+ * Values that do not fit a column's encoding (a fee with a currency
+ * sign, a date in another format) are kept verbatim on the side, so
+ * every member reads back exactly as it was stored.
+ *
+ * Callers get lightweight {@link Member} views that decode on each
+ * getter call, one view per row. Rows are never changed after they are
+ * written: an edit appends a new row in the member's place, so a view
+ * handed out earlier keeps showing the values it was created with, just
+ * as a Member object would.
+ *
+ * Deleting a member only marks its row with a tombstone, so the delete
+ * is constant time and can be undone with {@link #restore}. Purging
+ * expired tombstones drops them from the enrollment order and the ID
+ * index. Superseded and purged rows keep their cells until
+ * {@link #compact} copies the members still in the order into fresh
+ * columns and a fresh arena, and moves their views across. Views of
+ * rows left behind keep the old columns, which are freed once nothing
+ * holds such a view.
+ *
+ * Writes must be serialized by the caller (the member directory does).
+ * Views can be read from any thread once obtained.
+ */
+public class MemberStore {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final int IRREGULAR_DAY = Integer.MIN_VALUE + 1;
+    private static final long NO_CENTS = Long.MIN_VALUE;
+    private static final long IRREGULAR_CENTS = Long.MIN_VALUE + 1;
+
+    // Columns that can fall back to a verbatim value
+    private static final int COL_PLAN = 0;
+    private static final int COL_STATUS = 1;
+    private static final int COL_JOIN = 2;
+    private static final int COL_EXPIRY = 3;
+    private static final int COL_START = 4;
+    private static final int COL_FEE = 5;
+
+    private static final int EMPTY_SLOT = -1;
+    private static final int DELETED_SLOT = -2;
+
+    // Copy the rows still in use once this many are superseded or purged
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    // Codes are shared by every generation of rows
+    private final Dictionary plans = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+
+    // Current generation of rows; replaced by compaction
+    private Rows rows = new Rows();
+
+    // Rows in enrollment order, tombstoned ones included until purged
+    private int[] order = new int[16];
+    private int orderSize;
+    private int liveCount;
+
+    // Rows in the order that are deleted
+    private final BitSet tombstoned = new BitSet();
+    // Deletions that can still be undone, by member ID, oldest first
+    private final Map<String, Tombstone> tombstones = new LinkedHashMap<>();
+    // Tombstoned rows that can no longer be undone, waiting to be purged
+    private int expired;
+
+    // Open-addressing index from member ID to its current row
+    private int[] slots = newSlots(16);
+    private int usedSlots;
+
+    /**
+     * Current row of a member, or -1
+     */
+    public int find(String memberId) {
+        byte[] key = memberId.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.length - 1;
+        for (int i = spread(memberId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int row = slots[i];
+            if (row == EMPTY_SLOT) {
+                return -1;
+            }
+            if (row != DELETED_SLOT && rows.arena.matches(rows.chunk(row).memberId[row & CHUNK_MASK], key)) {
+                return row;
+            }
+        }
+    }
+
+    /**
+     * Add a new member at the end of the enrollment order
+     *
+     * @return the member's row
+     */
+    public int insert(Member member) {
+        int row = append(rows, member, orderSize);
+        if (orderSize == order.length) {
+            order = Arrays.copyOf(order, orderSize * 2);
+        }
+        order[orderSize++] = row;
+        liveCount++;
+        putSlot(member.getMemberId(), row);
+        return row;
+    }
+
+    /**
+     * Store a member's new details in its existing place in the order
+     *
+     * @return the new row; views of the old one keep their values
+     */
+    public int replace(int oldRow, Member member) {
+        int position = rows.chunk(oldRow).position[oldRow & CHUNK_MASK];
+        int row = append(rows, member, position);
+        order[position] = row;
+        removeSlot(oldRow);
+        putSlot(member.getMemberId(), row);
+        return row;
+    }
+
+    /**
+     * Mark a live row deleted; it keeps its place in case it is restored
+     */
+    public void delete(int row, long deletedAtMillis) {
+        tombstoned.set(row);
+        tombstones.put(memberIdOf(row), new Tombstone(row, deletedAtMillis));
+        removeSlot(row);
+        liveCount--;
+    }
+
+    /**
+     * Undo a deletion, putting the member back in its old place
+     *
+     * @return the member's row, or -1 if there is no tombstone to restore
+     */
+    public int restore(String memberId) {
+        Tombstone tombstone = tombstones.remove(memberId);
+        if (tombstone == null) {
+            return -1;
+        }
+        tombstoned.clear(tombstone.row);
+        putSlot(memberId, tombstone.row);
+        liveCount++;
+        return tombstone.row;
+    }
+
+    /**
+     * Give up the chance to restore a deleted member, as when its ID is
+     * taken by a new enrollment
+     *
+     * @return a view of the deleted member, or null if there was none
+     */
+    public Member discardTombstone(String memberId) {
+        Tombstone tombstone = tombstones.remove(memberId);
+        if (tombstone == null) {
+            return null;
+        }
+        expired++;
+        return view(tombstone.row);
+    }
+
+    /**
+     * Permanently remove members deleted before the given time
+     *
+     * @return views of the purged members as they were when deleted
+     */
+    public List<Member> purge(long deletedBeforeMillis) {
+        List<Member> purged = new ArrayList<>();
+        Iterator<Tombstone> it = tombstones.values().iterator();
+        while (it.hasNext()) {
+            Tombstone tombstone = it.next();
+            if (tombstone.deletedAtMillis >= deletedBeforeMillis) {
+                break;
+            }
+            it.remove();
+            purged.add(view(tombstone.row));
+            expired++;
+        }
+        if (expired > 0) {
+            compactOrder();
+        }
+        return purged;
+    }
+
+    /**
+     * Copy the rows still in the enrollment order, restorable tombstones
+     * included, into fresh columns once enough rows are superseded or
+     * purged. Their views move to the copies; the old columns are left to
+     * views of the rows that were dropped.
+     *
+     * @return whether the rows were copied
+     */
+    public boolean compact() {
+        if (expired > 0) {
+            compactOrder();
+        }
+        int unused = rows.count - orderSize;
+        if (unused <= COMPACT_THRESHOLD || unused <= rows.count / 2) {
+            return false;
+        }
+        Rows old = rows;
+        Rows fresh = new Rows();
+        for (int i = 0; i < orderSize; i++) {
+            int row = order[i];
+            // Copied in order, so each member's new row is its position
+            append(fresh, new View(old, row), i);
+            View view = old.chunk(row).views[row & CHUNK_MASK];
+            if (view != null) {
+                view.at = new Location(fresh, i);
+                fresh.chunk(i).views[i & CHUNK_MASK] = view;
+            }
+            order[i] = i;
+        }
+        rows = fresh;
+
+        BitSet deleted = new BitSet();
+        for (Map.Entry<String, Tombstone> entry : tombstones.entrySet()) {
+            Tombstone tombstone = entry.getValue();
+            int row = old.chunk(tombstone.row).position[tombstone.row & CHUNK_MASK];
+            entry.setValue(new Tombstone(row, tombstone.deletedAtMillis));
+            deleted.set(row);
+        }
+        tombstoned.clear();
+        tombstoned.or(deleted);
+
+        slots = newSlots(Math.max(16, Integer.highestOneBit(Math.max(1, liveCount)) * 4));
+        usedSlots = 0;
+        for (int row = 0; row < orderSize; row++) {
+            if (!tombstoned.get(row)) {
+                putSlot(memberIdOf(row), row);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deleted members that can still be restored
+     */
+    public int tombstoneCount() {
+        return tombstones.size();
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * View of one row; the same view is returned each time
+     */
+    public Member view(int row) {
+        Chunk chunk = rows.chunk(row);
+        View view = chunk.views[row & CHUNK_MASK];
+        if (view == null) {
+            view = new View(rows, row);
+            chunk.views[row & CHUNK_MASK] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Rows written since the last compaction, superseded ones included
+     */
+    public int rowCount() {
+        return rows.count;
+    }
+
+    /**
+     * Views of every live member in enrollment order
+     */
+    public List<Member> views() {
+        List<Member> result = new ArrayList<>(liveCount);
+        for (int i = 0; i < orderSize; i++) {
+            if (!tombstoned.get(order[i])) {
+                result.add(view(order[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap held by the store, for diagnostics
+     */
+    public long estimatedBytes() {
+        long perChunk = (long) CHUNK_SIZE * (15 * Integer.BYTES + 2 + Long.BYTES + Double.BYTES);
+        int chunkCount = (rows.count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return chunkCount * perChunk + rows.arena.capacityBytes()
+            + (long) order.length * Integer.BYTES + (long) slots.length * Integer.BYTES
+            + rows.irregular.size() * 64L + tombstones.size() * 96L;
+    }
+
+    private int append(Rows target, Member member, int position) {
+        int row = target.count;
+        Chunk[] table = target.chunks;
+        int c = row >>> CHUNK_BITS;
+        if (c == table.length) {
+            table = Arrays.copyOf(table, c * 2);
+        }
+        if (table[c] == null) {
+            table[c] = new Chunk();
+        }
+        Chunk chunk = table[c];
+        int i = row & CHUNK_MASK;
+
+        StringArena arena = target.arena;
+        chunk.memberId[i] = arena.add(member.getMemberId());
+        chunk.name[i] = arena.add(member.getName());
+        chunk.email[i] = arena.add(member.getEmail());
+        chunk.phone[i] = arena.add(member.getPhone());
+        chunk.emergencyContact[i] = arena.add(member.getEmergencyContact());
+        chunk.address[i] = arena.add(member.getAddress());
+        chunk.plan[i] = encode(target, plans, row, COL_PLAN, member.getPlanType());
+        chunk.status[i] = encode(target, statuses, row, COL_STATUS, member.getStatus());
+        chunk.joinDay[i] = encodeDay(target, row, COL_JOIN, member.getJoinDate());
+        chunk.expiryDay[i] = encodeDay(target, row, COL_EXPIRY, member.getExpiryDate());
+        chunk.startDay[i] = encodeDay(target, row, COL_START, member.getStartDate());
+        chunk.feeCents[i] = encodeCents(target, row, member.getMonthlyFee());
+        chunk.position[i] = position;
+
+        target.count++;
+        target.chunks = table;
+        return row;
+    }
+
+    /**
+     * Close the gaps left by tombstones that can no longer be restored
+     */
+    private void compactOrder() {
+        int n = 0;
+        for (int i = 0; i < orderSize; i++) {
+            int row = order[i];
+            if (tombstoned.get(row)) {
+                Tombstone tombstone = tombstones.get(memberIdOf(row));
+                if (tombstone == null || tombstone.row != row) {
+                    tombstoned.clear(row);
+                    continue;
+                }
+            }
+            order[n] = row;
+            rows.chunk(row).position[row & CHUNK_MASK] = n;
+            n++;
+        }
+        orderSize = n;
+        expired = 0;
+    }
+
+    private String memberIdOf(int row) {
+        return rows.arena.get(rows.chunk(row).memberId[row & CHUNK_MASK]);
+    }
+
+    private void putSlot(String memberId, int row) {
+        if ((usedSlots + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int i = spread(memberId.hashCode()) & mask;
+        while (slots[i] >= 0) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == EMPTY_SLOT) {
+            usedSlots++;
+        }
+        slots[i] = row;
+    }
+
+    private void removeSlot(int row) {
+        String memberId = memberIdOf(row);
+        int mask = slots.length - 1;
+        for (int i = spread(memberId.hashCode()) & mask; slots[i] != EMPTY_SLOT; i = (i + 1) & mask) {
+            if (slots[i] == row) {
+                slots[i] = DELETED_SLOT;
+                return;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = newSlots(Math.max(capacity, Integer.highestOneBit(Math.max(16, liveCount * 4))));
+        usedSlots = 0;
+        for (int row : old) {
+            if (row >= 0) {
+                putSlot(memberIdOf(row), row);
+            }
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] result = new int[capacity];
+        Arrays.fill(result, EMPTY_SLOT);
+        return result;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte encode(Rows target, Dictionary dictionary, int row, int column, String value) {
+        int code = dictionary.codeOf(value);
+        if (code == Dictionary.IRREGULAR) {
+            target.irregular.put(key(row, column), value);
+        }
+        return (byte) code;
+    }
+
+    private static String decode(Location source, Dictionary dictionary, int column, byte code) {
+        int c = code & 0xFF;
+        return c == Dictionary.IRREGULAR ? source.irregular(column) : dictionary.valueOf(c);
+    }
+
+    /**
+     * "yyyy-MM-dd" as an epoch day; anything else is kept verbatim
+     */
+    private static int encodeDay(Rows target, int row, int column, String value) {
+        if (value == null) {
+            return NO_DAY;
+        }
+        try {
+            LocalDate date = LocalDate.parse(value);
+            if (date.toString().equals(value)) {
+                return (int) date.toEpochDay();
+            }
+        } catch (DateTimeParseException e) {
+            // Not an ISO date; fall through
+        }
+        target.irregular.put(key(row, column), value);
+        return IRREGULAR_DAY;
+    }
+
+    private static String decodeDay(Location source, int column, int day) {
+        if (day == NO_DAY) {
+            return null;
+        }
+        if (day == IRREGULAR_DAY) {
+            return source.irregular(column);
+        }
+        return LocalDate.ofEpochDay(day).toString();
+    }
+
+    /**
+     * "85.00" as 8500 cents; anything else is kept verbatim
+     */
+    private static long encodeCents(Rows target, int row, String value) {
+        if (value == null) {
+            return NO_CENTS;
+        }
+        int dot = value.length() - 3;
+        if (dot > 0 && dot <= 15 && value.charAt(dot) == '.' && allDigits(value, 0, dot)
+                && allDigits(value, dot + 1, value.length()) && (dot == 1 || value.charAt(0) != '0')) {
+            return Long.parseLong(value.substring(0, dot)) * 100 + Long.parseLong(value.substring(dot + 1));
+        }
+        target.irregular.put(key(row, COL_FEE), value);
+        return IRREGULAR_CENTS;
+    }
+
+    private static String decodeCents(Location source, long cents) {
+        if (cents == NO_CENTS) {
+            return null;
+        }
+        if (cents == IRREGULAR_CENTS) {
+            return source.irregular(COL_FEE);
+        }
+        long fraction = cents % 100;
+        return (cents / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    private static boolean allDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 3) | column;
+    }
+
+    /**
+     * Fixed block of CHUNK_SIZE rows, one array per column
+     */
+    private static final class Chunk {
+        final int[] memberId = new int[CHUNK_SIZE];
+        final int[] name = new int[CHUNK_SIZE];
+        final int[] email = new int[CHUNK_SIZE];
+        final int[] phone = new int[CHUNK_SIZE];
+        final int[] emergencyContact = new int[CHUNK_SIZE];
+        final int[] address = new int[CHUNK_SIZE];
+        final byte[] plan = new byte[CHUNK_SIZE];
+        final byte[] status = new byte[CHUNK_SIZE];
+        final int[] joinDay = new int[CHUNK_SIZE];
+        final int[] expiryDay = new int[CHUNK_SIZE];
+        final int[] startDay = new int[CHUNK_SIZE];
+        final long[] feeCents = new long[CHUNK_SIZE];
+        // Index in the enrollment order; rewritten when the order is compacted
+        final int[] position = new int[CHUNK_SIZE];
+        // The row's view, once one has been handed out
+        final View[] views = new View[CHUNK_SIZE];
+    }
+
+    /**
+     * One generation of rows: the columns, the text they point into and
+     * the values kept verbatim
+     */
+    private static final class Rows {
+        final StringArena arena = new StringArena();
+        final Map<Long, String> irregular = new ConcurrentHashMap<>();
+        // Rows never move; the chunk table is republished when it grows
+        volatile Chunk[] chunks = new Chunk[4];
+        int count;
+
+        Chunk chunk(int row) {
+            return chunks[row >>> CHUNK_BITS];
+        }
+    }
+
+    /**
+     * Where a view reads from; replaced as a whole so readers never see a
+     * row number from one generation with the columns of another
+     */
+    private static final class Location {
+        final Rows rows;
+        final int row;
+        final Chunk chunk;
+        final int index;
+
+        Location(Rows rows, int row) {
+            this.rows = rows;
+            this.row = row;
+            this.chunk = rows.chunk(row);
+            this.index = row & CHUNK_MASK;
+        }
+
+        String text(int handle) {
+            return rows.arena.get(handle);
+        }
+
+        String irregular(int column) {
+            return rows.irregular.get(key(row, column));
+        }
+    }
+
+    private static final class Tombstone {
+        final int row;
+        final long deletedAtMillis;
+
+        Tombstone(int row, long deletedAtMillis) {
+            this.row = row;
+            this.deletedAtMillis = deletedAtMillis;
+        }
+    }
+
+    /**
+     * Up to 254 distinct values as one-byte codes; 0 is null
+     */
+    private static final class Dictionary {
+        static final int IRREGULAR = 255;
+
+        private final String[] values = new String[IRREGULAR];
+        private final Map<String, Integer> codes = new HashMap<>();
+        private int count = 1;
+
+        int codeOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (count == IRREGULAR) {
+                return IRREGULAR;
+            }
+            values[count] = value;
+            codes.put(value, count);
+            return count++;
+        }
+
+        String valueOf(int code) {
+            return values[code];
+        }
+    }
+
+    /**
+     * Flyweight member backed by one row of the store. Views are
+     * canonical, so identity is equality.
+     */
+    private final class View extends Member {
+        private volatile Location at;
+
+        View(Rows rows, int row) {
+            this.at = new Location(rows, row);
+        }
+
+        @Override public String getMemberId() { Location l = at; return l.text(l.chunk.memberId[l.index]); }
+        @Override public String getName() { Location l = at; return l.text(l.chunk.name[l.index]); }
+        @Override public String getEmail() { Location l = at; return l.text(l.chunk.email[l.index]); }
+        @Override public String getPhone() { Location l = at; return l.text(l.chunk.phone[l.index]); }
+        @Override public String getPlanType() { Location l = at; return decode(l, plans, COL_PLAN, l.chunk.plan[l.index]); }
+        @Override public String getStatus() { Location l = at; return decode(l, statuses, COL_STATUS, l.chunk.status[l.index]); }
+        @Override public String getJoinDate() { Location l = at; return decodeDay(l, COL_JOIN, l.chunk.joinDay[l.index]); }
+        @Override public String getExpiryDate() { Location l = at; return decodeDay(l, COL_EXPIRY, l.chunk.expiryDay[l.index]); }
+        @Override public String getStartDate() { Location l = at; return decodeDay(l, COL_START, l.chunk.startDay[l.index]); }
+        @Override public String getMonthlyFee() { Location l = at; return decodeCents(l, l.chunk.feeCents[l.index]); }
+        @Override public String getEmergencyContact() { Location l = at; return l.text(l.chunk.emergencyContact[l.index]); }
+        @Override public String getAddress() { Location l = at; return l.text(l.chunk.address[l.index]); }
+
+        @Override
+        public boolean equals(Object other) {
+            return other == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Block20 Gym Management System
+ * Membership Service - enrollments and renewals
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+import com.block20.models.Payment;
+import com.block20.repositories.MemberRecordRepository;
+import com.block20.repositories.PaymentRepository;
+import com.block20.services.async.AsyncExecutor;
+import com.block20.services.writebehind.AuditLog;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Saves enrollments, renewals and deletions without blocking the screen.
+ *
+ * With a database configured the member row and the payment are written
+ * there first, and the local directory only changes once both are stored.
+ * Both writes replace or ignore what is already there, so retrying a
+ * save that failed or timed out never records a payment twice. A call
+ * that timed out has already been reported as not saved, so it leaves
+ * the directory alone even if the storage writes finish late.
+ *
+ * A deleted member is marked deleted in storage before it leaves the
+ * directory, and its row is only removed once the directory purges it,
+ * so an undo still works after a restart.
+ */
+public class MembershipService {
+
+    private final MemberDirectory directory;
+    private final MemberHistory history;
+    private final MemberRecordRepository members;
+    private final PaymentRepository payments;
+    private final AsyncExecutor executor;
+    private final AuditLog audit;
+    private final boolean hasStorage;
+    private volatile boolean tablesReady;
+
+    /**
+     * @param members  null without storage, together with payments
+     * @param payments null without storage, together with members
+     * @param audit    null unless MySQL is configured
+     */
+    public MembershipService(MemberDirectory directory, MemberHistory history, MemberRecordRepository members,
+                             PaymentRepository payments, AsyncExecutor executor, AuditLog audit) {
+        this.directory = directory;
+        this.history = history;
+        this.members = members;
+        this.payments = payments;
+        this.executor = executor;
+        this.audit = audit;
+        if ((members == null) != (payments == null)) {
+            throw new IllegalArgumentException("Member and payment storage must be given together");
+        }
+        this.hasStorage = members != null;
+    }
+
+    /**
+     * Enroll a new member who has paid their first fee
+     */
+    public CompletableFuture<Member> enroll(Member member, Payment payment) {
+        return executor.submit(() -> {
+            // Enrolling the same member again is a retry; anyone else under the ID is refused
+            Optional<Member> enrolled = directory.findById(member.getMemberId());
+            if (enrolled.isPresent() && !sameDetails(enrolled.get(), member)) {
+                throw new IllegalArgumentException("Member ID already exists: " + member.getMemberId());
+            }
+            if (hasStorage) {
+                createTables();
+                Optional<Member> stored = members.findById(member.getMemberId());
+                if (stored.isPresent() && !sameDetails(stored.get(), member)) {
+                    throw new IllegalArgumentException("Member ID already exists: " + member.getMemberId());
+                }
+                members.save(member);
+                payments.save(payment);
+            }
+            if (enrolled.isPresent()) {
+                history.recordPayment(member.getMemberId(), payment.getPaidOn().toString());
+                return member;
+            }
+            stopIfTimedOut();
+            directory.enroll(member);
+            history.recordPayment(member.getMemberId(), payment.getPaidOn().toString());
+            if (audit != null) {
+                audit.record("member.enroll", member.getMemberId(),
+                    member.getPlanType() + ", paid " + payment.getAmount() + " by " + payment.getMethod());
+            }
+            return member;
+        });
+    }
+
+    /**
+     * Extend a membership that has been paid for
+     *
+     * @return the renewed member, or empty if the member is not in the
+     *         directory and only the payment was recorded
+     */
+    public CompletableFuture<Optional<Member>> renew(String memberId, String planType, LocalDate newExpiry,
+                                                     Payment payment) {
+        return executor.submit(() -> {
+            Optional<Member> renewed = directory.findById(memberId).map(current -> new Member(
+                current.getMemberId(), current.getName(), current.getEmail(), current.getPhone(), planType,
+                "Active", current.getJoinDate(), newExpiry.toString(), current.getStartDate(),
+                current.getMonthlyFee(), current.getEmergencyContact(), current.getAddress()));
+            if (hasStorage) {
+                createTables();
+                if (renewed.isPresent()) {
+                    members.save(renewed.get());
+                }
+                payments.save(payment);
+            }
+            stopIfTimedOut();
+            if (renewed.isPresent()) {
+                directory.update(renewed.get());
+                history.recordPayment(memberId, payment.getPaidOn().toString());
+            }
+            if (audit != null) {
+                audit.record("member.renew", memberId,
+                    planType + " until " + newExpiry + ", paid " + payment.getAmount() + " by " + payment.getMethod());
+            }
+            return renewed;
+        });
+    }
+
+    /**
+     * Delete a member; the deletion can be undone until the member is purged
+     *
+     * @return false if the member is not in the directory
+     */
+    public CompletableFuture<Boolean> delete(String memberId) {
+        return executor.submit(() -> {
+            Optional<Member> member = directory.findById(memberId);
+            if (!member.isPresent()) {
+                return false;
+            }
+            long deletedAt = directory.getClock().millis();
+            if (hasStorage) {
+                createTables();
+                members.markDeleted(memberId, deletedAt);
+                if (Thread.interrupted()) {
+                    members.unmarkDeleted(memberId);
+                    throw new InterruptedException("Timed out before the directory was updated");
+                }
+            }
+            if (!directory.delete(memberId, deletedAt)) {
+                if (hasStorage) {
+                    members.unmarkDeleted(memberId);
+                }
+                return false;
+            }
+            if (audit != null) {
+                audit.record("member.delete", memberId, member.get().getName());
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Undo a deletion. The directory changes first, so the member cannot
+     * be purged while its stored mark is being cleared.
+     *
+     * @return false if the member was not deleted, has been purged, or its
+     *         ID has been enrolled again
+     */
+    public CompletableFuture<Boolean> restore(String memberId) {
+        return executor.submit(() -> {
+            if (!directory.restore(memberId)) {
+                return false;
+            }
+            if (hasStorage) {
+                try {
+                    createTables();
+                    members.unmarkDeleted(memberId);
+                } catch (SQLException e) {
+                    directory.delete(memberId);
+                    throw e;
+                }
+                if (Thread.interrupted()) {
+                    // Reported as not restored, so put the deletion back, with a fresh undo window
+                    long deletedAt = directory.getClock().millis();
+                    members.markDeleted(memberId, deletedAt);
+                    directory.delete(memberId, deletedAt);
+                    throw new InterruptedException("Timed out before the member was restored");
+                }
+            }
+            if (audit != null) {
+                audit.record("member.restore", memberId, "Deletion undone");
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Remove the stored row of a member the directory has purged. A member
+     * saved again since, under the same ID, keeps its row.
+     *
+     * @return false without storage or when no row was removed
+     */
+    public CompletableFuture<Boolean> purge(String memberId) {
+        return executor.submit(() -> {
+            if (!hasStorage) {
+                return false;
+            }
+            createTables();
+            return members.purge(memberId);
+        });
+    }
+
+    private static void stopIfTimedOut() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Timed out before the directory was updated");
+        }
+    }
+
+    private static boolean sameDetails(Member a, Member b) {
+        return Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getEmail(), b.getEmail())
+            && Objects.equals(a.getPhone(), b.getPhone())
+            && Objects.equals(a.getPlanType(), b.getPlanType())
+            && Objects.equals(a.getStatus(), b.getStatus())
+            && Objects.equals(a.getJoinDate(), b.getJoinDate())
+            && Objects.equals(a.getExpiryDate(), b.getExpiryDate())
+            && Objects.equals(a.getStartDate(), b.getStartDate())
+            && Objects.equals(a.getMonthlyFee(), b.getMonthlyFee())
+            && Objects.equals(a.getEmergencyContact(), b.getEmergencyContact())
+            && Objects.equals(a.getAddress(), b.getAddress());
+    }
+
+    private void createTables() throws SQLException {
+        if (tablesReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!tablesReady) {
+                members.createTables();
+                payments.createTables();
+                tablesReady = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Block20 Gym Management System
+ * String Arena - packed storage for member text fields
+ */
+package com.block20.services.members;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only UTF-8 storage for many small strings.
+ *
+ * Each string is a two-byte length followed by its bytes inside a 64 KB
+ * page, and is referred to by an int handle (page and offset). That
+ * replaces a String object plus its backing array, about 40 bytes of
+ * overhead each, with two bytes. Pages never move once written, so
+ * readers need no lock to decode a handle they were given.
+ */
+final class StringArena {
+
+    static final int NULL = -1;
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_LENGTH = PAGE_SIZE - 2;
+
+    private volatile byte[][] pages = new byte[4][];
+    private int pageCount;
+    private int position = PAGE_SIZE;
+
+    /**
+     * Store a string and return its handle; null is stored as {@link #NULL}
+     */
+    synchronized int add(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Text too long to store: " + bytes.length + " bytes");
+        }
+        if (position + 2 + bytes.length > PAGE_SIZE) {
+            newPage();
+        }
+        byte[] page = pages[pageCount - 1];
+        int handle = ((pageCount - 1) << PAGE_BITS) | position;
+        page[position] = (byte) (bytes.length >>> 8);
+        page[position + 1] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, page, position + 2, bytes.length);
+        position += 2 + bytes.length;
+        return handle;
+    }
+
+    String get(int handle) {
+        if (handle == NULL) {
+            return null;
+        }
+        byte[] page = pages[handle >>> PAGE_BITS];
+        int offset = handle & (PAGE_SIZE - 1);
+        return new String(page, offset + 2, length(page, offset), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare a stored string with UTF-8 bytes without decoding it
+     */
+    boolean matches(int handle, byte[] utf8) {
+        if (handle == NULL) {
+            return false;
+        }
+        byte[] page = pages[handle >>> PAGE_BITS];
+        int offset = handle & (PAGE_SIZE - 1);
+        int length = length(page, offset);
+        return length == utf8.length
+            && Arrays.equals(page, offset + 2, offset + 2 + length, utf8, 0, utf8.length);
+    }
+
+    /**
+     * Bytes reserved by the arena
+     */
+    synchronized long capacityBytes() {
+        return (long) pageCount * PAGE_SIZE;
+    }
+
+    private void newPage() {
+        byte[][] current = pages;
+        if (pageCount == current.length) {
+            current = Arrays.copyOf(current, pageCount * 2);
+        }
+        current[pageCount++] = new byte[PAGE_SIZE];
+        pages = current;
+        position = 0;
+    }
+
+    private static int length(byte[] page, int offset) {
+        return ((page[offset] & 0xFF) << 8) | (page[offset + 1] & 0xFF);
+    }
+}
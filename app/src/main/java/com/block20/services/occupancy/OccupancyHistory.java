@@ -0,0 +1,228 @@
+/*
+ * Block20 Gym Management System
+ * Occupancy History - per-minute occupancy time series
+ */
+package com.block20.services.occupancy;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Occupancy over time in fixed-size primitive rings.
+ *
+ * The last 24 hours are kept per minute (the highest head count seen in
+ * that minute). Each finished minute is also folded into an hourly ring
+ * of averages that reaches back 90 days. Nothing is allocated per
+ * sample and memory stays constant however long the desk runs.
+ *
+ * A minute with no check-ins or check-outs carries the previous count
+ * forward, so only changes need to be recorded; queries bring the series
+ * up to "now" before reading it. The carried count drops to 0 at local
+ * midnight, like the journal replay: anyone who never scanned out is
+ * assumed to have left by closing time, not to be inside all night.
+ */
+public class OccupancyHistory {
+
+    public static final int MINUTES = 24 * 60;
+    public static final int HOURS = 90 * 24;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final ZoneId zone;
+
+    // Per-minute ring, indexed by epoch minute % MINUTES
+    private final int[] minuteKey = new int[MINUTES];
+    private final int[] minutePeak = new int[MINUTES];
+
+    // Per-hour ring, indexed by epoch hour % HOURS
+    private final int[] hourKey = new int[HOURS];
+    private final long[] hourMinuteSum = new long[HOURS];
+    private final int[] hourMinutes = new int[HOURS];
+
+    // Guarded by this
+    private int currentMinute = NONE;
+    private int latest;
+    // First minute of the local day after currentMinute's
+    private int nextDayMinute = NONE;
+
+    public OccupancyHistory() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * @param zone time zone whose midnight ends the carried count
+     */
+    public OccupancyHistory(ZoneId zone) {
+        this.zone = zone;
+        Arrays.fill(minuteKey, NONE);
+        Arrays.fill(hourKey, NONE);
+    }
+
+    /**
+     * Record the head count after a change. Samples are expected in time
+     * order; one older than the current minute counts towards the current
+     * minute instead.
+     */
+    public synchronized void record(long epochMillis, int occupancy) {
+        int minute = (int) (epochMillis / MILLIS_PER_MINUTE);
+        if (currentMinute == NONE) {
+            openMinute(minute, occupancy);
+        } else {
+            advanceTo(minute);
+        }
+        int slot = currentMinute % MINUTES;
+        minutePeak[slot] = Math.max(minutePeak[slot], occupancy);
+        latest = occupancy;
+    }
+
+    /**
+     * Peak head count for each of the last {@code count} minutes up to and
+     * including the current one, oldest first. Minutes before the first
+     * sample read as 0.
+     */
+    public synchronized int[] lastMinutes(long nowMillis, int count) {
+        int n = Math.min(count, MINUTES);
+        int[] result = new int[n];
+        if (currentMinute == NONE) {
+            return result;
+        }
+        advanceTo((int) (nowMillis / MILLIS_PER_MINUTE));
+        for (int i = 0; i < n; i++) {
+            int minute = currentMinute - (n - 1 - i);
+            int slot = Math.floorMod(minute, MINUTES);
+            result[i] = minuteKey[slot] == minute ? minutePeak[slot] : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Average of the per-minute peaks over the last {@code minutes} minutes
+     */
+    public double averageOccupancy(long nowMillis, int minutes) {
+        int[] window = lastMinutes(nowMillis, minutes);
+        if (window.length == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int value : window) {
+            sum += value;
+        }
+        return (double) sum / window.length;
+    }
+
+    /**
+     * Usual average occupancy for the current hour of day, taken from the
+     * same hour on each of the previous {@code days} days. Returns 0 when
+     * there is no history for that hour yet.
+     */
+    public synchronized double typicalOccupancy(long nowMillis, int days) {
+        int hour = (int) (nowMillis / MILLIS_PER_MINUTE / 60);
+        long sum = 0;
+        int minutes = 0;
+        for (int d = 1; d <= Math.min(days, HOURS / 24 - 1); d++) {
+            int slot = hourSlot(hour - d * 24);
+            if (slot >= 0) {
+                sum += hourMinuteSum[slot];
+                minutes += hourMinutes[slot];
+            }
+        }
+        return minutes == 0 ? 0 : (double) sum / minutes;
+    }
+
+    /**
+     * Hour of day (0-23) with the highest average occupancy across the
+     * given days, or -1 if none of them has data
+     */
+    public synchronized int peakHourOfDay(LocalDate from, LocalDate to, ZoneId zone, long nowMillis) {
+        if (currentMinute != NONE) {
+            advanceTo((int) (nowMillis / MILLIS_PER_MINUTE));
+        }
+        long[] sums = new long[24];
+        int[] counts = new int[24];
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            ZonedDateTime start = day.atStartOfDay(zone);
+            for (int h = 0; h < 24; h++) {
+                long millis = start.plusHours(h).toInstant().toEpochMilli();
+                int slot = hourSlot((int) (millis / MILLIS_PER_MINUTE / 60));
+                if (slot >= 0) {
+                    sums[h] += hourMinuteSum[slot];
+                    counts[h] += hourMinutes[slot];
+                }
+            }
+        }
+        int best = -1;
+        double bestAverage = 0;
+        for (int h = 0; h < 24; h++) {
+            if (counts[h] > 0) {
+                double average = (double) sums[h] / counts[h];
+                if (best < 0 || average > bestAverage) {
+                    best = h;
+                    bestAverage = average;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Close out minutes up to the target, carrying the last count forward
+     * until midnight. A gap longer than the minute ring only fills the last
+     * 24 hours.
+     */
+    private void advanceTo(int minute) {
+        if (minute <= currentMinute) {
+            return;
+        }
+        int next = Math.max(currentMinute + 1, minute - MINUTES + 1);
+        foldIntoHour(currentMinute);
+        if (next >= nextDayMinute) {
+            latest = 0;
+        }
+        for (int m = next; m <= minute; m++) {
+            if (m == nextDayMinute) {
+                latest = 0;
+            }
+            openMinute(m, latest);
+            if (m < minute) {
+                foldIntoHour(m);
+            }
+        }
+    }
+
+    private void openMinute(int minute, int opening) {
+        int slot = minute % MINUTES;
+        minuteKey[slot] = minute;
+        minutePeak[slot] = opening;
+        currentMinute = minute;
+        if (minute >= nextDayMinute) {
+            ZonedDateTime start = Instant.ofEpochSecond(minute * 60L).atZone(zone)
+                .toLocalDate().plusDays(1).atStartOfDay(zone);
+            nextDayMinute = (int) (start.toEpochSecond() / 60);
+        }
+    }
+
+    /**
+     * Add a finished minute to its hour's average
+     */
+    private void foldIntoHour(int minute) {
+        int value = minutePeak[minute % MINUTES];
+        int hour = minute / 60;
+        int slot = hour % HOURS;
+        if (hourKey[slot] != hour) {
+            hourKey[slot] = hour;
+            hourMinuteSum[slot] = 0;
+            hourMinutes[slot] = 0;
+        }
+        hourMinuteSum[slot] += value;
+        hourMinutes[slot]++;
+    }
+
+    private int hourSlot(int hour) {
+        int slot = Math.floorMod(hour, HOURS);
+        return hourKey[slot] == hour ? slot : -1;
+    }
+}
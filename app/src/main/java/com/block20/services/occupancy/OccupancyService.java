@@ -0,0 +1,96 @@
+/*
+ * Block20 Gym Management System
+ * Occupancy Service - facility-wide head count
+ */
+package com.block20.services.occupancy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One occupancy count shared by every desk, kiosk and turnstile.
+ *
+ * Check-ins and check-outs may arrive concurrently from any thread. Counts
+ * are kept in {@link LongAdder}s (one for the whole facility, one per zone)
+ * so contended increments do not serialize, and readers take snapshots
+ * without locking. Presence is tracked per member so a double scan does
+ * not count a member twice.
+ */
+public class OccupancyService {
+
+    public static final String DEFAULT_ZONE = "Front Desk";
+    public static final List<String> ZONES = Collections.unmodifiableList(
+        Arrays.asList(DEFAULT_ZONE, "Side Entrance", "Turnstile A", "Turnstile B"));
+
+    private final int capacity;
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> zoneCounts = new ConcurrentHashMap<>();
+    // memberId -> zone the member entered through
+    private final ConcurrentHashMap<String, String> present = new ConcurrentHashMap<>();
+
+    public OccupancyService(int capacity) {
+        this.capacity = capacity;
+        for (String zone : ZONES) {
+            zoneCounts.put(zone, new LongAdder());
+        }
+    }
+
+    /**
+     * Record a member entering through the given zone.
+     *
+     * @return false if the member was already inside
+     */
+    public boolean checkIn(String memberId, String zone) {
+        if (present.putIfAbsent(memberId, zone) != null) {
+            return false;
+        }
+        zoneCounts.computeIfAbsent(zone, z -> new LongAdder()).increment();
+        total.increment();
+        return true;
+    }
+
+    /**
+     * Record a member leaving. The count is taken off the zone they entered.
+     *
+     * @return false if the member was not inside
+     */
+    public boolean checkOut(String memberId) {
+        String zone = present.remove(memberId);
+        if (zone == null) {
+            return false;
+        }
+        zoneCounts.get(zone).decrement();
+        total.decrement();
+        return true;
+    }
+
+    public boolean isPresent(String memberId) {
+        return present.containsKey(memberId);
+    }
+
+    public long getCurrent() {
+        return total.sum();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Lock-free read of the current counts. Under concurrent updates the
+     * zone figures may lag the total by the events still in flight.
+     */
+    public OccupancySnapshot snapshot() {
+        Map<String, Long> byZone = new LinkedHashMap<>();
+        for (String zone : ZONES) {
+            byZone.put(zone, zoneCounts.get(zone).sum());
+        }
+        zoneCounts.forEach((zone, count) -> byZone.putIfAbsent(zone, count.sum()));
+        return new OccupancySnapshot(total.sum(), capacity, byZone, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Block20 Gym Management System
+ * Occupancy snapshot
+ */
+package com.block20.services.occupancy;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point-in-time view of facility occupancy, safe to hand to any thread
+ */
+public class OccupancySnapshot {
+    private final long current;
+    private final int capacity;
+    private final Map<String, Long> byZone;
+    private final long takenAtMillis;
+
+    public OccupancySnapshot(long current, int capacity, Map<String, Long> byZone, long takenAtMillis) {
+        this.current = current;
+        this.capacity = capacity;
+        this.byZone = Collections.unmodifiableMap(byZone);
+        this.takenAtMillis = takenAtMillis;
+    }
+
+    public long getCurrent() { return current; }
+    public int getCapacity() { return capacity; }
+    public Map<String, Long> getByZone() { return byZone; }
+    public long getTakenAtMillis() { return takenAtMillis; }
+
+    /**
+     * Fraction of capacity in use, between 0 and 1
+     */
+    public double getUtilization() {
+        if (capacity <= 0) {
+            return 0;
+        }
+        return Math.min(1.0, Math.max(0.0, (double) current / capacity));
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Block20 Gym Management System
+ * Fuzzy Name Index - typo-tolerant member name lookup
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.services.members.Compactable;
+import com.block20.services.members.MemberChangeListener;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds members by name when the spelling is off ("Jon Smyth" for John
+ * Smith).
+ *
+ * Every distinct name word is indexed SymSpell-style: all variants of its
+ * first few letters with up to two letters deleted point back to it. A
+ * query word generates its own deletions and looks them up, which yields
+ * every word within edit distance 2 after checking only a handful of
+ * candidates, instead of comparing against the whole dictionary. Words
+ * that sound alike (same Soundex key) match too, ranked below close
+ * spellings. Removed members leave unused ordinals behind until
+ * {@link #compact} renumbers the rest in the background.
+ */
+public class FuzzyNameIndex implements MemberChangeListener, Compactable {
+
+    public static final int MAX_DISTANCE = 2;
+
+    // Only the first letters generate deletions; candidates are verified on the whole word
+    private static final int PREFIX_LENGTH = 7;
+
+    // Costs per query word, lower ranks first
+    private static final int COST_PER_EDIT = 2;
+    private static final int PHONETIC_BONUS = 1;
+    private static final int COST_PHONETIC_ONLY = 5;
+
+    private static final int COMPACT_THRESHOLD = 1024;
+    private static final int CANCEL_CHECK_MASK = 0xFFF;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Name words, each with the members using it
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private List<Postings> wordMembers = new ArrayList<>();
+    private final DeletionIndex deletions = new DeletionIndex();
+    private final Map<String, Postings> phonetic = new HashMap<>();
+
+    // Replaced as a whole by compaction
+    private List<IndexedName> members = new ArrayList<>();
+    private Map<String, Integer> ordinalById = new HashMap<>();
+    private int removedCount;
+    // Members changed while a compaction is building, or null
+    private Set<String> changedDuringCompaction;
+
+    /**
+     * Index every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+        for (Member member : directory.getAll()) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        switch (event.getType()) {
+            case ENROLLED:
+            case RESTORED:
+            case UPDATED:
+                put(event.getCurrent());
+                break;
+            case DELETED:
+                remove(event.getMemberId());
+                break;
+        }
+    }
+
+    public void put(Member member) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(member.getMemberId());
+            addLocked(member.getMemberId(), member.getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String memberId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(memberId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Members whose name has a close match for every word of the query.
+     *
+     * @param limit maximum number of results, or 0 for no limit
+     * @return member IDs, closest first
+     * @throws CancellationException if the calling thread is interrupted mid-scan
+     */
+    public List<String> search(String query, int limit) {
+        List<String> queryWords = wordsOf(query);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Cost of each dictionary word, per query word
+            List<Map<Integer, Integer>> costs = new ArrayList<>();
+            for (String word : queryWords) {
+                Map<Integer, Integer> matches = matchWord(word);
+                if (matches.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                costs.add(matches);
+            }
+
+            // Members are drawn from the most selective query word and checked against the rest
+            Map<Integer, Integer> driver = costs.get(0);
+            for (Map<Integer, Integer> matches : costs) {
+                if (matches.size() < driver.size()) {
+                    driver = matches;
+                }
+            }
+            BitSet candidates = new BitSet(members.size());
+            for (int wordId : driver.keySet()) {
+                Postings postings = wordMembers.get(wordId);
+                for (int i = 0; i < postings.size; i++) {
+                    candidates.set(postings.ords[i]);
+                }
+            }
+
+            // With a limit, only the best hits so far are kept, worst at the head
+            Comparator<Hit> ranking = Comparator.<Hit>comparingInt(h -> h.cost).thenComparing(h -> h.name.nameLower);
+            PriorityQueue<Hit> best = new PriorityQueue<>(ranking.reversed());
+            List<Hit> hits = new ArrayList<>();
+            int scanned = 0;
+            for (int ord = candidates.nextSetBit(0); ord >= 0; ord = candidates.nextSetBit(ord + 1)) {
+                if ((++scanned & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Search cancelled");
+                }
+                IndexedName name = members.get(ord);
+                if (name == null) {
+                    continue;
+                }
+                int total = 0;
+                for (Map<Integer, Integer> matches : costs) {
+                    int cheapest = Integer.MAX_VALUE;
+                    for (int wordId : name.wordIds) {
+                        Integer cost = matches.get(wordId);
+                        if (cost != null && cost < cheapest) {
+                            cheapest = cost;
+                        }
+                    }
+                    if (cheapest == Integer.MAX_VALUE) {
+                        total = -1;
+                        break;
+                    }
+                    total += cheapest;
+                }
+                if (total < 0) {
+                    continue;
+                }
+                Hit hit = new Hit(name, total);
+                if (limit <= 0) {
+                    hits.add(hit);
+                } else if (best.size() < limit) {
+                    best.add(hit);
+                } else if (ranking.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            if (limit > 0) {
+                hits.addAll(best);
+            }
+            hits.sort(ranking);
+            List<String> ids = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                ids.add(hit.name.memberId);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Dictionary words within edit distance 2 of the query word, or
+     * sounding the same, with their cost
+     */
+    private Map<Integer, Integer> matchWord(String word) {
+        Map<Integer, Integer> result = new HashMap<>();
+        for (String deletion : deletionsOf(word)) {
+            deletions.forEach(hash(deletion), wordId -> {
+                if (!result.containsKey(wordId)) {
+                    int distance = distance(word, words.get(wordId), MAX_DISTANCE);
+                    if (distance <= MAX_DISTANCE) {
+                        result.put(wordId, distance * COST_PER_EDIT);
+                    }
+                }
+            });
+        }
+        Postings alike = phonetic.get(soundex(word));
+        if (alike != null) {
+            for (int i = 0; i < alike.size; i++) {
+                int wordId = alike.ords[i];
+                Integer cost = result.get(wordId);
+                result.put(wordId, cost == null ? COST_PHONETIC_ONLY : Math.max(0, cost - PHONETIC_BONUS));
+            }
+        }
+        return result;
+    }
+
+    private void addLocked(String memberId, String name) {
+        int ord = members.size();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String word : wordsOf(name)) {
+            ids.add(wordIdLocked(word));
+        }
+        int[] memberWords = new int[ids.size()];
+        int n = 0;
+        for (int wordId : ids) {
+            memberWords[n++] = wordId;
+            wordMembers.get(wordId).add(ord);
+        }
+        members.add(new IndexedName(memberId, name == null ? "" : name.toLowerCase(Locale.ROOT), memberWords));
+        ordinalById.put(memberId, ord);
+        if (changedDuringCompaction != null) {
+            changedDuringCompaction.add(memberId);
+        }
+    }
+
+    private int wordIdLocked(String word) {
+        Integer existing = wordIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int wordId = words.size();
+        words.add(word);
+        wordMembers.add(new Postings());
+        wordIds.put(word, wordId);
+        for (String deletion : deletionsOf(word)) {
+            deletions.add(hash(deletion), wordId);
+        }
+        phonetic.computeIfAbsent(soundex(word), k -> new Postings()).add(wordId);
+        return wordId;
+    }
+
+    private void removeLocked(String memberId) {
+        Integer ord = ordinalById.remove(memberId);
+        if (ord != null) {
+            // Word postings keep the stale ordinal; lookups skip null entries
+            members.set(ord, null);
+            removedCount++;
+            if (changedDuringCompaction != null) {
+                changedDuringCompaction.add(memberId);
+            }
+        }
+    }
+
+    /**
+     * Re-number live members once enough ordinals are unused. The word
+     * dictionary is kept; only the word-to-member postings are rebuilt,
+     * and members changed meanwhile are re-applied before the swap.
+     */
+    @Override
+    public synchronized boolean compact() {
+        List<IndexedName> live;
+        int wordCount;
+        lock.readLock().lock();
+        try {
+            if (removedCount <= COMPACT_THRESHOLD || removedCount <= members.size() / 2) {
+                return false;
+            }
+            live = new ArrayList<>(ordinalById.size());
+            for (IndexedName name : members) {
+                if (name != null) {
+                    live.add(name);
+                }
+            }
+            wordCount = wordMembers.size();
+            changedDuringCompaction = new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<IndexedName> newMembers = new ArrayList<>(live.size());
+        Map<String, Integer> newOrdinals = new HashMap<>();
+        List<Postings> newWordMembers = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            newWordMembers.add(new Postings());
+        }
+        for (IndexedName name : live) {
+            add(name, newMembers, newOrdinals, newWordMembers);
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Words first seen while building
+            for (int i = wordCount; i < wordMembers.size(); i++) {
+                newWordMembers.add(new Postings());
+            }
+            int removed = 0;
+            for (String memberId : changedDuringCompaction) {
+                Integer stale = newOrdinals.remove(memberId);
+                if (stale != null) {
+                    newMembers.set(stale, null);
+                    removed++;
+                }
+                Integer ord = ordinalById.get(memberId);
+                if (ord != null) {
+                    add(members.get(ord), newMembers, newOrdinals, newWordMembers);
+                }
+            }
+            changedDuringCompaction = null;
+            members = newMembers;
+            ordinalById = newOrdinals;
+            wordMembers = newWordMembers;
+            removedCount = removed;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void add(IndexedName name, List<IndexedName> members, Map<String, Integer> ordinalById,
+                            List<Postings> wordMembers) {
+        int ord = members.size();
+        members.add(name);
+        ordinalById.put(name.memberId, ord);
+        for (int wordId : name.wordIds) {
+            wordMembers.get(wordId).add(ord);
+        }
+    }
+
+    private static List<String> wordsOf(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}']+")) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The word's prefix with every combination of up to two letters removed
+     */
+    static Set<String> deletionsOf(String word) {
+        Set<String> result = new HashSet<>();
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        result.add(prefix);
+        addDeletions(prefix, MAX_DISTANCE, result);
+        return result;
+    }
+
+    private static void addDeletions(String word, int remaining, Set<String> out) {
+        if (remaining == 0 || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String shorter = word.substring(0, i) + word.substring(i + 1);
+            if (out.add(shorter)) {
+                addDeletions(shorter, remaining - 1, out);
+            }
+        }
+    }
+
+    /**
+     * Edit distance with adjacent transpositions counted as one edit.
+     * Returns {@code max + 1} as soon as the distance must exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * American Soundex: first letter plus three digits for the consonant sounds
+     */
+    static String soundex(String word) {
+        char[] code = {'0', '0', '0', '0'};
+        int n = 0;
+        char last = 0;
+        for (int i = 0; i < word.length() && n < 4; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = soundexDigit(c);
+            if (n == 0) {
+                code[n++] = Character.toUpperCase(c);
+            } else if (digit != '0' && digit != last) {
+                code[n++] = digit;
+            }
+            // h and w do not separate letters with the same code; vowels do
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        return new String(code);
+    }
+
+    private static char soundexDigit(char c) {
+        switch (c) {
+            case 'b': case 'f': case 'p': case 'v':
+                return '1';
+            case 'c': case 'g': case 'j': case 'k': case 'q': case 's': case 'x': case 'z':
+                return '2';
+            case 'd': case 't':
+                return '3';
+            case 'l':
+                return '4';
+            case 'm': case 'n':
+                return '5';
+            case 'r':
+                return '6';
+            default:
+                return '0';
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a; a collision only costs one extra distance check
+     */
+    private static long hash(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    private static final class IndexedName {
+        final String memberId;
+        final String nameLower;
+        final int[] wordIds;
+
+        IndexedName(String memberId, String nameLower, int[] wordIds) {
+            this.memberId = memberId;
+            this.nameLower = nameLower;
+            this.wordIds = wordIds;
+        }
+    }
+
+    private static final class Hit {
+        final IndexedName name;
+        final int cost;
+
+        Hit(IndexedName name, int cost) {
+            this.name = name;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Growable list of ints
+     */
+    private static final class Postings {
+        int[] ords = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+            }
+            ords[size++] = value;
+        }
+    }
+
+    /**
+     * Multimap from deletion hash to word IDs in flat arrays: an
+     * open-addressing table of list heads plus one shared entry pool,
+     * instead of a String key and a list object per deletion
+     */
+    private static final class DeletionIndex {
+        private long[] keys = new long[1024];
+        private int[] heads = new int[1024];
+        private int used;
+
+        private int[] entryWord = new int[1024];
+        private int[] entryNext = new int[1024];
+        private int entries;
+
+        void add(long hash, int wordId) {
+            if ((used + 1) * 2 > keys.length) {
+                grow();
+            }
+            int slot = slotOf(hash);
+            if (keys[slot] == 0) {
+                keys[slot] = hash;
+                heads[slot] = -1;
+                used++;
+            }
+            if (entries == entryWord.length) {
+                entryWord = Arrays.copyOf(entryWord, entries * 2);
+                entryNext = Arrays.copyOf(entryNext, entries * 2);
+            }
+            entryWord[entries] = wordId;
+            entryNext[entries] = heads[slot];
+            heads[slot] = entries++;
+        }
+
+        void forEach(long hash, IntConsumer action) {
+            int slot = slotOf(hash);
+            if (keys[slot] == 0) {
+                return;
+            }
+            for (int e = heads[slot]; e >= 0; e = entryNext[e]) {
+                action.accept(entryWord[e]);
+            }
+        }
+
+        private int slotOf(long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (keys[slot] != 0 && keys[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = new long[oldKeys.length * 2];
+            heads = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slotOf(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+    }
+}
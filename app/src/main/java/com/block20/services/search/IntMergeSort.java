@@ -0,0 +1,143 @@
+/*
+ * Block20 Gym Management System
+ * Int Merge Sort - stable sort of ordinals
+ */
+package com.block20.services.search;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of an int array, so a permutation of member ordinals
+ * can be sorted without boxing.
+ *
+ * Each value travels with a long key that is compared first, as unsigned,
+ * and the caller's comparator is only asked when two keys are equal.
+ * Keys sit next to each other in memory, so most comparisons never touch
+ * the per-ordinal data the comparator reads. Halves larger than
+ * {@value #PARALLEL_THRESHOLD} elements are sorted on the common
+ * fork-join pool.
+ */
+final class IntMergeSort {
+
+    @FunctionalInterface
+    interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private static final int INSERTION_THRESHOLD = 32;
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private IntMergeSort() {
+    }
+
+    /**
+     * @param values sorted in place
+     * @param keys   the key of each value, permuted along with it
+     * @param ties   order of values whose keys are equal
+     */
+    static void sort(int[] values, long[] keys, IntComparator ties) {
+        if (values.length < 2) {
+            return;
+        }
+        int[] valueBuffer = values.clone();
+        long[] keyBuffer = keys.clone();
+        if (values.length <= PARALLEL_THRESHOLD) {
+            mergeSort(valueBuffer, keyBuffer, values, keys, 0, values.length, ties);
+        } else {
+            new Split(valueBuffer, keyBuffer, values, keys, 0, values.length, ties).invoke();
+        }
+    }
+
+    /**
+     * Sort src[from, to) into dst[from, to). Both ranges start with the
+     * same contents; the halves are sorted into src, then merged into dst.
+     */
+    private static void mergeSort(int[] src, long[] srcKeys, int[] dst, long[] dstKeys, int from, int to,
+                                  IntComparator ties) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dstKeys, from, to, ties);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dst, dstKeys, src, srcKeys, from, mid, ties);
+        mergeSort(dst, dstKeys, src, srcKeys, mid, to, ties);
+        merge(src, srcKeys, dst, dstKeys, from, mid, to, ties);
+    }
+
+    private static void merge(int[] src, long[] srcKeys, int[] dst, long[] dstKeys, int from, int mid, int to,
+                              IntComparator ties) {
+        // Already in order, as with a list that was sorted before a small change
+        if (compare(srcKeys[mid - 1], src[mid - 1], srcKeys[mid], src[mid], ties) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            System.arraycopy(srcKeys, from, dstKeys, from, to - from);
+            return;
+        }
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            // Ties take the left element, which keeps the sort stable
+            if (right >= to || left < mid && compare(srcKeys[left], src[left], srcKeys[right], src[right], ties) <= 0) {
+                dstKeys[i] = srcKeys[left];
+                dst[i] = src[left++];
+            } else {
+                dstKeys[i] = srcKeys[right];
+                dst[i] = src[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(int[] values, long[] keys, int from, int to, IntComparator ties) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= from && compare(keys[j], values[j], key, value, ties) > 0) {
+                values[j + 1] = values[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            values[j + 1] = value;
+            keys[j + 1] = key;
+        }
+    }
+
+    private static int compare(long keyA, int a, long keyB, int b, IntComparator ties) {
+        int c = Long.compareUnsigned(keyA, keyB);
+        return c != 0 ? c : ties.compare(a, b);
+    }
+
+    private static final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final long[] srcKeys;
+        private final int[] dst;
+        private final long[] dstKeys;
+        private final int from;
+        private final int to;
+        // Tasks only live for one sort and are never serialized
+        private final transient IntComparator ties;
+
+        Split(int[] src, long[] srcKeys, int[] dst, long[] dstKeys, int from, int to, IntComparator ties) {
+            this.src = src;
+            this.srcKeys = srcKeys;
+            this.dst = dst;
+            this.dstKeys = dstKeys;
+            this.from = from;
+            this.to = to;
+            this.ties = ties;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                mergeSort(src, srcKeys, dst, dstKeys, from, to, ties);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Split(dst, dstKeys, src, srcKeys, from, mid, ties),
+                new Split(dst, dstKeys, src, srcKeys, mid, to, ties));
+            merge(src, srcKeys, dst, dstKeys, from, mid, to, ties);
+        }
+    }
+}
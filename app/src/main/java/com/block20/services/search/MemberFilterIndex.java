@@ -0,0 +1,359 @@
+/*
+ * Block20 Gym Management System
+ * Member Filter Index - bitmap indexes for the registry filters
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.services.members.Compactable;
+import com.block20.services.members.MemberChangeListener;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of member ordinals keyed by status, plan type and
+ * expiry month.
+ *
+ * A filter combination is answered with bitmap operations instead of a
+ * scan: values within one filter are ORed (e.g. the months in an expiry
+ * range) and the filters are ANDed together. Ordinals follow enrollment
+ * order and stay put when a member is edited, so walking a result bitmap
+ * lists members in the same order as the directory. Removed members leave
+ * unused ordinals behind until {@link #compact} renumbers the rest, which
+ * keeps their order.
+ */
+public class MemberFilterIndex implements MemberChangeListener, Compactable {
+
+    // Renumber once this many removed ordinals have piled up
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; replaced as a whole by compaction
+    private Tables tables = new Tables();
+    // Members changed while a compaction is building, or null
+    private Set<String> changedDuringCompaction;
+
+    /**
+     * Index every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+        for (Member member : directory.getAll()) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        switch (event.getType()) {
+            case ENROLLED:
+            case RESTORED:
+            case UPDATED:
+                put(event.getCurrent());
+                break;
+            case DELETED:
+                remove(event.getMemberId());
+                break;
+        }
+    }
+
+    /**
+     * Add or re-index a member, keeping its ordinal if already known
+     */
+    public void put(Member member) {
+        lock.writeLock().lock();
+        try {
+            tables.put(member);
+            noteChange(member.getMemberId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String memberId) {
+        lock.writeLock().lock();
+        try {
+            tables.remove(memberId);
+            noteChange(memberId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Renumber the live members densely once enough ordinals are unused.
+     * The new bitmaps are built from a snapshot; members changed meanwhile
+     * are re-applied when they are swapped in.
+     */
+    @Override
+    public synchronized boolean compact() {
+        List<Member> live;
+        lock.readLock().lock();
+        try {
+            int unused = tables.members.size() - tables.ordinalById.size();
+            if (unused <= COMPACT_THRESHOLD || unused <= tables.members.size() / 2) {
+                return false;
+            }
+            live = new ArrayList<>(tables.ordinalById.size());
+            for (Member member : tables.members) {
+                if (member != null) {
+                    live.add(member);
+                }
+            }
+            changedDuringCompaction = new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Tables rebuilt = new Tables();
+        for (Member member : live) {
+            rebuilt.put(member);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String memberId : changedDuringCompaction) {
+                Integer ord = tables.ordinalById.get(memberId);
+                if (ord != null) {
+                    rebuilt.put(tables.members.get(ord));
+                } else {
+                    rebuilt.remove(memberId);
+                }
+            }
+            changedDuringCompaction = null;
+            tables = rebuilt;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Members matching every given filter. An empty collection or null
+     * bound leaves that filter open. The ordinals are only meaningful
+     * until the next compaction; read members through the methods that
+     * take the filters, which select and read under one lock.
+     *
+     * @param statuses  any of these statuses
+     * @param plans     any of these plan types
+     * @param expiresFrom first expiry month to include, or null
+     * @param expiresTo   last expiry month to include, or null
+     * @return a new bitmap of member ordinals, owned by the caller
+     */
+    public CompressedBitmap select(Collection<String> statuses, Collection<String> plans,
+                                   YearMonth expiresFrom, YearMonth expiresTo) {
+        lock.readLock().lock();
+        try {
+            return tables.select(statuses, plans, expiresFrom, expiresTo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The members matching every given filter, in enrollment order
+     */
+    public List<Member> members(Collection<String> statuses, Collection<String> plans,
+                                YearMonth expiresFrom, YearMonth expiresTo) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap selection = tables.select(statuses, plans, expiresFrom, expiresTo);
+            List<Member> result = new ArrayList<>(selection.cardinality());
+            selection.forEach(ord -> {
+                Member member = tables.members.get(ord);
+                if (member != null) {
+                    result.add(member);
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The members with the given IDs that also match every filter, in the
+     * order of the IDs (e.g. search rank)
+     */
+    public List<Member> retain(List<String> memberIds, Collection<String> statuses, Collection<String> plans,
+                               YearMonth expiresFrom, YearMonth expiresTo) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap selection = tables.select(statuses, plans, expiresFrom, expiresTo);
+            List<Member> result = new ArrayList<>();
+            for (String memberId : memberIds) {
+                Integer ord = tables.ordinalById.get(memberId);
+                if (ord != null && selection.contains(ord)) {
+                    result.add(tables.members.get(ord));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tables.ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals in use, including the ones removed members left behind
+     */
+    public int ordinalCount() {
+        lock.readLock().lock();
+        try {
+            return tables.members.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void noteChange(String memberId) {
+        if (changedDuringCompaction != null) {
+            changedDuringCompaction.add(memberId);
+        }
+    }
+
+    /**
+     * AND with the selection so far; null means nothing has narrowed it yet
+     */
+    private static CompressedBitmap intersect(CompressedBitmap sofar, CompressedBitmap next) {
+        return sofar == null ? next : CompressedBitmap.and(sofar, next);
+    }
+
+    private static <K> CompressedBitmap union(Map<K, CompressedBitmap> index, Collection<K> keys) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (K key : keys) {
+            CompressedBitmap bitmap = index.get(key);
+            if (bitmap != null) {
+                result = CompressedBitmap.or(result, bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static <K> CompressedBitmap bitmapFor(Map<K, CompressedBitmap> index, K key) {
+        return index.computeIfAbsent(key, k -> new CompressedBitmap());
+    }
+
+    private static <K> void clear(Map<K, CompressedBitmap> index, K key, int ord) {
+        CompressedBitmap bitmap = index.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ord);
+            if (bitmap.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Month of a "yyyy-MM-dd" expiry date, or null if missing or malformed
+     */
+    private static YearMonth expiryMonth(Member member) {
+        String date = member.getExpiryDate();
+        if (date == null || date.length() < 7) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(date.substring(0, 7));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One generation of ordinals and the bitmaps over them
+     */
+    private static final class Tables {
+        final List<Member> members = new ArrayList<>();
+        final Map<String, Integer> ordinalById = new HashMap<>();
+        final CompressedBitmap all = new CompressedBitmap();
+        final Map<String, CompressedBitmap> byStatus = new HashMap<>();
+        final Map<String, CompressedBitmap> byPlan = new HashMap<>();
+        final NavigableMap<YearMonth, CompressedBitmap> byExpiryMonth = new TreeMap<>();
+
+        void put(Member member) {
+            Integer existing = ordinalById.get(member.getMemberId());
+            int ord;
+            if (existing != null) {
+                ord = existing;
+                unindex(ord, members.get(ord));
+                members.set(ord, member);
+            } else {
+                ord = members.size();
+                members.add(member);
+                ordinalById.put(member.getMemberId(), ord);
+            }
+            all.add(ord);
+            bitmapFor(byStatus, member.getStatus()).add(ord);
+            bitmapFor(byPlan, member.getPlanType()).add(ord);
+            YearMonth month = expiryMonth(member);
+            if (month != null) {
+                bitmapFor(byExpiryMonth, month).add(ord);
+            }
+        }
+
+        void remove(String memberId) {
+            Integer ord = ordinalById.remove(memberId);
+            if (ord != null) {
+                // The ordinal is left unused so the others keep their order
+                unindex(ord, members.get(ord));
+                members.set(ord, null);
+            }
+        }
+
+        CompressedBitmap select(Collection<String> statuses, Collection<String> plans,
+                                YearMonth expiresFrom, YearMonth expiresTo) {
+            CompressedBitmap result = null;
+            if (!statuses.isEmpty()) {
+                result = intersect(result, union(byStatus, statuses));
+            }
+            if (!plans.isEmpty()) {
+                result = intersect(result, union(byPlan, plans));
+            }
+            if (expiresFrom != null || expiresTo != null) {
+                NavigableMap<YearMonth, CompressedBitmap> range = byExpiryMonth;
+                if (expiresFrom != null) {
+                    range = range.tailMap(expiresFrom, true);
+                }
+                if (expiresTo != null) {
+                    range = range.headMap(expiresTo, true);
+                }
+                result = intersect(result, union(range, range.keySet()));
+            }
+            if (result == null) {
+                result = all.copy();
+            }
+            return result;
+        }
+
+        private void unindex(int ord, Member member) {
+            all.remove(ord);
+            clear(byStatus, member.getStatus(), ord);
+            clear(byPlan, member.getPlanType(), ord);
+            YearMonth month = expiryMonth(member);
+            if (month != null) {
+                clear(byExpiryMonth, month, ord);
+            }
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Block20 Gym Management System
+ * Member Search Index
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.services.members.Compactable;
+import com.block20.services.members.MemberChangeListener;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory search index over member ID, name, email and phone.
+ *
+ * Every indexed member gets an ordinal. Whole terms (name words, email
+ * parts, phone digits, the ID) go into a sorted term dictionary so prefix
+ * queries are a range scan, and every field is also split into trigrams so
+ * "contains" queries only verify a handful of candidates instead of
+ * scanning the whole membership. The index follows the member directory
+ * and updates incrementally on every enrollment, edit and deletion.
+ * Removed members leave unused ordinals behind until {@link #compact}
+ * renumbers the rest in the background.
+ */
+public class MemberSearchIndex implements MemberChangeListener, Compactable {
+
+    private static final int GRAM_SIZE = 3;
+
+    // Ranking weights, highest wins per query term
+    private static final int SCORE_ID_EXACT = 100;
+    private static final int SCORE_TERM_EXACT = 60;
+    private static final int SCORE_TERM_PREFIX = 40;
+    private static final int SCORE_SUBSTRING = 15;
+
+    // Rebuild once this many removed ordinals have piled up
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    // Check for interruption every 4096 candidates
+    private static final int CANCEL_CHECK_MASK = 0xFFF;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; replaced as a whole by compaction
+    private List<IndexedMember> docs = new ArrayList<>();
+    private Map<String, Integer> ordinalById = new HashMap<>();
+    private NavigableMap<String, Postings> terms = new TreeMap<>();
+    private Map<String, Postings> grams = new HashMap<>();
+    private int removedCount;
+    // Members changed while a compaction is building, or null
+    private Set<String> changedDuringCompaction;
+
+    /**
+     * Index every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+        for (Member member : directory.getAll()) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        switch (event.getType()) {
+            case ENROLLED:
+            case RESTORED:
+            case UPDATED:
+                put(event.getCurrent());
+                break;
+            case DELETED:
+                remove(event.getMemberId());
+                break;
+        }
+    }
+
+    /**
+     * Add or re-index a member
+     */
+    public void put(Member member) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(member.getMemberId());
+            addLocked(new IndexedMember(member));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String memberId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(memberId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index the live members densely once enough ordinals are unused.
+     * Documents are reused, so only the postings are rebuilt; members
+     * changed meanwhile are re-applied when the new postings are swapped in.
+     */
+    @Override
+    public synchronized boolean compact() {
+        List<IndexedMember> live;
+        lock.readLock().lock();
+        try {
+            if (removedCount <= COMPACT_THRESHOLD || removedCount <= docs.size() / 2) {
+                return false;
+            }
+            live = new ArrayList<>(ordinalById.size());
+            for (IndexedMember doc : docs) {
+                if (doc != null) {
+                    live.add(doc);
+                }
+            }
+            changedDuringCompaction = new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<IndexedMember> newDocs = new ArrayList<>(live.size());
+        Map<String, Integer> newOrdinals = new HashMap<>();
+        NavigableMap<String, Postings> newTerms = new TreeMap<>();
+        Map<String, Postings> newGrams = new HashMap<>();
+        for (IndexedMember doc : live) {
+            add(doc, newDocs, newOrdinals, newTerms, newGrams);
+        }
+
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (String memberId : changedDuringCompaction) {
+                Integer stale = newOrdinals.remove(memberId);
+                if (stale != null) {
+                    newDocs.set(stale, null);
+                    removed++;
+                }
+                Integer ord = ordinalById.get(memberId);
+                if (ord != null) {
+                    add(docs.get(ord), newDocs, newOrdinals, newTerms, newGrams);
+                }
+            }
+            changedDuringCompaction = null;
+            docs = newDocs;
+            ordinalById = newOrdinals;
+            terms = newTerms;
+            grams = newGrams;
+            removedCount = removed;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Member already using this email address, ignoring case
+     */
+    public Optional<String> findByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        return findExact(key, doc -> doc.emailLower);
+    }
+
+    /**
+     * Member already using this phone number, ignoring punctuation
+     */
+    public Optional<String> findByPhone(String phone) {
+        String key = phone == null ? null : phoneDigits(phone.trim());
+        if (key == null) {
+            return Optional.empty();
+        }
+        return findExact(key, doc -> doc.phoneDigits);
+    }
+
+    private Optional<String> findExact(String key, Function<IndexedMember, String> field) {
+        lock.readLock().lock();
+        try {
+            // Whole emails and phone digits are dictionary terms; the field check rules out name words
+            Postings postings = terms.get(key);
+            if (postings != null) {
+                for (int i = 0; i < postings.size; i++) {
+                    IndexedMember doc = docs.get(postings.ords[i]);
+                    if (doc != null && field.apply(doc).equals(key)) {
+                        return Optional.of(doc.memberId);
+                    }
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find members matching every word of the query.
+     *
+     * @param query free text: member ID, name, email or phone fragments
+     * @param limit maximum number of results, or 0 for no limit
+     * @return member IDs, best match first
+     * @throws CancellationException if the calling thread is interrupted mid-scan
+     */
+    public List<String> search(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<QueryTerm> queryTerms = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            queryTerms.add(new QueryTerm(word));
+        }
+        // The longest word is usually the most selective, so it drives the lookup
+        queryTerms.sort((a, b) -> Integer.compare(b.text.length(), a.text.length()));
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidatesFor(queryTerms.get(0));
+            List<Hit> hits = new ArrayList<>();
+            int scanned = 0;
+            for (int ord = candidates.nextSetBit(0); ord >= 0; ord = candidates.nextSetBit(ord + 1)) {
+                // Superseded searches are interrupted; give up rather than finish a stale scan
+                if ((++scanned & CANCEL_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Search cancelled");
+                }
+                IndexedMember doc = docs.get(ord);
+                if (doc == null) {
+                    continue;
+                }
+                int total = 0;
+                for (QueryTerm term : queryTerms) {
+                    int score = doc.score(term);
+                    if (score == 0) {
+                        total = 0;
+                        break;
+                    }
+                    total += score;
+                }
+                if (total > 0) {
+                    hits.add(new Hit(doc, total));
+                }
+            }
+            return rank(hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals that may match the term: dictionary prefix hits plus
+     * trigram hits. Trigram hits are verified later when scoring.
+     */
+    private BitSet candidatesFor(QueryTerm term) {
+        BitSet result = new BitSet(docs.size());
+        for (String variant : term.variants()) {
+            for (Postings postings : terms.subMap(variant, true, variant + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    result.set(postings.ords[i]);
+                }
+            }
+            if (variant.length() >= GRAM_SIZE) {
+                for (int ord : gramCandidates(variant)) {
+                    result.set(ord);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] gramCandidates(String text) {
+        List<Postings> lists = new ArrayList<>();
+        for (String gram : gramsOf(text)) {
+            Postings postings = grams.get(gram);
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).ords, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] sorted, Postings postings) {
+        int[] out = new int[Math.min(sorted.length, postings.size)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < postings.size) {
+            int a = sorted[i];
+            int b = postings.ords[j];
+            if (a == b) {
+                out[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static List<String> rank(List<Hit> hits, int limit) {
+        Comparator<Hit> order = (a, b) -> {
+            int byScore = Integer.compare(b.score, a.score);
+            return byScore != 0 ? byScore : a.doc.nameLower.compareTo(b.doc.nameLower);
+        };
+
+        List<Hit> top;
+        if (limit > 0 && hits.size() > limit) {
+            // Keep only the best `limit` hits instead of sorting everything
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, order.reversed());
+            for (Hit hit : hits) {
+                heap.offer(hit);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            top = new ArrayList<>(heap);
+        } else {
+            top = hits;
+        }
+        top.sort(order);
+
+        List<String> ids = new ArrayList<>(top.size());
+        for (Hit hit : top) {
+            ids.add(hit.doc.memberId);
+        }
+        return ids;
+    }
+
+    private void addLocked(IndexedMember doc) {
+        add(doc, docs, ordinalById, terms, grams);
+        if (changedDuringCompaction != null) {
+            changedDuringCompaction.add(doc.memberId);
+        }
+    }
+
+    private static void add(IndexedMember doc, List<IndexedMember> docs, Map<String, Integer> ordinalById,
+                            NavigableMap<String, Postings> terms, Map<String, Postings> grams) {
+        int ord = docs.size();
+        docs.add(doc);
+        ordinalById.put(doc.memberId, ord);
+
+        for (String term : doc.terms()) {
+            terms.computeIfAbsent(term, k -> new Postings()).add(ord);
+        }
+        Set<String> docGrams = new LinkedHashSet<>();
+        for (String field : doc.fields()) {
+            docGrams.addAll(gramsOf(field));
+        }
+        for (String gram : docGrams) {
+            grams.computeIfAbsent(gram, k -> new Postings()).add(ord);
+        }
+    }
+
+    private void removeLocked(String memberId) {
+        Integer ord = ordinalById.remove(memberId);
+        if (ord != null) {
+            // Postings keep the stale ordinal; lookups skip null docs
+            docs.set(ord, null);
+            removedCount++;
+            if (changedDuringCompaction != null) {
+                changedDuringCompaction.add(memberId);
+            }
+        }
+    }
+
+    private static List<String> gramsOf(String text) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+
+    /**
+     * Digits of a phone-like query ("555-0101" becomes "5550101"), or null
+     */
+    private static String phoneDigits(String term) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            } else if ("-()+. ".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        return digits.length() > 0 ? digits.toString() : null;
+    }
+
+    /**
+     * Normalized, searchable copy of a member's identifying fields
+     */
+    private static final class IndexedMember {
+        final String memberId;
+        final String idLower;
+        final String nameLower;
+        final String emailLower;
+        final String phoneDigits;
+        final String[] tokens;
+
+        IndexedMember(Member member) {
+            this.memberId = member.getMemberId();
+            this.idLower = memberId.toLowerCase(Locale.ROOT);
+            this.nameLower = safeLower(member.getName());
+            this.emailLower = safeLower(member.getEmail());
+            String digits = phoneDigits(safeLower(member.getPhone()));
+            this.phoneDigits = digits != null ? digits : "";
+            this.tokens = terms().toArray(new String[0]);
+        }
+
+        List<String> fields() {
+            return Arrays.asList(idLower, nameLower, emailLower, phoneDigits);
+        }
+
+        Set<String> terms() {
+            Set<String> result = new LinkedHashSet<>();
+            result.add(idLower);
+            addTokens(result, nameLower.split("[^\\p{L}\\p{N}']+"));
+            if (!emailLower.isEmpty()) {
+                result.add(emailLower);
+                addTokens(result, emailLower.split("[@._+\\-]+"));
+            }
+            if (!phoneDigits.isEmpty()) {
+                result.add(phoneDigits);
+            }
+            return result;
+        }
+
+        /**
+         * Best score for one query word against this member, 0 if it does not match
+         */
+        int score(QueryTerm term) {
+            if (idLower.equals(term.text)) {
+                return SCORE_ID_EXACT;
+            }
+            int best = 0;
+            for (String variant : term.variants()) {
+                for (String token : tokens) {
+                    if (token.equals(variant)) {
+                        return SCORE_TERM_EXACT;
+                    }
+                    if (token.startsWith(variant)) {
+                        best = Math.max(best, SCORE_TERM_PREFIX + (variant.length() * 10) / token.length());
+                    }
+                }
+                if (best == 0 && variant.length() >= GRAM_SIZE && contains(variant)) {
+                    best = SCORE_SUBSTRING;
+                }
+            }
+            return best;
+        }
+
+        boolean contains(String text) {
+            return idLower.contains(text) || nameLower.contains(text)
+                || emailLower.contains(text) || phoneDigits.contains(text);
+        }
+
+        private static void addTokens(Set<String> target, String[] tokens) {
+            for (String token : tokens) {
+                if (!token.isEmpty()) {
+                    target.add(token);
+                }
+            }
+        }
+
+        private static String safeLower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * One word of a query, plus its digits-only form for phone numbers
+     */
+    private static final class QueryTerm {
+        final String text;
+        final String digits;
+
+        QueryTerm(String text) {
+            this.text = text;
+            this.digits = phoneDigits(text);
+        }
+
+        List<String> variants() {
+            if (digits == null || digits.equals(text)) {
+                return Collections.singletonList(text);
+            }
+            return Arrays.asList(text, digits);
+        }
+    }
+
+    private static final class Hit {
+        final IndexedMember doc;
+        final int score;
+
+        Hit(IndexedMember doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Growable, ascending list of member ordinals
+     */
+    private static final class Postings {
+        int[] ords = new int[4];
+        int size;
+
+        void add(int ord) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+            }
+            ords[size++] = ord;
+        }
+    }
+}
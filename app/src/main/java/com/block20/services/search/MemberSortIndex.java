@@ -0,0 +1,722 @@
+/*
+ * Block20 Gym Management System
+ * Member Sort Index - precomputed sort keys and cached member orders
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.repositories.MemberSortField;
+import com.block20.services.members.Compactable;
+import com.block20.services.members.MemberChangeListener;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Collator;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorts members by one or more columns using keys worked out in advance.
+ *
+ * Text columns are ordered by the locale's collator, ignoring case and
+ * accents, and each value's collation key is computed once and kept as
+ * bytes, so a comparison is a byte compare (usually decided by an 8-byte
+ * prefix) instead of a collator call. Member IDs are codes rather than
+ * words and sort by their characters. Date columns are kept as epoch
+ * days. A column's keys are built the first time it is sorted on and
+ * then follow member changes.
+ *
+ * Sorts are stable and break remaining ties by member ID, and run as a
+ * parallel merge sort over member ordinals that carries each one's key
+ * prefix for the first column alongside it. The last few full orders are
+ * cached until a member changes; narrowing one down to a filter's
+ * matches is then a single pass instead of another sort.
+ */
+public class MemberSortIndex implements MemberChangeListener, Compactable {
+
+    private static final int CACHED_ORDERS = 4;
+    private static final int COMPACT_THRESHOLD = 1024;
+    private static final int RECENT_KEYS = 256;
+    private static final long NO_DAY = Long.MAX_VALUE;
+    private static final SortColumn ID_ORDER = new SortColumn(MemberSortField.MEMBER_ID, true);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Collator collator;
+
+    // Guarded by lock. A member's ordinal changes on every edit, so the
+    // member and keys stored at an ordinal never change once written and
+    // sorted snapshots stay valid after later changes.
+    private Member[] members = new Member[16];
+    private int ordinals;
+    private int holes;
+    private final BitSet live = new BitSet();
+    private Map<String, Integer> ordinalById = new HashMap<>();
+    private final Column[] columns = new Column[MemberSortField.values().length];
+
+    // Guarded by itself; cleared under the write lock
+    private final Map<List<SortColumn>, SortedMembers> sorted =
+        new LinkedHashMap<List<SortColumn>, SortedMembers>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<SortColumn>, SortedMembers> eldest) {
+                return size() > CACHED_ORDERS;
+            }
+        };
+
+    public MemberSortIndex() {
+        this(Locale.getDefault());
+    }
+
+    public MemberSortIndex(Locale locale) {
+        this.collator = Collator.getInstance(locale);
+        this.collator.setStrength(Collator.PRIMARY);
+    }
+
+    /**
+     * Index every member in the directory and keep following its changes
+     */
+    public void attach(MemberDirectory directory) {
+        directory.addListener(this);
+        for (Member member : directory.getAll()) {
+            put(member);
+        }
+    }
+
+    @Override
+    public void onMemberChanged(MemberEvent event) {
+        switch (event.getType()) {
+            case ENROLLED:
+            case RESTORED:
+            case UPDATED:
+                put(event.getCurrent());
+                break;
+            case DELETED:
+                remove(event.getMemberId());
+                break;
+        }
+    }
+
+    public void put(Member member) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalById.get(member.getMemberId());
+            if (previous != null) {
+                live.clear(previous);
+                holes++;
+            }
+            int ord = append(member);
+            ordinalById.put(member.getMemberId(), ord);
+            changedLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String memberId) {
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordinalById.remove(memberId);
+            if (ord != null) {
+                live.clear(ord);
+                holes++;
+                changedLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Every member in the given order, most significant column first.
+     * The result is a snapshot; later changes do not affect it.
+     */
+    public SortedMembers sort(List<SortColumn> order) {
+        List<SortColumn> key = new ArrayList<>(order);
+        ensureColumns(key);
+        lock.readLock().lock();
+        try {
+            return sortedLocked(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The given members in the given order. Large selections are picked
+     * out of the cached full order; small ones are sorted on their own.
+     * Members the index does not know yet are kept, at the end.
+     */
+    public List<Member> sort(List<SortColumn> order, List<Member> selection) {
+        if (order.isEmpty() || selection.size() < 2) {
+            return new ArrayList<>(selection);
+        }
+        List<SortColumn> key = new ArrayList<>(order);
+        ensureColumns(key);
+        lock.readLock().lock();
+        try {
+            int total = live.cardinality();
+            SortedMembers full;
+            synchronized (sorted) {
+                full = sorted.get(key);
+            }
+            // A quarter of the list costs nearly as much to sort as all of it
+            if (full == null && selection.size() >= total / 4) {
+                full = sortedLocked(key);
+            }
+
+            List<Member> result = new ArrayList<>(selection.size());
+            List<Member> unknown = new ArrayList<>();
+            if (full != null && selection.size() >= total / 32) {
+                BitSet wanted = new BitSet(ordinals);
+                for (Member member : selection) {
+                    Integer ord = ordinalById.get(member.getMemberId());
+                    if (ord == null) {
+                        unknown.add(member);
+                    } else {
+                        wanted.set(ord);
+                    }
+                }
+                for (int i = 0; i < full.ordinals.length; i++) {
+                    if (wanted.get(full.ordinals[i])) {
+                        result.add(full.rows[i]);
+                    }
+                }
+            } else {
+                int[] picked = new int[selection.size()];
+                int count = 0;
+                for (Member member : selection) {
+                    Integer ord = ordinalById.get(member.getMemberId());
+                    if (ord == null) {
+                        unknown.add(member);
+                    } else {
+                        picked[count++] = ord;
+                    }
+                }
+                picked = Arrays.copyOf(picked, count);
+                new Comparison(key).sort(picked);
+                for (int ord : picked) {
+                    result.add(members[ord]);
+                }
+            }
+            result.addAll(unknown);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SortedMembers sortedLocked(List<SortColumn> key) {
+        synchronized (sorted) {
+            SortedMembers cached = sorted.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int[] order = new int[live.cardinality()];
+        int count = 0;
+        for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+            order[count++] = ord;
+        }
+        Comparison comparison = new Comparison(key);
+        comparison.sort(order);
+        Member[] rows = new Member[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rows[i] = members[order[i]];
+        }
+        SortedMembers result = new SortedMembers(order, rows, comparison);
+        synchronized (sorted) {
+            sorted.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Build the keys of any column in the order that has not been sorted on yet
+     */
+    private void ensureColumns(List<SortColumn> order) {
+        lock.readLock().lock();
+        try {
+            boolean ready = columns[MemberSortField.MEMBER_ID.ordinal()] != null;
+            for (SortColumn column : order) {
+                ready &= columns[column.getField().ordinal()] != null;
+            }
+            if (ready) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            column(MemberSortField.MEMBER_ID);
+            for (SortColumn column : order) {
+                column(column.getField());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Column column(MemberSortField field) {
+        Column column = columns[field.ordinal()];
+        if (column == null) {
+            column = field.isDate() ? new DayColumn(field)
+                : new TextColumn(field, field != MemberSortField.MEMBER_ID);
+            for (int ord = 0; ord < ordinals; ord++) {
+                column.append(members[ord]);
+            }
+            columns[field.ordinal()] = column;
+        }
+        return column;
+    }
+
+    private int append(Member member) {
+        int ord = ordinals++;
+        if (ord == members.length) {
+            members = Arrays.copyOf(members, ord * 2);
+        }
+        members[ord] = member;
+        live.set(ord);
+        for (Column column : columns) {
+            if (column != null) {
+                column.append(member);
+            }
+        }
+        return ord;
+    }
+
+    private void changedLocked() {
+        synchronized (sorted) {
+            sorted.clear();
+        }
+    }
+
+    /**
+     * Renumber the live members densely once enough ordinals are unused.
+     * Keys are copied, not recomputed, while readers carry on; members
+     * added or removed meanwhile are caught up before the swap. The old
+     * columns are left intact for snapshots still using them.
+     */
+    @Override
+    public synchronized boolean compact() {
+        int copied;
+        int[] keep;
+        Member[] source;
+        Column[] copies = new Column[columns.length];
+        lock.readLock().lock();
+        try {
+            if (holes <= COMPACT_THRESHOLD || holes <= ordinals / 2) {
+                return false;
+            }
+            copied = ordinals;
+            source = members;
+            keep = new int[live.cardinality()];
+            int count = 0;
+            for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+                keep[count++] = ord;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null) {
+                    copies[i] = columns[i].copy(keep);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Ordinals below copied never change, so this needs no lock
+        Member[] compacted = new Member[Math.max(16, keep.length)];
+        Map<String, Integer> compactedIds = new HashMap<>();
+        for (int i = 0; i < keep.length; i++) {
+            compacted[i] = source[keep[i]];
+            compactedIds.put(compacted[i].getMemberId(), i);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                if ((columns[i] == null) != (copies[i] == null)) {
+                    // A column was first sorted on meanwhile; try again next time
+                    return false;
+                }
+            }
+            BitSet compactedLive = new BitSet(keep.length);
+            int removed = 0;
+            for (int i = 0; i < keep.length; i++) {
+                if (live.get(keep[i])) {
+                    compactedLive.set(i);
+                } else {
+                    compactedIds.remove(compacted[i].getMemberId(), i);
+                    removed++;
+                }
+            }
+            int count = keep.length;
+            for (int ord = copied; ord < ordinals; ord++) {
+                if (!live.get(ord)) {
+                    continue;
+                }
+                if (count == compacted.length) {
+                    compacted = Arrays.copyOf(compacted, count * 2);
+                }
+                compacted[count] = members[ord];
+                compactedIds.put(members[ord].getMemberId(), count);
+                compactedLive.set(count);
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i] != null) {
+                        columns[i].copyTo(copies[i], ord);
+                    }
+                }
+                count++;
+            }
+            members = compacted;
+            ordinals = count;
+            holes = removed;
+            live.clear();
+            live.or(compactedLive);
+            ordinalById = compactedIds;
+            System.arraycopy(copies, 0, columns, 0, columns.length);
+            changedLocked();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Members in a fixed order, with searches by row for keyset paging
+     */
+    public final class SortedMembers extends AbstractList<Member> implements RandomAccess {
+        private final int[] ordinals;
+        private final Member[] rows;
+        private final Comparison comparison;
+
+        private SortedMembers(int[] ordinals, Member[] rows, Comparison comparison) {
+            this.ordinals = ordinals;
+            this.rows = rows;
+            this.comparison = comparison;
+        }
+
+        @Override
+        public Member get(int index) {
+            return rows[index];
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+
+        /**
+         * Position of the first row that does not sort before the given member
+         */
+        public int lowerBound(Member member) {
+            return search(member, false);
+        }
+
+        /**
+         * Position of the first row that sorts after the given member
+         */
+        public int upperBound(Member member) {
+            return search(member, true);
+        }
+
+        private int search(Member member, boolean after) {
+            Object[] probe = comparison.keysOf(member);
+            lock.readLock().lock();
+            try {
+                int low = 0;
+                int high = ordinals.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    int c = comparison.compare(probe, ordinals[mid]);
+                    if (c > 0 || after && c == 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * A sort order bound to the columns it reads; ties go to the member ID
+     */
+    private final class Comparison implements IntMergeSort.IntComparator {
+        private final Column[] keys;
+        private final boolean[] ascending;
+
+        Comparison(List<SortColumn> order) {
+            List<SortColumn> levels = new ArrayList<>(order);
+            if (levels.stream().noneMatch(level -> level.getField() == MemberSortField.MEMBER_ID)) {
+                levels.add(ID_ORDER);
+            }
+            keys = new Column[levels.size()];
+            ascending = new boolean[levels.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = columns[levels.get(i).getField().ordinal()];
+                ascending[i] = levels.get(i).isAscending();
+            }
+        }
+
+        /**
+         * Sort ordinals, deciding most comparisons on the first column's prefix
+         */
+        void sort(int[] ordinals) {
+            long[] prefixes = new long[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                long prefix = keys[0].prefix(ordinals[i]);
+                prefixes[i] = ascending[0] ? prefix : ~prefix;
+            }
+            IntMergeSort.sort(ordinals, prefixes, this);
+        }
+
+        @Override
+        public int compare(int a, int b) {
+            for (int i = 0; i < keys.length; i++) {
+                int c = keys[i].compare(a, b);
+                if (c != 0) {
+                    return ascending[i] ? c : -c;
+                }
+            }
+            return 0;
+        }
+
+        Object[] keysOf(Member member) {
+            Object[] probe = new Object[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                probe[i] = keys[i].keyOf(member);
+            }
+            return probe;
+        }
+
+        int compare(Object[] probe, int ord) {
+            for (int i = 0; i < keys.length; i++) {
+                int c = keys[i].compareKey(probe[i], ord);
+                if (c != 0) {
+                    return ascending[i] ? c : -c;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Sort keys of one field for every ordinal, appended in ordinal order
+     */
+    private abstract static class Column {
+        final MemberSortField field;
+
+        Column(MemberSortField field) {
+            this.field = field;
+        }
+
+        abstract void append(Member member);
+
+        abstract int compare(int a, int b);
+
+        /** Leading part of an ordinal's key whose unsigned order agrees with compare */
+        abstract long prefix(int ord);
+
+        /** Key for a member that may not be in the index */
+        abstract Object keyOf(Member member);
+
+        abstract int compareKey(Object key, int ord);
+
+        /** A new column holding the keys of the given ordinals, in that order */
+        abstract Column copy(int[] ordinals);
+
+        /** Append an ordinal's key to a column of the same kind */
+        abstract void copyTo(Column target, int ord);
+    }
+
+    /**
+     * Collation keys end to end in one byte array, plus their first eight
+     * bytes as a long, which settles most comparisons on their own.
+     * Uncollated columns use the UTF-8 bytes, which sort by code point.
+     */
+    private final class TextColumn extends Column {
+        private final boolean collated;
+        // Keys of recent values; plan and status only have a handful
+        private final Map<String, byte[]> recentKeys = new LinkedHashMap<String, byte[]>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > RECENT_KEYS;
+            }
+        };
+        private long[] prefixes = new long[16];
+        private int[] ends = new int[16];
+        private byte[] bytes = new byte[256];
+        private int count;
+
+        TextColumn(MemberSortField field, boolean collated) {
+            super(field);
+            this.collated = collated;
+        }
+
+        @Override
+        void append(Member member) {
+            byte[] key;
+            if (collated) {
+                // Only called under the write lock
+                key = recentKeys.computeIfAbsent(field.keyOf(member), this::collationKey);
+            } else {
+                key = (byte[]) keyOf(member);
+            }
+            add(key, 0, key.length);
+        }
+
+        private void add(byte[] key, int from, int to) {
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+                prefixes = Arrays.copyOf(prefixes, count * 2);
+            }
+            int start = start(count);
+            int length = to - from;
+            if (start + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + length));
+            }
+            System.arraycopy(key, from, bytes, start, length);
+            prefixes[count] = prefix(key, from, to);
+            ends[count] = start + length;
+            count++;
+        }
+
+        private int start(int ord) {
+            return ord == 0 ? 0 : ends[ord - 1];
+        }
+
+        @Override
+        int compare(int a, int b) {
+            int c = Long.compareUnsigned(prefixes[a], prefixes[b]);
+            if (c != 0) {
+                return c;
+            }
+            return Arrays.compareUnsigned(bytes, start(a), ends[a], bytes, start(b), ends[b]);
+        }
+
+        @Override
+        long prefix(int ord) {
+            return prefixes[ord];
+        }
+
+        @Override
+        Object keyOf(Member member) {
+            String value = field.keyOf(member);
+            return collated ? collationKey(value) : value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private byte[] collationKey(String value) {
+            return collator.getCollationKey(value).toByteArray();
+        }
+
+        @Override
+        int compareKey(Object key, int ord) {
+            byte[] probe = (byte[]) key;
+            int c = Long.compareUnsigned(prefix(probe, 0, probe.length), prefixes[ord]);
+            if (c != 0) {
+                return c;
+            }
+            return Arrays.compareUnsigned(probe, 0, probe.length, bytes, start(ord), ends[ord]);
+        }
+
+        @Override
+        Column copy(int[] ordinals) {
+            TextColumn copy = new TextColumn(field, collated);
+            for (int ord : ordinals) {
+                copyTo(copy, ord);
+            }
+            return copy;
+        }
+
+        @Override
+        void copyTo(Column target, int ord) {
+            ((TextColumn) target).add(bytes, start(ord), ends[ord]);
+        }
+
+        private long prefix(byte[] key, int from, int to) {
+            long prefix = 0;
+            for (int i = 0; i < 8; i++) {
+                prefix = prefix << 8 | (from + i < to ? key[from + i] & 0xFF : 0);
+            }
+            return prefix;
+        }
+    }
+
+    /**
+     * ISO dates as epoch days; anything else sorts after every date
+     */
+    private static final class DayColumn extends Column {
+        private long[] days = new long[16];
+        private int count;
+
+        DayColumn(MemberSortField field) {
+            super(field);
+        }
+
+        @Override
+        void append(Member member) {
+            add((Long) keyOf(member));
+        }
+
+        private void add(long day) {
+            if (count == days.length) {
+                days = Arrays.copyOf(days, count * 2);
+            }
+            days[count++] = day;
+        }
+
+        @Override
+        int compare(int a, int b) {
+            return Long.compare(days[a], days[b]);
+        }
+
+        @Override
+        long prefix(int ord) {
+            // Flip the sign bit so unsigned order matches signed order
+            return days[ord] ^ Long.MIN_VALUE;
+        }
+
+        @Override
+        Object keyOf(Member member) {
+            try {
+                return LocalDate.parse(field.keyOf(member)).toEpochDay();
+            } catch (DateTimeParseException e) {
+                return NO_DAY;
+            }
+        }
+
+        @Override
+        int compareKey(Object key, int ord) {
+            return Long.compare((Long) key, days[ord]);
+        }
+
+        @Override
+        Column copy(int[] ordinals) {
+            DayColumn copy = new DayColumn(field);
+            for (int ord : ordinals) {
+                copyTo(copy, ord);
+            }
+            return copy;
+        }
+
+        @Override
+        void copyTo(Column target, int ord) {
+            ((DayColumn) target).add(days[ord]);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Block20 Gym Management System
+ * Search Executor - runs interactive searches off the UI thread
+ */
+package com.block20.services.search;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared threads behind every search box.
+ *
+ * Each query runs on its own virtual thread, so a search that blocks on
+ * the database costs no platform thread and never holds up the screen.
+ * A single timer thread handles debouncing. Screens open a
+ * {@link SearchSession} per search box; the session tracks which query is
+ * current and throws away anything older.
+ */
+public class SearchExecutor implements AutoCloseable {
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+
+    public SearchExecutor() {
+        this.workers = Executors.newVirtualThreadPerTaskExecutor();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start a session for one search box.
+     *
+     * @param resultExecutor where results are delivered, e.g. {@code Platform::runLater}
+     */
+    public SearchSession openSession(Executor resultExecutor) {
+        return new SearchSession(workers, timer, resultExecutor);
+    }
+
+    /**
+     * The same virtual threads, for other on-demand loads behind a screen
+     * such as table pages
+     */
+    public Executor getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Stop the timer and interrupt any search still running
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
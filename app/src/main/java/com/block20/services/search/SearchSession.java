@@ -0,0 +1,157 @@
+/*
+ * Block20 Gym Management System
+ * Search Session - latest-query-wins search for one search box
+ */
+package com.block20.services.search;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the searches for a single search box, newest query wins.
+ *
+ * Every submit takes a new generation number. Starting a new query cancels
+ * the one still waiting out its debounce and interrupts the one already
+ * running; a result is only delivered if its generation is still current
+ * when it reaches the result executor, so a slow answer can never replace
+ * a newer one on screen.
+ *
+ * The debounce follows measured query latency: while searches answer from
+ * memory in well under a millisecond the box reacts almost per keystroke,
+ * and once they go to the database it waits longer between queries.
+ */
+public class SearchSession {
+
+    private static final long INITIAL_DEBOUNCE_MILLIS = 150;
+    private static final long MIN_DEBOUNCE_MILLIS = 25;
+    private static final long MAX_DEBOUNCE_MILLIS = 400;
+    // Wait about two typical queries' worth of time before starting another
+    private static final double DEBOUNCE_LATENCY_FACTOR = 2.0;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final Executor resultExecutor;
+    private final AtomicLong generation = new AtomicLong();
+
+    // Guarded by this
+    private Future<?> pendingStart;
+    private Future<?> running;
+    private double averageLatencyMillis = Double.NaN;
+
+    SearchSession(ExecutorService workers, ScheduledExecutorService timer, Executor resultExecutor) {
+        this.workers = workers;
+        this.timer = timer;
+        this.resultExecutor = resultExecutor;
+    }
+
+    /**
+     * Run a search after the adaptive debounce, superseding any earlier one
+     */
+    public <R> void submit(Supplier<R> search, Consumer<R> onResult) {
+        schedule(getDebounceMillis(), search, onResult);
+    }
+
+    /**
+     * Run a search straight away, e.g. for a button or filter change
+     */
+    public <R> void submitNow(Supplier<R> search, Consumer<R> onResult) {
+        schedule(0, search, onResult);
+    }
+
+    /**
+     * Drop whatever is pending or running; nothing more will be delivered
+     * until the next submit
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        cancelOutstanding();
+    }
+
+    public synchronized long getDebounceMillis() {
+        if (Double.isNaN(averageLatencyMillis)) {
+            return INITIAL_DEBOUNCE_MILLIS;
+        }
+        long debounce = Math.round(averageLatencyMillis * DEBOUNCE_LATENCY_FACTOR);
+        return Math.max(MIN_DEBOUNCE_MILLIS, Math.min(MAX_DEBOUNCE_MILLIS, debounce));
+    }
+
+    /**
+     * Smoothed time a search takes to run, or NaN before the first one finishes
+     */
+    public synchronized double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    private synchronized <R> void schedule(long delayMillis, Supplier<R> search, Consumer<R> onResult) {
+        long ticket = generation.incrementAndGet();
+        cancelOutstanding();
+        try {
+            if (delayMillis == 0) {
+                start(ticket, search, onResult);
+            } else {
+                pendingStart = timer.schedule(() -> start(ticket, search, onResult),
+                    delayMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // Shutting down; there is nobody left to show results to
+        }
+    }
+
+    private synchronized <R> void start(long ticket, Supplier<R> search, Consumer<R> onResult) {
+        if (ticket != generation.get()) {
+            return;
+        }
+        pendingStart = null;
+        running = workers.submit(() -> run(ticket, search, onResult));
+    }
+
+    private <R> void run(long ticket, Supplier<R> search, Consumer<R> onResult) {
+        long started = System.nanoTime();
+        R result;
+        try {
+            result = search.get();
+        } catch (CancellationException e) {
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Search failed: " + e.getMessage());
+            return;
+        }
+        recordLatency((System.nanoTime() - started) / 1_000_000.0);
+
+        if (ticket != generation.get()) {
+            return;
+        }
+        // Checked again on arrival: a newer keystroke may have landed in the meantime
+        resultExecutor.execute(() -> {
+            if (ticket == generation.get()) {
+                onResult.accept(result);
+            }
+        });
+    }
+
+    private synchronized void recordLatency(double millis) {
+        averageLatencyMillis = Double.isNaN(averageLatencyMillis)
+            ? millis
+            : averageLatencyMillis + LATENCY_SMOOTHING * (millis - averageLatencyMillis);
+    }
+
+    private void cancelOutstanding() {
+        if (pendingStart != null) {
+            pendingStart.cancel(false);
+            pendingStart = null;
+        }
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+}
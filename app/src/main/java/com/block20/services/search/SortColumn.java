@@ -0,0 +1,43 @@
+/*
+ * Block20 Gym Management System
+ * Sort Column - one level of a multi-column member sort
+ */
+package com.block20.services.search;
+
+import com.block20.repositories.MemberSortField;
+
+import java.util.Objects;
+
+/**
+ * A field and direction. A sort is a list of these, most significant
+ * first, as in a table's sort order.
+ */
+public final class SortColumn {
+
+    private final MemberSortField field;
+    private final boolean ascending;
+
+    public SortColumn(MemberSortField field, boolean ascending) {
+        this.field = Objects.requireNonNull(field);
+        this.ascending = ascending;
+    }
+
+    public MemberSortField getField() { return field; }
+    public boolean isAscending() { return ascending; }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SortColumn && ((SortColumn) other).field == field
+            && ((SortColumn) other).ascending == ascending;
+    }
+
+    @Override
+    public int hashCode() {
+        return field.hashCode() * 2 + (ascending ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return field + (ascending ? " ASC" : " DESC");
+    }
+}
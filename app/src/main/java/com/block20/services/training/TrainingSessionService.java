@@ -0,0 +1,86 @@
+/*
+ * Block20 Gym Management System
+ * Training Session Service - schedule reads and bookings
+ */
+package com.block20.services.training;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.TrainingSessionRepository;
+import com.block20.services.async.AsyncExecutor;
+import com.block20.services.writebehind.AuditLog;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The session schedule as the screens see it. Reads go through the
+ * repository's cache and bookings are saved in the background; status
+ * changes go through {@link com.block20.services.writebehind.SessionStatusUpdates}.
+ */
+public class TrainingSessionService {
+
+    private final TrainingSessionRepository sessions;
+    private final AsyncExecutor executor;
+    private final AuditLog audit;
+    private volatile boolean tablesReady;
+
+    /**
+     * @param sessions null without storage
+     * @param audit    null without a database
+     */
+    public TrainingSessionService(TrainingSessionRepository sessions, AsyncExecutor executor, AuditLog audit) {
+        this.sessions = sessions;
+        this.executor = executor;
+        this.audit = audit;
+    }
+
+    /**
+     * Sessions starting at or after {@code from} and before {@code to}, in start order
+     *
+     * @return empty without storage
+     */
+    public CompletableFuture<Optional<List<TrainingSession>>> loadSchedule(LocalDateTime from, LocalDateTime to) {
+        if (sessions == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return executor.submit(() -> {
+            createTables();
+            return Optional.of(sessions.findBetween(from, to));
+        });
+    }
+
+    /**
+     * Book a new session
+     *
+     * @return false without storage
+     */
+    public CompletableFuture<Boolean> schedule(TrainingSession session) {
+        return executor.submit(() -> {
+            if (sessions == null) {
+                return false;
+            }
+            createTables();
+            sessions.save(session);
+            if (audit != null) {
+                audit.record("session.schedule", session.getSessionId(),
+                    session.getSessionType() + " with " + session.getTrainerName() + " at " + session.getStartsAt());
+            }
+            return true;
+        });
+    }
+
+    private void createTables() throws SQLException {
+        if (tablesReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!tablesReady) {
+                sessions.createTables();
+                tablesReady = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Block20 Gym Management System
+ * Channel Writer - UTF-8 text straight into a file channel
+ */
+package com.block20.services.transfer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes text into one fixed-size byte buffer and hands it to the
+ * channel whenever it fills, so memory stays the same however much is
+ * written.
+ */
+class ChannelWriter extends Writer {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // High surrogate whose pair has not been written yet
+    private CharBuffer leftover;
+
+    ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(chars, offset, length));
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(text, offset, offset + length));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode(CharBuffer.wrap(new char[]{(char) c}));
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        if (leftover != null) {
+            chars = CharBuffer.allocate(leftover.remaining() + chars.remaining()).put(leftover).put(chars).flip();
+            leftover = null;
+        }
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                if (chars.hasRemaining()) {
+                    leftover = CharBuffer.allocate(chars.remaining()).put(chars).flip();
+                }
+                return;
+            } else {
+                try {
+                    result.throwException();
+                } catch (CharacterCodingException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Writes out what is buffered; the channel belongs to the caller
+     */
+    @Override
+    public void close() throws IOException {
+        drain();
+        encoder.encode(leftover != null ? leftover : CharBuffer.allocate(0), buffer, true);
+        leftover = null;
+        encoder.flush(buffer);
+        drain();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Block20 Gym Management System
+ * Check-In Export Source - door events from the local journal
+ */
+package com.block20.services.transfer;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.services.checkin.CheckInJournal;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Check-ins and check-outs between two dates, read from the journal a
+ * block at a time. The journal is in time order, so the first and last
+ * records of the range are found by binary search rather than a scan.
+ */
+public class CheckInExportSource implements ExportSource {
+
+    public static final List<String> COLUMNS = Arrays.asList("Time", "Member ID", "Action", "Entrance");
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final CheckInJournal journal;
+    private final ZoneId zone;
+    private final long fromMillis;
+    private final long toMillis;
+
+    /**
+     * @param from first day to include
+     * @param to   last day to include
+     */
+    public CheckInExportSource(CheckInJournal journal, LocalDate from, LocalDate to, ZoneId zone) {
+        this.journal = journal;
+        this.zone = zone;
+        this.fromMillis = startOf(from, zone);
+        this.toMillis = startOf(to.plusDays(1), zone);
+    }
+
+    /**
+     * The same rows for every desk, read from the central database
+     */
+    public static ExportSource fromDatabase(ConnectionProvider connections, LocalDate from, LocalDate to,
+                                            ZoneId zone) {
+        String where = " FROM check_in_events WHERE occurred_at >= ? AND occurred_at < ?";
+        return new JdbcExportSource(connections, COLUMNS,
+            "SELECT COUNT(*)" + where,
+            "SELECT occurred_at, member_id, action, entrance" + where + " ORDER BY occurred_at, event_id",
+            Arrays.asList(startOf(from, zone), startOf(to.plusDays(1), zone)),
+            rs -> new Object[]{formatTime(rs.getLong(1), zone), rs.getString(2),
+                CheckInAction.fromCode(rs.getByte(3)).getLabel(), rs.getString(4)});
+    }
+
+    @Override
+    public long estimateRows() throws IOException {
+        long size = journal.size();
+        return firstAtOrAfter(toMillis, size) - firstAtOrAfter(fromMillis, size);
+    }
+
+    @Override
+    public void writeTo(RowWriter writer) throws IOException {
+        writer.writeHeader(COLUMNS);
+        long size = journal.size();
+        long end = firstAtOrAfter(toMillis, size);
+        for (long index = firstAtOrAfter(fromMillis, size); index < end; index += BLOCK_SIZE) {
+            for (CheckInEvent event : journal.read(index, (int) Math.min(BLOCK_SIZE, end - index))) {
+                writer.writeRow(new Object[]{formatTime(event.getTimestampMillis(), zone),
+                    event.getMemberId(), event.getAction().getLabel(), event.getEntrance()});
+            }
+        }
+    }
+
+    private static long startOf(LocalDate day, ZoneId zone) {
+        return day.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private static String formatTime(long epochMillis, ZoneId zone) {
+        return TIME.format(Instant.ofEpochMilli(epochMillis).atZone(zone));
+    }
+
+    private long firstAtOrAfter(long millis, long size) throws IOException {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (journal.read(mid, 1).get(0).getTimestampMillis() < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
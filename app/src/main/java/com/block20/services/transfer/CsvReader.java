@@ -0,0 +1,204 @@
+/*
+ * Block20 Gym Management System
+ * CSV Reader - streaming RFC 4180 parser
+ */
+package com.block20.services.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads CSV records one at a time straight from bytes.
+ *
+ * Quotes, commas and line breaks are all ASCII, so the parser can work on
+ * raw UTF-8 and only decode finished fields. That keeps memory to one
+ * buffer plus the current record, and lets it report the exact byte
+ * offset after each record, which is what an import checkpoints to
+ * resume from.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // A stray quote would otherwise swallow the rest of the file into one field
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private byte[] field = new byte[256];
+    private int fieldLength;
+
+    private long offset;
+    private long line = 1;
+    private long recordLine;
+
+    /**
+     * @param startOffset byte offset of {@code in} within the file, for
+     *                    {@link #offset()}; 0 also skips a UTF-8 byte order mark
+     */
+    public CsvReader(InputStream in, long startOffset, long startLine) {
+        this.in = in;
+        this.offset = startOffset;
+        this.line = startLine;
+    }
+
+    public CsvReader(InputStream in) {
+        this(in, 0, 1);
+    }
+
+    /**
+     * The next record's fields, or null at end of input. Blank lines are skipped.
+     *
+     * @throws IOException on read errors, or a field over 64 KB
+     */
+    public List<String> next() throws IOException {
+        if (offset == 0) {
+            skipByteOrderMark();
+        }
+        List<String> fields = new ArrayList<>();
+        fieldLength = 0;
+        boolean quoted = false;
+        boolean sawAny = false;
+        recordLine = line;
+
+        while (true) {
+            int b = read();
+            if (b < 0) {
+                if (quoted) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (!sawAny && fields.isEmpty()) {
+                    return null;
+                }
+                fields.add(takeField());
+                return fields;
+            }
+            if (quoted) {
+                if (b == '"') {
+                    if (peek() == '"') {
+                        read();
+                        append(b);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (b == '\n') {
+                        line++;
+                    }
+                    append(b);
+                }
+                continue;
+            }
+            switch (b) {
+                case '"':
+                    quoted = true;
+                    sawAny = true;
+                    break;
+                case ',':
+                    fields.add(takeField());
+                    sawAny = true;
+                    break;
+                case '\r':
+                case '\n':
+                    if (b == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    line++;
+                    if (!sawAny && fields.isEmpty()) {
+                        recordLine = line;
+                        continue;
+                    }
+                    fields.add(takeField());
+                    return fields;
+                default:
+                    append(b);
+                    sawAny = true;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Byte offset just past the last record returned
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Line the last record returned started on
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Line the next record will start on
+     */
+    public long nextLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        offset++;
+        return buffer[position++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (peek() == 0xEF && limit - position >= 3
+                && (buffer[position + 1] & 0xFF) == 0xBB && (buffer[position + 2] & 0xFF) == 0xBF) {
+            position += 3;
+            offset += 3;
+        }
+    }
+
+    private void append(int b) throws IOException {
+        if (fieldLength == field.length) {
+            if (fieldLength >= MAX_FIELD_BYTES) {
+                throw new IOException("Field over " + MAX_FIELD_BYTES + " bytes in record starting on line "
+                    + recordLine);
+            }
+            field = Arrays.copyOf(field, fieldLength * 2);
+        }
+        field[fieldLength++] = (byte) b;
+    }
+
+    private String takeField() {
+        String value = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+        fieldLength = 0;
+        return value;
+    }
+}
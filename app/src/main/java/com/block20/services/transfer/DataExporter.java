@@ -0,0 +1,111 @@
+/*
+ * Block20 Gym Management System
+ * Data Exporter - streams report and member rows to CSV or Excel
+ */
+package com.block20.services.transfer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes an {@link ExportSource} to a file.
+ *
+ * Rows go from the source through one fixed-size buffer into a file
+ * channel as they arrive, so exporting millions of check-ins costs the
+ * same memory as exporting ten. The file is written under a temporary
+ * name and renamed into place when complete; a cancelled or failed
+ * export leaves nothing behind.
+ */
+public class DataExporter {
+
+    public enum Format {
+        CSV("csv"),
+        XLSX("xlsx");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Report progress and check for cancellation every 1024 rows
+    private static final int CHECK_MASK = 0x3FF;
+
+    /**
+     * @param sheetName title of the worksheet for Excel output
+     * @param progress  called with the number of rows written so far
+     * @return number of data rows written
+     * @throws CancellationException if the calling thread is interrupted
+     */
+    public long export(ExportSource source, Format format, Path target, String sheetName, LongConsumer progress)
+            throws IOException, SQLException {
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long rows;
+            if (format == Format.CSV) {
+                ChannelWriter text = new ChannelWriter(channel, BUFFER_SIZE);
+                rows = copy(source, new CsvWriter(text), progress);
+                text.close();
+            } else {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                XlsxWriter workbook = new XlsxWriter(out, sheetName);
+                rows = copy(source, workbook, progress);
+                workbook.close();
+                out.flush();
+            }
+            channel.force(false);
+            done = true;
+            progress.accept(rows);
+            return rows;
+        } finally {
+            if (done) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static long copy(ExportSource source, RowWriter out, LongConsumer progress)
+            throws IOException, SQLException {
+        long[] count = {0};
+        source.writeTo(new RowWriter() {
+            @Override
+            public void writeHeader(List<String> columns) throws IOException {
+                out.writeHeader(columns);
+            }
+
+            @Override
+            public void writeRow(Object[] values) throws IOException {
+                out.writeRow(values);
+                if ((++count[0] & CHECK_MASK) == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Export cancelled");
+                    }
+                    progress.accept(count[0]);
+                }
+            }
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Block20 Gym Management System
+ * Export Source - rows for an export
+ */
+package com.block20.services.transfer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Produces the rows of an export by pushing them into a writer as they
+ * are read, so no source ever holds the whole result in memory.
+ */
+public interface ExportSource {
+
+    /**
+     * Rows {@link #writeTo} will produce, or -1 if unknown; used for progress
+     */
+    long estimateRows() throws IOException, SQLException;
+
+    /**
+     * Write the header, then every row in order
+     */
+    void writeTo(RowWriter writer) throws IOException, SQLException;
+}
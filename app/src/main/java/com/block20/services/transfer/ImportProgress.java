@@ -0,0 +1,73 @@
+/*
+ * Block20 Gym Management System
+ * Import Progress - snapshot of a running member import
+ */
+package com.block20.services.transfer;
+
+/**
+ * How far an import has got. Counts include records handled by earlier,
+ * interrupted runs of the same file.
+ */
+public final class ImportProgress {
+
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long recordsRead;
+    private final long imported;
+    private final long skipped;
+    private final long rejected;
+    private final boolean resumed;
+
+    public ImportProgress(long bytesRead, long totalBytes, long recordsRead, long imported, long skipped,
+                          long rejected, boolean resumed) {
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.recordsRead = recordsRead;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.rejected = rejected;
+        this.resumed = resumed;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Share of the file processed, from 0 to 1
+     */
+    public double getFraction() {
+        return totalBytes == 0 ? 1.0 : (double) bytesRead / totalBytes;
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Rows left alone because the same member was already there, e.g.
+     * stored by an earlier run that stopped before its checkpoint
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * True if this run picked up from a checkpoint
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+}
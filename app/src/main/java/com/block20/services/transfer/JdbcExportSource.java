@@ -0,0 +1,111 @@
+/*
+ * Block20 Gym Management System
+ * JDBC Export Source - rows straight off a query cursor
+ */
+package com.block20.services.transfer;
+
+import com.block20.repositories.ConnectionProvider;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exports the result of a query without materializing it.
+ *
+ * The statement is forward-only and read-only with a fetch size, so the
+ * driver pulls rows from the server as the export consumes them. MySQL
+ * Connector/J only streams when the fetch size is Integer.MIN_VALUE, so
+ * that is used when talking to MySQL.
+ */
+public class JdbcExportSource implements ExportSource {
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Turns the current result row into export values
+     */
+    @FunctionalInterface
+    public interface RowMapper {
+        Object[] map(ResultSet rs) throws SQLException;
+    }
+
+    private final ConnectionProvider connections;
+    private final List<String> columns;
+    private final String countSql;
+    private final String sql;
+    private final List<Object> parameters;
+    private final RowMapper mapper;
+
+    /**
+     * @param countSql   query returning the row count for progress, or null
+     * @param parameters bound to both queries, in order
+     */
+    public JdbcExportSource(ConnectionProvider connections, List<String> columns, String countSql, String sql,
+                            List<Object> parameters, RowMapper mapper) {
+        this.connections = connections;
+        this.columns = new ArrayList<>(columns);
+        this.countSql = countSql;
+        this.sql = sql;
+        this.parameters = new ArrayList<>(parameters);
+        this.mapper = mapper;
+    }
+
+    /**
+     * Exports every selected column as is
+     */
+    public JdbcExportSource(ConnectionProvider connections, List<String> columns, String countSql, String sql,
+                            Object... parameters) {
+        this(connections, columns, countSql, sql, Arrays.asList(parameters), JdbcExportSource::allColumns);
+    }
+
+    @Override
+    public long estimateRows() throws SQLException {
+        if (countSql == null) {
+            return -1;
+        }
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(countSql)) {
+            bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+    }
+
+    @Override
+    public void writeTo(RowWriter writer) throws IOException, SQLException {
+        try (Connection conn = connections.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                 ResultSet.CONCUR_READ_ONLY)) {
+            boolean mysql = conn.getMetaData().getDriverName().toLowerCase().contains("mysql");
+            stmt.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+            bind(stmt);
+            writer.writeHeader(columns);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.writeRow(mapper.map(rs));
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement stmt) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    private static Object[] allColumns(ResultSet rs) throws SQLException {
+        Object[] values = new Object[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+        return values;
+    }
+}
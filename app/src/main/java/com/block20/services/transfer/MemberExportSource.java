@@ -0,0 +1,64 @@
+/*
+ * Block20 Gym Management System
+ * Member Export Source - membership and billing rows
+ */
+package com.block20.services.transfer;
+
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.members.MemberHistory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Members in enrollment order with their plan and billing details, read
+ * through the directory's lightweight views of its compact store
+ */
+public class MemberExportSource implements ExportSource {
+
+    public static final List<String> COLUMNS = Arrays.asList("Member ID", "Name", "Email", "Phone", "Plan",
+        "Status", "Join Date", "Expiry Date", "Monthly Fee", "Last Payment");
+
+    private final MemberDirectory directory;
+    private final MemberHistory history;
+
+    public MemberExportSource(MemberDirectory directory, MemberHistory history) {
+        this.directory = directory;
+        this.history = history;
+    }
+
+    @Override
+    public long estimateRows() {
+        return directory.size();
+    }
+
+    @Override
+    public void writeTo(RowWriter writer) throws IOException {
+        writer.writeHeader(COLUMNS);
+        for (Member member : directory.getAll()) {
+            writer.writeRow(new Object[]{
+                member.getMemberId(), member.getName(), member.getEmail(), member.getPhone(),
+                member.getPlanType(), member.getStatus(), member.getJoinDate(), member.getExpiryDate(),
+                fee(member.getMonthlyFee()),
+                history.find(member.getMemberId()).map(MemberProfile::getLastPayment).orElse(null)});
+        }
+    }
+
+    /**
+     * The fee as a number where it is one, so spreadsheets can total it
+     */
+    private static Object fee(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace("$", "").replace(",", "").trim());
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,699 @@
+/*
+ * Block20 Gym Management System
+ * Member Importer - bulk CSV import for migrations
+ */
+package com.block20.services.transfer;
+
+import com.block20.models.Member;
+import com.block20.repositories.MemberRecordRepository;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.search.MemberSearchIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Loads members from a CSV export of another system.
+ *
+ * The file is streamed in chunks of {@value #CHUNK_SIZE} records. Chunks are
+ * validated on a pool of worker threads while the next ones are read, then
+ * committed strictly in file order on the calling thread: duplicate emails
+ * and phones are checked against the search index (and the rest of the
+ * chunk), member IDs against the directory and the database, the accepted
+ * rows go to the database as multi-row inserts and into the member
+ * directory, and bad rows are appended to a reject file with their line
+ * number and reason. Only a few chunks are in flight at once, so memory
+ * stays flat however large the file is.
+ *
+ * After every chunk the byte offset and counts are saved next to the file.
+ * An interrupted import run again on the same, unchanged file picks up
+ * from there. A crash between a database commit and the checkpoint
+ * re-sends that one chunk; rows that match a member already stored are
+ * counted as skipped instead of being imported twice or rejected.
+ */
+public class MemberImporter {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final Map<String, String> PLAN_FEES = new LinkedHashMap<>();
+    private static final List<String> STATUSES = Arrays.asList("Active", "Expired", "Pending", "Suspended");
+
+    static {
+        PLAN_FEES.put("Basic", "29.99");
+        PLAN_FEES.put("Premium", "49.99");
+        PLAN_FEES.put("Elite", "79.99");
+        PLAN_FEES.put("Student", "24.99");
+    }
+
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    private static final Pattern MEMBER_ID = Pattern.compile("[A-Za-z0-9_-]{1,24}");
+    private static final int MAX_NAME_LENGTH = 120;
+    private static final int MAX_EMAIL_LENGTH = 160;
+    private static final int CHECKPOINT_FIELDS = 8;
+
+    private final MemberDirectory directory;
+    private final MemberSearchIndex searchIndex;
+    private final MemberRecordRepository repository;
+    private final int validatorThreads;
+    private final Clock clock;
+
+    private int lastGeneratedId;
+
+    /**
+     * @param repository storage to write through to, or null to import
+     *                   into the in-memory directory only
+     */
+    public MemberImporter(MemberDirectory directory, MemberSearchIndex searchIndex,
+                          MemberRecordRepository repository) {
+        this(directory, searchIndex, repository, Runtime.getRuntime().availableProcessors(),
+            Clock.systemDefaultZone());
+    }
+
+    public MemberImporter(MemberDirectory directory, MemberSearchIndex searchIndex,
+                          MemberRecordRepository repository, int validatorThreads, Clock clock) {
+        this.directory = directory;
+        this.searchIndex = searchIndex;
+        this.repository = repository;
+        this.validatorThreads = Math.max(1, validatorThreads);
+        this.clock = clock;
+    }
+
+    /**
+     * Where rejected rows of an import are written
+     */
+    public static Path rejectFileFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".rejects.csv");
+    }
+
+    static Path checkpointFileFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Import a CSV file with a header row. Required columns are name (or
+     * first and last name), email, phone and plan; member ID, status,
+     * dates, fee, emergency contact and address are optional.
+     *
+     * @param listener called on the importing thread after every chunk
+     * @return final counts
+     * @throws IOException           if the file cannot be read or lacks a required column
+     * @throws SQLException          if the database rejects a batch; rerun to resume
+     * @throws CancellationException if the thread is interrupted; rerun to resume
+     */
+    public synchronized ImportProgress importFile(Path csv, Consumer<ImportProgress> listener)
+            throws IOException, SQLException {
+        long totalBytes = Files.size(csv);
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+
+        List<String> header;
+        long dataOffset;
+        long dataLine;
+        try (CsvReader reader = new CsvReader(Files.newInputStream(csv))) {
+            header = reader.next();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            dataOffset = reader.offset();
+            dataLine = reader.nextLine();
+        }
+        Columns columns = new Columns(header);
+
+        Path checkpointFile = checkpointFileFor(csv);
+        long[] checkpoint = readCheckpoint(checkpointFile, totalBytes, modified);
+        boolean resumed = checkpoint != null;
+        Run run = resumed
+            ? new Run(checkpoint[0], checkpoint[1], checkpoint[2], checkpoint[3], checkpoint[4], checkpoint[5])
+            : new Run(dataOffset, dataLine, 0, 0, 0, 0);
+        lastGeneratedId = directory.size();
+
+        if (repository != null) {
+            repository.createTables();
+        }
+
+        ExecutorService validators = Executors.newFixedThreadPool(validatorThreads, r -> {
+            Thread thread = new Thread(r, "member-import-validate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LocalDate today = LocalDate.now(clock);
+        ArrayDeque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        ArrayDeque<long[]> inFlightEnds = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ);
+             Writer rejectOut = Files.newBufferedWriter(rejectFileFor(csv), StandardCharsets.UTF_8,
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 resumed ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            CsvWriter rejects = new CsvWriter(rejectOut);
+            if (!resumed) {
+                List<String> rejectHeader = new ArrayList<>(Arrays.asList("line", "reason"));
+                rejectHeader.addAll(header);
+                rejects.writeRow(rejectHeader);
+            }
+
+            channel.position(run.offset);
+            InputStream in = Channels.newInputStream(channel);
+            CsvReader reader = new CsvReader(in, run.offset, run.line);
+            boolean more = true;
+            while (more || !inFlight.isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Import cancelled");
+                }
+                if (more) {
+                    List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+                    List<String> fields;
+                    while (chunk.size() < CHUNK_SIZE && (fields = reader.next()) != null) {
+                        chunk.add(new Row(reader.recordLine(), fields));
+                    }
+                    more = chunk.size() == CHUNK_SIZE;
+                    if (!chunk.isEmpty()) {
+                        inFlight.add(validators.submit(() -> validate(chunk, columns, today)));
+                        inFlightEnds.add(new long[]{reader.offset(), reader.nextLine()});
+                    }
+                }
+                // Keep a couple of chunks per worker queued; commit the oldest once it is ready
+                if (!inFlight.isEmpty() && (!more || inFlight.size() >= validatorThreads * 2)) {
+                    List<Row> validated = await(inFlight.poll());
+                    long[] end = inFlightEnds.poll();
+                    commit(validated, run, rejects);
+                    run.offset = end[0];
+                    run.line = end[1];
+                    rejects.flush();
+                    writeCheckpoint(checkpointFile, run, totalBytes, modified);
+                    listener.accept(run.progress(totalBytes, resumed));
+                }
+            }
+        } finally {
+            validators.shutdownNow();
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        ImportProgress result = run.progress(totalBytes, resumed);
+        listener.accept(result);
+        return result;
+    }
+
+    private void commit(List<Row> rows, Run run, CsvWriter rejects) throws IOException, SQLException {
+        List<Row> accepted = new ArrayList<>(rows.size());
+        Set<String> chunkIds = new HashSet<>();
+        Map<String, String> chunkEmails = new HashMap<>();
+        Map<String, String> chunkPhones = new HashMap<>();
+
+        for (Row row : rows) {
+            run.recordsRead++;
+            if (row.reason == null) {
+                row.reason = checkDuplicates(row, chunkIds, chunkEmails, chunkPhones);
+            }
+            if (row.reason != null) {
+                reject(rejects, row, run);
+                continue;
+            }
+            if (row.alreadyImported) {
+                run.skipped++;
+                continue;
+            }
+            String memberId = row.values[Field.ID.ordinal()];
+            row.generatedId = memberId.isEmpty();
+            if (row.generatedId) {
+                memberId = nextMemberId(chunkIds);
+            }
+            row.memberId = memberId;
+            chunkIds.add(memberId);
+            chunkEmails.put(row.values[Field.EMAIL.ordinal()].toLowerCase(Locale.ROOT), memberId);
+            chunkPhones.put(digits(row.values[Field.PHONE.ordinal()]), memberId);
+            accepted.add(row);
+        }
+
+        if (repository != null && !accepted.isEmpty()) {
+            checkStored(accepted, chunkIds, run, rejects);
+        }
+        List<Member> members = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            members.add(row.toMember(row.memberId));
+        }
+        if (repository != null && !members.isEmpty()) {
+            repository.insertMembers(members);
+        }
+        for (int i = 0; i < members.size(); i++) {
+            try {
+                directory.enroll(members.get(i));
+                run.imported++;
+            } catch (IllegalArgumentException e) {
+                // Someone enrolled the same ID at the desk while the import ran
+                Row row = accepted.get(i);
+                row.reason = e.getMessage();
+                reject(rejects, row, run);
+            }
+        }
+    }
+
+    /**
+     * Compare the chunk's member IDs with the stored members the directory
+     * does not know about. A supplied ID stored with the same details was
+     * written by a run that stopped before its checkpoint, so the row is
+     * skipped and the stored member enrolled; with other details the row
+     * is rejected. Generated IDs that turn out to be taken are replaced.
+     */
+    private void checkStored(List<Row> accepted, Set<String> chunkIds, Run run, CsvWriter rejects)
+            throws IOException, SQLException {
+        Map<String, Member> stored = storedById(accepted);
+        List<Row> renumber = new ArrayList<>();
+        Iterator<Row> it = accepted.iterator();
+        while (it.hasNext()) {
+            Row row = it.next();
+            Member existing = stored.get(row.memberId);
+            if (existing == null) {
+                continue;
+            }
+            if (row.generatedId) {
+                renumber.add(row);
+                continue;
+            }
+            it.remove();
+            if (row.matches(existing)) {
+                run.skipped++;
+                if (!directory.findById(existing.getMemberId()).isPresent()) {
+                    // A member deleted since is brought back by importing it again
+                    repository.unmarkDeleted(existing.getMemberId());
+                    directory.enroll(existing);
+                }
+            } else {
+                row.reason = "Member ID already exists: " + row.memberId;
+                reject(rejects, row, run);
+            }
+        }
+        while (!renumber.isEmpty()) {
+            for (Row row : renumber) {
+                row.memberId = nextMemberId(chunkIds);
+                chunkIds.add(row.memberId);
+            }
+            Map<String, Member> taken = storedById(renumber);
+            renumber.removeIf(row -> !taken.containsKey(row.memberId));
+        }
+    }
+
+    private Map<String, Member> storedById(List<Row> rows) throws SQLException {
+        List<String> ids = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ids.add(row.memberId);
+        }
+        Map<String, Member> stored = new HashMap<>();
+        for (Member member : repository.findByIds(ids)) {
+            stored.put(member.getMemberId(), member);
+        }
+        return stored;
+    }
+
+    /**
+     * Why a row clashes with a member already known, or null. A row that
+     * matches the member holding its ID or email is marked as already
+     * imported instead.
+     */
+    private String checkDuplicates(Row row, Set<String> chunkIds, Map<String, String> chunkEmails,
+                                   Map<String, String> chunkPhones) {
+        String memberId = row.values[Field.ID.ordinal()];
+        if (!memberId.isEmpty()) {
+            if (chunkIds.contains(memberId)) {
+                return "Member ID already exists: " + memberId;
+            }
+            Optional<Member> existing = directory.findById(memberId);
+            if (existing.isPresent()) {
+                if (row.matches(existing.get())) {
+                    row.alreadyImported = true;
+                    return null;
+                }
+                return "Member ID already exists: " + memberId;
+            }
+        }
+        String email = row.values[Field.EMAIL.ordinal()];
+        Optional<String> emailOwner = Optional.ofNullable(chunkEmails.get(email.toLowerCase(Locale.ROOT)));
+        if (!emailOwner.isPresent()) {
+            emailOwner = searchIndex.findByEmail(email);
+            // A row without an ID that was imported before comes back under its generated ID
+            if (emailOwner.isPresent() && memberId.isEmpty()) {
+                Optional<Member> owner = directory.findById(emailOwner.get());
+                if (owner.isPresent() && row.matches(owner.get())) {
+                    row.alreadyImported = true;
+                    return null;
+                }
+            }
+        }
+        if (emailOwner.isPresent()) {
+            return "Email already used by " + emailOwner.get();
+        }
+        String phone = row.values[Field.PHONE.ordinal()];
+        Optional<String> phoneOwner = Optional.ofNullable(chunkPhones.get(digits(phone)));
+        if (!phoneOwner.isPresent()) {
+            phoneOwner = searchIndex.findByPhone(phone);
+        }
+        if (phoneOwner.isPresent()) {
+            return "Phone already used by " + phoneOwner.get();
+        }
+        return null;
+    }
+
+    private String nextMemberId(Set<String> chunkIds) {
+        String id;
+        do {
+            id = String.format("M%04d", ++lastGeneratedId);
+        } while (chunkIds.contains(id) || directory.findById(id).isPresent());
+        return id;
+    }
+
+    private static void reject(CsvWriter rejects, Row row, Run run) throws IOException {
+        List<String> out = new ArrayList<>(row.fields.size() + 2);
+        out.add(Long.toString(row.line));
+        out.add(row.reason);
+        out.addAll(row.fields);
+        rejects.writeRow(out);
+        run.rejected++;
+    }
+
+    private static List<Row> await(Future<List<Row>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import cancelled");
+        } catch (ExecutionException e) {
+            throw new IOException("Validation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Field checks that need nothing but the row itself; runs on the workers
+     */
+    private static List<Row> validate(List<Row> rows, Columns columns, LocalDate today) {
+        for (Row row : rows) {
+            row.values = columns.extract(row.fields);
+            row.reason = normalize(row.values, today);
+        }
+        return rows;
+    }
+
+    /**
+     * Check and canonicalize one row's values in place
+     *
+     * @return why the row is rejected, or null if it is fine
+     */
+    static String normalize(String[] values, LocalDate today) {
+        String id = values[Field.ID.ordinal()];
+        if (!id.isEmpty() && !MEMBER_ID.matcher(id).matches()) {
+            return "Invalid member ID";
+        }
+
+        String name = values[Field.NAME.ordinal()];
+        if (name.isEmpty()) {
+            return "Missing name";
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return "Name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+
+        String email = values[Field.EMAIL.ordinal()];
+        if (email.length() > MAX_EMAIL_LENGTH || !EMAIL.matcher(email).matches()) {
+            return "Invalid email";
+        }
+
+        String phone = values[Field.PHONE.ordinal()];
+        String phoneDigits = digits(phone);
+        if (phoneDigits == null || phoneDigits.length() < 7 || phoneDigits.length() > 15) {
+            return "Invalid phone";
+        }
+
+        String plan = canonical(values[Field.PLAN.ordinal()], PLAN_FEES.keySet());
+        if (plan == null) {
+            return "Unknown plan: " + values[Field.PLAN.ordinal()];
+        }
+        values[Field.PLAN.ordinal()] = plan;
+
+        String status = values[Field.STATUS.ordinal()];
+        if (status.isEmpty()) {
+            values[Field.STATUS.ordinal()] = "Active";
+        } else {
+            values[Field.STATUS.ordinal()] = canonical(status, STATUSES);
+            if (values[Field.STATUS.ordinal()] == null) {
+                return "Unknown status: " + status;
+            }
+        }
+
+        LocalDate joined;
+        LocalDate started;
+        LocalDate expires;
+        try {
+            joined = date(values[Field.JOIN_DATE.ordinal()], today);
+            started = date(values[Field.START_DATE.ordinal()], joined);
+            expires = date(values[Field.EXPIRY_DATE.ordinal()], started.plusYears(1));
+        } catch (DateTimeParseException e) {
+            return "Invalid date: " + e.getParsedString() + " (expected yyyy-MM-dd)";
+        }
+        values[Field.JOIN_DATE.ordinal()] = joined.toString();
+        values[Field.START_DATE.ordinal()] = started.toString();
+        values[Field.EXPIRY_DATE.ordinal()] = expires.toString();
+
+        String fee = values[Field.MONTHLY_FEE.ordinal()];
+        if (fee.isEmpty()) {
+            values[Field.MONTHLY_FEE.ordinal()] = PLAN_FEES.get(plan);
+        } else {
+            try {
+                BigDecimal amount = new BigDecimal(fee.replace("$", "").replace(",", "").trim());
+                if (amount.signum() < 0) {
+                    return "Invalid monthly fee: " + fee;
+                }
+                values[Field.MONTHLY_FEE.ordinal()] = amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+            } catch (NumberFormatException e) {
+                return "Invalid monthly fee: " + fee;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate date(String value, LocalDate fallback) {
+        return value.isEmpty() ? fallback : LocalDate.parse(value);
+    }
+
+    private static String canonical(String value, Iterable<String> allowed) {
+        for (String candidate : allowed) {
+            if (candidate.equalsIgnoreCase(value)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Digits of a phone number, or null if it has anything but digits and punctuation
+     */
+    private static String digits(String phone) {
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            } else if ("-()+. ".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        return digits.toString();
+    }
+
+    private static long[] readCheckpoint(Path file, long totalBytes, long modified) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length != CHECKPOINT_FIELDS * Long.BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] values = new long[CHECKPOINT_FIELDS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getLong();
+        }
+        // A file that changed since the last run is imported from the start
+        if (values[6] != totalBytes || values[7] != modified) {
+            return null;
+        }
+        return values;
+    }
+
+    /**
+     * Write-then-rename so a crash leaves either the old or the new checkpoint
+     */
+    private static void writeCheckpoint(Path file, Run run, long totalBytes, long modified) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_FIELDS * Long.BYTES);
+        buffer.putLong(run.offset).putLong(run.line).putLong(run.recordsRead).putLong(run.imported)
+            .putLong(run.skipped).putLong(run.rejected).putLong(totalBytes).putLong(modified);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Member fields an import understands, in {@link Row#values} order
+     */
+    enum Field {
+        ID, NAME, FIRST_NAME, LAST_NAME, EMAIL, PHONE, PLAN, STATUS, JOIN_DATE, START_DATE, EXPIRY_DATE,
+        MONTHLY_FEE, EMERGENCY_CONTACT, ADDRESS
+    }
+
+    /**
+     * Where each field sits in the file, from the header row
+     */
+    static final class Columns {
+        private static final Map<String, Field> ALIASES = new HashMap<>();
+
+        static {
+            alias(Field.ID, "id", "memberid", "membernumber");
+            alias(Field.NAME, "name", "fullname", "membername");
+            alias(Field.FIRST_NAME, "firstname", "givenname");
+            alias(Field.LAST_NAME, "lastname", "surname", "familyname");
+            alias(Field.EMAIL, "email", "emailaddress");
+            alias(Field.PHONE, "phone", "phonenumber", "mobile", "telephone");
+            alias(Field.PLAN, "plan", "plantype", "membershipplan", "membership");
+            alias(Field.STATUS, "status", "membershipstatus");
+            alias(Field.JOIN_DATE, "joindate", "joined", "signupdate");
+            alias(Field.START_DATE, "startdate");
+            alias(Field.EXPIRY_DATE, "expirydate", "expires", "expirationdate", "enddate");
+            alias(Field.MONTHLY_FEE, "monthlyfee", "fee", "price");
+            alias(Field.EMERGENCY_CONTACT, "emergencycontact");
+            alias(Field.ADDRESS, "address");
+        }
+
+        private final int[] index = new int[Field.values().length];
+
+        Columns(List<String> header) throws IOException {
+            Arrays.fill(index, -1);
+            for (int i = 0; i < header.size(); i++) {
+                Field field = ALIASES.get(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""));
+                if (field != null && index[field.ordinal()] < 0) {
+                    index[field.ordinal()] = i;
+                }
+            }
+            boolean hasName = index[Field.NAME.ordinal()] >= 0
+                || (index[Field.FIRST_NAME.ordinal()] >= 0 && index[Field.LAST_NAME.ordinal()] >= 0);
+            if (!hasName) {
+                throw new IOException("Missing required column: name");
+            }
+            for (Field required : new Field[]{Field.EMAIL, Field.PHONE, Field.PLAN}) {
+                if (index[required.ordinal()] < 0) {
+                    throw new IOException("Missing required column: " + required.name().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        String[] extract(List<String> fields) {
+            String[] values = new String[index.length];
+            for (int i = 0; i < index.length; i++) {
+                int column = index[i];
+                values[i] = column >= 0 && column < fields.size() ? fields.get(column).trim() : "";
+            }
+            if (values[Field.NAME.ordinal()].isEmpty()) {
+                values[Field.NAME.ordinal()] =
+                    (values[Field.FIRST_NAME.ordinal()] + " " + values[Field.LAST_NAME.ordinal()]).trim();
+            }
+            return values;
+        }
+
+        private static void alias(Field field, String... names) {
+            for (String name : names) {
+                ALIASES.put(name, field);
+            }
+        }
+    }
+
+    /**
+     * One record on its way through the pipeline
+     */
+    private static final class Row {
+        final long line;
+        final List<String> fields;
+        String[] values;
+        String reason;
+        String memberId;
+        boolean generatedId;
+        boolean alreadyImported;
+
+        Row(long line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+
+        /**
+         * Whether a known member has this row's name, email, phone and plan
+         */
+        boolean matches(Member member) {
+            return values[Field.NAME.ordinal()].equals(member.getName())
+                && values[Field.EMAIL.ordinal()].equalsIgnoreCase(member.getEmail())
+                && member.getPhone() != null
+                && digits(values[Field.PHONE.ordinal()]).equals(digits(member.getPhone()))
+                && values[Field.PLAN.ordinal()].equals(member.getPlanType());
+        }
+
+        Member toMember(String memberId) {
+            return new Member(memberId, values[Field.NAME.ordinal()], values[Field.EMAIL.ordinal()],
+                values[Field.PHONE.ordinal()], values[Field.PLAN.ordinal()], values[Field.STATUS.ordinal()],
+                values[Field.JOIN_DATE.ordinal()], values[Field.EXPIRY_DATE.ordinal()],
+                values[Field.START_DATE.ordinal()], values[Field.MONTHLY_FEE.ordinal()],
+                values[Field.EMERGENCY_CONTACT.ordinal()], values[Field.ADDRESS.ordinal()]);
+        }
+    }
+
+    /**
+     * Position and counts of the current import, as checkpointed
+     */
+    private static final class Run {
+        long offset;
+        long line;
+        long recordsRead;
+        long imported;
+        long skipped;
+        long rejected;
+
+        Run(long offset, long line, long recordsRead, long imported, long skipped, long rejected) {
+            this.offset = offset;
+            this.line = line;
+            this.recordsRead = recordsRead;
+            this.imported = imported;
+            this.skipped = skipped;
+            this.rejected = rejected;
+        }
+
+        ImportProgress progress(long totalBytes, boolean resumed) {
+            return new ImportProgress(offset, totalBytes, recordsRead, imported, skipped, rejected, resumed);
+        }
+    }
+}
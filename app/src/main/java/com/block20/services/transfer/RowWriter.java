@@ -0,0 +1,19 @@
+/*
+ * Block20 Gym Management System
+ * Row Writer - output side of an export
+ */
+package com.block20.services.transfer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives a header and then rows, one at a time. Values are strings,
+ * numbers or null.
+ */
+public interface RowWriter {
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+}
@@ -0,0 +1,246 @@
+/*
+ * Block20 Gym Management System
+ * XLSX Writer - streaming Excel workbook
+ */
+package com.block20.services.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes an .xlsx workbook row by row without holding it in memory.
+ *
+ * An .xlsx file is a zip of XML parts. Cells are written as inline
+ * strings or plain numbers straight into the worksheet part as it is
+ * compressed, instead of collecting a shared-strings table, so memory
+ * does not grow with the row count. When a sheet reaches Excel's row
+ * limit the header is repeated on a new sheet. The workbook and package
+ * parts that list the sheets are written last, once their number is known.
+ */
+public class XlsxWriter implements RowWriter, Closeable {
+
+    public static final int MAX_SHEET_ROWS = 1_048_576;
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final int MAX_SHEET_NAME = 31;
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final String sheetName;
+    private final int maxSheetRows;
+
+    private List<String> header;
+    private String[] columnNames;
+    private int sheetCount;
+    private int sheetRow;
+
+    public XlsxWriter(OutputStream out, String sheetName) {
+        this(out, sheetName, MAX_SHEET_ROWS);
+    }
+
+    XlsxWriter(OutputStream out, String sheetName, int maxSheetRows) {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Sheet XML is very repetitive; the fastest level still shrinks it several times over
+        this.zip.setLevel(Deflater.BEST_SPEED);
+        this.xml = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        this.sheetName = safeSheetName(sheetName);
+        this.maxSheetRows = maxSheetRows;
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        header = new ArrayList<>(columns);
+        columnNames = new String[columns.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columnName(i);
+        }
+        startSheet();
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        if (sheetRow == maxSheetRows) {
+            endSheet();
+            startSheet();
+        }
+        sheetRow++;
+        xml.write("<row r=\"");
+        xml.write(Integer.toString(sheetRow));
+        xml.write("\">");
+        for (int i = 0; i < values.length; i++) {
+            writeCell(i, values[i]);
+        }
+        xml.write("</row>\n");
+    }
+
+    /**
+     * Finish the last sheet and write the parts that tie the workbook together
+     */
+    @Override
+    public void close() throws IOException {
+        if (header == null) {
+            writeHeader(new ArrayList<>());
+        }
+        endSheet();
+
+        entry("[Content_Types].xml");
+        xml.write(XML_DECLARATION);
+        xml.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" "
+            + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= sheetCount; i++) {
+            xml.write("<Override PartName=\"/xl/worksheets/sheet" + i + ".xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        xml.write("</Types>");
+
+        entry("_rels/.rels");
+        xml.write(XML_DECLARATION);
+        xml.write("<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>");
+
+        entry("xl/workbook.xml");
+        xml.write(XML_DECLARATION);
+        xml.write("<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>");
+        for (int i = 1; i <= sheetCount; i++) {
+            String name = i == 1 ? sheetName : suffixed(sheetName, " (" + i + ")");
+            xml.write("<sheet name=\"");
+            escape(name);
+            xml.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>");
+        }
+        xml.write("</sheets></workbook>");
+
+        entry("xl/_rels/workbook.xml.rels");
+        xml.write(XML_DECLARATION);
+        xml.write("<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">");
+        for (int i = 1; i <= sheetCount; i++) {
+            xml.write("<Relationship Id=\"rId" + i + "\" Type=\"" + REL_NS + "/worksheet\" "
+                + "Target=\"worksheets/sheet" + i + ".xml\"/>");
+        }
+        xml.write("</Relationships>");
+
+        xml.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void startSheet() throws IOException {
+        sheetCount++;
+        sheetRow = 0;
+        entry("xl/worksheets/sheet" + sheetCount + ".xml");
+        xml.write(XML_DECLARATION);
+        xml.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>\n");
+        if (!header.isEmpty()) {
+            writeRow(header.toArray());
+        }
+    }
+
+    private void endSheet() throws IOException {
+        xml.write("</sheetData></worksheet>");
+    }
+
+    private void entry(String name) throws IOException {
+        xml.flush();
+        zip.putNextEntry(new ZipEntry(name));
+    }
+
+    private void writeCell(int column, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        xml.write("<c r=\"");
+        xml.write(column < columnNames.length ? columnNames[column] : columnName(column));
+        xml.write(Integer.toString(sheetRow));
+        if (value instanceof Number && isFinite((Number) value)) {
+            xml.write("\"><v>");
+            xml.write(value.toString());
+            xml.write("</v></c>");
+            return;
+        }
+        String text = value.toString();
+        boolean padded = !text.isEmpty()
+            && (Character.isWhitespace(text.charAt(0)) || Character.isWhitespace(text.charAt(text.length() - 1)));
+        xml.write(padded ? "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">" : "\" t=\"inlineStr\"><is><t>");
+        escape(text);
+        xml.write("</t></is></c>");
+    }
+
+    /**
+     * Escape markup and drop control characters XML 1.0 cannot carry
+     */
+    private void escape(String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                default:
+                    replacement = c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF
+                        ? "" : null;
+                    break;
+            }
+            if (replacement != null) {
+                xml.write(text, start, i - start);
+                xml.write(replacement);
+                start = i + 1;
+            }
+        }
+        xml.write(text, start, text.length() - start);
+    }
+
+    private static boolean isFinite(Number value) {
+        return !(value instanceof Double || value instanceof Float) || Double.isFinite(value.doubleValue());
+    }
+
+    /**
+     * Spreadsheet column letters: 0 is A, 25 is Z, 26 is AA
+     */
+    static String columnName(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            name.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    private static String safeSheetName(String name) {
+        String cleaned = name == null ? "" : name.replaceAll("[\\[\\]:*?/\\\\]", " ").trim();
+        if (cleaned.isEmpty()) {
+            cleaned = "Sheet";
+        }
+        return cleaned.length() > MAX_SHEET_NAME ? cleaned.substring(0, MAX_SHEET_NAME) : cleaned;
+    }
+
+    private static String suffixed(String name, String suffix) {
+        int room = MAX_SHEET_NAME - suffix.length();
+        return (name.length() > room ? name.substring(0, room) : name) + suffix;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Block20 Gym Management System
+ * Audit Log - buffered audit trail
+ */
+package com.block20.services.writebehind;
+
+import com.block20.models.AuditEntry;
+import com.block20.repositories.AuditRepository;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records who did what at this desk. Entries are journaled locally and
+ * reach the database in batches, so auditing a save adds a local append
+ * to it rather than another round trip.
+ */
+public class AuditLog implements AutoCloseable {
+
+    private static final int MAX_DETAILS = 500;
+
+    private static final RecordCodec<AuditEntry> CODEC = new RecordCodec<AuditEntry>() {
+        @Override
+        public void write(AuditEntry entry, DataOutput out) throws IOException {
+            out.writeUTF(entry.getEntryId());
+            out.writeLong(entry.getOccurredAtMillis());
+            out.writeUTF(entry.getActor());
+            out.writeUTF(entry.getAction());
+            out.writeUTF(entry.getTarget());
+            out.writeUTF(entry.getDetails());
+        }
+
+        @Override
+        public AuditEntry read(DataInput in) throws IOException {
+            return new AuditEntry(in.readUTF(), in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(),
+                in.readUTF());
+        }
+    };
+
+    private final WriteBehindBuffer<AuditEntry> buffer;
+    private final String actor;
+    private final Clock clock;
+
+    /**
+     * @param actor recorded on every entry, e.g. this desk's ID
+     */
+    public AuditLog(Path journalFile, AuditRepository repository, String actor, Clock clock, int batchSize,
+                    Duration maxDelay, int capacity) throws IOException {
+        this.actor = actor;
+        this.clock = clock;
+        this.buffer = new WriteBehindBuffer<>("audit", journalFile, CODEC, new BatchWriter<AuditEntry>() {
+            @Override
+            public void prepare() throws SQLException {
+                repository.createTables();
+            }
+
+            @Override
+            public void write(List<AuditEntry> batch) throws SQLException {
+                repository.insertAll(batch);
+            }
+        }, batchSize, maxDelay, capacity);
+    }
+
+    public void start() {
+        buffer.start();
+    }
+
+    /**
+     * Add an entry, waiting if too many are still on their way to the database
+     *
+     * @param action short name such as member.enroll
+     * @param target ID of what was acted on
+     */
+    public void record(String action, String target, String details) throws IOException, InterruptedException {
+        String text = details == null ? "" : details;
+        if (text.length() > MAX_DETAILS) {
+            text = text.substring(0, MAX_DETAILS);
+        }
+        buffer.submit(new AuditEntry(UUID.randomUUID().toString(), clock.millis(), actor, action,
+            target == null ? "" : target, text));
+    }
+
+    /**
+     * Backlog and connection state
+     */
+    public WriteBehindBuffer<AuditEntry> getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Block20 Gym Management System
+ * Batch Writer
+ */
+package com.block20.services.writebehind;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Stores a batch of buffered writes, normally in one multi-row statement.
+ *
+ * A batch can be sent again after a crash or a failed attempt, so
+ * writing the same items twice must leave the same result as once.
+ */
+@FunctionalInterface
+public interface BatchWriter<T> {
+
+    /**
+     * Called once before the first batch, e.g. to create tables
+     */
+    default void prepare() throws SQLException {
+    }
+
+    void write(List<T> batch) throws SQLException;
+}
@@ -0,0 +1,19 @@
+/*
+ * Block20 Gym Management System
+ * Record Codec
+ */
+package com.block20.services.writebehind;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Turns buffered writes into journal records and back
+ */
+public interface RecordCodec<T> {
+
+    void write(T item, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,100 @@
+/*
+ * Block20 Gym Management System
+ * Session Status Updates - buffered session status changes
+ */
+package com.block20.services.writebehind;
+
+import com.block20.models.SessionStatusChange;
+import com.block20.repositories.TrainingSessionRepository;
+import com.block20.services.async.AsyncExecutor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Session status changes (check-ins to a class, cancellations, no-shows)
+ * saved through a write-behind buffer. A batch becomes one UPDATE, and a
+ * session changed several times within a batch is written once with its
+ * latest status.
+ */
+public class SessionStatusUpdates implements AutoCloseable {
+
+    private static final RecordCodec<SessionStatusChange> CODEC = new RecordCodec<SessionStatusChange>() {
+        @Override
+        public void write(SessionStatusChange change, DataOutput out) throws IOException {
+            out.writeUTF(change.getSessionId());
+            out.writeUTF(change.getStatus());
+            out.writeLong(change.getChangedAtMillis());
+        }
+
+        @Override
+        public SessionStatusChange read(DataInput in) throws IOException {
+            return new SessionStatusChange(in.readUTF(), in.readUTF(), in.readLong());
+        }
+    };
+
+    private final WriteBehindBuffer<SessionStatusChange> buffer;
+    private final AsyncExecutor executor;
+    private final Clock clock;
+
+    public SessionStatusUpdates(Path journalFile, TrainingSessionRepository repository, AsyncExecutor executor,
+                                Clock clock, int batchSize, Duration maxDelay, int capacity) throws IOException {
+        this.executor = executor;
+        this.clock = clock;
+        this.buffer = new WriteBehindBuffer<>("session-status", journalFile, CODEC,
+            new BatchWriter<SessionStatusChange>() {
+                @Override
+                public void prepare() throws SQLException {
+                    repository.createTables();
+                }
+
+                @Override
+                public void write(List<SessionStatusChange> batch) throws SQLException {
+                    Map<String, String> latest = new LinkedHashMap<>();
+                    for (SessionStatusChange change : batch) {
+                        latest.put(change.getSessionId(), change.getStatus());
+                    }
+                    repository.updateStatuses(latest);
+                }
+            }, batchSize, maxDelay, capacity);
+    }
+
+    public void start() {
+        buffer.start();
+    }
+
+    /**
+     * Record a status change. Completes once the change is in the local
+     * journal; it reaches the database with the next batch. If the
+     * buffer stays full (the database has been away a long time) the
+     * call times out instead.
+     */
+    public CompletableFuture<Void> change(String sessionId, String status) {
+        SessionStatusChange change = new SessionStatusChange(sessionId, status, clock.millis());
+        return executor.submit(() -> {
+            buffer.submit(change);
+            return null;
+        });
+    }
+
+    /**
+     * Backlog and connection state
+     */
+    public WriteBehindBuffer<SessionStatusChange> getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+    }
+}
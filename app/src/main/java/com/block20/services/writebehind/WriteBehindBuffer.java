@@ -0,0 +1,490 @@
+/*
+ * Block20 Gym Management System
+ * Write-Behind Buffer - journaled, batched database writes
+ */
+package com.block20.services.writebehind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Accepts small, frequent writes and stores them in the database in
+ * batches.
+ *
+ * A write is appended to a local journal and forced to disk before
+ * {@link #submit} returns, so once accepted it survives a crash or a
+ * database outage. Writers arriving while a force is in progress share
+ * the next one. A background thread sends what has built up through the
+ * {@link BatchWriter} as soon as a full batch is waiting, or once the
+ * oldest write has waited for the flush delay, and moves a cursor file
+ * past each stored batch. Writes past the cursor are read back from the
+ * journal on the next start. The journal is emptied whenever everything
+ * in it has been stored and it has grown past a few hundred kilobytes.
+ *
+ * At most {@code capacity} writes wait in memory. When the database
+ * falls that far behind, {@link #submit} blocks and {@link #offer} gives
+ * up, so callers slow down instead of the buffer growing without limit.
+ *
+ * Journal record: int payload length, int CRC32 of the payload, payload.
+ */
+public class WriteBehindBuffer<T> implements AutoCloseable {
+
+    private static final int RECORD_HEADER = 8;
+    private static final long TRUNCATE_BYTES = 256 * 1024;
+    private static final long MIN_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String name;
+    private final Path cursorFile;
+    private final FileChannel journal;
+    private final RecordCodec<T> codec;
+    private final BatchWriter<T> writer;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // Guarded by lock. Offsets are logical: they keep growing when the journal file is emptied.
+    private final ArrayDeque<Pending<T>> pending = new ArrayDeque<>();
+    private long journalBase;
+    private long appendedTo;
+    private boolean closed;
+
+    // Group commit: the thread holding this forces everything appended so far
+    private final Object commitLock = new Object();
+    private volatile long durableTo;
+
+    // Only one batch is in flight at a time
+    private final Object flushLock = new Object();
+    private boolean prepared;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile String lastError;
+    private volatile long flushedCount;
+    private volatile long batchCount;
+    private Thread flusher;
+
+    /**
+     * Open (or create) the journal and queue any writes a previous run
+     * accepted but did not store
+     *
+     * @param journalFile local journal; the cursor lives next to it
+     * @param batchSize   most writes sent in one batch, and the backlog that triggers an immediate flush
+     * @param maxDelay    longest a write waits for its batch to fill
+     * @param capacity    writes held before callers are made to wait
+     */
+    public WriteBehindBuffer(String name, Path journalFile, RecordCodec<T> codec, BatchWriter<T> writer,
+                             int batchSize, Duration maxDelay, int capacity) throws IOException {
+        this.name = name;
+        this.cursorFile = journalFile.resolveSibling(journalFile.getFileName() + ".cursor");
+        this.codec = codec;
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.capacity = Math.max(capacity, batchSize);
+        this.journal = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, name + "-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Accept a write once it is on local disk, waiting for room if the
+     * buffer is full
+     */
+    public void submit(T item) throws IOException, InterruptedException {
+        append(item, -1);
+    }
+
+    /**
+     * Like {@link #submit}, but give up if there is still no room after the timeout
+     *
+     * @return false if the buffer stayed full
+     */
+    public boolean offer(T item, Duration timeout) throws IOException, InterruptedException {
+        return append(item, Math.max(0, timeout.toNanos()));
+    }
+
+    /**
+     * @param waitNanos how long to wait for room, or -1 to wait as long as it takes
+     */
+    private boolean append(T item, long waitNanos) throws IOException, InterruptedException {
+        ByteBuffer record = encode(item);
+        long end;
+        boolean timed = waitNanos >= 0;
+        lock.lockInterruptibly();
+        try {
+            while (pending.size() >= capacity && !closed) {
+                if (!timed) {
+                    notFull.await();
+                } else if (waitNanos <= 0) {
+                    return false;
+                } else {
+                    waitNanos = notFull.awaitNanos(waitNanos);
+                }
+            }
+            if (closed) {
+                throw new IOException("Write-behind buffer " + name + " is closed");
+            }
+            long position = appendedTo - journalBase;
+            while (record.hasRemaining()) {
+                position += journal.write(record, position);
+            }
+            appendedTo = journalBase + position;
+            end = appendedTo;
+            pending.add(new Pending<>(item, end, System.nanoTime()));
+            if (pending.size() == batchSize) {
+                LockSupport.unpark(flusher);
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(end);
+        return true;
+    }
+
+    private ByteBuffer encode(T item) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(item, out);
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    private void awaitDurable(long end) throws IOException {
+        if (durableTo >= end) {
+            return;
+        }
+        synchronized (commitLock) {
+            if (durableTo >= end) {
+                // Forced by whoever held the lock before us
+                return;
+            }
+            long target;
+            lock.lock();
+            try {
+                target = appendedTo;
+            } finally {
+                lock.unlock();
+            }
+            journal.force(false);
+            durableTo = target;
+        }
+    }
+
+    /**
+     * Send everything buffered now, one batch at a time
+     *
+     * @return number of writes stored by this call
+     * @throws SQLException if the database is unreachable; nothing is lost
+     */
+    public long flush() throws SQLException, IOException {
+        long stored = 0;
+        while (true) {
+            int sent = flushBatch();
+            if (sent == 0) {
+                return stored;
+            }
+            stored += sent;
+        }
+    }
+
+    private int flushBatch() throws SQLException, IOException {
+        synchronized (flushLock) {
+            List<T> batch = new ArrayList<>(batchSize);
+            long end = 0;
+            lock.lock();
+            try {
+                Iterator<Pending<T>> it = pending.iterator();
+                while (it.hasNext() && batch.size() < batchSize) {
+                    Pending<T> next = it.next();
+                    batch.add(next.item);
+                    end = next.end;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                if (!prepared) {
+                    writer.prepare();
+                    prepared = true;
+                }
+                writer.write(batch);
+                connected = true;
+                lastError = null;
+            } catch (SQLException e) {
+                connected = false;
+                lastError = e.getMessage();
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    pending.poll();
+                }
+                if (pending.isEmpty() && appendedTo - journalBase > TRUNCATE_BYTES) {
+                    // Everything is stored; start the file over rather than let it grow.
+                    // Emptying it before resetting the cursor means a crash in between
+                    // leaves a cursor past the end, which recover() treats as empty.
+                    journal.truncate(0);
+                    journal.force(false);
+                    journalBase = appendedTo;
+                    writeCursor(0);
+                } else {
+                    writeCursor(end - journalBase);
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            flushedCount += batch.size();
+            batchCount++;
+            return batch.size();
+        }
+    }
+
+    /**
+     * Writes accepted but not yet stored in the database
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes stored since start
+     */
+    public long getFlushedCount() {
+        return flushedCount;
+    }
+
+    /**
+     * Batches sent since start; flushed count over this is the average batch size
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Stop the flusher, try once more to store what is buffered, and
+     * close the journal. Anything the database did not take is sent on
+     * the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            thread = running ? flusher : null;
+            running = false;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("Write-behind " + name + " left " + getPendingCount()
+                + " writes for next start: " + e.getMessage());
+        }
+        synchronized (commitLock) {
+            journal.force(false);
+            // Writers still waiting on a force find their records covered by this one
+            lock.lock();
+            try {
+                durableTo = appendedTo;
+            } finally {
+                lock.unlock();
+            }
+            journal.close();
+        }
+    }
+
+    private void runFlusher() {
+        long retryNanos = MIN_RETRY_NANOS;
+        while (running) {
+            long waitNanos = nextFlushDelay();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+                continue;
+            }
+            try {
+                flushBatch();
+                retryNanos = MIN_RETRY_NANOS;
+            } catch (SQLException e) {
+                // Offline: keep accepting locally and try again later
+                LockSupport.parkNanos(retryNanos);
+                retryNanos = Math.min(MAX_RETRY_NANOS, retryNanos * 2);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Write-behind " + name + " failed: " + e.getMessage());
+                LockSupport.parkNanos(MAX_RETRY_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Zero if a batch should go now, otherwise how long until one should
+     */
+    private long nextFlushDelay() {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return maxDelayNanos;
+            }
+            if (pending.size() >= batchSize) {
+                return 0;
+            }
+            return Math.max(0, pending.peek().acceptedNanos + maxDelayNanos - System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue the records past the cursor. A record cut short by a crash
+     * mid-append, and anything after it, is dropped from the file; its
+     * writer was never told it had been accepted.
+     */
+    private void recover() throws IOException {
+        long size = journal.size();
+        long cursor = readCursor();
+        if (cursor > size) {
+            cursor = 0;
+        }
+        long position = cursor;
+        long now = System.nanoTime();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        while (position + RECORD_HEADER <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length < 0 || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + RECORD_HEADER);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != header.getInt(4)) {
+                break;
+            }
+            T item = codec.read(new DataInputStream(new ByteArrayInputStream(payload.array())));
+            position += RECORD_HEADER + length;
+            pending.add(new Pending<>(item, position, now));
+        }
+        if (position < size) {
+            journal.truncate(position);
+        }
+        appendedTo = position;
+        durableTo = position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = journal.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal " + name);
+            }
+        }
+    }
+
+    private long readCursor() throws IOException {
+        if (!Files.exists(cursorFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(cursorFile);
+        if (bytes.length != Long.BYTES) {
+            throw new IOException("Corrupt write-behind cursor: " + cursorFile);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    /**
+     * Write-then-rename so a crash leaves either the old or the new cursor
+     */
+    private void writeCursor(long value) throws IOException {
+        Path temp = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+        Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+        Files.move(temp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class Pending<T> {
+        final T item;
+        // Logical journal offset just past this write
+        final long end;
+        final long acceptedNanos;
+
+        Pending(T item, long end, long acceptedNanos) {
+            this.item = item;
+            this.end = end;
+            this.acceptedNanos = acceptedNanos;
+        }
+    }
+}
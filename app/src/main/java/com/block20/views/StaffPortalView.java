@@ -17,6 +17,7 @@ import com.block20.controllers.equipment.EquipmentInventoryController;
 import com.block20.controllers.equipment.MaintenanceScheduleController;
 import com.block20.controllers.FinancialReportsController;
 import com.block20.controllers.OperationalReportsController;
+import com.block20.services.ServiceContext;
 import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Priority;
@@ -35,10 +36,12 @@ public class StaffPortalView {
     
     private final String staffName;
     private final String staffRole;
+    private final ServiceContext services;
     
-    public StaffPortalView(String staffName, String staffRole) {
+    public StaffPortalView(String staffName, String staffRole, ServiceContext services) {
         this.staffName = staffName;
         this.staffRole = staffRole;
+        this.services = services;
         initializeView();
     }
     
@@ -115,7 +118,7 @@ public class StaffPortalView {
      * Show the dashboard view
      */
     private void showDashboard() {
-        StaffDashboardController dashboard = new StaffDashboardController(staffName);
+        StaffDashboardController dashboard = new StaffDashboardController(staffName, services);
         setContent(dashboard);
     }
     
@@ -123,7 +126,7 @@ public class StaffPortalView {
      * Show check-in/check-out view
      */
     private void showCheckIn() {
-        CheckInController checkInController = new CheckInController();
+        CheckInController checkInController = new CheckInController(services);
         setContent(checkInController);
     }
     
@@ -131,7 +134,7 @@ public class StaffPortalView {
      * Show member registry view (combines search, create, attendance)
      */
     private void showMembersRegistry() {
-        MemberRegistryController memberRegistry = new MemberRegistryController(this::handleNavigation);
+        MemberRegistryController memberRegistry = new MemberRegistryController(this::handleNavigation, services);
         setContent(memberRegistry);
     }
     
@@ -139,7 +142,7 @@ public class StaffPortalView {
      * Show new enrollment view
      */
     private void showEnrollmentNew() {
-        EnrollmentController enrollmentController = new EnrollmentController(this::handleNavigation);
+        EnrollmentController enrollmentController = new EnrollmentController(this::handleNavigation, services);
         setContent(enrollmentController);
     }
     
@@ -147,7 +150,7 @@ public class StaffPortalView {
      * Show renewals view (pending renewals + renewal processing)
      */
     private void showRenewals() {
-        RenewalsController renewalsController = new RenewalsController(this::handleNavigation);
+        RenewalsController renewalsController = new RenewalsController(this::handleNavigation, services);
         setContent(renewalsController.getView());
     }
     
@@ -163,7 +166,7 @@ public class StaffPortalView {
      * Show training sessions view (combines view sessions and schedule)
      */
     private void showTrainersSessions() {
-        TrainingSessionsController trainingSessionsController = new TrainingSessionsController(this::handleNavigation);
+        TrainingSessionsController trainingSessionsController = new TrainingSessionsController(this::handleNavigation, services);
         setContent(trainingSessionsController);
     }
     
@@ -171,7 +174,7 @@ public class StaffPortalView {
      * Show equipment inventory view (includes add equipment)
      */
     private void showEquipmentInventory() {
-        EquipmentInventoryController equipmentInventoryController = new EquipmentInventoryController(this::handleNavigation);
+        EquipmentInventoryController equipmentInventoryController = new EquipmentInventoryController(this::handleNavigation, services);
         setContent(equipmentInventoryController);
     }
     
@@ -179,7 +182,7 @@ public class StaffPortalView {
      * Show maintenance schedule view
      */
     private void showEquipmentMaintenance() {
-        MaintenanceScheduleController maintenanceScheduleController = new MaintenanceScheduleController(this::handleNavigation);
+        MaintenanceScheduleController maintenanceScheduleController = new MaintenanceScheduleController(this::handleNavigation, services);
         setContent(maintenanceScheduleController);
     }
     
@@ -187,7 +190,7 @@ public class StaffPortalView {
      * Show financial reports view
      */
     private void showReportsFinancial() {
-        FinancialReportsController financialReportsController = new FinancialReportsController(this::handleNavigation);
+        FinancialReportsController financialReportsController = new FinancialReportsController(this::handleNavigation, services);
         setContent(financialReportsController);
     }
     
@@ -195,7 +198,7 @@ public class StaffPortalView {
      * Show operational reports view
      */
     private void showReportsOperational() {
-        OperationalReportsController operationalReportsController = new OperationalReportsController(this::handleNavigation);
+        OperationalReportsController operationalReportsController = new OperationalReportsController(this::handleNavigation, services);
         setContent(operationalReportsController);
     }
     
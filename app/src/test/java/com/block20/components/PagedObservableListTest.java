@@ -0,0 +1,100 @@
+/*
+ * Block20 Gym Management System
+ * Paged observable list tests
+ */
+package com.block20.components;
+
+import javafx.collections.ListChangeListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PagedObservableListTest {
+
+    private static final String LOADING = "loading";
+
+    @Test
+    public void pagesLoadOnFirstReadAndOldOnesAreEvicted() {
+        PagedObservableList<String> list = new PagedObservableList<>(source(rows(250)), LOADING, 50, 2,
+            Runnable::run, Runnable::run);
+        list.refresh();
+        assertEquals(250, list.size());
+
+        // Loaded synchronously here, so the second read sees the row
+        assertEquals(LOADING, list.get(0));
+        assertEquals("r0", list.get(0));
+        list.get(120);
+        assertEquals("r120", list.get(120));
+        list.get(240);
+        assertEquals(2, list.getLoadedPageCount());
+    }
+
+    @Test
+    public void refreshReportsTheRowsThatWereShown() {
+        List<String> rows = rows(120);
+        PagedObservableList<String> list = new PagedObservableList<>(source(rows), LOADING, 50, 4,
+            Runnable::run, Runnable::run);
+        list.refresh();
+        // Mid-page, so the neighbours are not prefetched
+        list.get(75);
+        assertEquals("r75", list.get(75));
+
+        List<String> removed = new ArrayList<>();
+        int[] added = {0};
+        list.addListener((ListChangeListener<String>) change -> {
+            while (change.next()) {
+                removed.addAll(change.getRemoved());
+                added[0] += change.getAddedSize();
+            }
+        });
+        rows.remove(0);
+        list.refresh();
+
+        assertEquals(120, removed.size());
+        assertEquals(LOADING, removed.get(0));
+        assertEquals("r75", removed.get(75));
+        assertEquals("r99", removed.get(99));
+        assertEquals(LOADING, removed.get(100));
+        assertEquals(119, added[0]);
+        assertEquals(0, list.getLoadedPageCount());
+        list.get(75);
+        assertEquals("r76", list.get(75));
+    }
+
+    private static List<String> rows(int count) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add("r" + i);
+        }
+        return rows;
+    }
+
+    private static PagedObservableList.PageSource<String> source(List<String> rows) {
+        return new PagedObservableList.PageSource<>() {
+            @Override
+            public int count() {
+                return rows.size();
+            }
+
+            @Override
+            public List<String> after(String last, int limit) {
+                return at(rows.indexOf(last) + 1, limit);
+            }
+
+            @Override
+            public List<String> before(String first, int limit) {
+                int end = rows.indexOf(first);
+                return at(Math.max(0, end - limit), end - Math.max(0, end - limit));
+            }
+
+            @Override
+            public List<String> at(int offset, int limit) {
+                return new ArrayList<>(rows.subList(Math.min(offset, rows.size()),
+                    Math.min(offset + limit, rows.size())));
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Block20 Gym Management System
+ * Connection pool tests against an in-memory database
+ */
+package com.block20.repositories;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    @Before
+    public void setUp() throws SQLException {
+        database.execute("CREATE TABLE visits (id INT PRIMARY KEY, note VARCHAR(20))");
+    }
+
+    @Test
+    public void borrowersWaitForAFreeConnectionThenTimeOut() throws Exception {
+        try (ConnectionPool pool = pool(2, Duration.ofMillis(200), Duration.ofSeconds(30))) {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            try {
+                pool.getConnection();
+                fail("Expected the borrow to time out");
+            } catch (SQLTransientConnectionException expected) {
+                // Both connections are out
+            }
+
+            Thread closer = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                    first.close();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            closer.start();
+            try (Connection third = pool.getConnection()) {
+                assertTrue(third.isValid(1));
+            }
+            closer.join();
+            second.close();
+
+            ConnectionPoolStats stats = pool.getStats();
+            assertEquals(2, stats.getTotal());
+            assertEquals(0, stats.getActive());
+            assertEquals(1, stats.getTimeouts());
+            assertEquals(3, stats.getBorrows());
+            assertTrue(stats.getMaxWaitMillis() >= 40);
+        }
+    }
+
+    @Test
+    public void statementsAreReusedAndConnectionsComeBackClean() throws Exception {
+        String insert = "INSERT INTO visits (id, note) VALUES (?, ?)";
+        try (ConnectionPool pool = pool(1, Duration.ofSeconds(1), Duration.ofSeconds(30))) {
+            PreparedStatement physical;
+            Statement forgotten;
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                    physical = stmt.unwrap(PreparedStatement.class);
+                    stmt.setInt(1, 1);
+                    stmt.setString(2, "never committed");
+                    stmt.executeUpdate();
+                }
+                forgotten = conn.createStatement();
+            }
+            assertTrue(forgotten.isClosed());
+
+            try (Connection conn = pool.getConnection()) {
+                assertTrue(conn.getAutoCommit());
+                try (PreparedStatement stmt = conn.prepareStatement(insert)) {
+                    assertSame(physical, stmt.unwrap(PreparedStatement.class));
+                    assertSame(conn, stmt.getConnection());
+                    stmt.setInt(1, 2);
+                    stmt.setString(2, "kept");
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM visits");
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    assertEquals(1, rs.getInt(1));
+                }
+            }
+
+            ConnectionPoolStats stats = pool.getStats();
+            assertEquals(1, stats.getStatementHits());
+            assertEquals(2, stats.getStatementMisses());
+        }
+    }
+
+    @Test
+    public void deadIdleConnectionsAreReplaced() throws Exception {
+        try (ConnectionPool pool = pool(1, Duration.ofSeconds(1), Duration.ofSeconds(30))) {
+            Connection physical;
+            try (Connection conn = pool.getConnection()) {
+                physical = conn.unwrap(Connection.class);
+            }
+            physical.close();
+            // Past the window in which a just-returned connection is trusted
+            Thread.sleep(600);
+
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM visits");
+                 ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+            }
+            assertEquals(1, pool.getStats().getValidationFailures());
+            assertEquals(1, pool.getStats().getTotal());
+        }
+    }
+
+    @Test
+    public void connectionsHeldTooLongAreReportedOnce() throws Exception {
+        try (ConnectionPool pool = pool(2, Duration.ofSeconds(1), Duration.ofMillis(50))) {
+            Connection held = pool.getConnection();
+            try (Connection brief = pool.getConnection()) {
+                assertFalse(brief.isClosed());
+            }
+            Thread.sleep(100);
+
+            assertEquals(1, pool.detectLeaks());
+            assertEquals(0, pool.detectLeaks());
+            assertEquals(1, pool.getStats().getLeaks());
+            held.close();
+            assertTrue(held.isClosed());
+        }
+    }
+
+    private ConnectionPool pool(int size, Duration borrowTimeout, Duration leakThreshold) {
+        return new ConnectionPool(database, size, borrowTimeout, leakThreshold, 16);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Block20 Gym Management System
+ * In-memory test database
+ */
+package com.block20.repositories;
+
+import org.junit.rules.ExternalResource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fresh in-memory H2 database in MySQL mode for each test. One
+ * connection stays open so the database outlives the connections the
+ * code under test opens and closes.
+ */
+public class H2Database extends ExternalResource implements ConnectionProvider {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final String url = "jdbc:h2:mem:test" + DATABASES.incrementAndGet() + ";MODE=MySQL";
+    private Connection keepAlive;
+
+    @Override
+    protected void before() throws SQLException {
+        keepAlive = DriverManager.getConnection(url);
+    }
+
+    @Override
+    protected void after() {
+        try {
+            keepAlive.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    public void execute(String sql) throws SQLException {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /** Runs a query that returns a single number, e.g. a count */
+    public long queryLong(String sql) throws SQLException {
+        try (Statement stmt = keepAlive.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
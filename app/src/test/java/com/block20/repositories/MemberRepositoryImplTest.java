@@ -0,0 +1,102 @@
+/*
+ * Block20 Gym Management System
+ * Member repository paging tests against an in-memory database
+ */
+package com.block20.repositories;
+
+import com.block20.models.Member;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MemberRepositoryImplTest {
+
+    private static final int MEMBERS = 250;
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    private MemberRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws SQLException {
+        repository = new MemberRepositoryImpl(database);
+        repository.createTables();
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            // Only 10 distinct names, so paging has to break ties on the ID
+            members.add(member(String.format("M%04d", i), "Member " + (i % 10)));
+        }
+        repository.insertMembers(members);
+    }
+
+    @Test
+    public void keysetPagesWalkEveryRowOnceInOrder() throws SQLException {
+        List<Member> walked = new ArrayList<>();
+        List<Member> page = repository.findPageAfter(MemberSortField.NAME, true, null, 40);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            page = repository.findPageAfter(MemberSortField.NAME, true, page.get(page.size() - 1), 40);
+        }
+
+        assertEquals(MEMBERS, walked.size());
+        assertEquals(MEMBERS, repository.countMembers());
+        assertEquals(ids(repository.findPageAt(MemberSortField.NAME, true, 0, MEMBERS)), ids(walked));
+    }
+
+    @Test
+    public void pageBeforeMatchesOffsetPage() throws SQLException {
+        List<Member> third = repository.findPageAt(MemberSortField.NAME, false, 80, 40);
+        List<Member> second = repository.findPageBefore(MemberSortField.NAME, false, third.get(0), 40);
+
+        assertEquals(ids(repository.findPageAt(MemberSortField.NAME, false, 40, 40)), ids(second));
+    }
+
+    @Test
+    public void deletedMembersLeaveThePagesAndArePurgedOnlyWhileMarked() throws SQLException {
+        repository.markDeleted("M0000", 1_000L);
+        repository.markDeleted("M0001", 2_000L);
+
+        assertEquals(MEMBERS - 2, repository.countMembers());
+        assertEquals("M0010", repository.findPageAfter(MemberSortField.NAME, true, null, 1).get(0).getMemberId());
+        assertEquals(List.of("M0002"), ids(repository.findPageBefore(MemberSortField.MEMBER_ID, true,
+            repository.findById("M0003").orElseThrow(), 5)));
+        assertEquals(2_000L, (long) repository.findDeleted().get("M0001"));
+        // Still stored, so the deletion can be undone after a restart
+        assertTrue(repository.findById("M0000").isPresent());
+
+        // Saving the ID again ends the deletion, so a late purge leaves it alone
+        repository.save(member("M0001", "Member 1"));
+        repository.unmarkDeleted("M0000");
+        assertFalse(repository.purge("M0000"));
+        assertFalse(repository.purge("M0001"));
+        assertTrue(repository.findDeleted().isEmpty());
+        assertEquals(MEMBERS, repository.countMembers());
+
+        repository.markDeleted("M0002", 3_000L);
+        assertTrue(repository.purge("M0002"));
+        assertFalse(repository.findById("M0002").isPresent());
+        assertTrue(repository.findDeleted().isEmpty());
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> result = new ArrayList<>();
+        for (Member member : members) {
+            result.add(member.getMemberId());
+        }
+        return result;
+    }
+
+    private static Member member(String id, String name) {
+        return new Member(id, name, id.toLowerCase() + "@example.com", "555-0100", "Basic", "Active",
+            "2024-01-01", "2025-01-01", "2024-01-01", "$29.99", "", "");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Block20 Gym Management System
+ * Payment, session and equipment repository tests through the connection pool
+ */
+package com.block20.repositories;
+
+import com.block20.models.Equipment;
+import com.block20.models.Member;
+import com.block20.models.Payment;
+import com.block20.models.TrainingSession;
+import com.block20.repositories.impl.EquipmentRepositoryImpl;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import com.block20.repositories.impl.PaymentRepositoryImpl;
+import com.block20.repositories.impl.TrainingSessionRepositoryImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PooledRepositoriesTest {
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws SQLException {
+        pool = new ConnectionPool(database, 2, Duration.ofSeconds(1),
+            Duration.ofSeconds(30), 16);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        pool.close();
+    }
+
+    @Test
+    public void paymentsAreStoredOnceAndTotalledByDate() throws SQLException {
+        PaymentRepository payments = new PaymentRepositoryImpl(pool);
+        payments.createTables();
+        assertTrue(payments.save(payment("P1", "M001", "49.99", LocalDate.of(2024, 11, 1))));
+        assertTrue(payments.save(payment("P2", "M002", "29.99", LocalDate.of(2024, 11, 15))));
+        assertTrue(payments.save(payment("P3", "M001", "49.99", LocalDate.of(2024, 12, 1))));
+        assertFalse(payments.save(payment("P1", "M001", "99.99", LocalDate.of(2024, 11, 1))));
+
+        assertEquals(List.of("P3", "P1"), paymentIds(payments.findByMember("M001")));
+        LocalDate from = LocalDate.of(2024, 11, 1);
+        LocalDate to = LocalDate.of(2024, 11, 30);
+        assertEquals(List.of("P1", "P2"), paymentIds(payments.findBetween(from, to)));
+        assertEquals(0, new BigDecimal("79.98").compareTo(payments.totalBetween(from, to)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(payments.totalBetween(to.plusYears(1), to.plusYears(2))));
+        // The same queries ran again and again without being prepared again
+        assertTrue(pool.getStats().getStatementHits() > 0);
+    }
+
+    @Test
+    public void sessionsAndEquipmentAreUpsertedAndQueried() throws SQLException {
+        TrainingSessionRepository sessions = new TrainingSessionRepositoryImpl(pool);
+        sessions.createTables();
+        LocalDateTime morning = LocalDateTime.of(2024, 11, 20, 9, 0);
+        sessions.save(new TrainingSession("S1", "M001", "Mike Johnson", "Personal Training", morning, 60, "Scheduled"));
+        sessions.save(new TrainingSession("S2", "M002", "Sarah Lee", "Yoga", morning.plusHours(2), 45, "Scheduled"));
+        sessions.save(new TrainingSession("S1", "M001", "Mike Johnson", "Personal Training", morning.plusDays(1), 90,
+            "Scheduled"));
+        assertTrue(sessions.updateStatus("S2", "Completed"));
+        assertFalse(sessions.updateStatus("S9", "Completed"));
+
+        TrainingSession moved = sessions.findById("S1").orElseThrow();
+        assertEquals(morning.plusDays(1), moved.getStartsAt());
+        assertEquals(90, moved.getDurationMinutes());
+        List<TrainingSession> today = sessions.findBetween(morning, morning.plusDays(1));
+        assertEquals(1, today.size());
+        assertEquals("Completed", today.get(0).getStatus());
+        assertEquals(1, sessions.findByMember("M001").size());
+
+        EquipmentRepository equipment = new EquipmentRepositoryImpl(pool);
+        equipment.createTables();
+        equipment.save(new Equipment("EQ002", "Rowing Machine", "Cardio", "Cardio Zone", "RW-1", null, null,
+            "Operational", ""));
+        equipment.save(new Equipment("EQ001", "Treadmill", "Cardio", "Cardio Zone", "TM-1",
+            LocalDate.of(2023, 1, 10), LocalDate.of(2026, 1, 10), "Operational", ""));
+        assertTrue(equipment.updateStatus("EQ002", "Out of Service"));
+
+        assertEquals(2, equipment.findAll().size());
+        assertEquals("EQ001", equipment.findAll().get(0).getEquipmentId());
+        assertEquals(LocalDate.of(2026, 1, 10), equipment.findById("EQ001").orElseThrow().getWarrantyExpiry());
+        assertNull(equipment.findById("EQ002").orElseThrow().getPurchaseDate());
+        assertEquals(1, equipment.findByStatus("Out of Service").size());
+        assertFalse(equipment.findById("EQ404").isPresent());
+
+        MemberRepositoryImpl members = new MemberRepositoryImpl(pool);
+        members.createTables();
+        members.save(member("M001", "John Smith"));
+        members.save(member("M001", "John Smythe"));
+        assertEquals("John Smythe", members.findById("M001").orElseThrow().getName());
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    private static Payment payment(String id, String memberId, String amount, LocalDate paidOn) {
+        return new Payment(id, memberId, new BigDecimal(amount), "Card", paidOn, "");
+    }
+
+    private static Member member(String id, String name) {
+        return new Member(id, name, id.toLowerCase() + "@email.com", "555-0101", "Basic", "Active",
+            "2024-01-15", "2025-01-15", "2024-01-15", "50.00", "", "");
+    }
+
+    private static List<String> paymentIds(List<Payment> payments) {
+        List<String> ids = new ArrayList<>();
+        for (Payment payment : payments) {
+            ids.add(payment.getPaymentId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Block20 Gym Management System
+ * Embedded store tests
+ */
+package com.block20.repositories.embedded;
+
+import com.block20.models.Member;
+import com.block20.models.Payment;
+import com.block20.models.TrainingSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EmbeddedStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keysStaySortedAcrossPageSplitsAndReopening() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.db");
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add(String.format("M%06d", i));
+        }
+        List<String> shuffled = new ArrayList<>(keys);
+        Collections.shuffle(shuffled, new Random(42));
+
+        try (EmbeddedStore store = new EmbeddedStore(file)) {
+            for (int from = 0; from < shuffled.size(); from += 1000) {
+                List<String> batch = shuffled.subList(from, from + 1000);
+                store.write(tx -> {
+                    for (String key : batch) {
+                        tx.put("members", key, ("value of " + key).getBytes(StandardCharsets.UTF_8));
+                    }
+                    return null;
+                });
+            }
+            store.write(tx -> {
+                for (int i = 0; i < keys.size(); i += 2) {
+                    assertTrue(tx.delete("members", keys.get(i)));
+                }
+                return null;
+            });
+        }
+
+        try (EmbeddedStore store = new EmbeddedStore(file)) {
+            Map<String, byte[]> all = store.read(tx -> tx.scan("members", null, null));
+            assertEquals(10_000, all.size());
+            List<String> expected = new ArrayList<>();
+            for (int i = 1; i < keys.size(); i += 2) {
+                expected.add(keys.get(i));
+            }
+            assertEquals(expected, new ArrayList<>(all.keySet()));
+            assertEquals("value of M012345", new String(store.read(tx -> tx.get("members", "M012345")).orElseThrow(),
+                StandardCharsets.UTF_8));
+            assertFalse(store.read(tx -> tx.get("members", "M012344")).isPresent());
+            assertEquals(5, store.read(tx -> tx.scan("members", "M000100", "M000110")).size());
+        }
+    }
+
+    @Test
+    public void committedWritesSurviveLostDataPagesAndATornLogTail() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.db");
+        Path wal = folder.getRoot().toPath().resolve("test.db.wal");
+        EmbeddedStore crashed = new EmbeddedStore(file);
+        for (int i = 0; i < 50; i++) {
+            String key = "K" + i;
+            crashed.write(tx -> {
+                tx.put("t", key, key.getBytes(StandardCharsets.UTF_8));
+                return null;
+            });
+        }
+        assertTrue(crashed.logSize() > 0);
+
+        // As if the OS never wrote the mapped pages back, and the last log write was cut short
+        try (FileChannel data = FileChannel.open(file, StandardOpenOption.WRITE);
+             FileChannel log = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            data.write(ByteBuffer.allocate((int) data.size()), 0);
+            log.write(ByteBuffer.wrap(new byte[] {0, 0, 0x40, 0, 1, 2, 3}), log.size());
+        }
+
+        try (EmbeddedStore store = new EmbeddedStore(file)) {
+            assertEquals(50, store.read(tx -> tx.scan("t", null, null)).size());
+            assertEquals(0, store.logSize());
+        }
+    }
+
+    @Test
+    public void aFailedTransactionLeavesNothingBehind() throws Exception {
+        try (EmbeddedStore store = new EmbeddedStore(folder.getRoot().toPath().resolve("test.db"))) {
+            try {
+                store.write(tx -> {
+                    tx.put("t", "a", new byte[] {1});
+                    throw new IOException("disk full");
+                });
+                fail("Expected the write to fail");
+            } catch (SQLException expected) {
+                assertFalse(store.read(tx -> tx.get("t", "a")).isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void repositoriesAnswerRangeQueriesFromTheirIndexes() throws Exception {
+        try (EmbeddedStore store = new EmbeddedStore(folder.getRoot().toPath().resolve("test.db"))) {
+            EmbeddedPaymentRepository payments = new EmbeddedPaymentRepository(store);
+            LocalDate day = LocalDate.of(2024, 11, 20);
+            assertTrue(payments.save(payment("TXN1", "M001", "50.00", day)));
+            assertTrue(payments.save(payment("TXN2", "M001", "85.00", day.plusDays(30))));
+            assertTrue(payments.save(payment("TXN3", "M002", "35.00", day.plusDays(1))));
+            assertFalse(payments.save(payment("TXN1", "M001", "50.00", day)));
+
+            assertEquals("TXN2", payments.findByMember("M001").get(0).getPaymentId());
+            assertEquals(2, payments.findByMember("M001").size());
+            assertEquals(2, payments.findBetween(day, day.plusDays(1)).size());
+            assertEquals(new BigDecimal("85.00"), payments.totalBetween(day, day.plusDays(1)));
+
+            EmbeddedTrainingSessionRepository sessions = new EmbeddedTrainingSessionRepository(store);
+            LocalDateTime nine = day.atTime(9, 0);
+            sessions.save(new TrainingSession("S1", "M001", "Alex", "Strength", nine, 60, "Scheduled"));
+            sessions.save(new TrainingSession("S2", "M002", "Alex", "Cardio", nine.plusHours(2), 45, "Scheduled"));
+            // Rescheduling moves the session in both indexes
+            sessions.save(new TrainingSession("S1", "M001", "Alex", "Strength", nine.plusDays(1), 60, "Scheduled"));
+            assertEquals(1, sessions.findBetween(nine, nine.plusDays(1)).size());
+            assertEquals(2, sessions.updateStatuses(Map.of("S1", "Cancelled", "S2", "Completed", "S9", "Completed")));
+            assertEquals("Cancelled", sessions.findByMember("M001").get(0).getStatus());
+        }
+    }
+
+    @Test
+    public void deletedMembersStayMarkedAcrossReopeningUntilPurged() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("test.db");
+        try (EmbeddedStore store = new EmbeddedStore(file)) {
+            EmbeddedMemberRepository members = new EmbeddedMemberRepository(store);
+            members.insertMembers(List.of(member("M001"), member("M002"), member("M003")));
+            members.markDeleted("M001", 1_000L);
+            members.markDeleted("M002", 2_000L);
+        }
+
+        try (EmbeddedStore store = new EmbeddedStore(file)) {
+            EmbeddedMemberRepository members = new EmbeddedMemberRepository(store);
+            assertEquals(Map.of("M001", 1_000L, "M002", 2_000L), members.findDeleted());
+            assertEquals(3, members.findAll().size());
+
+            // Saved again since the deletion, so the purge leaves it alone
+            members.save(member("M002"));
+            assertFalse(members.purge("M002"));
+            assertTrue(members.purge("M001"));
+            assertFalse(members.findById("M001").isPresent());
+            assertTrue(members.findById("M002").isPresent());
+            assertTrue(members.findDeleted().isEmpty());
+        }
+    }
+
+    @Test
+    public void aRecordTooLargeForAPageIsRefusedLikeTheDatabaseWould() throws Exception {
+        try (EmbeddedStore store = new EmbeddedStore(folder.getRoot().toPath().resolve("test.db"))) {
+            EmbeddedMemberRepository members = new EmbeddedMemberRepository(store);
+            // Three bytes a character in UTF-8
+            Member large = new Member("M001", "Dana Park", "dana@email.com", "555-0100", "Basic", "Active",
+                "2024-11-20", "2024-12-20", "2024-11-20", "29.99", "東".repeat(160), "東".repeat(600));
+            try {
+                members.save(large);
+                fail("Expected the record to be refused");
+            } catch (SQLException e) {
+                assertEquals("22001", e.getSQLState());
+            }
+            assertFalse(members.findById("M001").isPresent());
+            members.save(member("M001"));
+            assertTrue(members.findById("M001").isPresent());
+        }
+    }
+
+    private static Member member(String id) {
+        return new Member(id, "Dana Park", "dana@email.com", "555-0100", "Basic", "Active",
+            "2024-11-20", "2024-12-20", "2024-11-20", "29.99", "", "");
+    }
+
+    private static Payment payment(String id, String memberId, String amount, LocalDate paidOn) {
+        return new Payment(id, memberId, new BigDecimal(amount), "Card", paidOn, "");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Block20 Gym Management System
+ * Background call tests
+ */
+package com.block20.services.async;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class AsyncExecutorTest {
+
+    private ExecutorService ui;
+    private AsyncExecutor executor;
+
+    @Before
+    public void setUp() {
+        // Stands in for the FX application thread
+        ui = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ui"));
+        executor = new AsyncExecutor(ui, Duration.ofSeconds(5));
+    }
+
+    @After
+    public void tearDown() {
+        executor.close();
+        ui.shutdownNow();
+    }
+
+    @Test
+    public void callsRunOnVirtualThreadsAndCompleteOnTheResultExecutor() throws Exception {
+        String[] threads = new String[2];
+        // Hold the call until the next stage is attached, so that stage runs where the call completes
+        CountDownLatch attached = new CountDownLatch(1);
+        CompletableFuture<String> call = executor.submit(() -> {
+            threads[0] = Thread.currentThread().isVirtual() ? "virtual" : Thread.currentThread().getName();
+            attached.await(5, TimeUnit.SECONDS);
+            return "done";
+        });
+        CompletableFuture<String> next = call.thenApply(value -> {
+            threads[1] = Thread.currentThread().getName();
+            return value;
+        });
+        attached.countDown();
+        String result = next.get(5, TimeUnit.SECONDS);
+
+        assertEquals("done", result);
+        assertEquals("virtual", threads[0]);
+        assertEquals("ui", threads[1]);
+    }
+
+    @Test
+    public void slowCallsTimeOutAndAreInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }, Duration.ofMillis(100)).get(5, TimeUnit.SECONDS);
+            fail("Expected the call to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Block20 Gym Management System
+ * Read-through cache tests
+ */
+package com.block20.services.cache;
+
+import com.block20.models.Equipment;
+import com.block20.repositories.ConnectionPool;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.EquipmentRepositoryImpl;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TinyLfuCacheTest {
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    @Test
+    public void frequentlyReadKeysSurviveAOneOffScan() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 100, Duration.ofHours(1));
+        CacheLoader<String, String> loader = key -> "value-" + key;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot" + i, loader);
+            }
+        }
+        // Paging through a long list once should not push out the hot keys
+        for (int i = 0; i < 10_000; i++) {
+            cache.get("scan" + i, loader);
+        }
+        long hitsBefore = cache.getStats().getHits();
+        for (int i = 0; i < 50; i++) {
+            assertEquals("value-hot" + i, cache.get("hot" + i, loader).orElseThrow());
+        }
+        assertTrue(cache.getStats().getHits() - hitsBefore >= 45);
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getStats().getEvictions() > 0);
+    }
+
+    @Test
+    public void entriesExpireAfterTheirTimeToLive() throws Exception {
+        TestClock clock = new TestClock();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10, Duration.ofMinutes(5), clock);
+        AtomicInteger loads = new AtomicInteger();
+        CacheLoader<String, String> loader = key -> key + loads.incrementAndGet();
+
+        assertEquals("a1", cache.get("a", loader).orElseThrow());
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals("a1", cache.get("a", loader).orElseThrow());
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals("a2", cache.get("a", loader).orElseThrow());
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getExpirations());
+        // Nothing is cached for a key the loader does not know
+        assertFalse(cache.get("missing", key -> null).isPresent());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoadAndInvalidationKeepsItOut() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>("test", 10, Duration.ofHours(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CacheLoader<String, String> slow = key -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "stale";
+        };
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = readers.submit(() -> cache.get("k", slow).orElseThrow());
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.getStats().getMisses() < results.length && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            // A write lands while the read is still on its way back
+            cache.invalidate("k");
+            release.countDown();
+            for (Future<?> result : results) {
+                assertEquals("stale", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("fresh", cache.get("k", key -> "fresh").orElseThrow());
+    }
+
+    @Test
+    public void equipmentWritesDropTheEntriesTheyChange() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(database, 2)) {
+            CachedEquipmentRepository equipment = new CachedEquipmentRepository(new EquipmentRepositoryImpl(pool),
+                100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+            equipment.createTables();
+            equipment.save(new Equipment("EQ1", "Treadmill", "Cardio", "Floor 1", "SN1",
+                LocalDate.of(2023, 1, 10), LocalDate.of(2026, 1, 10), "Maintenance", ""));
+
+            assertEquals("Maintenance", equipment.findById("EQ1").orElseThrow().getStatus());
+            assertEquals(1, equipment.findByStatus("Maintenance").size());
+            assertEquals("Maintenance", equipment.findById("EQ1").orElseThrow().getStatus());
+            assertEquals(1, equipment.getStats().get(0).getHits());
+
+            assertTrue(equipment.updateStatus("EQ1", "Operational"));
+            assertEquals("Operational", equipment.findById("EQ1").orElseThrow().getStatus());
+            assertTrue(equipment.findByStatus("Maintenance").isEmpty());
+            assertEquals(1, equipment.findAll().size());
+        }
+    }
+
+    private static final class TestClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2024-11-20T12:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
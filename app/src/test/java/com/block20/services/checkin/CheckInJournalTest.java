@@ -0,0 +1,176 @@
+/*
+ * Block20 Gym Management System
+ * Check-in journal tests
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CheckInJournalTest {
+
+    // Must match the layout in CheckInJournal
+    private static final int HEADER_SIZE = 64;
+    private static final int SEGMENT_RECORDS = 65536;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eventsAreReplayedInOrderAfterReopening() throws Exception {
+        Path file = journalFile();
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            assertEquals(1, journal.append(event("M001", CheckInAction.CHECK_IN, 1_000)));
+            assertEquals(2, journal.append(event("M002", CheckInAction.CHECK_IN, 2_000)));
+            assertEquals(3, journal.append(event("M001", CheckInAction.CHECK_OUT, 3_000)));
+        }
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            List<CheckInEvent> events = new ArrayList<>();
+            journal.replay(events::add);
+            assertEquals(3, events.size());
+            assertEquals("M002", events.get(1).getMemberId());
+            assertEquals(CheckInAction.CHECK_OUT, events.get(2).getAction());
+            assertEquals(3_000, events.get(2).getTimestampMillis());
+            assertEquals("Front Desk", events.get(2).getEntrance());
+
+            assertEquals(0, journal.indexOf(0));
+            assertEquals(1, journal.indexOf(1_001));
+            assertEquals(2, journal.indexOf(3_000));
+            assertEquals(3, journal.indexOf(3_001));
+            List<CheckInEvent> fromSecond = new ArrayList<>();
+            journal.replay(1, fromSecond::add);
+            assertEquals(2, fromSecond.size());
+
+            List<Long> times = new ArrayList<>();
+            journal.checkInTimes("M001", times::add);
+            assertEquals(List.of(1_000L), times);
+            assertEquals(2, journal.read(1, 10).size());
+        }
+    }
+
+    @Test
+    public void aTornRecordEndsTheJournalAndIsOverwritten() throws Exception {
+        Path file = journalFile();
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            for (int i = 1; i <= 4; i++) {
+                journal.append(event("M00" + i, CheckInAction.CHECK_IN, i * 1_000L));
+            }
+        }
+        // The third record only half reached the disk
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), HEADER_SIZE + 2L * CheckInJournal.RECORD_SIZE + 20);
+        }
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            assertEquals(2, journal.size());
+            assertEquals(3, journal.append(event("M009", CheckInAction.CHECK_IN, 9_000)));
+        }
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            List<CheckInEvent> events = new ArrayList<>();
+            journal.replay(events::add);
+            assertEquals(3, events.size());
+            assertEquals("M009", events.get(2).getMemberId());
+        }
+    }
+
+    @Test
+    public void aFileThatIsNotAJournalIsRejected() throws Exception {
+        Path file = journalFile();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("member_id,name\n".getBytes()));
+        }
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            fail("Opened " + journal.size() + " records from a CSV file");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("Not a check-in journal"));
+        }
+    }
+
+    @Test
+    public void appendsRollOverIntoANewSegment() throws Exception {
+        Path file = journalFile();
+        int total = SEGMENT_RECORDS + 10;
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            for (int i = 0; i < total; i++) {
+                journal.append(event("M" + (i % 100), CheckInAction.CHECK_IN, 1_000L + i));
+            }
+        }
+        try (CheckInJournal journal = new CheckInJournal(file, 1)) {
+            assertEquals(total, journal.size());
+            List<CheckInEvent> spanning = journal.read(SEGMENT_RECORDS - 2, 4);
+            assertEquals(4, spanning.size());
+            for (int i = 0; i < spanning.size(); i++) {
+                assertEquals(1_000L + SEGMENT_RECORDS - 2 + i, spanning.get(i).getTimestampMillis());
+            }
+            long[] count = {0};
+            journal.checkInTimes("M7", time -> count[0]++);
+            assertEquals((total + 92) / 100, count[0]);
+        }
+    }
+
+    @Test
+    public void awaitDurableReturnsOnceCommittedOrClosed() throws Exception {
+        CheckInJournal journal = new CheckInJournal(journalFile(), 1);
+        try {
+            long sequence = journal.append(event("M001", CheckInAction.CHECK_IN, 1_000));
+            journal.awaitDurable(sequence);
+
+            // A sequence that is never written is released by close
+            CountDownLatch released = new CountDownLatch(1);
+            Thread waiter = new Thread(() -> {
+                try {
+                    journal.awaitDurable(sequence + 1);
+                    released.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            waiter.start();
+            assertFalse(released.await(50, TimeUnit.MILLISECONDS));
+            journal.close();
+            assertTrue(released.await(5, TimeUnit.SECONDS));
+        } finally {
+            journal.close();
+        }
+        try {
+            journal.append(event("M002", CheckInAction.CHECK_IN, 2_000));
+            fail("Appended to a closed journal");
+        } catch (IOException expected) {
+            // Events after shutdown are refused, not lost silently
+        }
+    }
+
+    @Test
+    public void memberIdsLongerThanTheFieldAreRefused() throws Exception {
+        try (CheckInJournal journal = new CheckInJournal(journalFile(), 1)) {
+            try {
+                journal.append(event("M-0123456789-0123456789-0123456789", CheckInAction.CHECK_IN, 1_000));
+                fail("Expected the ID to be refused");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(0, journal.size());
+            }
+        }
+    }
+
+    private Path journalFile() {
+        return folder.getRoot().toPath().resolve("checkins.journal");
+    }
+
+    private static CheckInEvent event(String memberId, CheckInAction action, long timestamp) {
+        return new CheckInEvent(memberId, action, timestamp, "Front Desk");
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Block20 Gym Management System
+ * Peak-hour check-in load simulator
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.models.Member;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a morning rush against the same path the check-in screen uses:
+ * scans are published to a {@link ScanPipeline} from one thread per
+ * entrance and go through eligibility, occupancy and the journal.
+ *
+ * The stream is either synthetic (Poisson arrivals for a 6-8am window
+ * with bursts before each class start, spread over every entrance, and a
+ * check-out 45-90 minutes after each arrival) or recorded, read from an
+ * existing check-in journal. Simulated time is compressed by {@code speedup}.
+ *
+ * Latency is measured from the moment a scan was due, not when it was
+ * actually published, so a stalled producer shows up in the numbers.
+ * Exits with status 1 if occupancy ends up inconsistent or p99 exceeds
+ * {@code maxP99Micros}, so it can guard a release.
+ *
+ * Run with: gradle :app:checkInLoadTest --args="scale=20 speedup=360"
+ * Options: members, scale, speedup, seed, typoRate, maxP99Micros, journal=&lt;path&gt;
+ */
+public class CheckInLoadSimulator {
+
+    private static final int WINDOW_MINUTES = 120;
+    // Walk-ins per minute at scale 1, before class bursts
+    private static final double BASE_ARRIVALS_PER_MINUTE = 4;
+    // Extra arrivals in the ten minutes before each class, at scale 1
+    private static final double CLASS_BURST_ARRIVALS = 30;
+    private static final int[] CLASS_START_MINUTES = {0, 30, 60, 90, 120};
+    private static final int BURST_LEAD_MINUTES = 10;
+    private static final int MIN_STAY_MINUTES = 45;
+    private static final int MAX_STAY_MINUTES = 90;
+    // Share of traffic per entrance, in OccupancyService.ZONES order
+    private static final double[] ENTRANCE_WEIGHTS = {0.4, 0.1, 0.25, 0.25};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int members = Integer.parseInt(options.getOrDefault("members", "20000"));
+        double scale = Double.parseDouble(options.getOrDefault("scale", "20"));
+        double speedup = Double.parseDouble(options.getOrDefault("speedup", "360"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double typoRate = Double.parseDouble(options.getOrDefault("typoRate", "0.01"));
+        long maxP99Micros = Long.parseLong(options.getOrDefault("maxP99Micros", "0"));
+
+        List<Scan> scans;
+        Set<String> memberIds;
+        if (options.containsKey("journal")) {
+            scans = loadRecorded(Paths.get(options.get("journal")));
+            memberIds = new LinkedHashSet<>();
+            for (Scan scan : scans) {
+                memberIds.add(scan.memberId);
+            }
+            System.out.printf("Recorded stream: %,d scans from %s%n", scans.size(), options.get("journal"));
+        } else {
+            memberIds = new LinkedHashSet<>();
+            for (int i = 0; i < members; i++) {
+                memberIds.add("L" + i);
+            }
+            scans = generateRush(new ArrayList<>(memberIds), scale, typoRate, new Random(seed));
+            System.out.printf("Synthetic rush: %,d scans over %d simulated minutes, %,d members, scale %.1f%n",
+                scans.size(), WINDOW_MINUTES, members, scale);
+        }
+
+        Result result = run(memberIds, scans, speedup);
+        boolean passed = result.report(maxP99Micros);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Non-homogeneous Poisson arrivals: the rate is constant within each
+     * simulated minute, so gaps inside a minute are exponential.
+     */
+    static List<Scan> generateRush(List<String> memberIds, double scale, double typoRate, Random random) {
+        List<Scan> scans = new ArrayList<>();
+        List<String> outside = new ArrayList<>(memberIds);
+        long typos = 0;
+
+        for (int minute = 0; minute < WINDOW_MINUTES; minute++) {
+            double rate = arrivalsPerMinute(minute) * scale;
+            double t = minute + exponential(rate, random);
+            while (t < minute + 1 && !outside.isEmpty()) {
+                long dueNanos = minutesToNanos(t);
+                String entrance = pickEntrance(random);
+                if (random.nextDouble() < typoRate) {
+                    // Mistyped or foreign card; must be turned away
+                    scans.add(new Scan(dueNanos, "X" + (typos++), CheckInAction.CHECK_IN, entrance));
+                } else {
+                    // Swap-remove keeps picking a random member O(1)
+                    int pick = random.nextInt(outside.size());
+                    String memberId = outside.get(pick);
+                    outside.set(pick, outside.get(outside.size() - 1));
+                    outside.remove(outside.size() - 1);
+
+                    scans.add(new Scan(dueNanos, memberId, CheckInAction.CHECK_IN, entrance));
+                    double stay = MIN_STAY_MINUTES + random.nextDouble() * (MAX_STAY_MINUTES - MIN_STAY_MINUTES);
+                    if (t + stay < WINDOW_MINUTES) {
+                        scans.add(new Scan(minutesToNanos(t + stay), memberId, CheckInAction.CHECK_OUT, pickEntrance(random)));
+                    }
+                }
+                t += exponential(rate, random);
+            }
+        }
+        scans.sort((a, b) -> Long.compare(a.dueNanos, b.dueNanos));
+        return scans;
+    }
+
+    /**
+     * Steady walk-ins plus a ramp towards each class start
+     */
+    private static double arrivalsPerMinute(int minute) {
+        double rate = BASE_ARRIVALS_PER_MINUTE;
+        for (int classStart : CLASS_START_MINUTES) {
+            int lead = classStart - minute;
+            if (lead > 0 && lead <= BURST_LEAD_MINUTES) {
+                // Linear ramp peaking just before the class; weights sum to 1 over the lead
+                double weight = (BURST_LEAD_MINUTES - lead + 1) * 2.0 / (BURST_LEAD_MINUTES * (BURST_LEAD_MINUTES + 1));
+                rate += CLASS_BURST_ARRIVALS * weight;
+            }
+        }
+        return rate;
+    }
+
+    static List<Scan> loadRecorded(Path journalFile) throws Exception {
+        List<CheckInEvent> events = new ArrayList<>();
+        try (CheckInJournal journal = new CheckInJournal(journalFile, 1000)) {
+            journal.replay(events::add);
+        }
+        List<Scan> scans = new ArrayList<>(events.size());
+        if (events.isEmpty()) {
+            return scans;
+        }
+        long first = events.get(0).getTimestampMillis();
+        for (CheckInEvent event : events) {
+            scans.add(new Scan((event.getTimestampMillis() - first) * 1_000_000L,
+                event.getMemberId(), event.getAction(), event.getEntrance()));
+        }
+        return scans;
+    }
+
+    static Result run(Set<String> memberIds, List<Scan> scans, double speedup) throws Exception {
+        MemberDirectory directory = new MemberDirectory();
+        for (String memberId : memberIds) {
+            directory.enroll(new Member(memberId, "Load Member " + memberId, memberId + "@email.com", "555-0000",
+                "Basic", "Active", "2024-01-01", "2099-01-01", "2024-01-01", "50.00", "", ""));
+        }
+        EligibilityCache eligibility = new EligibilityCache();
+        eligibility.attach(directory);
+
+        Path dir = Files.createTempDirectory("checkin-load");
+        Path journalFile = dir.resolve("load.journal");
+        OccupancyService occupancy = new OccupancyService(memberIds.size());
+        Result result = new Result(scans.size());
+
+        try (CheckInJournal journal = new CheckInJournal(journalFile, 5)) {
+            CheckInService service = new CheckInService(eligibility, occupancy, new OccupancyHistory(), journal, Clock.systemDefaultZone());
+            ScanPipeline pipeline = new ScanPipeline(service, 4096);
+            pipeline.addListener(result::record);
+            pipeline.start();
+
+            // One producer per entrance, like independent readers at each door
+            Map<String, List<Scan>> byEntrance = new HashMap<>();
+            for (Scan scan : scans) {
+                byEntrance.computeIfAbsent(scan.entrance, e -> new ArrayList<>()).add(scan);
+            }
+
+            long startNanos = System.nanoTime() + 50_000_000L;
+            result.startNanos = startNanos;
+            List<Thread> producers = new ArrayList<>();
+            for (Map.Entry<String, List<Scan>> entry : byEntrance.entrySet()) {
+                Thread producer = new Thread(() -> {
+                    for (Scan scan : entry.getValue()) {
+                        long due = startNanos + (long) (scan.dueNanos / speedup);
+                        long wait;
+                        while ((wait = due - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        result.inFlight.put(scan.memberId, due);
+                        pipeline.publish(scan.memberId, scan.action, scan.entrance);
+                    }
+                }, "load-" + entry.getKey());
+                producers.add(producer);
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            while (result.recorded.get() < scans.size()) {
+                Thread.sleep(1);
+            }
+            result.endNanos = System.nanoTime();
+            pipeline.close();
+            result.eligibilityStats = eligibility.getStats();
+        }
+
+        // Rebuild occupancy from the journal alone, as a restart would
+        OccupancyService replayed = new OccupancyService(memberIds.size());
+        try (CheckInJournal journal = new CheckInJournal(journalFile, 1000)) {
+            result.journalRecords = journal.size();
+            journal.replay(event -> {
+                if (event.getAction() == CheckInAction.CHECK_IN) {
+                    replayed.checkIn(event.getMemberId(), event.getEntrance());
+                } else {
+                    replayed.checkOut(event.getMemberId());
+                }
+            });
+        }
+        result.finalOccupancy = occupancy.getCurrent();
+        result.zoneTotal = occupancy.snapshot().getByZone().values().stream().mapToLong(Long::longValue).sum();
+        result.replayedOccupancy = replayed.getCurrent();
+        return result;
+    }
+
+    private static String pickEntrance(Random random) {
+        double roll = random.nextDouble();
+        for (int i = 0; i < ENTRANCE_WEIGHTS.length; i++) {
+            roll -= ENTRANCE_WEIGHTS[i];
+            if (roll < 0) {
+                return OccupancyService.ZONES.get(i);
+            }
+        }
+        return OccupancyService.DEFAULT_ZONE;
+    }
+
+    private static double exponential(double ratePerMinute, Random random) {
+        return -Math.log(1 - random.nextDouble()) / ratePerMinute;
+    }
+
+    private static long minutesToNanos(double minutes) {
+        return (long) (minutes * 60e9);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    /**
+     * One scheduled scan, due at an offset from the start of the run
+     */
+    static final class Scan {
+        final long dueNanos;
+        final String memberId;
+        final CheckInAction action;
+        final String entrance;
+
+        Scan(long dueNanos, String memberId, CheckInAction action, String entrance) {
+            this.dueNanos = dueNanos;
+            this.memberId = memberId;
+            this.action = action;
+            this.entrance = entrance;
+        }
+    }
+
+    /**
+     * Collects per-scan latency and outcomes on the pipeline thread
+     */
+    static final class Result {
+        // Due time of each member's outstanding scan; a member never has two in flight
+        final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+        final AtomicLong recorded = new AtomicLong();
+        final long[] latencies;
+        final Map<CheckInOutcome, Long> outcomes = new EnumMap<>(CheckInOutcome.class);
+        long expectedOccupancy;
+        long startNanos;
+        long endNanos;
+        long finalOccupancy;
+        long zoneTotal;
+        long replayedOccupancy;
+        long journalRecords;
+        EligibilityCacheStats eligibilityStats;
+
+        Result(int scans) {
+            this.latencies = new long[scans];
+        }
+
+        void record(List<ScanResult> batch) {
+            long now = System.nanoTime();
+            int index = (int) recorded.get();
+            for (ScanResult scan : batch) {
+                Long due = inFlight.remove(scan.getMemberId());
+                latencies[index++] = due == null ? 0 : now - due;
+                outcomes.merge(scan.getOutcome(), 1L, Long::sum);
+                if (scan.getOutcome() == CheckInOutcome.ACCEPTED) {
+                    expectedOccupancy += scan.getAction() == CheckInAction.CHECK_IN ? 1 : -1;
+                }
+            }
+            // Publishes the writes above to the main thread
+            recorded.set(index);
+        }
+
+        boolean report(long maxP99Micros) {
+            long[] sorted = Arrays.copyOf(latencies, latencies.length);
+            Arrays.sort(sorted);
+            double seconds = (endNanos - startNanos) / 1e9;
+
+            System.out.printf("Throughput: %,d scans in %.2f s = %,.0f scans/sec%n",
+                sorted.length, seconds, sorted.length / seconds);
+            System.out.printf("Latency (due -> processed): p50 %,d us, p99 %,d us, p999 %,d us, max %,d us%n",
+                percentile(sorted, 0.50) / 1000, percentile(sorted, 0.99) / 1000,
+                percentile(sorted, 0.999) / 1000, sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000);
+            System.out.println("Outcomes: " + outcomes);
+            System.out.println("Eligibility cache: " + eligibilityStats);
+
+            boolean consistent = finalOccupancy == expectedOccupancy
+                && zoneTotal == finalOccupancy
+                && replayedOccupancy == finalOccupancy;
+            System.out.printf("Occupancy: live %d, expected %d, zone sum %d, journal replay %d (%,d records) -> %s%n",
+                finalOccupancy, expectedOccupancy, zoneTotal, replayedOccupancy, journalRecords,
+                consistent ? "consistent" : "INCONSISTENT");
+
+            boolean fastEnough = maxP99Micros <= 0 || percentile(sorted, 0.99) / 1000 <= maxP99Micros;
+            if (!fastEnough) {
+                System.out.printf("p99 exceeds limit of %,d us%n", maxP99Micros);
+            }
+            return consistent && fastEnough;
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
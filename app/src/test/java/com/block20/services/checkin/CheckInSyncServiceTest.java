@@ -0,0 +1,167 @@
+/*
+ * Block20 Gym Management System
+ * Check-in sync tests against an in-memory database
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.repositories.ConnectionProvider;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.CheckInRepositoryImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class CheckInSyncServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    private boolean online = true;
+    private ConnectionProvider connections;
+    private CheckInRepositoryImpl repository;
+
+    @Before
+    public void setUp() throws SQLException {
+        connections = () -> {
+            if (!online) {
+                throw new SQLException("Communications link failure");
+            }
+            return database.getConnection();
+        };
+        repository = new CheckInRepositoryImpl(connections);
+        repository.createTables();
+    }
+
+    @Test
+    public void keepsEventsWhileOfflineAndSyncsOnceBack() throws Exception {
+        try (CheckInJournal journal = journal("desk-a")) {
+            CheckInSyncService sync = sync(journal, "desk-a");
+            online = false;
+            journal.append(event("M001", CheckInAction.CHECK_IN, 1000));
+            journal.append(event("M002", CheckInAction.CHECK_IN, 2000));
+            journal.append(event("M001", CheckInAction.CHECK_OUT, 3000));
+
+            try {
+                sync.syncPending();
+                fail("Expected the sync to fail while offline");
+            } catch (SQLException expected) {
+                assertFalse(sync.isConnected());
+            }
+            assertEquals(3, sync.getPendingCount());
+
+            online = true;
+            assertEquals(3, sync.syncPending());
+            assertEquals(0, sync.getPendingCount());
+            assertEquals(3, count("SELECT COUNT(*) FROM check_in_events"));
+            assertEquals(1, count("SELECT COUNT(*) FROM member_presence"));
+            assertEquals(1, count("SELECT COUNT(*) FROM member_presence WHERE member_id = 'M002'"));
+        }
+    }
+
+    @Test
+    public void resendingAfterLostCursorChangesNothing() throws Exception {
+        try (CheckInJournal journal = journal("desk-a")) {
+            journal.append(event("M001", CheckInAction.CHECK_IN, 1000));
+            journal.append(event("M002", CheckInAction.CHECK_IN, 2000));
+            sync(journal, "desk-a").syncPending();
+
+            // Simulate a crash after commit but before the cursor was saved
+            Files.delete(folder.getRoot().toPath().resolve("desk-a.sync"));
+            CheckInSyncService restarted = sync(journal, "desk-a");
+            assertEquals(2, restarted.getPendingCount());
+            assertEquals(2, restarted.syncPending());
+
+            assertEquals(2, count("SELECT COUNT(*) FROM check_in_events"));
+            assertEquals(2, count("SELECT COUNT(*) FROM member_presence"));
+            assertEquals(0, count("SELECT COUNT(*) FROM check_in_conflicts"));
+        }
+    }
+
+    @Test
+    public void doubleCheckInAtTwoDesksKeepsFirstAndRecordsConflict() throws Exception {
+        try (CheckInJournal deskA = journal("desk-a"); CheckInJournal deskB = journal("desk-b")) {
+            deskA.append(event("M001", CheckInAction.CHECK_IN, 1000));
+            deskB.append(event("M001", CheckInAction.CHECK_IN, 1500));
+
+            sync(deskA, "desk-a").syncPending();
+            CheckInSyncService syncB = sync(deskB, "desk-b");
+            syncB.syncPending();
+
+            assertEquals(1, syncB.getConflictCount());
+            assertEquals(1, count("SELECT COUNT(*) FROM member_presence WHERE event_id = 'desk-a:1'"));
+            assertEquals(1, count("SELECT COUNT(*) FROM check_in_conflicts "
+                + "WHERE event_id = 'desk-b:1' AND existing_event_id = 'desk-a:1'"));
+        }
+    }
+
+    @Test
+    public void presenceFromAnEarlierDayDoesNotBlockANewCheckIn() throws Exception {
+        repository = new CheckInRepositoryImpl(connections, ZoneOffset.UTC);
+        long monday = Instant.parse("2024-11-18T18:00:00Z").toEpochMilli();
+        long tuesday = Instant.parse("2024-11-19T07:00:00Z").toEpochMilli();
+        try (CheckInJournal deskA = journal("desk-a"); CheckInJournal deskB = journal("desk-b")) {
+            // Left on Monday without scanning out, back on Tuesday
+            deskA.append(event("M001", CheckInAction.CHECK_IN, monday));
+            deskA.append(event("M001", CheckInAction.CHECK_IN, tuesday));
+            CheckInSyncService syncA = sync(deskA, "desk-a");
+            syncA.syncPending();
+            assertEquals(0, syncA.getConflictCount());
+            assertEquals(1, count("SELECT COUNT(*) FROM member_presence WHERE event_id = 'desk-a:2'"));
+
+            // An offline desk sends Monday's scan late; Monday is over, so it changes nothing
+            deskB.append(event("M001", CheckInAction.CHECK_IN, monday + 60_000));
+            CheckInSyncService syncB = sync(deskB, "desk-b");
+            syncB.syncPending();
+            assertEquals(0, syncB.getConflictCount());
+            assertEquals(1, count("SELECT COUNT(*) FROM member_presence WHERE event_id = 'desk-a:2'"));
+            assertEquals(0, count("SELECT COUNT(*) FROM check_in_conflicts"));
+        }
+    }
+
+    @Test
+    public void deskIdsTheCentralTablesCannotHoldAreRefused() throws Exception {
+        assertTrue(CheckInSyncService.isValidDeviceId("front-desk-2"));
+        assertTrue(CheckInSyncService.isValidDeviceId("0b6f7c1e-2f1d-4a4e-9d55-0e8f4c1b7a90"));
+        assertFalse(CheckInSyncService.isValidDeviceId(""));
+        assertFalse(CheckInSyncService.isValidDeviceId("front desk"));
+        assertFalse(CheckInSyncService.isValidDeviceId("desk:2"));
+        assertFalse(CheckInSyncService.isValidDeviceId("the-front-desk-by-the-main-entrance-upstairs"));
+        try (CheckInJournal journal = journal("desk-a")) {
+            sync(journal, "the-front-desk-by-the-main-entrance-upstairs");
+            fail("Expected the desk ID to be refused");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("1-40"));
+        }
+    }
+
+    private CheckInJournal journal(String desk) throws Exception {
+        return new CheckInJournal(folder.getRoot().toPath().resolve(desk + ".journal"), 5);
+    }
+
+    private CheckInSyncService sync(CheckInJournal journal, String desk) throws Exception {
+        Path cursor = folder.getRoot().toPath().resolve(desk + ".sync");
+        return new CheckInSyncService(journal, repository, cursor, desk, 2);
+    }
+
+    private static CheckInEvent event(String memberId, CheckInAction action, long millis) {
+        return new CheckInEvent(memberId, action, millis, "Front Desk");
+    }
+
+    private long count(String sql) throws SQLException {
+        return database.queryLong(sql);
+    }
+}
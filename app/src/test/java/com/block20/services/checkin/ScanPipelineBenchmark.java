@@ -0,0 +1,79 @@
+/*
+ * Block20 Gym Management System
+ * Scan pipeline throughput benchmark
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.Member;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+/**
+ * Measures sustained scans/sec through the ingestion pipeline with several
+ * producer threads, including eligibility, occupancy and journaling.
+ *
+ * Run with: gradle :app:scanBenchmark
+ */
+public class ScanPipelineBenchmark {
+
+    private static final int MEMBERS = 40_000;
+    private static final int PRODUCERS = 4;
+    private static final int SCANS_PER_PRODUCER = 500_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        MemberDirectory directory = new MemberDirectory();
+        for (int i = 0; i < MEMBERS; i++) {
+            directory.enroll(new Member("B" + i, "Bench Member " + i, "bench" + i + "@email.com", "555-" + i,
+                "Basic", "Active", "2024-01-01", "2099-01-01", "2024-01-01", "50.00", "", ""));
+        }
+
+        EligibilityCache eligibility = new EligibilityCache();
+        eligibility.attach(directory);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Path dir = Files.createTempDirectory("scan-bench");
+            try (CheckInJournal journal = new CheckInJournal(dir.resolve("bench.journal"), 5)) {
+                OccupancyService occupancy = new OccupancyService(MEMBERS);
+                CheckInService service = new CheckInService(eligibility, occupancy, new OccupancyHistory(), journal, Clock.systemDefaultZone());
+                ScanPipeline pipeline = new ScanPipeline(service, 4096);
+                pipeline.start();
+
+                long total = (long) PRODUCERS * SCANS_PER_PRODUCER;
+                long start = System.nanoTime();
+                Thread[] producers = new Thread[PRODUCERS];
+                for (int p = 0; p < PRODUCERS; p++) {
+                    int producer = p;
+                    String entrance = OccupancyService.ZONES.get(p % OccupancyService.ZONES.size());
+                    producers[p] = new Thread(() -> {
+                        for (int i = 0; i < SCANS_PER_PRODUCER; i++) {
+                            // Each producer owns a slice of members and alternates in/out
+                            int member = producer + PRODUCERS * ((i / 2) % (MEMBERS / PRODUCERS));
+                            CheckInAction action = i % 2 == 0 ? CheckInAction.CHECK_IN : CheckInAction.CHECK_OUT;
+                            pipeline.publish("B" + member, action, entrance);
+                        }
+                    }, "bench-producer-" + p);
+                    producers[p].start();
+                }
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+                while (pipeline.getProcessedCount() < total) {
+                    Thread.onSpinWait();
+                }
+                long elapsed = System.nanoTime() - start;
+                pipeline.close();
+
+                System.out.printf("Round %d: %,d scans in %.2f s = %,.0f scans/sec (journal %,d records, occupancy %d)%n",
+                    round, total, elapsed / 1e9, total / (elapsed / 1e9), journal.size(), occupancy.getCurrent());
+            }
+        }
+        System.out.println("Eligibility cache: " + eligibility.getStats());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Block20 Gym Management System
+ * Scan pipeline failure handling tests
+ */
+package com.block20.services.checkin;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.Member;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.occupancy.OccupancyHistory;
+import com.block20.services.occupancy.OccupancyService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ScanPipelineTest {
+
+    // Longer than the journal's 24-byte member ID field
+    private static final String LONG_ID = "MEMBER-0000-0000-0000-0000-0001";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void aFailedScanIsReportedWithoutStoppingTheConsumer() throws Exception {
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member(LONG_ID));
+        for (int i = 1; i <= 10; i++) {
+            directory.enroll(member("M" + i));
+        }
+        EligibilityCache eligibility = new EligibilityCache();
+        eligibility.attach(directory);
+        OccupancyService occupancy = new OccupancyService(150);
+
+        try (CheckInJournal journal = new CheckInJournal(folder.getRoot().toPath().resolve("checkins.journal"), 1)) {
+            CheckInService checkIns = new CheckInService(eligibility, occupancy, new OccupancyHistory(),
+                journal, Clock.systemDefaultZone());
+            // A broken listener must not turn recorded check-ins into failures
+            checkIns.addListener(event -> {
+                throw new IllegalStateException("listener bug");
+            });
+            List<ScanResult> results = new ArrayList<>();
+            try (ScanPipeline pipeline = new ScanPipeline(checkIns, 4)) {
+                pipeline.addListener(batch -> {
+                    synchronized (results) {
+                        results.addAll(batch);
+                        results.notifyAll();
+                    }
+                });
+                pipeline.start();
+
+                // The journal refuses this ID with an IllegalArgumentException
+                pipeline.publish(LONG_ID, CheckInAction.CHECK_IN, OccupancyService.DEFAULT_ZONE);
+                // More scans than the ring holds, so these only get through if the consumer survived
+                for (int i = 1; i <= 10; i++) {
+                    pipeline.publish("M" + i, CheckInAction.CHECK_IN, OccupancyService.DEFAULT_ZONE);
+                }
+                awaitResults(results, 11);
+            }
+
+            synchronized (results) {
+                assertEquals(11, results.size());
+                assertEquals(CheckInOutcome.FAILED, results.get(0).getOutcome());
+                for (ScanResult result : results.subList(1, results.size())) {
+                    assertEquals(CheckInOutcome.ACCEPTED, result.getOutcome());
+                }
+            }
+            // The refused check-in was taken back off the count
+            assertFalse(occupancy.isPresent(LONG_ID));
+            assertEquals(10, occupancy.getCurrent());
+            assertEquals(10, journal.size());
+        }
+    }
+
+    private static void awaitResults(List<ScanResult> results, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        synchronized (results) {
+            while (results.size() < expected && System.nanoTime() < deadline) {
+                results.wait(50);
+            }
+        }
+    }
+
+    private static Member member(String id) {
+        return new Member(id, "Test Member " + id, id.toLowerCase() + "@example.com", "555-0100", "Basic",
+            "Active", "2024-01-01", "2099-01-01", "2024-01-01", "$29.99", "", "");
+    }
+}
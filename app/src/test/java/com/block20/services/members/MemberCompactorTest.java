@@ -0,0 +1,125 @@
+/*
+ * Block20 Gym Management System
+ * Soft delete, undo and background compaction tests
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+import com.block20.repositories.MemberSortField;
+import com.block20.services.search.FuzzyNameIndex;
+import com.block20.services.search.MemberSearchIndex;
+import com.block20.services.search.MemberSortIndex;
+import com.block20.services.search.SortColumn;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class MemberCompactorTest {
+
+    @Test
+    public void deletedMembersCanBeRestoredUntilTheUndoWindowPasses() {
+        TestClock clock = new TestClock();
+        MemberDirectory directory = new MemberDirectory(clock);
+        MemberHistory history = new MemberHistory();
+        history.attach(directory);
+        MemberStatistics statistics = new MemberStatistics();
+        statistics.attach(directory);
+        MemberSearchIndex search = new MemberSearchIndex();
+        search.attach(directory);
+        directory.enroll(member("M001", "John Smith"));
+        directory.enroll(member("M002", "Sarah Johnson"));
+        history.record(new MemberProfile("M002", "2024-11-01", 10, 2, "2024-11-10", 1.0));
+        MemberCompactor compactor = new MemberCompactor(directory, Duration.ofMinutes(10), Duration.ofSeconds(30));
+
+        directory.delete("M002");
+        assertEquals(1, statistics.getTotal());
+        assertTrue(search.search("sarah", 0).isEmpty());
+        assertTrue(history.find("M002").isPresent());
+
+        assertTrue(directory.restore("M002"));
+        assertEquals(2, statistics.getTotal());
+        assertEquals(Collections.singletonList("M002"), search.search("sarah", 0));
+        assertEquals("M002", directory.getAll().get(1).getMemberId());
+
+        directory.delete("M002");
+        clock.advance(Duration.ofMinutes(9));
+        assertEquals(0, compactor.runOnce());
+        clock.advance(Duration.ofMinutes(2));
+        assertEquals(1, compactor.runOnce());
+        assertFalse(directory.restore("M002"));
+        assertFalse(history.find("M002").isPresent());
+        assertEquals(1, statistics.getTotal());
+        assertEquals(0, directory.deletedCount());
+    }
+
+    @Test
+    public void indexesCompactWhileMembersKeepChanging() throws Exception {
+        MemberDirectory directory = new MemberDirectory();
+        for (int i = 0; i < 6000; i++) {
+            directory.enroll(member(String.format("M%05d", i), "Member" + (char) ('a' + i % 26) + " Number"));
+        }
+        MemberSearchIndex search = new MemberSearchIndex();
+        search.attach(directory);
+        FuzzyNameIndex fuzzy = new FuzzyNameIndex();
+        fuzzy.attach(directory);
+        MemberSortIndex sort = new MemberSortIndex(Locale.ENGLISH);
+        sort.attach(directory);
+        List<SortColumn> byName = Collections.singletonList(new SortColumn(MemberSortField.NAME, true));
+        sort.sort(byName);
+        for (int i = 0; i < 6000; i += 3) {
+            directory.delete(String.format("M%05d", i));
+            directory.delete(String.format("M%05d", i + 1));
+        }
+
+        // Keep deleting, restoring and editing while the indexes rebuild
+        Thread writer = new Thread(() -> {
+            for (int i = 2; i < 6000; i += 3) {
+                String id = String.format("M%05d", i);
+                directory.delete(id);
+                if (i % 2 == 0) {
+                    directory.restore(id);
+                    directory.update(member(id, "Renamed" + (char) ('a' + i % 26) + " Number"));
+                }
+            }
+        });
+        writer.start();
+        MemberCompactor compactor = new MemberCompactor(directory, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        compactor.addIndex(search);
+        compactor.addIndex(fuzzy);
+        compactor.addIndex(sort);
+        while (writer.isAlive()) {
+            compactor.runOnce();
+        }
+        writer.join();
+        compactor.runOnce();
+        assertTrue(compactor.getCompactionCount() >= 3);
+
+        List<String> expected = new ArrayList<>();
+        for (Member member : directory.getAll()) {
+            expected.add(member.getMemberId());
+        }
+        assertEquals(1000, expected.size());
+        assertEquals(expected.size(), search.size());
+        List<String> sorted = new ArrayList<>();
+        for (Member member : sort.sort(byName)) {
+            sorted.add(member.getMemberId());
+        }
+        Collections.sort(sorted);
+        assertEquals(expected, sorted);
+        assertEquals(expected.size(), search.search("number", 0).size());
+        assertEquals(expected.size(), fuzzy.search("numbr", 0).size());
+        assertTrue(search.search("member", 0).isEmpty());
+    }
+
+    private static Member member(String id, String name) {
+        return new Member(id, name, id.toLowerCase() + "@email.com", "555-0101", "Basic", "Active",
+            "2024-01-15", "2025-01-15", "2024-01-15", "50.00", "", "");
+    }
+}
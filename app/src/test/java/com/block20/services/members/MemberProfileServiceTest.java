@@ -0,0 +1,107 @@
+/*
+ * Block20 Gym Management System
+ * Member profile loading and caching tests
+ */
+package com.block20.services.members;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.models.Member;
+import com.block20.models.MemberProfile;
+import com.block20.services.checkin.AttendanceProfileLoader;
+import com.block20.services.checkin.CheckInJournal;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MemberProfileServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reopeningIsServedFromCacheUntilTheMemberChanges() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member("M001", "Basic"));
+        MemberHistory history = new MemberHistory();
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        try (MemberProfileService service = new MemberProfileService(id -> {
+                int count = loads.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                return new MemberProfile(id, "", count, 0, "Never", 0);
+            })) {
+            service.attach(directory, history);
+
+            assertEquals(1, service.load("M001").join().getTotalCheckIns());
+            CompletableFuture<MemberProfile> reopened = service.load("M001");
+            assertTrue(reopened.isDone());
+            assertEquals(1, reopened.join().getTotalCheckIns());
+
+            directory.update(member("M001", "Elite"));
+            assertFalse(service.getCached("M001").isPresent());
+            assertEquals(2, service.load("M001").join().getTotalCheckIns());
+
+            history.recordPayment("M001", "2025-01-01");
+            assertEquals(3, service.load("M001").join().getTotalCheckIns());
+        }
+    }
+
+    @Test
+    public void leastRecentlyOpenedProfilesAreEvicted() {
+        try (MemberProfileService service = new MemberProfileService(MemberProfile::empty, 2)) {
+            service.load("M001").join();
+            service.load("M002").join();
+            service.load("M001").join();
+            service.load("M003").join();
+
+            assertEquals(2, service.size());
+            assertTrue(service.getCached("M001").isPresent());
+            assertFalse(service.getCached("M002").isPresent());
+            assertTrue(service.getCached("M003").isPresent());
+        }
+    }
+
+    @Test
+    public void attendanceAddsJournalVisitsToRecordedHistory() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2024-11-20T12:00:00Z"), ZoneOffset.UTC);
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member("M001", "Basic"));
+        MemberHistory history = new MemberHistory();
+        history.record(new MemberProfile("M001", "2024-11-01", 10, 3, "2024-11-10", 0));
+
+        try (CheckInJournal journal = new CheckInJournal(folder.getRoot().toPath().resolve("checkins.journal"), 5)) {
+            journal.append(checkIn("M001", "2024-10-31T09:00:00Z"));
+            journal.append(checkIn("M002", "2024-11-18T09:00:00Z"));
+            journal.append(checkIn("M001", "2024-11-18T09:00:00Z"));
+            journal.append(new CheckInEvent("M001", CheckInAction.CHECK_OUT,
+                Instant.parse("2024-11-18T10:00:00Z").toEpochMilli(), "Main"));
+
+            MemberProfile profile = new AttendanceProfileLoader(directory, history, journal, clock).load("M001");
+
+            assertEquals(12, profile.getTotalCheckIns());
+            assertEquals(4, profile.getCheckInsThisMonth());
+            assertEquals("2024-11-18", profile.getLastCheckIn());
+            assertEquals("2024-11-01", profile.getLastPayment());
+            // 12 visits over the 44 weeks since 2024-01-15
+            assertEquals(0.3, profile.getAvgWeeklyVisits(), 0.0);
+        }
+    }
+
+    private static CheckInEvent checkIn(String memberId, String time) {
+        return new CheckInEvent(memberId, CheckInAction.CHECK_IN, Instant.parse(time).toEpochMilli(), "Main");
+    }
+
+    private static Member member(String id, String plan) {
+        return new Member(id, "Name " + id, id.toLowerCase() + "@email.com", "555-0101", plan, "Active",
+            "2024-01-15", "2025-01-15", "2024-01-15", "50.00", "", "");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Block20 Gym Management System
+ * Member store tests
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MemberStoreTest {
+
+    @Test
+    public void viewsReadBackExactlyWhatWasStored() {
+        MemberStore store = new MemberStore();
+        Member regular = member("M001", "Premium", "2025-01-15", "85.00", "2024-11-10");
+        Member odd = member("M002", "Corporate", "15/01/2025", "$1,200", "Soon");
+
+        assertFields(regular, store.view(store.insert(regular)));
+        assertFields(odd, store.view(store.insert(odd)));
+        assertFields(new Member("M003", null, null, null, null, null, null, null, null, null, null, null),
+            store.view(store.insert(new Member("M003", null, null, null, null, null, null, null, null, null,
+            null, null))));
+    }
+
+    @Test
+    public void editKeepsPlaceAndEarlierViews() {
+        MemberStore store = new MemberStore();
+        store.insert(member("M001", "Basic", "2025-01-15", "50.00", "2024-11-10"));
+        int row = store.insert(member("M002", "Basic", "2025-02-01", "50.00", "2024-11-10"));
+        store.insert(member("M003", "Basic", "2025-03-01", "50.00", "2024-11-10"));
+        Member before = store.view(row);
+
+        int updated = store.replace(row, member("M002", "Elite", "2026-02-01", "120.00", "2024-11-12"));
+
+        assertEquals("Basic", before.getPlanType());
+        assertEquals("Elite", store.view(store.find("M002")).getPlanType());
+        assertEquals(updated, store.find("M002"));
+        assertEquals("M002", store.views().get(1).getMemberId());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void deletedMembersDisappearFromLookupAndOrder() {
+        MemberStore store = new MemberStore();
+        for (int i = 0; i < 5000; i++) {
+            store.insert(member("M" + i, "Basic", "2025-01-15", "50.00", "2024-11-10"));
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            store.delete(store.find("M" + i), 0);
+        }
+
+        assertEquals(2500, store.size());
+        assertEquals(-1, store.find("M0"));
+        assertEquals("M4999", store.view(store.find("M4999")).getMemberId());
+        assertEquals("M1", store.views().get(0).getMemberId());
+        assertEquals("M4999", store.views().get(2499).getMemberId());
+    }
+
+    @Test
+    public void deletesCanBeUndoneUntilPurged() {
+        MemberStore store = new MemberStore();
+        for (int i = 1; i <= 4; i++) {
+            store.insert(member("M00" + i, "Basic", "2025-01-15", "50.00", "2024-11-10"));
+        }
+        store.delete(store.find("M002"), 100);
+        store.delete(store.find("M003"), 200);
+        store.delete(store.find("M004"), 300);
+
+        assertEquals(1, store.size());
+        assertEquals(-1, store.find("M002"));
+        assertTrue(store.restore("M002") >= 0);
+        assertEquals(-1, store.restore("M002"));
+        assertEquals("M002", store.views().get(1).getMemberId());
+
+        // M004's ID is taken again, so only M003 is left to purge by time
+        assertEquals("M004", store.discardTombstone("M004").getMemberId());
+        store.insert(member("M004", "Elite", "2026-01-15", "120.00", "2024-11-10"));
+        assertEquals(1, store.tombstoneCount());
+        assertEquals("M003", store.purge(250).get(0).getMemberId());
+        assertEquals(-1, store.restore("M003"));
+        assertEquals(0, store.tombstoneCount());
+        assertEquals(3, store.size());
+        assertEquals("Elite", store.views().get(2).getPlanType());
+    }
+
+    @Test
+    public void compactionDropsSupersededRowsAndMovesViews() {
+        MemberStore store = new MemberStore();
+        for (int i = 0; i < 1000; i++) {
+            store.insert(member("M" + i, "Basic", "2025-01-15", "50.00", "2024-11-10"));
+        }
+        Member original = store.view(store.find("M7"));
+        for (int i = 0; i < 1000; i++) {
+            store.replace(store.find("M" + i), member("M" + i, "Premium", "2025-06-15", "85.00", "2024-11-10"));
+        }
+        Member current = store.view(store.find("M7"));
+        for (int i = 0; i < 1000; i++) {
+            store.replace(store.find("M" + i), member("M" + i, "Elite", "15/06/2025", "$120", "2024-11-10"));
+        }
+        Member latest = store.view(store.find("M8"));
+        store.delete(store.find("M3"), 100);
+        store.delete(store.find("M4"), 200);
+        store.purge(150);
+        long before = store.estimatedBytes();
+        assertEquals(3000, store.rowCount());
+
+        assertTrue(store.compact());
+        // M4 can still be restored, so it keeps a row
+        assertEquals(999, store.rowCount());
+        assertTrue(store.estimatedBytes() < before);
+        assertFalse(store.compact());
+
+        // Views handed out earlier read what they always did
+        assertEquals("Basic", original.getPlanType());
+        assertEquals("Premium", current.getPlanType());
+        assertEquals("Elite", latest.getPlanType());
+        assertEquals("15/06/2025", latest.getExpiryDate());
+        assertEquals("$120", latest.getMonthlyFee());
+        assertSame(latest, store.view(store.find("M8")));
+
+        assertEquals(998, store.size());
+        assertEquals(-1, store.find("M3"));
+        assertEquals("M2", store.views().get(2).getMemberId());
+        assertEquals("M5", store.views().get(3).getMemberId());
+        int restored = store.restore("M4");
+        assertEquals("M4", store.view(restored).getMemberId());
+        assertEquals("M4", store.views().get(3).getMemberId());
+
+        // Writes carry on in the new rows
+        store.insert(member("M1000", "Basic", "2025-01-15", "50.00", "2024-11-10"));
+        store.replace(store.find("M8"), member("M8", "Student", "2025-01-15", "35.00", "2024-11-10"));
+        assertEquals("Elite", latest.getPlanType());
+        assertEquals("Student", store.view(store.find("M8")).getPlanType());
+        assertEquals("M1000", store.views().get(999).getMemberId());
+    }
+
+    private static Member member(String id, String plan, String expiry, String fee, String startDate) {
+        return new Member(id, "Name " + id, id.toLowerCase() + "@email.com", "555-0101", plan, "Active",
+            "2024-01-15", expiry, startDate, fee, "Jane Smith - 555-0102", "123 Main St, City");
+    }
+
+    private static void assertFields(Member expected, Member actual) {
+        assertEquals(expected.getMemberId(), actual.getMemberId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getPhone(), actual.getPhone());
+        assertEquals(expected.getPlanType(), actual.getPlanType());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getJoinDate(), actual.getJoinDate());
+        assertEquals(expected.getExpiryDate(), actual.getExpiryDate());
+        assertEquals(expected.getStartDate(), actual.getStartDate());
+        assertEquals(expected.getMonthlyFee(), actual.getMonthlyFee());
+        assertEquals(expected.getEmergencyContact(), actual.getEmergencyContact());
+        assertEquals(expected.getAddress(), actual.getAddress());
+    }
+}
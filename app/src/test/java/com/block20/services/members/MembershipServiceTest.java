@@ -0,0 +1,198 @@
+/*
+ * Block20 Gym Management System
+ * Membership save tests
+ */
+package com.block20.services.members;
+
+import com.block20.models.Member;
+import com.block20.models.Payment;
+import com.block20.repositories.ConnectionPool;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import com.block20.repositories.impl.PaymentRepositoryImpl;
+import com.block20.services.async.AsyncExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class MembershipServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 11, 20);
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    private ConnectionPool pool;
+    private AsyncExecutor executor;
+    private final TestClock clock = new TestClock();
+    private final MemberDirectory directory = new MemberDirectory(clock);
+    private final MemberHistory history = new MemberHistory();
+
+    @Before
+    public void setUp() {
+        pool = new ConnectionPool(database, 2);
+        executor = new AsyncExecutor(Runnable::run, Duration.ofSeconds(5));
+    }
+
+    @After
+    public void tearDown() {
+        executor.close();
+        pool.close();
+    }
+
+    @Test
+    public void enrollmentsAndRenewalsAreStoredBeforeTheDirectoryChanges() throws Exception {
+        MemberRepositoryImpl members = new MemberRepositoryImpl(pool);
+        PaymentRepositoryImpl payments = new PaymentRepositoryImpl(pool);
+        MembershipService service = new MembershipService(directory, history, members, payments, executor, null);
+
+        service.enroll(member("M100"), payment("TXN1", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+        Optional<Member> renewed = service.renew("M100", "Premium", TODAY.plusMonths(13),
+            payment("TXN2", "M100", TODAY.plusMonths(1))).get(5, TimeUnit.SECONDS);
+
+        assertEquals("Premium", renewed.orElseThrow().getPlanType());
+        assertEquals(TODAY.plusMonths(13).toString(), directory.findById("M100").orElseThrow().getExpiryDate());
+        assertEquals("Premium", members.findById("M100").orElseThrow().getPlanType());
+        assertEquals(2, payments.findByMember("M100").size());
+        assertEquals(TODAY.plusMonths(1).toString(), history.find("M100").orElseThrow().getLastPayment());
+
+        // A member this desk does not know about still has the payment recorded
+        assertFalse(service.renew("M999", "Basic", TODAY, payment("TXN3", "M999", TODAY))
+            .get(5, TimeUnit.SECONDS).isPresent());
+        assertEquals(1, payments.findByMember("M999").size());
+    }
+
+    @Test
+    public void aTimedOutEnrollmentLeavesTheDirectoryAloneAndCanBeRetried() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        MemberRepositoryImpl members = new MemberRepositoryImpl(pool);
+        // The payment is stored, but like a JDBC driver the call ignores the interrupt and returns late
+        PaymentRepositoryImpl slowPayments = new PaymentRepositoryImpl(pool) {
+            @Override
+            public boolean save(Payment payment) throws SQLException {
+                boolean saved = super.save(payment);
+                worker.set(Thread.currentThread());
+                while (release.getCount() > 0) {
+                    Thread.onSpinWait();
+                }
+                return saved;
+            }
+        };
+        members.createTables();
+        slowPayments.createTables();
+        AsyncExecutor impatient = new AsyncExecutor(Runnable::run, Duration.ofMillis(200));
+        try {
+            new MembershipService(directory, history, members, slowPayments, impatient, null)
+                .enroll(member("M100"), payment("TXN1", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+            fail("Expected the enrollment to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            release.countDown();
+        }
+        // Let the late call run to its end
+        worker.get().join(5_000);
+        assertFalse(worker.get().isAlive());
+        impatient.close();
+        assertTrue(members.findById("M100").isPresent());
+        assertFalse(directory.findById("M100").isPresent());
+
+        MembershipService service = new MembershipService(directory, history, members, slowPayments, executor, null);
+        service.enroll(member("M100"), payment("TXN1", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+        assertTrue(directory.findById("M100").isPresent());
+        assertEquals(1, slowPayments.findByMember("M100").size());
+    }
+
+    @Test
+    public void retryingAnEnrollmentThatReachedTheDirectorySucceeds() throws Exception {
+        MembershipService service = new MembershipService(directory, history, new MemberRepositoryImpl(pool),
+            new PaymentRepositoryImpl(pool), executor, null);
+        service.enroll(member("M100"), payment("TXN1", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+
+        assertEquals("M100", service.enroll(member("M100"), payment("TXN1", "M100", TODAY))
+            .get(5, TimeUnit.SECONDS).getMemberId());
+        assertEquals(1, directory.size());
+
+        // A different member under the same ID is still refused
+        Member other = new Member("M100", "Someone Else", "else@email.com", "555-0199", "Basic", "Active",
+            TODAY.toString(), TODAY.plusMonths(1).toString(), TODAY.toString(), "29.99", "", "");
+        try {
+            service.enroll(other, payment("TXN2", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+            fail("Expected the ID to be refused");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals("Dana Park", new MemberRepositoryImpl(pool).findById("M100").orElseThrow().getName());
+    }
+
+    @Test
+    public void deletionsAreStoredAndOnlyPurgedMembersLeaveStorage() throws Exception {
+        MemberRepositoryImpl members = new MemberRepositoryImpl(pool);
+        MembershipService service = new MembershipService(directory, history, members,
+            new PaymentRepositoryImpl(pool), executor, null);
+        List<CompletableFuture<Boolean>> purges = new CopyOnWriteArrayList<>();
+        directory.addListener(event -> {
+            if (event.getType() == MemberEvent.Type.PURGED) {
+                purges.add(service.purge(event.getMemberId()));
+            }
+        });
+        service.enroll(member("M100"), payment("TXN1", "M100", TODAY)).get(5, TimeUnit.SECONDS);
+        service.enroll(member("M101"), payment("TXN2", "M101", TODAY)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(service.delete("M100").get(5, TimeUnit.SECONDS));
+        assertFalse(directory.findById("M100").isPresent());
+        assertTrue(members.findDeleted().containsKey("M100"));
+        assertTrue(service.restore("M100").get(5, TimeUnit.SECONDS));
+        assertTrue(directory.findById("M100").isPresent());
+        assertTrue(members.findDeleted().isEmpty());
+        assertFalse(service.delete("M999").get(5, TimeUnit.SECONDS));
+
+        // After a restart the deletion is picked up from storage and can still be undone
+        assertTrue(service.delete("M101").get(5, TimeUnit.SECONDS));
+        long deletedAt = members.findDeleted().get("M101");
+        MemberDirectory restarted = new MemberDirectory();
+        for (Member member : members.findAll()) {
+            restarted.enroll(member);
+        }
+        restarted.delete("M101", deletedAt);
+        assertEquals(1, restarted.deletedCount());
+        assertTrue(restarted.restore("M101"));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(1, directory.purgeDeleted(Duration.ZERO));
+        assertEquals(1, purges.size());
+        for (CompletableFuture<Boolean> purge : purges) {
+            assertTrue(purge.get(5, TimeUnit.SECONDS));
+        }
+        assertFalse(members.findById("M101").isPresent());
+        assertTrue(members.findById("M100").isPresent());
+        assertTrue(members.findDeleted().isEmpty());
+    }
+
+    private static Member member(String id) {
+        return new Member(id, "Dana Park", "dana@email.com", "555-0100", "Basic", "Active",
+            TODAY.toString(), TODAY.plusMonths(1).toString(), TODAY.toString(), "29.99", "", "");
+    }
+
+    private static Payment payment(String id, String memberId, LocalDate paidOn) {
+        return new Payment(id, memberId, new BigDecimal("29.99"), "Card", paidOn, "");
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Block20 Gym Management System
+ * Settable clock for deletion and purge tests
+ */
+package com.block20.services.members;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when a test advances it
+ */
+final class TestClock extends Clock {
+    private final AtomicLong millis = new AtomicLong(Instant.parse("2024-11-20T12:00:00Z").toEpochMilli());
+
+    void advance(Duration duration) {
+        millis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Block20 Gym Management System
+ * Occupancy history tests
+ */
+package com.block20.services.occupancy;
+
+import com.block20.models.CheckInAction;
+import com.block20.models.CheckInEvent;
+import com.block20.services.checkin.CheckInJournal;
+import com.block20.services.checkin.CheckInService;
+import com.block20.services.checkin.EligibilityCache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OccupancyHistoryTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void minutesKeepTheirPeakAndCarryTheCountForward() {
+        OccupancyHistory history = new OccupancyHistory(ZoneOffset.UTC);
+        long start = millis("2024-11-20T09:00:00Z");
+        history.record(start, 1);
+        history.record(start + 10_000, 4);
+        history.record(start + 20_000, 2);
+        history.record(start + 3 * MINUTE, 5);
+
+        int[] minutes = history.lastMinutes(start + 5 * MINUTE, 6);
+        assertArrayEquals(new int[] {4, 2, 2, 5, 5, 5}, minutes);
+        assertEquals(23.0 / 6, history.averageOccupancy(start + 5 * MINUTE, 6), 1e-9);
+        // Before the first sample there is nothing to report
+        assertEquals(0, new OccupancyHistory(ZoneOffset.UTC).lastMinutes(start, 10)[9]);
+    }
+
+    @Test
+    public void membersWhoNeverScannedOutAreNotCountedOvernight() {
+        OccupancyHistory history = new OccupancyHistory(ZoneOffset.UTC);
+        long evening = millis("2024-11-20T22:00:00Z");
+        history.record(evening, 3);
+
+        long nextMorning = millis("2024-11-21T02:00:00Z");
+        int[] minutes = history.lastMinutes(nextMorning, 4 * 60 + 1);
+        // 22:00-23:59 still has the three members, midnight onwards is empty
+        assertEquals(3, minutes[0]);
+        assertEquals(3, minutes[119]);
+        assertEquals(0, minutes[120]);
+        assertEquals(0, minutes[minutes.length - 1]);
+
+        LocalDate day = LocalDate.of(2024, 11, 20);
+        assertEquals(22, history.peakHourOfDay(day, day.plusDays(1), ZoneOffset.UTC, nextMorning));
+        // Tomorrow at 01:00, the same hour today was empty
+        assertEquals(0, history.typicalOccupancy(nextMorning + Duration.ofHours(23).toMillis(), 7), 1e-9);
+    }
+
+    @Test
+    public void aGapLongerThanADayStartsFromZero() {
+        OccupancyHistory history = new OccupancyHistory(ZoneOffset.UTC);
+        history.record(millis("2024-11-20T10:00:00Z"), 7);
+        long later = millis("2024-11-23T10:00:00Z");
+        int[] minutes = history.lastMinutes(later, OccupancyHistory.MINUTES);
+        for (int value : minutes) {
+            assertEquals(0, value);
+        }
+        history.record(later + MINUTE, 2);
+        assertEquals(2, history.lastMinutes(later + MINUTE, 1)[0]);
+    }
+
+    @Test
+    public void typicalOccupancyAveragesTheSameHourOnEarlierDays() {
+        OccupancyHistory history = new OccupancyHistory(ZoneOffset.UTC);
+        long monday = millis("2024-11-18T18:00:00Z");
+        long tuesday = millis("2024-11-19T18:00:00Z");
+        history.record(monday, 10);
+        history.record(monday + 60 * MINUTE, 0);
+        history.record(tuesday, 20);
+        history.record(tuesday + 60 * MINUTE, 0);
+
+        long wednesday = millis("2024-11-20T18:30:00Z");
+        assertEquals(15, history.typicalOccupancy(wednesday, 7), 1e-9);
+        assertEquals(18, history.peakHourOfDay(LocalDate.of(2024, 11, 18), LocalDate.of(2024, 11, 19),
+            ZoneOffset.UTC, wednesday));
+    }
+
+    @Test
+    public void replaySkipsEventsOlderThanTheHistoryKeeps() throws Exception {
+        Instant now = Instant.parse("2024-11-20T12:00:00Z");
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        try (CheckInJournal journal = new CheckInJournal(folder.getRoot().toPath().resolve("checkins.journal"), 1)) {
+            // A year-old visit, one from last week and one member still inside today
+            journal.append(event("M001", CheckInAction.CHECK_IN, now.minus(Duration.ofDays(365))));
+            journal.append(event("M001", CheckInAction.CHECK_OUT, now.minus(Duration.ofDays(365)).plusSeconds(3600)));
+            journal.append(event("M002", CheckInAction.CHECK_IN, now.minus(Duration.ofDays(7))));
+            journal.append(event("M003", CheckInAction.CHECK_IN, now.minus(Duration.ofHours(2))));
+
+            OccupancyService occupancy = new OccupancyService(150);
+            OccupancyHistory history = new OccupancyHistory(ZoneOffset.UTC);
+            CheckInService service = new CheckInService(new EligibilityCache(), occupancy, history, journal, clock);
+
+            assertEquals(2, service.replayJournal());
+            assertEquals(1, occupancy.getCurrent());
+            assertTrue(occupancy.isPresent("M003"));
+            List<CheckInEvent> recent = service.getRecentActivity(10);
+            assertEquals(2, recent.size());
+            assertEquals("M003", recent.get(0).getMemberId());
+            // Last week's member never scanned out, and is not carried into the last 24 hours
+            int[] lastDay = history.lastMinutes(now.toEpochMilli(), OccupancyHistory.MINUTES);
+            assertEquals(0, lastDay[0]);
+            assertEquals(0, lastDay[lastDay.length - 122]);
+            assertEquals(1, lastDay[lastDay.length - 121]);
+        }
+    }
+
+    private static CheckInEvent event(String memberId, CheckInAction action, Instant at) {
+        return new CheckInEvent(memberId, action, at.toEpochMilli(), "Front Desk");
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
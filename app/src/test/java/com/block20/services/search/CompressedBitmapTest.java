@@ -0,0 +1,78 @@
+/*
+ * Block20 Gym Management System
+ * Compressed bitmap tests
+ */
+package com.block20.services.search;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedBitmapTest {
+
+    private static final int RANGE = 300_000;
+
+    @Test
+    public void andOrMatchBitSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(42);
+        // 1 in 40 stays in array chunks, 1 in 2 turns them into bitmap chunks
+        BitSet sparse = randomBits(random, 40);
+        BitSet dense = randomBits(random, 2);
+
+        CompressedBitmap a = from(sparse);
+        CompressedBitmap b = from(dense);
+
+        BitSet and = (BitSet) sparse.clone();
+        and.and(dense);
+        BitSet or = (BitSet) sparse.clone();
+        or.or(dense);
+
+        assertSame(and, CompressedBitmap.and(a, b));
+        assertSame(and, CompressedBitmap.and(b, a));
+        assertSame(or, CompressedBitmap.or(a, b));
+        assertSame(dense, CompressedBitmap.and(b, b));
+    }
+
+    @Test
+    public void removingShrinksDenseChunkBackToArray() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            bitmap.remove(i);
+        }
+        assertEquals(5_000, bitmap.cardinality());
+        assertFalse(bitmap.contains(4));
+        assertTrue(bitmap.contains(5));
+
+        for (int i = 1; i < 10_000; i += 2) {
+            bitmap.remove(i);
+        }
+        assertTrue(bitmap.isEmpty());
+    }
+
+    private static BitSet randomBits(Random random, int oneIn) {
+        BitSet bits = new BitSet(RANGE);
+        for (int i = 0; i < RANGE; i++) {
+            if (random.nextInt(oneIn) == 0) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static CompressedBitmap from(BitSet bits) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bits.stream().forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static void assertSame(BitSet expected, CompressedBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Block20 Gym Management System
+ * Fuzzy name index tests
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FuzzyNameIndexTest {
+
+    @Test
+    public void misspelledNameRanksClosestFirst() {
+        FuzzyNameIndex index = new FuzzyNameIndex();
+        index.put(member("M001", "John Smith"));
+        index.put(member("M002", "Joan Smythe"));
+        index.put(member("M003", "Jon Snow"));
+        index.put(member("M004", "Sarah Johnson"));
+
+        List<String> results = index.search("Jon Smyth", 10);
+
+        // Both are one sound-alike edit away per word; Snow and Johnson are too far
+        assertEquals(2, results.size());
+        assertTrue(results.contains("M001"));
+        assertTrue(results.contains("M002"));
+
+        // An exact surname beats a close one
+        assertEquals("M001", index.search("Jon Smith", 10).get(0));
+    }
+
+    @Test
+    public void transpositionsAndDeletedMembers() {
+        FuzzyNameIndex index = new FuzzyNameIndex();
+        index.put(member("M001", "Michael Brown"));
+        index.put(member("M002", "Michelle Brown"));
+
+        assertEquals("M001", index.search("micheal borwn", 10).get(0));
+
+        index.remove("M001");
+        assertFalse(index.search("micheal borwn", 10).contains("M001"));
+        assertEquals(2, FuzzyNameIndex.distance("micheal", "michael", 2) + 1);
+        assertEquals(3, FuzzyNameIndex.distance("abcdef", "xyz", 2));
+    }
+
+    @Test
+    public void soundexMatchesStandardCodes() {
+        assertEquals("R163", FuzzyNameIndex.soundex("robert"));
+        assertEquals("R163", FuzzyNameIndex.soundex("rupert"));
+        assertEquals("A261", FuzzyNameIndex.soundex("ashcraft"));
+        assertEquals("T522", FuzzyNameIndex.soundex("tymczak"));
+        assertEquals("P236", FuzzyNameIndex.soundex("pfister"));
+    }
+
+    private static Member member(String id, String name) {
+        return new Member(id, name, id.toLowerCase() + "@example.com", "555-0100", "Basic", "Active",
+            "2024-01-01", "2025-01-01", "2024-01-01", "$29.99", "", "");
+    }
+}
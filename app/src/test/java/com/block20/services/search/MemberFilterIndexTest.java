@@ -0,0 +1,123 @@
+/*
+ * Block20 Gym Management System
+ * Member filter index tests
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.services.members.MemberDirectory;
+import org.junit.Test;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MemberFilterIndexTest {
+
+    @Test
+    public void filtersAreAndedAndValuesWithinAFilterAreOred() {
+        MemberFilterIndex index = new MemberFilterIndex();
+        index.put(member("M001", "Basic", "Active", "2025-01-15"));
+        index.put(member("M002", "Premium", "Active", "2025-02-10"));
+        index.put(member("M003", "Premium", "Expired", "2024-12-31"));
+        index.put(member("M004", "Elite", "Active", "2025-03-01"));
+
+        assertEquals(Arrays.asList("M001", "M002", "M003", "M004"), ids(index.members(none(), none(), null, null)));
+        assertEquals(Arrays.asList("M002"), ids(index.members(List.of("Active"), List.of("Premium"), null, null)));
+        assertEquals(Arrays.asList("M002", "M003", "M004"),
+            ids(index.members(none(), List.of("Premium", "Elite"), null, null)));
+        assertEquals(Arrays.asList("M001", "M002"),
+            ids(index.members(none(), none(), YearMonth.of(2025, 1), YearMonth.of(2025, 2))));
+        assertEquals(Arrays.asList("M003"), ids(index.members(none(), none(), null, YearMonth.of(2024, 12))));
+        assertTrue(index.members(List.of("Suspended"), none(), null, null).isEmpty());
+    }
+
+    @Test
+    public void retainKeepsTheOrderOfTheGivenIds() {
+        MemberFilterIndex index = new MemberFilterIndex();
+        index.put(member("M001", "Basic", "Active", "2025-01-15"));
+        index.put(member("M002", "Premium", "Active", "2025-02-10"));
+        index.put(member("M003", "Premium", "Expired", "2024-12-31"));
+
+        List<String> ranked = Arrays.asList("M003", "M009", "M002", "M001");
+        assertEquals(Arrays.asList("M003", "M002", "M001"), ids(index.retain(ranked, none(), none(), null, null)));
+        assertEquals(Arrays.asList("M003", "M002"), ids(index.retain(ranked, none(), List.of("Premium"), null, null)));
+    }
+
+    @Test
+    public void followsDirectoryChangesAndKeepsEnrollmentOrder() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member("M001", "Basic", "Active", "2025-01-15"));
+        directory.enroll(member("M002", "Basic", "Active", "2025-02-10"));
+        MemberFilterIndex index = new MemberFilterIndex();
+        index.attach(directory);
+        directory.enroll(member("M003", "Basic", "Active", "2025-03-01"));
+
+        // An edited member moves between bitmaps but keeps its place
+        directory.update(member("M001", "Premium", "Frozen", "2025-06-01"));
+        assertEquals(Arrays.asList("M002", "M003"), ids(index.members(List.of("Active"), none(), null, null)));
+        assertEquals(Arrays.asList("M001"), ids(index.members(List.of("Frozen"), List.of("Premium"), null, null)));
+        assertEquals(Arrays.asList("M001", "M002", "M003"), ids(index.members(none(), none(), null, null)));
+
+        directory.delete("M002");
+        assertEquals(Arrays.asList("M001", "M003"), ids(index.members(none(), none(), null, null)));
+        assertTrue(index.members(none(), none(), YearMonth.of(2025, 2), YearMonth.of(2025, 2)).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void compactionRenumbersLiveMembersInOrder() {
+        MemberFilterIndex index = new MemberFilterIndex();
+        assertFalse(index.compact());
+        for (int i = 0; i < 3000; i++) {
+            index.put(member(String.format("M%04d", i), i % 2 == 0 ? "Basic" : "Premium", "Active", "2025-01-01"));
+        }
+        for (int i = 0; i < 3000; i++) {
+            if (i % 3 != 0) {
+                index.remove(String.format("M%04d", i));
+            }
+        }
+        assertEquals(3000, index.ordinalCount());
+
+        assertTrue(index.compact());
+        assertEquals(1000, index.ordinalCount());
+        assertEquals(1000, index.size());
+        List<String> premium = ids(index.members(none(), List.of("Premium"), null, null));
+        assertEquals(500, premium.size());
+        assertEquals("M0003", premium.get(0));
+        assertEquals("M2997", premium.get(premium.size() - 1));
+        assertEquals(Arrays.asList("M2997", "M0003"),
+            ids(index.retain(Arrays.asList("M2997", "M0004", "M0003"), none(), List.of("Premium"), null, null)));
+
+        // New members go after the survivors and edits keep their new ordinal
+        index.put(member("M9999", "Basic", "Active", "2025-01-01"));
+        index.put(member("M0000", "Premium", "Active", "2025-01-01"));
+        List<String> all = ids(index.members(none(), none(), null, null));
+        assertEquals("M0000", all.get(0));
+        assertEquals("M9999", all.get(all.size() - 1));
+        assertEquals("M0000", ids(index.members(none(), List.of("Premium"), null, null)).get(0));
+        // Nothing left to reclaim
+        assertFalse(index.compact());
+    }
+
+    private static List<String> none() {
+        return Collections.emptyList();
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> ids = new ArrayList<>();
+        for (Member member : members) {
+            ids.add(member.getMemberId());
+        }
+        return ids;
+    }
+
+    private static Member member(String id, String plan, String status, String expiry) {
+        return new Member(id, "Member " + id, id.toLowerCase() + "@email.com", "555-0100", plan, status,
+            "2024-01-01", expiry, "2024-01-01", "$29.99", "", "");
+    }
+}
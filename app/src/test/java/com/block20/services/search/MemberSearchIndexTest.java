@@ -0,0 +1,115 @@
+/*
+ * Block20 Gym Management System
+ * Member search index tests
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.services.members.MemberDirectory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class MemberSearchIndexTest {
+
+    @Test
+    public void ranksExactIdAndWholeWordsAbovePrefixesAndSubstrings() {
+        MemberSearchIndex index = new MemberSearchIndex();
+        index.put(member("M001", "John Smith", "john.smith@email.com", "555-0101"));
+        index.put(member("M002", "Johnny Walker", "jwalker@email.com", "555-0102"));
+        index.put(member("M003", "Sarah Johnson", "sarah.j@email.com", "555-0103"));
+
+        assertEquals("M002", index.search("m002", 10).get(0));
+        // A whole word beats a prefix; the shorter word the prefix covers comes next
+        assertEquals(Arrays.asList("M001", "M002", "M003"), index.search("john", 10));
+        assertEquals(Arrays.asList("M001"), index.search("john smi", 10));
+        assertEquals(Arrays.asList("M003"), index.search("ohnso", 10));
+        assertEquals(Arrays.asList("M001", "M002"), index.search("john", 2));
+        assertTrue(index.search("nobody", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void findsPhoneAndEmailIgnoringFormatting() {
+        MemberSearchIndex index = new MemberSearchIndex();
+        index.put(member("M001", "John Smith", "John.Smith@Email.com", "(555) 0101"));
+        index.put(member("M002", "Emma Davis", "emma@email.com", "555-0199"));
+
+        assertEquals(Arrays.asList("M001"), index.search("555-0101", 10));
+        assertEquals(Arrays.asList("M002"), index.search("0199", 10));
+        assertEquals(Optional.of("M001"), index.findByEmail(" john.smith@email.com "));
+        assertEquals(Optional.of("M001"), index.findByPhone("555.0101"));
+        assertFalse(index.findByPhone("555-0100").isPresent());
+        // A name word that happens to equal an email is not an email match
+        assertFalse(index.findByEmail("john").isPresent());
+    }
+
+    @Test
+    public void followsDirectoryChanges() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member("M001", "John Smith", "john@email.com", "555-0101"));
+        MemberSearchIndex index = new MemberSearchIndex();
+        index.attach(directory);
+
+        directory.enroll(member("M002", "Emma Davis", "emma@email.com", "555-0102"));
+        assertEquals(Arrays.asList("M002"), index.search("emma", 10));
+
+        directory.update(member("M002", "Emma Brown", "emma@email.com", "555-0102"));
+        assertTrue(index.search("davis", 10).isEmpty());
+        assertEquals(Arrays.asList("M002"), index.search("brown", 10));
+
+        directory.delete("M001");
+        assertTrue(index.search("john", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void compactionKeepsLiveMembersSearchable() {
+        MemberSearchIndex index = new MemberSearchIndex();
+        assertFalse(index.compact());
+        for (int i = 0; i < 3000; i++) {
+            index.put(member(String.format("M%04d", i), "Member " + i, "m" + i + "@email.com", "555-" + i));
+        }
+        for (int i = 0; i < 3000; i++) {
+            if (i % 3 != 0) {
+                index.remove(String.format("M%04d", i));
+            }
+        }
+
+        assertTrue(index.compact());
+        assertEquals(1000, index.size());
+        assertEquals(Arrays.asList("M0999"), index.search("m0999", 10));
+        assertTrue(index.search("m0998", 10).isEmpty());
+        assertEquals(Optional.of("M2997"), index.findByEmail("m2997@email.com"));
+        // Nothing left to reclaim
+        assertFalse(index.compact());
+    }
+
+    @Test
+    public void anInterruptedSearchGivesUp() {
+        MemberSearchIndex index = new MemberSearchIndex();
+        for (int i = 0; i < 10_000; i++) {
+            index.put(member(String.format("M%05d", i), "Alex Member", "alex" + i + "@email.com", "555-0100"));
+        }
+        Thread.currentThread().interrupt();
+        try {
+            List<String> results = index.search("alex", 0);
+            fail("Expected the search to be cancelled, got " + results.size() + " results");
+        } catch (CancellationException expected) {
+            // A superseded search stops early
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(10_000, index.search("alex", 0).size());
+    }
+
+    private static Member member(String id, String name, String email, String phone) {
+        return new Member(id, name, email, phone, "Basic", "Active",
+            "2024-01-01", "2025-01-01", "2024-01-01", "$29.99", "", "");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Block20 Gym Management System
+ * Member sort index tests
+ */
+package com.block20.services.search;
+
+import com.block20.models.Member;
+import com.block20.repositories.MemberSortField;
+import com.block20.services.members.MemberDirectory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MemberSortIndexTest {
+
+    @Test
+    public void namesFollowTheCollatorAndDatesSortAsDates() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.enroll(member("M001", "bob Stone", "Basic", "2025-10-01"));
+        directory.enroll(member("M002", "Émile Zola", "Basic", "2025-02-01"));
+        directory.enroll(member("M003", "Adam Ant", "Elite", "2025-09-30"));
+        directory.enroll(member("M004", "Emile Abbot", "Basic", "Never"));
+        MemberSortIndex index = new MemberSortIndex(Locale.ENGLISH);
+        index.attach(directory);
+
+        assertEquals(Arrays.asList("M003", "M001", "M004", "M002"),
+            ids(index.sort(order(new SortColumn(MemberSortField.NAME, true)))));
+        // Text that is not a date sorts after every date
+        assertEquals(Arrays.asList("M002", "M003", "M001", "M004"),
+            ids(index.sort(order(new SortColumn(MemberSortField.EXPIRY_DATE, true)))));
+        // Plan first, then latest expiry, then member ID
+        assertEquals(Arrays.asList("M004", "M001", "M002", "M003"),
+            ids(index.sort(order(new SortColumn(MemberSortField.PLAN, true),
+                new SortColumn(MemberSortField.EXPIRY_DATE, false)))));
+    }
+
+    @Test
+    public void selectionsAndPagingAgreeWithTheFullOrderAfterChanges() {
+        MemberDirectory directory = new MemberDirectory();
+        for (int i = 0; i < 3000; i++) {
+            directory.enroll(member(String.format("M%04d", i), "Member " + (i % 97), "Basic", "2025-01-01"));
+        }
+        MemberSortIndex index = new MemberSortIndex(Locale.ENGLISH);
+        index.attach(directory);
+        List<SortColumn> byName = order(new SortColumn(MemberSortField.NAME, false));
+        MemberSortIndex.SortedMembers before = index.sort(byName);
+
+        directory.update(member("M0005", "Aaron First", "Basic", "2025-01-01"));
+        for (int i = 0; i < 3000; i += 3) {
+            directory.delete(String.format("M%04d", i));
+        }
+        MemberSortIndex.SortedMembers full = index.sort(byName);
+
+        assertEquals(3000, before.size());
+        assertEquals(2000, full.size());
+        assertEquals("M0005", full.get(full.size() - 1).getMemberId());
+        for (int i = 1; i < full.size(); i++) {
+            Member previous = full.get(i - 1);
+            assertEquals(i, full.upperBound(previous));
+            assertEquals(i - 1, full.lowerBound(previous));
+        }
+
+        // Large selections come out of the cached order, small ones are sorted directly
+        for (int step : new int[]{2, 50}) {
+            List<Member> selection = new ArrayList<>();
+            for (int i = 0; i < directory.size(); i += step) {
+                selection.add(directory.getAll().get(i));
+            }
+            Collections.shuffle(selection, new Random(step));
+            List<String> expected = new ArrayList<>();
+            for (Member member : full) {
+                if (ids(selection).contains(member.getMemberId())) {
+                    expected.add(member.getMemberId());
+                }
+            }
+            assertEquals(expected, ids(index.sort(byName, selection)));
+        }
+    }
+
+    @Test
+    public void parallelMergeSortIsStable() {
+        Random random = new Random(42);
+        int[] keys = new int[IntMergeSort.PARALLEL_THRESHOLD * 8 + 17];
+        int[] values = new int[keys.length];
+        long[] prefixes = new long[keys.length];
+        Integer[] expected = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(100);
+            values[i] = i;
+            // Coarser than the keys, so the tie comparator is needed too
+            prefixes[i] = keys[i] / 10;
+            expected[i] = i;
+        }
+        Arrays.sort(expected, Comparator.comparingInt(i -> keys[i]));
+
+        IntMergeSort.sort(values, prefixes, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(expected[i].intValue(), values[i]);
+        }
+    }
+
+    private static List<SortColumn> order(SortColumn... columns) {
+        return Arrays.asList(columns);
+    }
+
+    private static List<String> ids(List<Member> members) {
+        List<String> result = new ArrayList<>();
+        for (Member member : members) {
+            result.add(member.getMemberId());
+        }
+        return result;
+    }
+
+    private static Member member(String id, String name, String plan, String expiry) {
+        return new Member(id, name, id.toLowerCase() + "@example.com", "555-0100", plan, "Active",
+            "2024-01-01", expiry, "2024-01-01", "29.99", "", "");
+    }
+}
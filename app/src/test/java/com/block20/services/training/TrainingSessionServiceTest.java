@@ -0,0 +1,76 @@
+/*
+ * Block20 Gym Management System
+ * Training session service tests
+ */
+package com.block20.services.training;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.ConnectionPool;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.TrainingSessionRepositoryImpl;
+import com.block20.services.async.AsyncExecutor;
+import com.block20.services.cache.CacheStats;
+import com.block20.services.cache.CachedTrainingSessionRepository;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TrainingSessionServiceTest {
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    @Test
+    public void repeatedScheduleReadsAreAnsweredFromTheCache() throws Exception {
+        LocalDateTime from = LocalDate.of(2024, 11, 20).atStartOfDay();
+        LocalDateTime to = from.plusDays(7);
+        try (ConnectionPool pool = new ConnectionPool(database, 2);
+             AsyncExecutor executor = new AsyncExecutor(Runnable::run, Duration.ofSeconds(5))) {
+            CachedTrainingSessionRepository sessions = new CachedTrainingSessionRepository(
+                new TrainingSessionRepositoryImpl(pool), 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+            TrainingSessionService service = new TrainingSessionService(sessions, executor, null);
+
+            assertTrue(service.schedule(new TrainingSession("S1", "M001", "Alex", "Strength", from.plusHours(9), 60,
+                "Scheduled")).get(5, TimeUnit.SECONDS));
+            assertEquals(1, service.loadSchedule(from, to).get(5, TimeUnit.SECONDS).orElseThrow().size());
+            // Coming back to the screen reads the same range again
+            assertEquals(1, service.loadSchedule(from, to).get(5, TimeUnit.SECONDS).orElseThrow().size());
+            assertEquals(1, schedules(sessions).getHits());
+
+            // A booking drops the cached schedules it could change
+            service.schedule(new TrainingSession("S2", "M002", "Alex", "Cardio", from.plusHours(10), 45,
+                "Scheduled")).get(5, TimeUnit.SECONDS);
+            List<TrainingSession> schedule = service.loadSchedule(from, to).get(5, TimeUnit.SECONDS).orElseThrow();
+            assertEquals(2, schedule.size());
+            assertEquals("S2", schedule.get(1).getSessionId());
+        }
+    }
+
+    @Test
+    public void withoutStorageNothingIsReadOrSaved() throws Exception {
+        try (AsyncExecutor executor = new AsyncExecutor(Runnable::run, Duration.ofSeconds(5))) {
+            TrainingSessionService service = new TrainingSessionService(null, executor, null);
+            LocalDateTime now = LocalDateTime.of(2024, 11, 20, 9, 0);
+            assertEquals(Optional.empty(), service.loadSchedule(now, now.plusDays(1)).get(5, TimeUnit.SECONDS));
+            assertFalse(service.schedule(new TrainingSession("S1", "M001", "Alex", "Strength", now, 60,
+                "Scheduled")).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static CacheStats schedules(CachedTrainingSessionRepository sessions) {
+        for (CacheStats stats : sessions.getStats()) {
+            if (stats.getName().equals("session schedules")) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No schedule cache");
+    }
+}
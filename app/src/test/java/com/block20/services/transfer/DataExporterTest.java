@@ -0,0 +1,144 @@
+/*
+ * Block20 Gym Management System
+ * Export engine tests
+ */
+package com.block20.services.transfer;
+
+import com.block20.models.Member;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.*;
+
+public class DataExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    @Test
+    public void csvStreamsQueryRowsAndQuotesAwkwardValues() throws Exception {
+        MemberRepositoryImpl repository = new MemberRepositoryImpl(database);
+        repository.createTables();
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            members.add(new Member(String.format("M%04d", i), i == 7 ? "Smith, \"Jo\"" : "Member " + i,
+                "m" + i + "@example.com", "555-0100", "Basic", "Active", "2024-01-01", "2025-01-01",
+                "2024-01-01", "29.99", "", ""));
+        }
+        repository.insertMembers(members);
+
+        JdbcExportSource source = new JdbcExportSource(database,
+            Arrays.asList("ID", "Name"), "SELECT COUNT(*) FROM members WHERE member_id >= ?",
+            "SELECT member_id, name FROM members WHERE member_id >= ? ORDER BY member_id", "M0005");
+        Path target = folder.getRoot().toPath().resolve("members.csv");
+        List<Long> progress = new ArrayList<>();
+
+        long rows = new DataExporter().export(source, DataExporter.Format.CSV, target, "Members", progress::add);
+
+        assertEquals(2995, rows);
+        assertEquals(2995, source.estimateRows());
+        assertEquals(Long.valueOf(2995), progress.get(progress.size() - 1));
+        try (CsvReader reader = new CsvReader(Files.newInputStream(target))) {
+            assertEquals(Arrays.asList("ID", "Name"), reader.next());
+            assertEquals(Arrays.asList("M0005", "Member 5"), reader.next());
+            reader.next();
+            assertEquals(Arrays.asList("M0007", "Smith, \"Jo\""), reader.next());
+        }
+        assertFalse(Files.exists(target.resolveSibling("members.csv.part")));
+    }
+
+    @Test
+    public void xlsxRollsOverToNewSheetsAndEscapesText() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XlsxWriter writer = new XlsxWriter(bytes, "Check-ins", 3)) {
+            writer.writeHeader(Arrays.asList("Name", "Visits"));
+            for (int i = 0; i < 5; i++) {
+                writer.writeRow(new Object[]{"A & B <" + i + ">", i});
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        String sheet1 = null;
+        String workbook = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                String content = read(zip);
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    sheet1 = content;
+                } else if (entry.getName().equals("xl/workbook.xml")) {
+                    workbook = content;
+                }
+            }
+        }
+
+        assertTrue(names.containsAll(Arrays.asList("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+            "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml", "xl/worksheets/sheet3.xml")));
+        assertFalse(names.contains("xl/worksheets/sheet4.xml"));
+        assertTrue(workbook.contains("<sheet name=\"Check-ins (3)\" sheetId=\"3\" r:id=\"rId3\"/>"));
+        assertTrue(sheet1.contains("<c r=\"A2\" t=\"inlineStr\"><is><t>A &amp; B &lt;0&gt;</t></is></c>"));
+        assertTrue(sheet1.contains("<c r=\"B3\"><v>1</v></c>"));
+        assertFalse(sheet1.contains("<row r=\"4\">"));
+        assertEquals("AA", XlsxWriter.columnName(26));
+    }
+
+    @Test
+    public void cancelledExportLeavesNoFile() throws Exception {
+        ExportSource endless = new ExportSource() {
+            @Override
+            public long estimateRows() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(RowWriter writer) throws IOException {
+                writer.writeHeader(Arrays.asList("n"));
+                for (long i = 0; ; i++) {
+                    writer.writeRow(new Object[]{i});
+                }
+            }
+        };
+        Path target = folder.getRoot().toPath().resolve("endless.xlsx");
+
+        Thread.currentThread().interrupt();
+        try {
+            new DataExporter().export(endless, DataExporter.Format.XLSX, target, "Rows", rows -> { });
+            fail("Expected the export to be cancelled");
+        } catch (CancellationException expected) {
+            assertTrue(Thread.interrupted());
+        }
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(target.resolveSibling("endless.xlsx.part")));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
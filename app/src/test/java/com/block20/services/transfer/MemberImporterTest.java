@@ -0,0 +1,171 @@
+/*
+ * Block20 Gym Management System
+ * Member importer tests
+ */
+package com.block20.services.transfer;
+
+import com.block20.models.Member;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.MemberRepositoryImpl;
+import com.block20.services.members.MemberDirectory;
+import com.block20.services.search.MemberSearchIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MemberImporterTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-01T10:00:00Z"), ZoneOffset.UTC);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    private final MemberDirectory directory = new MemberDirectory();
+    private final MemberSearchIndex searchIndex = new MemberSearchIndex();
+
+    @Test
+    public void validRowsAreEnrolledAndBadOnesRejectedWithReasons() throws Exception {
+        searchIndex.attach(directory);
+        directory.enroll(new Member("M001", "John Smith", "john.smith@email.com", "555-0101", "Premium",
+            "Active", "2024-01-15", "2025-01-15", "2024-11-05", "85.00", "", ""));
+
+        Path csv = write("Full Name,E-mail,Phone,Plan,Monthly Fee,Address\n"
+            + "Ana Lima,ana@example.com,555-0200,premium,,\"12 High St, Town\"\n"
+            + "Dup Email,JOHN.SMITH@email.com,555-0201,Basic,,\n"
+            + "Dup Phone,dup@example.com,(555) 0101,Basic,,\n"
+            + "No Plan,np@example.com,555-0202,Gold,,\n"
+            + "Bad Email,not-an-email,555-0203,Basic,,\n"
+            + "Ana Twin,ana@example.com,555-0204,Basic,,\n"
+            + "\"Quoted \"\"Q\"\" Name\",q@example.com,555-0205,Elite,\"$1,200\",\n");
+
+        ImportProgress result = importer(null).importFile(csv, p -> { });
+
+        assertEquals(7, result.getRecordsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals(3, directory.size());
+
+        Member ana = directory.findById(searchIndex.findByEmail("ana@example.com").get()).get();
+        assertEquals("Premium", ana.getPlanType());
+        assertEquals("49.99", ana.getMonthlyFee());
+        assertEquals("12 High St, Town", ana.getAddress());
+        assertEquals("2025-03-01", ana.getJoinDate());
+        assertEquals("2026-03-01", ana.getExpiryDate());
+        Member quoted = directory.findById(searchIndex.findByEmail("q@example.com").get()).get();
+        assertEquals("Quoted \"Q\" Name", quoted.getName());
+        assertEquals("1200.00", quoted.getMonthlyFee());
+
+        List<String> rejects = Files.readAllLines(MemberImporter.rejectFileFor(csv));
+        assertEquals(6, rejects.size());
+        assertTrue(rejects.get(1).startsWith("3,Email already used by M001,"));
+        assertTrue(rejects.get(2).startsWith("4,Phone already used by M001,"));
+        assertTrue(rejects.get(3).startsWith("5,Unknown plan: Gold,"));
+        assertTrue(rejects.get(4).startsWith("6,Invalid email,"));
+        assertTrue(rejects.get(5).startsWith("7,Email already used by "));
+    }
+
+    @Test
+    public void interruptedImportResumesFromCheckpointIntoDatabase() throws Exception {
+        searchIndex.attach(directory);
+        MemberRepositoryImpl repository = new MemberRepositoryImpl(database);
+        int rows = MemberImporter.CHUNK_SIZE * 2 + 500;
+        StringBuilder csv = new StringBuilder("id,name,email,phone,plan\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(String.format("X%05d,Member %d,m%d@example.com,555-%07d,Basic\r\n", i, i, i, i));
+        }
+        Path file = write(csv.toString());
+
+        try {
+            importer(repository).importFile(file, p -> {
+                throw new IllegalStateException("Power cut");
+            });
+            fail("Expected the import to stop");
+        } catch (IllegalStateException expected) {
+            // First chunk committed and checkpointed before the listener ran
+        }
+        assertEquals(MemberImporter.CHUNK_SIZE, directory.size());
+
+        ImportProgress result = importer(repository).importFile(file, p -> { });
+
+        assertTrue(result.isResumed());
+        assertEquals(rows, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(rows, directory.size());
+        assertEquals(rows, repository.countMembers());
+        assertEquals(file.toFile().length(), result.getBytesRead());
+        assertFalse(Files.exists(MemberImporter.checkpointFileFor(file)));
+    }
+
+    @Test
+    public void rowsAlreadyStoredAreSkippedAndTakenIdsAvoided() throws Exception {
+        searchIndex.attach(directory);
+        MemberRepositoryImpl repository = new MemberRepositoryImpl(database);
+        repository.createTables();
+        // Another desk stored M0001, which this directory has never seen
+        repository.insertMembers(List.of(new Member("M0001", "Other Desk", "other@example.com", "555-0300",
+            "Basic", "Active", "2024-01-15", "2025-01-15", "2024-01-15", "29.99", "", "")));
+        Path file = write("id,name,email,phone,plan\n"
+            + "X001,Ana Lima,ana@example.com,555-0200,Basic\n"
+            + ",Bo Chen,bo@example.com,555-0201,Premium\n");
+
+        ImportProgress first = importer(repository).importFile(file, p -> { });
+        assertEquals(2, first.getImported());
+        assertEquals("Bo Chen", directory.findById("M0002").get().getName());
+
+        // The same file again, as after a crash before the checkpoint was written
+        ImportProgress second = importer(repository).importFile(file, p -> { });
+        assertEquals(0, second.getImported());
+        assertEquals(2, second.getSkipped());
+        assertEquals(0, second.getRejected());
+        assertEquals(3, repository.countMembers());
+
+        // A desk whose directory lost the imported rows finds them in the database
+        MemberDirectory restarted = new MemberDirectory();
+        MemberSearchIndex restartedIndex = new MemberSearchIndex();
+        restartedIndex.attach(restarted);
+        Path other = folder.newFile("more.csv").toPath();
+        Files.write(other, ("id,name,email,phone,plan\n"
+            + "X001,Ana Lima,ana@example.com,555-0200,Basic\n"
+            + "M0001,Someone Else,else@example.com,555-0400,Basic\n"
+            + "X003,Cy Park,cy@example.com,555-0202,Elite\n").getBytes(StandardCharsets.UTF_8));
+        ImportProgress third = new MemberImporter(restarted, restartedIndex, repository, 3, CLOCK)
+            .importFile(other, p -> { });
+        assertEquals(1, third.getImported());
+        assertEquals(1, third.getSkipped());
+        assertEquals(1, third.getRejected());
+        assertTrue(restarted.findById("X001").isPresent());
+        assertEquals("Other Desk", repository.findById("M0001").get().getName());
+        assertTrue(Files.readAllLines(MemberImporter.rejectFileFor(other)).get(1)
+            .startsWith("3,Member ID already exists: M0001,"));
+        assertEquals(4, repository.countMembers());
+
+        // Sending a stored row again leaves it as it was
+        repository.insertMembers(List.of(new Member("X003", "Changed", "cy@example.com", "555-0202",
+            "Elite", "Active", "2024-01-15", "2025-01-15", "2024-01-15", "79.99", "", "")));
+        assertEquals("Cy Park", repository.findById("X003").get().getName());
+    }
+
+    private MemberImporter importer(MemberRepositoryImpl repository) {
+        return new MemberImporter(directory, searchIndex, repository, 3, CLOCK);
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = folder.newFile("members.csv").toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Block20 Gym Management System
+ * Write-behind buffer tests
+ */
+package com.block20.services.writebehind;
+
+import com.block20.models.TrainingSession;
+import com.block20.repositories.ConnectionPool;
+import com.block20.repositories.H2Database;
+import com.block20.repositories.impl.TrainingSessionRepositoryImpl;
+import com.block20.services.async.AsyncExecutor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindBufferTest {
+
+    private static final RecordCodec<String> STRINGS = new RecordCodec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public H2Database database = new H2Database();
+
+    @Test
+    public void writesAreSentInBatchesOfAtMostBatchSize() throws Exception {
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        Path journal = folder.getRoot().toPath().resolve("test.journal");
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS,
+                batch -> batches.add(new ArrayList<>(batch)), 3, Duration.ofHours(1), 100)) {
+            for (int i = 1; i <= 7; i++) {
+                buffer.submit("w" + i);
+            }
+            assertEquals(7, buffer.getPendingCount());
+            assertEquals(7, buffer.flush());
+            assertEquals(Arrays.asList(Arrays.asList("w1", "w2", "w3"), Arrays.asList("w4", "w5", "w6"),
+                Collections.singletonList("w7")), batches);
+            assertEquals(0, buffer.getPendingCount());
+            assertEquals(3, buffer.getBatchCount());
+        }
+    }
+
+    @Test
+    public void aFullBatchIsFlushedWithoutWaitingForTheDelay() throws Exception {
+        List<String> stored = Collections.synchronizedList(new ArrayList<>());
+        Path journal = folder.getRoot().toPath().resolve("test.journal");
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS,
+                stored::addAll, 5, Duration.ofHours(1), 100)) {
+            buffer.start();
+            for (int i = 0; i < 5; i++) {
+                buffer.submit("w" + i);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (buffer.getFlushedCount() < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(5, stored.size());
+        }
+    }
+
+    @Test
+    public void writesTheDatabaseNeverStoredAreReplayedAfterRestart() throws Exception {
+        Path journal = folder.getRoot().toPath().resolve("test.journal");
+        List<String> stored = new ArrayList<>();
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS,
+                stored::addAll, 10, Duration.ofHours(1), 100)) {
+            buffer.submit("stored");
+            buffer.flush();
+        }
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS, batch -> {
+                throw new SQLException("Connection refused");
+            }, 10, Duration.ofHours(1), 100)) {
+            buffer.submit("lost-1");
+            buffer.submit("lost-2");
+            try {
+                buffer.flush();
+                fail("Expected the flush to fail");
+            } catch (SQLException expected) {
+                assertFalse(buffer.isConnected());
+            }
+        }
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS,
+                stored::addAll, 10, Duration.ofHours(1), 100)) {
+            assertEquals(2, buffer.getPendingCount());
+            buffer.flush();
+        }
+        assertEquals(Arrays.asList("stored", "lost-1", "lost-2"), stored);
+    }
+
+    @Test
+    public void offerGivesUpWhileTheBufferIsFull() throws Exception {
+        Path journal = folder.getRoot().toPath().resolve("test.journal");
+        try (WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test", journal, STRINGS,
+                batch -> { }, 2, Duration.ofHours(1), 2)) {
+            assertTrue(buffer.offer("w1", Duration.ZERO));
+            assertTrue(buffer.offer("w2", Duration.ZERO));
+            assertFalse(buffer.offer("w3", Duration.ofMillis(50)));
+            buffer.flush();
+            assertTrue(buffer.offer("w3", Duration.ZERO));
+        }
+    }
+
+    @Test
+    public void repeatedStatusChangesReachTheDatabaseAsTheLatestStatus() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(database, 2);
+             AsyncExecutor executor = new AsyncExecutor(Runnable::run, Duration.ofSeconds(5))) {
+            TrainingSessionRepositoryImpl sessions = new TrainingSessionRepositoryImpl(pool);
+            sessions.createTables();
+            LocalDateTime startsAt = LocalDateTime.of(2024, 11, 20, 9, 0);
+            sessions.save(new TrainingSession("S1", "M001", "Alex", "Strength", startsAt, 60, "Scheduled"));
+            sessions.save(new TrainingSession("S2", "M002", "Alex", "Cardio", startsAt, 45, "Scheduled"));
+
+            try (SessionStatusUpdates updates = new SessionStatusUpdates(
+                    folder.getRoot().toPath().resolve("status.journal"), sessions, executor,
+                    Clock.systemUTC(), 50, Duration.ofHours(1), 100)) {
+                updates.change("S1", "Completed").get(5, TimeUnit.SECONDS);
+                updates.change("S2", "Cancelled").get(5, TimeUnit.SECONDS);
+                updates.change("S1", "No Show").get(5, TimeUnit.SECONDS);
+                assertEquals("Scheduled", sessions.findById("S1").orElseThrow().getStatus());
+
+                assertEquals(3, updates.getBuffer().flush());
+                assertEquals(1, updates.getBuffer().getBatchCount());
+            }
+            assertEquals("No Show", sessions.findById("S1").orElseThrow().getStatus());
+            assertEquals("Cancelled", sessions.findById("S2").orElseThrow().getStatus());
+        }
+    }
+}